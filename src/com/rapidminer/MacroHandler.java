@@ -51,6 +51,9 @@ public class MacroHandler extends Observable {
 
     private final Map<String, String> macroMap = new HashMap<String, String>();
 
+    /** Macros which are only visible to the current thread, see {@link #addThreadLocalMacro(String, String)}. */
+    private final ThreadLocal<Map<String, String>> threadLocalMacros = new ThreadLocal<Map<String, String>>();
+
     public MacroHandler(Process process) {
         this.process = process;
     }
@@ -79,6 +82,30 @@ public class MacroHandler extends Observable {
     	}
     }
 
+    /**
+     * Defines a macro which is only visible to the current thread and hides a macro of the same
+     * name defined by {@link #addMacro(String, String)}. Operators executing clones of their
+     * subprocess in parallel use this to provide each clone with its own loop value. A value
+     * of null removes the macro again.
+     */
+    public void addThreadLocalMacro(String macro, String value) {
+    	if (macro != null && !macro.isEmpty()) {
+    		Map<String, String> localMacros = threadLocalMacros.get();
+    		if (value != null) {
+    			if (localMacros == null) {
+    				localMacros = new HashMap<String, String>();
+    				threadLocalMacros.set(localMacros);
+    			}
+    			localMacros.put(macro, value);
+    		} else if (localMacros != null) {
+    			localMacros.remove(macro);
+    			if (localMacros.isEmpty()) {
+    				threadLocalMacros.remove();
+    			}
+    		}
+    	}
+    }
+
     public void removeMacro(String macro) {
     	setChanged();
         this.macroMap.remove(macro);
@@ -105,6 +132,10 @@ public class MacroHandler extends Observable {
                 }
             }
         }
+        Map<String, String> localMacros = threadLocalMacros.get();
+        if ((localMacros != null) && localMacros.containsKey(macro)) {
+        	return localMacros.get(macro);
+        }
         return this.macroMap.get(macro);
     }
 
@@ -217,9 +217,24 @@ public class RapidMiner {
 	/** The name of the property indicating the maximum number of attributes stored for shortened meta data transformation. */
 	public static final String PROPERTY_RAPIDMINER_GENERAL_MAX_META_DATA_ATTRIBUTES = "rapidminer.general.md_attributes_limit";
 
+	/** The name of the property indicating the maximum number of attributes operators may propagate during meta data transformation. */
+	public static final String PROPERTY_RAPIDMINER_GENERAL_MAX_PROPAGATED_META_DATA_ATTRIBUTES = "rapidminer.general.md_propagated_attributes_limit";
+
+	/** The name of the property indicating whether meta data is only transformed again for operators affected by a change. */
+	public static final String PROPERTY_RAPIDMINER_GENERAL_INCREMENTAL_META_DATA = "rapidminer.general.md_incremental_propagation";
+
 	/** The name of the property indicating the maximum number of nominal values to store for meta data transformation. */
 	public static final String PROPERTY_RAPIDMINER_GENERAL_MAX_NOMINAL_VALUES = "rapidminer.general.md_nominal_values_limit";
 
+	/** The name of the property indicating the number of rows a process log keeps in memory before older rows are moved to disk. */
+	public static final String PROPERTY_RAPIDMINER_GENERAL_PROCESS_LOG_ROWS_IN_MEMORY = "rapidminer.general.process_log_rows_in_memory";
+
+	/** The name of the property indicating if example tables may build indices on column values for repeatedly applied filters. */
+	public static final String PROPERTY_RAPIDMINER_GENERAL_VALUE_INDEX = "rapidminer.general.value_index";
+
+	/** The name of the property indicating the memory in megabytes a kernel based learner may use for caching kernel values. */
+	public static final String PROPERTY_RAPIDMINER_GENERAL_KERNEL_CACHE_SIZE = "rapidminer.general.kernel_cache_size";
+
 	/** The name of the property defining how many lines are read for guessing values types for input operations without defined value type. */
 	public static final String PROPERTY_RAPIDMINER_GENERAL_MAX_TEST_ROWS = "rapidminer.general.max_rows_used_for_guessing";
 
@@ -257,6 +272,31 @@ public class RapidMiner {
 	 *  tables (no views and system tables). */
 	public static final String PROPERTY_RAPIDMINER_TOOLS_DB_ONLY_STANDARD_TABLES = "rapidminer.tools.db.assist.show_only_standard_tables";
 
+	/** If set to true, database connections are kept open after use and reused by the next operator connecting
+	 *  to the same database with the same credentials. */
+	public static final String PROPERTY_RAPIDMINER_TOOLS_DB_POOL_ENABLED = "rapidminer.tools.db.pool.enabled";
+
+	/** The maximum number of open pooled connections per database and user, 0 for unlimited. */
+	public static final String PROPERTY_RAPIDMINER_TOOLS_DB_POOL_MAX_SIZE = "rapidminer.tools.db.pool.max_size";
+
+	/** The number of seconds to wait for a pooled connection if the maximum number of connections is in use. */
+	public static final String PROPERTY_RAPIDMINER_TOOLS_DB_POOL_MAX_WAIT = "rapidminer.tools.db.pool.max_wait";
+
+	/** The number of seconds after which unused pooled connections are closed. */
+	public static final String PROPERTY_RAPIDMINER_TOOLS_DB_POOL_IDLE_TIMEOUT = "rapidminer.tools.db.pool.idle_timeout";
+
+	/** The number of prepared statements cached per pooled connection. */
+	public static final String PROPERTY_RAPIDMINER_TOOLS_DB_POOL_STATEMENT_CACHE_SIZE = "rapidminer.tools.db.pool.statement_cache_size";
+
+	/** The memory in megabytes each cached database example table may use for cached rows. */
+	public static final String PROPERTY_RAPIDMINER_TOOLS_DB_CACHE_MEMORY_BUDGET = "rapidminer.tools.db.cache.memory_budget";
+
+	/** If set to true, cached database example tables load the next page in the background on sequential access. */
+	public static final String PROPERTY_RAPIDMINER_TOOLS_DB_CACHE_PREFETCH = "rapidminer.tools.db.cache.prefetch";
+
+	/** The size in megabytes of the disk cache for data retrieved from remote repositories, 0 to disable the cache. */
+	public static final String PROPERTY_RAPIDMINER_TOOLS_REMOTE_REPOSITORY_CACHE_SIZE = "rapidminer.tools.remote_repository.cache_size";
+
 	/** The property name for &quot;Use unix special characters for logfile highlighting (requires new RapidMiner instance).&quot; */
 	public static final String PROPERTY_RAPIDMINER_GENERAL_LOGFILE_FORMAT = "rapidminer.general.logfile.format";
 
@@ -348,6 +388,21 @@ public class RapidMiner {
 						PROPERTY_RAPIDMINER_GENERAL_MAX_NOMINAL_VALUES,
 						"The number of nominal values to use for meta data transformation, 0 for unlimited. (Changing this value requires a cache refresh of the meta data for the current process, e.g. by changing the 'location' parameter of a 'Retrieve' operator.)",
 						0, Integer.MAX_VALUE, 100));
+		ParameterService.registerParameter(new ParameterTypeInt(PROPERTY_RAPIDMINER_GENERAL_MAX_PROPAGATED_META_DATA_ATTRIBUTES,
+				"The maximum number of attributes an operator passes on during meta data transformation, 0 for unlimited. Special attributes are always kept.",
+				0, Integer.MAX_VALUE, 0));
+		ParameterService.registerParameter(new ParameterTypeBoolean(PROPERTY_RAPIDMINER_GENERAL_INCREMENTAL_META_DATA,
+				"If checked, a change of the process only transforms the meta data of the operators affected by the change. Validating the process explicitly always transforms all meta data.",
+				false));
+		ParameterService.registerParameter(new ParameterTypeInt(PROPERTY_RAPIDMINER_GENERAL_PROCESS_LOG_ROWS_IN_MEMORY,
+				"The number of rows a process log keeps in memory, 0 for unlimited. Older rows are moved to a temporary file.",
+				0, Integer.MAX_VALUE, 0));
+		ParameterService.registerParameter(new ParameterTypeBoolean(PROPERTY_RAPIDMINER_GENERAL_VALUE_INDEX,
+				"If checked, example tables keep an index on the values of columns which are filtered repeatedly. This speeds up filters in loops at the cost of additional memory. Indices are discarded when memory gets low.",
+				false));
+		ParameterService.registerParameter(new ParameterTypeInt(PROPERTY_RAPIDMINER_GENERAL_KERNEL_CACHE_SIZE,
+				"The memory in megabytes each kernel based learner may use for caching kernel values. The complete kernel matrix is only stored if it fits into this budget.",
+				1, Integer.MAX_VALUE, 256));
 		ParameterService.registerParameter(new ParameterTypeInt(PROPERTY_RAPIDMINER_GENERAL_MAX_TEST_ROWS,
 				"The number of lines read during input operations to guess the value type of certain columns if not specified. If set to 0, all rows will be used", 0,
 				Integer.MAX_VALUE, 100));
@@ -379,6 +434,22 @@ public class RapidMiner {
 
 		ParameterService.registerParameter(new ParameterTypeBoolean(PROPERTY_RAPIDMINER_TOOLS_DB_ONLY_STANDARD_TABLES,
 				"If checked, assistants and query builders will only show standard database tables, hiding system tables, views, etc.", true));
+		ParameterService.registerParameter(new ParameterTypeBoolean(PROPERTY_RAPIDMINER_TOOLS_DB_POOL_ENABLED,
+				"If checked, database connections are kept open after use and reused by operators connecting to the same database.", false));
+		ParameterService.registerParameter(new ParameterTypeInt(PROPERTY_RAPIDMINER_TOOLS_DB_POOL_MAX_SIZE,
+				"The maximum number of open pooled connections per database and user (0 for unlimited).", 0, Integer.MAX_VALUE, 8));
+		ParameterService.registerParameter(new ParameterTypeInt(PROPERTY_RAPIDMINER_TOOLS_DB_POOL_MAX_WAIT,
+				"The number of seconds to wait for a free pooled connection before failing.", 0, Integer.MAX_VALUE, 30));
+		ParameterService.registerParameter(new ParameterTypeInt(PROPERTY_RAPIDMINER_TOOLS_DB_POOL_IDLE_TIMEOUT,
+				"The number of seconds after which unused pooled database connections are closed.", 0, Integer.MAX_VALUE, 300));
+		ParameterService.registerParameter(new ParameterTypeInt(PROPERTY_RAPIDMINER_TOOLS_DB_POOL_STATEMENT_CACHE_SIZE,
+				"The number of prepared statements cached per pooled database connection (0 to disable).", 0, Integer.MAX_VALUE, 32));
+		ParameterService.registerParameter(new ParameterTypeInt(PROPERTY_RAPIDMINER_TOOLS_DB_CACHE_MEMORY_BUDGET,
+				"The memory in megabytes each cached database example table may use for rows fetched from the database.", 1, Integer.MAX_VALUE, 64));
+		ParameterService.registerParameter(new ParameterTypeBoolean(PROPERTY_RAPIDMINER_TOOLS_DB_CACHE_PREFETCH,
+				"If checked, cached database example tables load the next rows in the background while the data is read sequentially.", true));
+		ParameterService.registerParameter(new ParameterTypeInt(PROPERTY_RAPIDMINER_TOOLS_REMOTE_REPOSITORY_CACHE_SIZE,
+				"The size in megabytes of the local disk cache for data retrieved from remote repositories (0 to disable).", 0, Integer.MAX_VALUE, 500));
 
 		ParameterService.registerParameter(new ParameterTypeBoolean(CapabilityProvider.PROPERTY_RAPIDMINER_GENERAL_CAPABILITIES_WARN,
 				"Indicates if only a warning should be made if learning capabilities are not fulfilled (instead of breaking the process).", false));
@@ -0,0 +1,469 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.datatable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import com.rapidminer.tools.LogService;
+
+/**
+ * A {@link SimpleDataTable} which stores its values column-wise in primitive arrays instead of
+ * one object per row. Rows are stored in chunks of {@link #CHUNK_SIZE} rows. If a maximum number
+ * of rows in memory is given, the oldest chunks are moved to a temporary file once this number is
+ * exceeded and read back on access.
+ * 
+ * Listeners are not notified on the thread adding the rows. Instead, additions are collected and
+ * reported by a background thread at most every {@link #NOTIFICATION_DELAY} milliseconds, so
+ * plotters showing the table do not slow down the process. Removing rows and clearing the table
+ * still notify the listeners immediately.
+ * 
+ * The rows returned by {@link #getRow(int)} and {@link #iterator()} are views of the table, i.e.
+ * they reflect the row at their index at the time of reading.
+ */
+public class ColumnarDataTable extends SimpleDataTable {
+
+	private static final long serialVersionUID = -3043931580124541282L;
+
+	/** The number of rows of one chunk. */
+	private static final int CHUNK_SIZE = 4096;
+
+	/** The initial capacity of the first chunk. */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/** The time in milliseconds additions are collected before listeners are notified. */
+	private static final long NOTIFICATION_DELAY = 200;
+
+	private static ScheduledExecutorService notifier;
+
+	private final int numberOfColumns;
+
+	/** The chunks of values, indexed by column and row offset. Spilled chunks are null. */
+	private final List<double[][]> chunks = new ArrayList<double[][]>();
+
+	/** Ids of the rows or null if no row has an id. */
+	private List<String> ids = null;
+
+	private int size = 0;
+
+	/** The number of rows to keep in memory, 0 for all. */
+	private final int rowsInMemory;
+
+	/** The chunks 0 to spilledChunks - 1 are stored in the spill file. */
+	private int spilledChunks = 0;
+
+	private transient File spillFile;
+
+	private transient RandomAccessFile spillData;
+
+	/** The spilled chunk read last. */
+	private transient double[][] loadedChunk;
+
+	private transient int loadedChunkIndex = -1;
+
+	private transient boolean loadedChunkModified = false;
+
+	private transient boolean notificationPending = false;
+
+	/** Set if the spill file cannot be written. All rows are kept in memory then. */
+	private transient boolean spillingFailed = false;
+
+	public ColumnarDataTable(String name, String[] columns) {
+		this(name, columns, 0);
+	}
+
+	/**
+	 * Creates a table keeping at most (roughly) rowsInMemory rows in memory, 0 keeps all rows
+	 * in memory.
+	 */
+	public ColumnarDataTable(String name, String[] columns, int rowsInMemory) {
+		super(name, columns);
+		this.numberOfColumns = columns.length;
+		this.rowsInMemory = rowsInMemory;
+	}
+
+	@Override
+	public synchronized void add(DataTableRow row) {
+		int offset = size % CHUNK_SIZE;
+		double[][] chunk;
+		if (offset == 0) {
+			chunk = new double[numberOfColumns][chunks.isEmpty() ? INITIAL_CAPACITY : CHUNK_SIZE];
+			chunks.add(chunk);
+		} else {
+			chunk = chunks.get(chunks.size() - 1);
+			if ((numberOfColumns > 0) && (offset == chunk[0].length)) {
+				for (int c = 0; c < numberOfColumns; c++) {
+					chunk[c] = Arrays.copyOf(chunk[c], Math.min(2 * offset, CHUNK_SIZE));
+				}
+			}
+		}
+		for (int c = 0; c < numberOfColumns; c++) {
+			chunk[c][offset] = row.getValue(c);
+		}
+		String id = row.getId();
+		if ((id != null) && (ids == null)) {
+			ids = new ArrayList<String>(size + 1);
+			for (int i = 0; i < size; i++) {
+				ids.add(null);
+			}
+		}
+		if (ids != null) {
+			ids.add(id);
+		}
+		size++;
+		if ((rowsInMemory > 0) && (offset == 0) && !spillingFailed) {
+			spillIfNecessary();
+		}
+		fireEventLater();
+	}
+
+	@Override
+	public synchronized void remove(DataTableRow row) {
+		int index = -1;
+		if ((row instanceof ColumnarRow) && (((ColumnarRow) row).getTable() == this)) {
+			index = ((ColumnarRow) row).index;
+		} else {
+			for (int r = 0; r < size; r++) {
+				if (rowEquals(r, row)) {
+					index = r;
+					break;
+				}
+			}
+		}
+		if ((index >= 0) && (index < size)) {
+			remove(index);
+			fireEvent();
+		}
+	}
+
+	/** Removes the row with the given index by moving all following rows. */
+	private void remove(int index) {
+		for (int r = index + 1; r < size; r++) {
+			for (int c = 0; c < numberOfColumns; c++) {
+				setValue(r - 1, c, getValue(r, c));
+			}
+		}
+		if (ids != null) {
+			ids.remove(index);
+		}
+		size--;
+		if (size % CHUNK_SIZE == 0) {
+			chunks.remove(chunks.size() - 1);
+			if (spilledChunks >= chunks.size() && (spilledChunks > 0)) {
+				// the last chunk must always be in memory
+				int last = chunks.size() - 1;
+				chunks.set(last, getChunk(last, false));
+				spilledChunks--;
+				loadedChunkIndex = -1;
+				loadedChunk = null;
+				loadedChunkModified = false;
+			}
+		}
+	}
+
+	private boolean rowEquals(int index, DataTableRow row) {
+		if (row.getNumberOfValues() != numberOfColumns) {
+			return false;
+		}
+		for (int c = 0; c < numberOfColumns; c++) {
+			if (Double.compare(getValue(index, c), row.getValue(c)) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public synchronized DataTableRow getRow(int index) {
+		if ((index < 0) || (index >= size)) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		return new ColumnarRow(index);
+	}
+
+	@Override
+	public synchronized Iterator<DataTableRow> iterator() {
+		final int rows = size;
+		return new Iterator<DataTableRow>() {
+
+			private int next = 0;
+
+			@Override
+			public boolean hasNext() {
+				return next < Math.min(rows, getNumberOfRows());
+			}
+
+			@Override
+			public DataTableRow next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return new ColumnarRow(next++);
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException("Remove not supported by data table iterator.");
+			}
+		};
+	}
+
+	@Override
+	public synchronized int getNumberOfRows() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		synchronized (this) {
+			chunks.clear();
+			ids = null;
+			size = 0;
+			closeSpillFile();
+		}
+		fireEvent();
+	}
+
+	@Override
+	public synchronized DataTable sample(int newSize) {
+		if (size <= newSize) {
+			return this;
+		}
+		SimpleDataTable result = new SimpleDataTable(this);
+		Random random = new Random();
+		List<Integer> indices = new ArrayList<Integer>(size);
+		for (int i = 0; i < size; i++) {
+			indices.add(i);
+		}
+		while (result.getNumberOfRows() < newSize) {
+			int index = indices.remove(random.nextInt(indices.size()));
+			result.add(new SimpleDataTableRow(new ColumnarRow(index)));
+		}
+		return result;
+	}
+
+	private synchronized double getValue(int row, int column) {
+		double[][] chunk = getChunk(row / CHUNK_SIZE, false);
+		return chunk[column][row % CHUNK_SIZE];
+	}
+
+	private synchronized String getId(int row) {
+		return (ids == null) ? null : ids.get(row);
+	}
+
+	private void setValue(int row, int column, double value) {
+		double[][] chunk = getChunk(row / CHUNK_SIZE, true);
+		chunk[column][row % CHUNK_SIZE] = value;
+	}
+
+	/** Returns the chunk, reading it from the spill file if necessary. */
+	private double[][] getChunk(int index, boolean modify) {
+		double[][] chunk = chunks.get(index);
+		if (chunk != null) {
+			return chunk;
+		}
+		if (loadedChunkIndex != index) {
+			try {
+				writeLoadedChunk();
+				if (loadedChunk == null) {
+					loadedChunk = new double[numberOfColumns][CHUNK_SIZE];
+				}
+				byte[] buffer = new byte[CHUNK_SIZE * 8];
+				spillData.seek(getSpillOffset(index));
+				for (int c = 0; c < numberOfColumns; c++) {
+					spillData.readFully(buffer);
+					ByteBuffer.wrap(buffer).asDoubleBuffer().get(loadedChunk[c]);
+				}
+				loadedChunkIndex = index;
+			} catch (IOException e) {
+				throw new RuntimeException("Cannot read log data from " + spillFile + ": " + e, e);
+			}
+		}
+		loadedChunkModified |= modify;
+		return loadedChunk;
+	}
+
+	private void writeLoadedChunk() throws IOException {
+		if (loadedChunkModified && (loadedChunkIndex >= 0)) {
+			writeChunk(loadedChunkIndex, loadedChunk);
+		}
+		loadedChunkModified = false;
+	}
+
+	private void writeChunk(int index, double[][] chunk) throws IOException {
+		byte[] buffer = new byte[CHUNK_SIZE * 8];
+		DoubleBuffer values = ByteBuffer.wrap(buffer).asDoubleBuffer();
+		spillData.seek(getSpillOffset(index));
+		for (int c = 0; c < numberOfColumns; c++) {
+			values.clear();
+			values.put(chunk[c]);
+			spillData.write(buffer);
+		}
+	}
+
+	private long getSpillOffset(int chunk) {
+		return (long) chunk * numberOfColumns * CHUNK_SIZE * 8;
+	}
+
+	/** Moves full chunks to the spill file while there are too many rows in memory. The last chunk is always kept. */
+	private void spillIfNecessary() {
+		while ((chunks.size() - 1 > spilledChunks) && ((chunks.size() - spilledChunks - 1) * CHUNK_SIZE >= rowsInMemory)) {
+			try {
+				if (spillData == null) {
+					spillFile = File.createTempFile("rm_process_log", ".bin");
+					spillFile.deleteOnExit();
+					spillData = new RandomAccessFile(spillFile, "rw");
+				}
+				writeChunk(spilledChunks, chunks.get(spilledChunks));
+				chunks.set(spilledChunks, null);
+				spilledChunks++;
+			} catch (IOException e) {
+				// keep the data in memory
+				LogService.getRoot().log(Level.WARNING, "com.rapidminer.datatable.ColumnarDataTable.spilling_error", e);
+				closeSpillFile();
+				spillingFailed = true;
+				return;
+			}
+		}
+	}
+
+	/** Reads all spilled chunks back into memory and deletes the spill file. */
+	private void closeSpillFile() {
+		if (spillData != null) {
+			try {
+				writeLoadedChunk();
+				for (int i = 0; i < spilledChunks; i++) {
+					if (i < chunks.size()) {
+						double[][] chunk = new double[numberOfColumns][CHUNK_SIZE];
+						byte[] buffer = new byte[CHUNK_SIZE * 8];
+						spillData.seek(getSpillOffset(i));
+						for (int c = 0; c < numberOfColumns; c++) {
+							spillData.readFully(buffer);
+							ByteBuffer.wrap(buffer).asDoubleBuffer().get(chunk[c]);
+						}
+						chunks.set(i, chunk);
+					}
+				}
+				spillData.close();
+			} catch (IOException e) {
+				throw new RuntimeException("Cannot read log data from " + spillFile + ": " + e, e);
+			}
+			spillFile.delete();
+		}
+		spillData = null;
+		spillFile = null;
+		spilledChunks = 0;
+		loadedChunk = null;
+		loadedChunkIndex = -1;
+		loadedChunkModified = false;
+	}
+
+	/** Notifies the listeners in the background unless this is already scheduled. */
+	private void fireEventLater() {
+		if (notificationPending) {
+			return;
+		}
+		notificationPending = true;
+		getNotifier().schedule(new Runnable() {
+
+			@Override
+			public void run() {
+				synchronized (ColumnarDataTable.this) {
+					notificationPending = false;
+				}
+				fireEvent();
+			}
+		}, NOTIFICATION_DELAY, TimeUnit.MILLISECONDS);
+	}
+
+	private static synchronized ScheduledExecutorService getNotifier() {
+		if (notifier == null) {
+			notifier = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "DataTable-Notifier");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return notifier;
+	}
+
+	/** Spilled rows are read back into memory before serialization. */
+	private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+		closeSpillFile();
+		out.defaultWriteObject();
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		loadedChunkIndex = -1;
+	}
+
+	/** A view of a row of this table. */
+	private class ColumnarRow implements DataTableRow {
+
+		private final int index;
+
+		private ColumnarRow(int index) {
+			this.index = index;
+		}
+
+		private ColumnarDataTable getTable() {
+			return ColumnarDataTable.this;
+		}
+
+		@Override
+		public String getId() {
+			return ColumnarDataTable.this.getId(index);
+		}
+
+		@Override
+		public double getValue(int column) {
+			return ColumnarDataTable.this.getValue(index, column);
+		}
+
+		@Override
+		public int getNumberOfValues() {
+			return numberOfColumns;
+		}
+	}
+}
@@ -73,7 +73,7 @@ public class SimpleDataTable extends AbstractDataTable implements Serializable {
 		}
 	}
 	
-	private SimpleDataTable(SimpleDataTable simpleDataTable) {
+	protected SimpleDataTable(SimpleDataTable simpleDataTable) {
 		super(simpleDataTable.getName());
 		
 		this.columns = null;
@@ -57,6 +57,13 @@ public class AttributeDescription implements Serializable {
 	/** Index of this attribute in its ExampleTable. */
 	private int index = Attribute.UNDEFINED_ATTRIBUTE_INDEX;
 
+	/**
+	 * Counts the modifications of the data of this attribute. The counter is shared by all
+	 * clones of this description, i.e. also by renamed copies of the attribute. It is
+	 * intentionally not synchronized in order to keep writing values cheap.
+	 */
+	private transient ModificationCounter modificationCounter = new ModificationCounter();
+
 	
 	public AttributeDescription(Attribute attribute, String name, int valueType, int blockType, double defaultValue, int tableIndex) {
 		this.name = name;
@@ -73,6 +80,7 @@ public class AttributeDescription implements Serializable {
 		this.blockType = other.blockType;
 		this.defaultValue = other.defaultValue;
 		this.index = other.index;
+		this.modificationCounter = other.getModificationCounter();
 	}
 	
 	@Override
@@ -106,6 +114,7 @@ public class AttributeDescription implements Serializable {
 	
 	public void setDefault(double defaultValue) {
 		this.defaultValue = defaultValue;
+		dataChanged();
 	}
 	
 	public int getTableIndex() {
@@ -114,6 +123,25 @@ public class AttributeDescription implements Serializable {
 	
 	public void setTableIndex(int i) {
 		this.index = i;
+		dataChanged();
+	}
+
+	/** Notifies this description that a value of the attribute was changed. */
+	public void dataChanged() {
+		getModificationCounter().count++;
+	}
+
+	/** Returns a number which changes whenever the data of this attribute is changed. */
+	public long getModificationCount() {
+		return getModificationCounter().count;
+	}
+
+	private ModificationCounter getModificationCounter() {
+		if (modificationCounter == null) {
+			// description was deserialized
+			modificationCounter = new ModificationCounter();
+		}
+		return modificationCounter;
 	}
 	
 	/**
@@ -135,4 +163,9 @@ public class AttributeDescription implements Serializable {
 	public int hashCode() {
 		return name.hashCode() ^ Integer.valueOf(this.index).hashCode();
 	}
+
+	private static class ModificationCounter {
+
+		private long count = 0;
+	}
 }
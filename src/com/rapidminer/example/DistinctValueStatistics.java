@@ -0,0 +1,83 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.example;
+
+import java.util.logging.Level;
+
+import com.rapidminer.tools.LogService;
+import com.rapidminer.tools.math.HyperLogLog;
+
+/** Attribute statistics object estimating the number of distinct non-missing values with a
+ *  {@link HyperLogLog} sketch, i.e. with a fixed amount of memory (16 KB) independent of the
+ *  number of values. For nominal attributes the exact number can also be derived from the
+ *  counts of {@link NominalStatistics}. This statistics is not registered by default and can
+ *  be added by {@link Attribute#registerStatistics(Statistics)}.
+ */
+public class DistinctValueStatistics implements MergeableStatistics {
+
+	private static final long serialVersionUID = -3049170337045237567L;
+
+	private HyperLogLog sketch = new HyperLogLog();
+
+	public DistinctValueStatistics() {}
+
+	/** Clone constructor. */
+	private DistinctValueStatistics(DistinctValueStatistics other) {
+		this.sketch = new HyperLogLog(other.sketch);
+	}
+
+	@Override
+	public Object clone() {
+		return new DistinctValueStatistics(this);
+	}
+
+	public void startCounting(Attribute attribute) {
+		this.sketch = new HyperLogLog();
+	}
+
+	public void count(double value, double weight) {
+		sketch.add(value);
+	}
+
+	public void merge(Statistics other) {
+		sketch.add(((DistinctValueStatistics)other).sketch);
+	}
+
+	public boolean handleStatistics(String name) {
+		return DISTINCT.equals(name);
+	}
+
+	public double getStatistics(Attribute attribute, String name, String parameter) {
+		if (DISTINCT.equals(name)) {
+			return sketch.cardinality();
+		} else {
+			LogService.getRoot().log(Level.WARNING, "com.rapidminer.example.DistinctValueStatistics.calculating_statistics_unknown_type_error", name);
+			return Double.NaN;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "distinct: " + sketch.cardinality();
+	}
+}
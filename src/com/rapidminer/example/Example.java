@@ -247,6 +247,14 @@ public class Example implements Serializable, Map<String, Object> {
 		double value = getValue(attribute);
 		return attribute.getAsString(value, fractionDigits, quoteNominal);
 	}
+
+	private String getValueAsString(Attribute attribute, int fractionDigits, boolean quoteNominal, ValueFormatter formatter) {
+		if (formatter == null) {
+			return getValueAsString(attribute, fractionDigits, quoteNominal);
+		} else {
+			return formatter.format(attribute, getValue(attribute), fractionDigits, quoteNominal);
+		}
+	}
 	
     /** Returns a dense string representation with all possible fraction digits.
      *  Nominal values will be quoted with double quotes.
@@ -262,6 +270,14 @@ public class Example implements Serializable, Map<String, Object> {
 	 * all regular attributes.
 	 */
 	public String toDenseString(int fractionDigits, boolean quoteNominal) {
+		return toDenseString(fractionDigits, quoteNominal, null);
+	}
+
+	/**
+	 * Like {@link #toDenseString(int, boolean)}, but formats the values with the given formatter.
+	 * If the formatter is null, the values are formatted by their attributes.
+	 */
+	public String toDenseString(int fractionDigits, boolean quoteNominal, ValueFormatter formatter) {
 		StringBuffer result = new StringBuffer();
 		Iterator<Attribute> a = getAttributes().allAttributes();
 		boolean first = true;
@@ -271,7 +287,7 @@ public class Example implements Serializable, Map<String, Object> {
 			} else {
 				result.append(SEPARATOR);
 			}
-			result.append(getValueAsString(a.next(), fractionDigits, quoteNominal));
+			result.append(getValueAsString(a.next(), fractionDigits, quoteNominal, formatter));
 		}
 		return result.toString();
 	}
@@ -285,40 +301,48 @@ public class Example implements Serializable, Map<String, Object> {
 	 *            {@link SparseFormatDataRowReader}
 	 */
 	public String toSparseString(int format, int fractionDigits, boolean quoteNominal) {
+		return toSparseString(format, fractionDigits, quoteNominal, null);
+	}
+
+	/**
+	 * Like {@link #toSparseString(int, int, boolean)}, but formats the values with the given
+	 * formatter. If the formatter is null, the values are formatted by their attributes.
+	 */
+	public String toSparseString(int format, int fractionDigits, boolean quoteNominal, ValueFormatter formatter) {
 		StringBuffer str = new StringBuffer();
 		// label
 		Attribute labelAttribute = getAttributes().getSpecial(Attributes.LABEL_NAME);
 		if ((format == SparseFormatDataRowReader.FORMAT_YX) && (labelAttribute != null)) {
-			str.append(getValueAsString(labelAttribute, fractionDigits, quoteNominal) + " ");
+			str.append(getValueAsString(labelAttribute, fractionDigits, quoteNominal, formatter) + " ");
 		}
 		
 		// id
 		Attribute idAttribute = getAttributes().getSpecial(Attributes.ID_NAME);
 		if (idAttribute != null) {
-			str.append("id:" + getValueAsString(idAttribute, fractionDigits, quoteNominal) + " ");
+			str.append("id:" + getValueAsString(idAttribute, fractionDigits, quoteNominal, formatter) + " ");
 		}
 		
 		// weight
 		Attribute weightAttribute = getAttributes().getSpecial(Attributes.WEIGHT_NAME);
 		if (weightAttribute != null) {
-			str.append("w:" + getValueAsString(weightAttribute, fractionDigits, quoteNominal) + " ");
+			str.append("w:" + getValueAsString(weightAttribute, fractionDigits, quoteNominal, formatter) + " ");
 		}
 		
 		// batch
 		Attribute batchAttribute = getAttributes().getSpecial(Attributes.BATCH_NAME);
 		if (batchAttribute != null) {
-			str.append("b:" + getValueAsString(batchAttribute, fractionDigits, quoteNominal) + " ");
+			str.append("b:" + getValueAsString(batchAttribute, fractionDigits, quoteNominal, formatter) + " ");
 		}
 		
 		// attributes
-		str.append(getAttributesAsSparseString(SEPARATOR, SPARSE_SEPARATOR, fractionDigits, quoteNominal) + " ");
+		str.append(getAttributesAsSparseString(SEPARATOR, SPARSE_SEPARATOR, fractionDigits, quoteNominal, formatter) + " ");
 		
 		// label (format xy & prefix)
 		if ((format == SparseFormatDataRowReader.FORMAT_PREFIX) && (labelAttribute != null)) {
-			str.append("l:" + getValueAsString(labelAttribute, fractionDigits, quoteNominal));
+			str.append("l:" + getValueAsString(labelAttribute, fractionDigits, quoteNominal, formatter));
 		}
 		if ((format == SparseFormatDataRowReader.FORMAT_XY) && (labelAttribute != null)) {
-			str.append(getValueAsString(labelAttribute, fractionDigits, quoteNominal));
+			str.append(getValueAsString(labelAttribute, fractionDigits, quoteNominal, formatter));
 		}
 		return str.toString();
 	}
@@ -335,6 +359,10 @@ public class Example implements Serializable, Map<String, Object> {
 	 * @param fractionDigits the number of fraction digits used, if -1 all possible digits are used
 	 */
 	/* pp */ String getAttributesAsSparseString(String separator, String indexValueSeparator, int fractionDigits, boolean quoteNominal) {
+		return getAttributesAsSparseString(separator, indexValueSeparator, fractionDigits, quoteNominal, null);
+	}
+
+	private String getAttributesAsSparseString(String separator, String indexValueSeparator, int fractionDigits, boolean quoteNominal, ValueFormatter formatter) {
 		StringBuffer str = new StringBuffer();
 		boolean first = true;
 		int counter = 1;
@@ -345,7 +373,7 @@ public class Example implements Serializable, Map<String, Object> {
 					str.append(separator);
 				}
 				first = false;
-				str.append(counter + indexValueSeparator + getValueAsString(attribute, fractionDigits, quoteNominal));
+				str.append(counter + indexValueSeparator + getValueAsString(attribute, fractionDigits, quoteNominal, formatter));
 			}
 			counter++;
 		}
@@ -112,6 +112,13 @@ public interface ExampleSet extends ResultObject, Cloneable, Iterable<Example> {
 	public void writeDataFile(File dataFile, int fractionDigits, boolean quoteNominal, boolean zipped, boolean append, Charset encoding)
 			throws IOException;
 
+	/**
+	 * Writes the data like {@link #writeDataFile(File, int, boolean, boolean, boolean, Charset)}
+	 * but formats blocks of examples with the given number of threads.
+	 */
+	public void writeDataFile(File dataFile, int fractionDigits, boolean quoteNominal, boolean zipped, boolean append, Charset encoding,
+			int numberOfThreads) throws IOException;
+
 	/**
 	 * Writes the attribute meta descriptions into a file. The data file is used
 	 * in order to determine the relative file positions and is not allowed to
@@ -133,6 +140,13 @@ public interface ExampleSet extends ResultObject, Cloneable, Iterable<Example> {
 	public void writeSparseDataFile(File dataFile, int format, int fractionDigits, boolean quoteNominal, boolean zipped, boolean append,
 			Charset encoding) throws IOException;
 
+	/**
+	 * Writes the data like {@link #writeSparseDataFile(File, int, int, boolean, boolean, boolean, Charset)}
+	 * but formats blocks of examples with the given number of threads.
+	 */
+	public void writeSparseDataFile(File dataFile, int format, int fractionDigits, boolean quoteNominal, boolean zipped, boolean append,
+			Charset encoding, int numberOfThreads) throws IOException;
+
 	/**
 	 * Writes the attribute meta descriptions for a sparse data file into a
 	 * file. The data file is used in order to determine the relative file
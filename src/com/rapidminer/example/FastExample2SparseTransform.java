@@ -26,6 +26,7 @@ import java.util.Arrays;
 
 import com.rapidminer.example.table.DataRow;
 import com.rapidminer.example.table.SparseDataRow;
+import com.rapidminer.example.table.SparseExampleTable;
 import com.rapidminer.operator.UserError;
 
 /**
@@ -38,6 +39,11 @@ import com.rapidminer.operator.UserError;
  * should be reinstatiated for new example sets. Furthermore, a gain in
  * performance is only achieved for examples with underlying
  * {@link SparseDataRow}s.
+ * 
+ * Learners iterating over many examples should prefer
+ * {@link #getNonDefaultAttributes(Example, int[], double[])} which fills buffers
+ * provided by the caller and reads the shared arrays of a {@link SparseExampleTable}
+ * directly instead of creating new arrays for each example.
  *
  * @author Julien Nioche, Ingo Mierswa
  *          ingomierswa Exp $
@@ -59,6 +65,16 @@ public class FastExample2SparseTransform {
 	 *  data rows which do not implement {@link SparseDataRow}. */
 	private int[] allIndices;
 	
+	/** Indicates that the attribute positions are ascending with the table indices. */
+	private boolean ordered = true;
+	
+	/** Indicates that the raw table values of the sparse arrays can be used, i.e. that
+	 *  {@link #ordered} is true and no attribute has a transformation. */
+	private boolean rawValues = true;
+	
+	/** The positions of the attributes stored in dense columns of a {@link SparseExampleTable}. */
+	private int[] densePositions = new int[0];
+	
 	
 	/**
 	 * Returns for a table giving the equivalence between the positions of the
@@ -91,6 +107,33 @@ public class FastExample2SparseTransform {
 			}
 		}
 		
+		int lastPosition = -1;
+		for (int i = 0; i < mapping.length; i++) {
+			if (mapping[i] != -1) {
+				if (mapping[i] < lastPosition) {
+					ordered = false;
+				}
+				lastPosition = mapping[i];
+			}
+		}
+		rawValues = ordered;
+		for (Attribute attribute : attributes) {
+			if (attribute.getLastTransformation() != null) {
+				rawValues = false;
+			}
+		}
+		if (es.getExampleTable() instanceof SparseExampleTable) {
+			int sparseColumns = ((SparseExampleTable) es.getExampleTable()).getNumberOfSparseColumns();
+			int count = 0;
+			int[] positions = new int[attributes.length];
+			for (int i = sparseColumns; i < mapping.length; i++) {
+				if (mapping[i] != -1) {
+					positions[count++] = mapping[i];
+				}
+			}
+			densePositions = Arrays.copyOf(positions, count);
+		}
+		
         // trim is necessary in order to allow fast mapping!
 		for (Example e : es) {
             e.getDataRow().trim();
@@ -151,4 +194,84 @@ public class FastExample2SparseTransform {
 		}
 		return result;
 	}
+
+	/** Returns the number of regular attributes, i.e. the size needed for the buffers of
+	 *  {@link #getNonDefaultAttributes(Example, int[], double[])}. */
+	public int getNumberOfAttributes() {
+		return attributes.length;
+	}
+
+	/**
+	 * Writes the positions of the regular attributes with non-default values of the given example
+	 * to indices and their values to values and returns the number of written entries. Both arrays
+	 * must provide space for {@link #getNumberOfAttributes()} entries. The positions are sorted by
+	 * ascending number. For examples backed by a {@link SparseExampleTable}, the shared arrays of
+	 * the table are read directly. For other data rows, the result is the same as for
+	 * {@link #getNonDefaultAttributeIndices(Example)} and {@link #getNonDefaultAttributeValues(Example, int[])}.
+	 * The omitted entries only have the default values of their attributes if {@link #isSparse(ExampleSet)}
+	 * holds for the example set.
+	 */
+	public int getNonDefaultAttributes(Example example, int[] indices, double[] values) {
+		DataRow data = example.getDataRow();
+		if (data instanceof SparseExampleTable.Row) {
+			SparseExampleTable.Row row = (SparseExampleTable.Row) data;
+			SparseExampleTable table = row.getTable();
+			int rowIndex = row.getRowIndex();
+			int[] tableIndices = table.getColumnIndices();
+			double[] tableValues = table.getValues();
+			int end = table.getRowEnd(rowIndex);
+			int count = 0;
+			for (int i = table.getRowStart(rowIndex); i < end; i++) {
+				int column = tableIndices[i];
+				int position = column < mapping.length ? mapping[column] : -1;
+				if (position != -1) {
+					indices[count] = position;
+					values[count] = tableValues[i];
+					count++;
+				}
+			}
+			for (int position : densePositions) {
+				Attribute attribute = attributes[position];
+				double value = example.getValue(attribute);
+				if (!Tools.isDefault(attribute.getDefault(), value)) {
+					indices[count] = position;
+					values[count] = value;
+					count++;
+				}
+			}
+			if (!rawValues) {
+				if (!ordered) {
+					Arrays.sort(indices, 0, count);
+				}
+				for (int i = 0; i < count; i++) {
+					values[i] = example.getValue(attributes[indices[i]]);
+				}
+			}
+			return count;
+		} else {
+			int[] nonDefaultIndices = getNonDefaultAttributeIndices(example);
+			for (int i = 0; i < nonDefaultIndices.length; i++) {
+				indices[i] = nonDefaultIndices[i];
+				values[i] = example.getValue(attributes[nonDefaultIndices[i]]);
+			}
+			return nonDefaultIndices.length;
+		}
+	}
+
+	/**
+	 * Returns true if the examples of the given example set are backed by {@link SparseDataRow}s and
+	 * no regular attribute has a transformation. Transformed attributes, e.g. of normalized views,
+	 * do not deliver their default value for the entries omitted by the data rows.
+	 */
+	public static boolean isSparse(ExampleSet exampleSet) {
+		if (exampleSet.size() == 0 || !(exampleSet.getExample(0).getDataRow() instanceof SparseDataRow)) {
+			return false;
+		}
+		for (Attribute attribute : exampleSet.getAttributes()) {
+			if (attribute.getLastTransformation() != null) {
+				return false;
+			}
+		}
+		return true;
+	}
 }
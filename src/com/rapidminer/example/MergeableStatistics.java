@@ -0,0 +1,41 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.example;
+
+/**
+ * Statistics which can be counted on several parts of an example set independently, e.g.
+ * in parallel, and combined afterwards. Combining the partial results must lead to the same
+ * statistics as counting all values with a single object (up to rounding errors).
+ * 
+ * @see com.rapidminer.example.set.AbstractExampleSet#recalculateAllAttributeStatistics()
+ */
+public interface MergeableStatistics extends Statistics {
+
+	/**
+	 * Adds the values counted by the given statistics to this one. The given statistics is of
+	 * the same class as this one and counted the values of the same attribute for the examples
+	 * directly following the examples counted by this object.
+	 */
+	public void merge(Statistics other);
+
+}
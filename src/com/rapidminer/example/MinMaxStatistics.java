@@ -31,7 +31,7 @@ import com.rapidminer.tools.LogService;
  * 
  *  @author Ingo Mierswa
  */
-public class MinMaxStatistics implements Statistics {
+public class MinMaxStatistics implements MergeableStatistics {
 
 	private static final long serialVersionUID = 1027895282018510951L;
 
@@ -61,6 +61,14 @@ public class MinMaxStatistics implements Statistics {
         }
 	}
 
+	public void merge(Statistics other) {
+		MinMaxStatistics statistics = (MinMaxStatistics)other;
+		if (minimum > statistics.minimum)
+			minimum = statistics.minimum;
+		if (maximum < statistics.maximum)
+			maximum = statistics.maximum;
+	}
+
 	public double getStatistics(Attribute attribute, String name,	String parameter) {
         if (MINIMUM.equals(name)) {
             return this.minimum;
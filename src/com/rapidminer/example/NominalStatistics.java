@@ -31,7 +31,7 @@ import com.rapidminer.tools.LogService;
  * 
  *  @author Ingo Mierswa
  */
-public class NominalStatistics implements Statistics {
+public class NominalStatistics implements MergeableStatistics {
 
     private static final long serialVersionUID = -7644523717916796701L;
 
@@ -40,6 +40,12 @@ public class NominalStatistics implements Statistics {
     private long maxCounter = 0;
 
     private long[] scores;
+
+    /** The position of the last occurrence of each value. Needed to determine the mode of merged statistics. */
+    private long[] lastOccurrences;
+
+    /** The number of counted values including unknown ones. */
+    private long position = 0;
     
     public NominalStatistics() {}
     
@@ -52,6 +58,10 @@ public class NominalStatistics implements Statistics {
             for (int i = 0; i < this.scores.length; i++)
                 this.scores[i] = other.scores[i];
         }
+        if (other.lastOccurrences != null) {
+            this.lastOccurrences = other.lastOccurrences.clone();
+        }
+        this.position = other.position;
     }
     
     /** Returns a clone of this statistics object. The attribute is only cloned by reference. */
@@ -62,21 +72,23 @@ public class NominalStatistics implements Statistics {
     
     public void startCounting(Attribute attribute) {
         this.scores = new long[attribute.getMapping().size()];
+        this.lastOccurrences = new long[this.scores.length];
         this.mode = -1;
         this.maxCounter = 0;
+        this.position = 0;
     }
     
     public void count(double doubleIndex, double weight) {
+        position++;
         if (!Double.isNaN(doubleIndex)) {
             int index = (int)doubleIndex;
             if (index >= 0) {
             	// more values than before? Increase Array size...
             	if (index >= scores.length) {
-            		long[] newScores = new long[index + 1];
-            		System.arraycopy(scores, 0, newScores, 0, scores.length);
-            		scores = newScores;
+            		ensureCapacity(index + 1);
             	}
             	scores[index]++;
+            	lastOccurrences[index] = position;
             	if (scores[index] > maxCounter) {
             		maxCounter = scores[index];
             		mode = index;
@@ -85,6 +97,45 @@ public class NominalStatistics implements Statistics {
         }
     }
     
+    /**
+     * Adds the counts of the given statistics. The mode is the value which reached the
+     * maximal count first, i.e. the one with the earliest last occurrence among all values
+     * with maximal count. This is the same value sequential counting would deliver.
+     */
+    public void merge(Statistics other) {
+        NominalStatistics statistics = (NominalStatistics)other;
+        if (statistics.scores.length > scores.length) {
+            ensureCapacity(statistics.scores.length);
+        }
+        for (int i = 0; i < statistics.scores.length; i++) {
+            if (statistics.scores[i] > 0) {
+                scores[i] += statistics.scores[i];
+                lastOccurrences[i] = position + statistics.lastOccurrences[i];
+            }
+        }
+        position += statistics.position;
+
+        mode = -1;
+        maxCounter = 0;
+        for (int i = 0; i < scores.length; i++) {
+            if ((scores[i] > maxCounter) || ((scores[i] == maxCounter) && (maxCounter > 0) && (lastOccurrences[i] < lastOccurrences[(int)mode]))) {
+                maxCounter = scores[i];
+                mode = i;
+            }
+        }
+    }
+
+    private void ensureCapacity(int size) {
+        long[] newScores = new long[size];
+        System.arraycopy(scores, 0, newScores, 0, scores.length);
+        long[] newLastOccurrences = new long[size];
+        if (lastOccurrences != null) {
+            System.arraycopy(lastOccurrences, 0, newLastOccurrences, 0, lastOccurrences.length);
+        }
+        scores = newScores;
+        lastOccurrences = newLastOccurrences;
+    }
+    
     public boolean handleStatistics(String name) {
         return 
             MODE.equals(name) ||
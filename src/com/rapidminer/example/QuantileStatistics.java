@@ -0,0 +1,99 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.example;
+
+import java.util.logging.Level;
+
+import com.rapidminer.tools.LogService;
+import com.rapidminer.tools.math.TDigest;
+
+/** Attribute statistics object estimating the median and arbitrary quantiles of numerical
+ *  attributes with a {@link TDigest}, i.e. with bounded memory and a single pass over the data.
+ *  The quantile is given as statistics parameter, e.g. "0.25" for the lower quartile. Like
+ *  {@link NumericalStatistics}, weights are ignored. This statistics is not registered by default
+ *  and can be added by {@link Attribute#registerStatistics(Statistics)}.
+ */
+public class QuantileStatistics implements MergeableStatistics {
+
+	private static final long serialVersionUID = 3212839408316395213L;
+
+	private TDigest digest = new TDigest();
+
+	public QuantileStatistics() {}
+
+	/** Clone constructor. */
+	private QuantileStatistics(QuantileStatistics other) {
+		this.digest = new TDigest(other.digest);
+	}
+
+	@Override
+	public Object clone() {
+		return new QuantileStatistics(this);
+	}
+
+	public void startCounting(Attribute attribute) {
+		this.digest = new TDigest();
+	}
+
+	public void count(double value, double weight) {
+		digest.add(value);
+	}
+
+	public void merge(Statistics other) {
+		digest.add(((QuantileStatistics)other).digest);
+	}
+
+	public boolean handleStatistics(String name) {
+		return
+			MEDIAN.equals(name) ||
+			QUANTILE.equals(name);
+	}
+
+	public double getStatistics(Attribute attribute, String name, String parameter) {
+		if (MEDIAN.equals(name)) {
+			return digest.quantile(0.5d);
+		} else if (QUANTILE.equals(name)) {
+			double quantile = Double.NaN;
+			if (parameter != null) {
+				try {
+					quantile = Double.parseDouble(parameter);
+				} catch (NumberFormatException e) {
+					quantile = Double.NaN;
+				}
+			}
+			if (Double.isNaN(quantile) || quantile < 0 || quantile > 1) {
+				LogService.getRoot().log(Level.WARNING, "com.rapidminer.example.QuantileStatistics.calculating_statistics_illegal_quantile_error", parameter);
+				return Double.NaN;
+			}
+			return digest.quantile(quantile);
+		} else {
+			LogService.getRoot().log(Level.WARNING, "com.rapidminer.example.QuantileStatistics.calculating_statistics_unknown_type_error", name);
+			return Double.NaN;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "median: " + digest.quantile(0.5d);
+	}
+}
@@ -42,6 +42,9 @@ public interface Statistics extends Serializable {
     public static final String COUNT             = "count";
     public static final String SUM               = "sum";
     public static final String SUM_WEIGHTED      = "sum_weighted";
+    public static final String MEDIAN            = "median";
+    public static final String QUANTILE          = "quantile";
+    public static final String DISTINCT          = "distinct";
     
     
     public Object clone();
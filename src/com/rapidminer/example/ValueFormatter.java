@@ -0,0 +1,146 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.example;
+
+import java.text.DateFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+import com.rapidminer.RapidMiner;
+import com.rapidminer.example.table.DateAttribute;
+import com.rapidminer.example.table.NumericalAttribute;
+import com.rapidminer.tools.Ontology;
+import com.rapidminer.tools.ParameterService;
+
+/**
+ * Formats attribute values like {@link Attribute#getAsString(double, int, boolean)}, but uses
+ * number and date formats of its own instead of the shared formats of {@link com.rapidminer.tools.Tools}.
+ * A single instance is not thread safe, but different instances can be used concurrently, e.g.
+ * one for each block of examples which is written in parallel.
+ * 
+ * Only the values of {@link NumericalAttribute}s and {@link DateAttribute}s are formatted by
+ * this class. All other attributes, e.g. view attributes or attributes of extensions, format
+ * their values themselves. Since these may use the shared formats, the calls of all instances
+ * are serialized for attributes which are not nominal.
+ */
+public class ValueFormatter {
+
+	private final Locale locale = com.rapidminer.tools.Tools.getFormatLocale();
+
+	private final NumberFormat numberFormat = NumberFormat.getInstance(locale);
+
+	private final NumberFormat integerFormat = NumberFormat.getIntegerInstance(locale);
+
+	private final String infinity = new DecimalFormatSymbols(locale).getInfinity();
+
+	private final int defaultNumberOfDigits;
+
+	private DateFormat dateFormat;
+
+	private DateFormat timeFormat;
+
+	private DateFormat dateTimeFormat;
+
+	public ValueFormatter() {
+		int digits = 3;
+		try {
+			digits = Integer.parseInt(ParameterService.getParameterValue(RapidMiner.PROPERTY_RAPIDMINER_GENERAL_FRACTIONDIGITS_NUMBERS));
+		} catch (NumberFormatException e) {}
+		this.defaultNumberOfDigits = digits;
+		numberFormat.setGroupingUsed(false);
+		integerFormat.setGroupingUsed(false);
+	}
+
+	/**
+	 * Returns the value as string. Values of {@link DateAttribute}s and {@link NumericalAttribute}s
+	 * are formatted as by these classes, all other values are formatted by the attribute itself.
+	 */
+	public String format(Attribute attribute, double value, int fractionDigits, boolean quoteNominal) {
+		if (!(attribute instanceof DateAttribute) && !(attribute instanceof NumericalAttribute)) {
+			if (attribute.isNominal()) {
+				return attribute.getAsString(value, fractionDigits, quoteNominal);
+			}
+			synchronized (ValueFormatter.class) {
+				return attribute.getAsString(value, fractionDigits, quoteNominal);
+			}
+		} else if (Double.isNaN(value)) {
+			return "?";
+		} else if (attribute instanceof DateAttribute) {
+			String result = formatDate(attribute.getValueType(), new Date((long) value));
+			return quoteNominal ? "\"" + result + "\"" : result;
+		} else {
+			switch (fractionDigits) {
+			case NumericalAttribute.UNLIMITED_NUMBER_OF_DIGITS:
+				return Double.toString(value);
+			case NumericalAttribute.DEFAULT_NUMBER_OF_DIGITS:
+				return formatIntegerIfPossible(value, defaultNumberOfDigits);
+			default:
+				return formatIntegerIfPossible(value, fractionDigits);
+			}
+		}
+	}
+
+	private String formatIntegerIfPossible(double value, int numberOfDigits) {
+		if (Double.isInfinite(value)) {
+			return value < 0 ? "-" + infinity : infinity;
+		}
+		long longValue = Math.round(value);
+		if (Math.abs(longValue - value) < 1E-8) {
+			return integerFormat.format(longValue);
+		} else {
+			int digits = numberOfDigits < 0 ? defaultNumberOfDigits : numberOfDigits;
+			numberFormat.setMaximumFractionDigits(digits);
+			numberFormat.setMinimumFractionDigits(digits);
+			return numberFormat.format(value);
+		}
+	}
+
+	private String formatDate(int valueType, Date date) {
+		if (valueType == Ontology.DATE) {
+			if (dateFormat == null) {
+				dateFormat = DateFormat.getDateInstance(DateFormat.MEDIUM, Locale.getDefault());
+			}
+			return format(dateFormat, date);
+		} else if (valueType == Ontology.TIME) {
+			if (timeFormat == null) {
+				timeFormat = DateFormat.getTimeInstance(DateFormat.LONG, Locale.getDefault());
+			}
+			return format(timeFormat, date);
+		} else if (valueType == Ontology.DATE_TIME) {
+			if (dateTimeFormat == null) {
+				dateTimeFormat = new SimpleDateFormat("dd/mm/yyyy HH:mm:ss aa zzz");
+			}
+			return format(dateTimeFormat, date);
+		} else {
+			return null;
+		}
+	}
+
+	private static String format(DateFormat format, Date date) {
+		format.setTimeZone(com.rapidminer.tools.Tools.getPreferredTimeZone());
+		return format.format(date);
+	}
+}
@@ -25,17 +25,18 @@ package com.rapidminer.example.set;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.zip.GZIPOutputStream;
+import java.util.concurrent.Callable;
+import java.util.logging.Level;
 
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
@@ -51,16 +52,25 @@ import com.rapidminer.example.AttributeWeights;
 import com.rapidminer.example.Attributes;
 import com.rapidminer.example.Example;
 import com.rapidminer.example.ExampleSet;
+import com.rapidminer.example.MergeableStatistics;
 import com.rapidminer.example.Statistics;
+import com.rapidminer.example.ValueFormatter;
+import com.rapidminer.example.table.AbstractAttribute;
+import com.rapidminer.example.table.AbstractExampleTable;
+import com.rapidminer.example.table.ExampleTable;
 import com.rapidminer.example.table.SparseFormatDataRowReader;
 import com.rapidminer.io.process.XMLTools;
 import com.rapidminer.operator.IOContainer;
 import com.rapidminer.operator.IOObject;
 import com.rapidminer.operator.MissingIOObjectException;
+import com.rapidminer.operator.OperatorException;
 import com.rapidminer.operator.ResultObjectAdapter;
+import com.rapidminer.tools.ConcurrencyTools;
+import com.rapidminer.tools.LogService;
 import com.rapidminer.tools.Ontology;
 import com.rapidminer.tools.Tools;
 import com.rapidminer.tools.XMLException;
+import com.rapidminer.tools.io.ParallelBlockWriter;
 
 
 /**
@@ -77,9 +87,15 @@ public abstract class AbstractExampleSet extends ResultObjectAdapter implements
 
 	private static final long serialVersionUID = 8596141056047402798L;
 
+	/** The minimal number of examples counted by one thread during the calculation of statistics. */
+	private static final int MIN_EXAMPLES_PER_STATISTICS_TASK = 10000;
+
 	/** Maps attribute names to list of statistics objects. */
 	private final Map<String, List<Statistics>> statisticsMap = new HashMap<String, List<Statistics>>();
 
+	/** Maps attribute names to the state of the data their statistics in {@link #statisticsMap} were calculated from. */
+	private transient Map<String, StatisticsState> statisticsStates;
+
 	/** Maps the id values on the line index in the example table. */
 	private Map<Double, int[]> idMap = new HashMap<Double, int[]>();
 
@@ -156,55 +172,51 @@ public abstract class AbstractExampleSet extends ResultObjectAdapter implements
 	// -------------------- File Writing --------------------
 
 	public void writeDataFile(File dataFile, int fractionDigits, boolean quoteNominal, boolean zipped, boolean append, Charset encoding) throws IOException {
-		PrintWriter out = null;
-		OutputStream outStream = null;
-		try {
-			if (zipped) {
-				outStream = new GZIPOutputStream(new FileOutputStream(dataFile, append));
-			} else {
-				outStream = new FileOutputStream(dataFile, append);
-			}
-			out = new PrintWriter(new OutputStreamWriter(outStream, encoding));
-			Iterator<Example> reader = iterator();
-			while (reader.hasNext()) {
-				out.println(reader.next().toDenseString(fractionDigits, quoteNominal));
+		writeDataFile(dataFile, fractionDigits, quoteNominal, zipped, append, encoding, 1);
+	}
+
+	public void writeDataFile(File dataFile, final int fractionDigits, final boolean quoteNominal, boolean zipped, boolean append, Charset encoding, final int numberOfThreads) throws IOException {
+		ParallelBlockWriter<Example> writer = new ParallelBlockWriter<Example>(new FileOutputStream(dataFile, append), encoding, zipped, numberOfThreads) {
+
+			@Override
+			protected void formatBlock(List<Example> examples, StringBuilder result) {
+				// blocks formatted concurrently must not share the formats of Tools
+				ValueFormatter formatter = (numberOfThreads > 1) ? new ValueFormatter() : null;
+				for (Example example : examples) {
+					result.append(example.toDenseString(fractionDigits, quoteNominal, formatter));
+					result.append(getLineSeparator());
+				}
 			}
-		} catch (IOException e) {
-			throw e;
+		};
+		try {
+			writer.writeRows(iterator());
 		} finally {
-			if (out != null) {
-				out.close();		
-			}
-			if (outStream != null) {
-				outStream.close();				
-			}
+			writer.close();
 		}
 	}
 
 	/** Writes the data into a sparse file format. */
 	public void writeSparseDataFile(File dataFile, int format, int fractionDigits, boolean quoteNominal, boolean zipped, boolean append, Charset encoding) throws IOException {
-		PrintWriter out = null;
-		OutputStream outStream = null;
-		try {
-			if (zipped) {
-				outStream = new GZIPOutputStream(new FileOutputStream(dataFile, append));
-			} else {
-				outStream = new FileOutputStream(dataFile, append);
-			}
-			out = new PrintWriter(new OutputStreamWriter(outStream, encoding));
-			Iterator<Example> reader = iterator();
-			while (reader.hasNext()) {
-				out.println(reader.next().toSparseString(format, fractionDigits, quoteNominal));
+		writeSparseDataFile(dataFile, format, fractionDigits, quoteNominal, zipped, append, encoding, 1);
+	}
+
+	/** Writes the data into a sparse file format using the given number of threads. */
+	public void writeSparseDataFile(File dataFile, final int format, final int fractionDigits, final boolean quoteNominal, boolean zipped, boolean append, Charset encoding, final int numberOfThreads) throws IOException {
+		ParallelBlockWriter<Example> writer = new ParallelBlockWriter<Example>(new FileOutputStream(dataFile, append), encoding, zipped, numberOfThreads) {
+
+			@Override
+			protected void formatBlock(List<Example> examples, StringBuilder result) {
+				ValueFormatter formatter = (numberOfThreads > 1) ? new ValueFormatter() : null;
+				for (Example example : examples) {
+					result.append(example.toSparseString(format, fractionDigits, quoteNominal, formatter));
+					result.append(getLineSeparator());
+				}
 			}
-		} catch (IOException e) {
-			throw e;
+		};
+		try {
+			writer.writeRows(iterator());
 		} finally {
-			if (out != null) {
-				out.close();		
-			}
-			if (outStream != null) {
-				outStream.close();		
-			}
+			writer.close();
 		}
 	}
 
@@ -433,43 +445,62 @@ public abstract class AbstractExampleSet extends ResultObjectAdapter implements
 
 	/**
 	 * Here the Example Set is parsed only once, all the information is retained
-	 * for each example set.
+	 * for each example set. If {@link #hasFixedExamples()} returns true, only the
+	 * statistics of attributes whose data changed since the last calculation are
+	 * recalculated and large example sets are counted by several threads.
 	 */
 	private void recalculateAttributeStatistics(List<Attribute> attributeList) {
 		// do nothing if not desired
 		if (attributeList.size() == 0) {
 			return;
 		} else {
-			// init statistics
+			Attribute weightAttribute = getAttributes().getWeight();
+			if ((weightAttribute != null) && (!weightAttribute.isNumerical())) // use only numerical weights
+				weightAttribute = null;
+
+			// find attributes whose data changed
+			boolean fixedExamples = hasFixedExamples();
+			Map<String, StatisticsState> currentStates = new HashMap<String, StatisticsState>();
+			List<Attribute> dirtyAttributes = new ArrayList<Attribute>(attributeList.size());
 			for (Attribute attribute : attributeList) {
-				Iterator<Statistics> stats = attribute.getAllStatistics();
+				StatisticsState state = fixedExamples ? StatisticsState.create(this, attribute, weightAttribute) : null;
+				if (state != null) {
+					currentStates.put(attribute.getName(), state);
+					if (state.equals(getStatisticsStates().get(attribute.getName())) && statisticsMap.containsKey(attribute.getName())) {
+						continue;
+					}
+				}
+				dirtyAttributes.add(attribute);
+			}
+			if (dirtyAttributes.isEmpty()) {
+				return;
+			}
+
+			// init statistics, the statistics of the attributes are only cloned so that they can stay shared with their clones
+			boolean mergeable = fixedExamples && currentStates.size() == attributeList.size();
+			Statistics[][] allStatistics = new Statistics[dirtyAttributes.size()][];
+			for (int a = 0; a < allStatistics.length; a++) {
+				Attribute attribute = dirtyAttributes.get(a);
+				List<Statistics> statisticsList = new ArrayList<Statistics>();
+				Iterator<Statistics> stats = getRegisteredStatistics(attribute);
 				while (stats.hasNext()) {
-					Statistics statistics = stats.next();
+					Statistics statistics = (Statistics)stats.next().clone();
 					statistics.startCounting(attribute);
+					mergeable &= statistics instanceof MergeableStatistics;
+					statisticsList.add(statistics);
 				}
+				allStatistics[a] = statisticsList.toArray(new Statistics[statisticsList.size()]);
 			}
 
 			// calculate statistics
-			Attribute weightAttribute = getAttributes().getWeight();
-			if ((weightAttribute != null) && (!weightAttribute.isNumerical())) // use only numerical weights
-				weightAttribute = null;
-			for (Example example : this) {
-				for (Attribute attribute : attributeList) {
-					double value = example.getValue(attribute);
-					double weight = 1.0d;
-					if (weightAttribute != null) {
-						weight = example.getValue(weightAttribute);
-					}
-					Iterator<Statistics> stats = attribute.getAllStatistics();
-					while (stats.hasNext()) {
-						Statistics statistics = stats.next();
-						statistics.count(value, weight);
-					}
-				}
+			int numberOfTasks = Math.min(ConcurrencyTools.getNumberOfThreads(), size() / MIN_EXAMPLES_PER_STATISTICS_TASK);
+			if (!mergeable || numberOfTasks <= 1 || !countStatisticsInParallel(dirtyAttributes, allStatistics, weightAttribute, numberOfTasks)) {
+				countStatistics(dirtyAttributes, allStatistics, weightAttribute);
 			}
 
-			// store cloned statistics
-			for (Attribute attribute : attributeList) {
+			// store calculated statistics
+			for (int a = 0; a < allStatistics.length; a++) {
+				Attribute attribute = dirtyAttributes.get(a);
 				List<Statistics> statisticsList = statisticsMap.get(attribute.getName());
 				// no stats known for this attribute at all --> new list
 				if (statisticsList == null) {
@@ -477,18 +508,129 @@ public abstract class AbstractExampleSet extends ResultObjectAdapter implements
 					statisticsMap.put(attribute.getName(), statisticsList);
 				}            
 
-				// in all cases: clear the list before adding new stats (clone of the calculations)
+				// in all cases: clear the list before adding new stats
 				statisticsList.clear();
+				statisticsList.addAll(Arrays.asList(allStatistics[a]));
 
-				Iterator<Statistics> stats = attribute.getAllStatistics();
-				while (stats.hasNext()) {
-					Statistics statistics = (Statistics)stats.next().clone();
-					statisticsList.add(statistics);
+				StatisticsState state = currentStates.get(attribute.getName());
+				if (state != null) {
+					getStatisticsStates().put(attribute.getName(), state);
+				} else {
+					getStatisticsStates().remove(attribute.getName());
 				}
 			}
 		}
 	}
 
+	/**
+	 * Returns the statistics registered for the attribute. These are not copied if they are shared
+	 * with clones of the attribute and must therefore not be modified.
+	 */
+	private static Iterator<Statistics> getRegisteredStatistics(Attribute attribute) {
+		if (attribute instanceof AbstractAttribute) {
+			return ((AbstractAttribute)attribute).getRegisteredStatistics();
+		} else {
+			return attribute.getAllStatistics();
+		}
+	}
+
+	/** Counts the values of all examples with the given statistics of the given attributes. */
+	private void countStatistics(List<Attribute> attributeList, Statistics[][] allStatistics, Attribute weightAttribute) {
+		for (Example example : this) {
+			double weight = 1.0d;
+			if (weightAttribute != null) {
+				weight = example.getValue(weightAttribute);
+			}
+			for (int a = 0; a < allStatistics.length; a++) {
+				double value = example.getValue(attributeList.get(a));
+				for (Statistics statistics : allStatistics[a]) {
+					statistics.count(value, weight);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Splits the examples into consecutive ranges which are counted by copies of the given (already
+	 * started) statistics of the given attributes in parallel. Afterwards the partial results
+	 * are merged into the given statistics in the order of the ranges. All statistics
+	 * must be {@link MergeableStatistics}. Returns false if the calculation was interrupted and
+	 * nothing was merged.
+	 */
+	private boolean countStatisticsInParallel(final List<Attribute> attributeList, final Statistics[][] allStatistics, final Attribute weightAttribute, int numberOfTasks) {
+
+		List<Callable<Statistics[][]>> tasks = new ArrayList<Callable<Statistics[][]>>(numberOfTasks);
+		int size = size();
+		for (int t = 0; t < numberOfTasks; t++) {
+			final int from = (int)((long)size * t / numberOfTasks);
+			final int to = (int)((long)size * (t + 1) / numberOfTasks);
+			tasks.add(new Callable<Statistics[][]>() {
+
+				@Override
+				public Statistics[][] call() {
+					Statistics[][] partialStatistics = new Statistics[allStatistics.length][];
+					Attribute[] attributes = new Attribute[allStatistics.length];
+					for (int a = 0; a < allStatistics.length; a++) {
+						attributes[a] = attributeList.get(a);
+						partialStatistics[a] = new Statistics[allStatistics[a].length];
+						for (int s = 0; s < allStatistics[a].length; s++) {
+							partialStatistics[a][s] = (Statistics)allStatistics[a][s].clone();
+							partialStatistics[a][s].startCounting(attributes[a]);
+						}
+					}
+					for (int i = from; i < to; i++) {
+						Example example = getExample(i);
+						double weight = 1.0d;
+						if (weightAttribute != null) {
+							weight = example.getValue(weightAttribute);
+						}
+						for (int a = 0; a < attributes.length; a++) {
+							double value = example.getValue(attributes[a]);
+							for (Statistics statistics : partialStatistics[a]) {
+								statistics.count(value, weight);
+							}
+						}
+					}
+					return partialStatistics;
+				}
+			});
+		}
+
+		List<Statistics[][]> results;
+		try {
+			results = ConcurrencyTools.call(tasks, numberOfTasks);
+		} catch (OperatorException e) {
+			LogService.getRoot().log(Level.FINE, "Parallel calculation of attribute statistics failed, counting sequentially: " + e, e);
+			return false;
+		}
+		for (Statistics[][] partialStatistics : results) {
+			for (int a = 0; a < allStatistics.length; a++) {
+				for (int s = 0; s < allStatistics[a].length; s++) {
+					((MergeableStatistics)allStatistics[a][s]).merge(partialStatistics[a][s]);
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns true if this example set always delivers the same examples of its example table in
+	 * the same order without changing their values and if {@link #getExample(int)} provides
+	 * fast random access. The attribute statistics of such example sets are counted in parallel
+	 * and are only recalculated for attributes whose data has changed since the last calculation.
+	 * The default implementation returns false.
+	 */
+	protected boolean hasFixedExamples() {
+		return false;
+	}
+
+	private Map<String, StatisticsState> getStatisticsStates() {
+		if (statisticsStates == null) {
+			statisticsStates = new HashMap<String, StatisticsState>();
+		}
+		return statisticsStates;
+	}
+
 	/** Returns the desired statistic for the given attribute. This method should be 
 	 *  preferred over the deprecated method Attribute#getStatistics(String)
 	 *  since it correctly calculates and keep the statistics for the current example
@@ -519,4 +661,89 @@ public abstract class AbstractExampleSet extends ResultObjectAdapter implements
 
 		return Double.NaN;
 	}
+
+	/**
+	 * Describes the state of the data the statistics of an attribute were calculated from. If
+	 * two states are equal, the calculation would deliver the same statistics.
+	 */
+	private static final class StatisticsState {
+
+		private final Attribute attribute;
+
+		private final int tableIndex;
+
+		private final long attributeModifications;
+
+		private final int numberOfStatistics;
+
+		private final int mappingSize;
+
+		private final Attribute weightAttribute;
+
+		private final long weightModifications;
+
+		private final ExampleTable table;
+
+		private final long tableModifications;
+
+		private final int size;
+
+		private StatisticsState(ExampleSet exampleSet, AbstractAttribute attribute, AbstractAttribute weightAttribute, AbstractExampleTable table) {
+			this.attribute = attribute;
+			this.tableIndex = attribute.getTableIndex();
+			this.attributeModifications = attribute.getModificationCount();
+			int statisticsCount = 0;
+			Iterator<Statistics> stats = attribute.getRegisteredStatistics();
+			while (stats.hasNext()) {
+				stats.next();
+				statisticsCount++;
+			}
+			this.numberOfStatistics = statisticsCount;
+			this.mappingSize = attribute.isNominal() ? attribute.getMapping().size() : -1;
+			this.weightAttribute = weightAttribute;
+			this.weightModifications = weightAttribute != null ? weightAttribute.getModificationCount() : 0;
+			this.table = table;
+			this.tableModifications = table.getModificationCount();
+			this.size = exampleSet.size();
+		}
+
+		/**
+		 * Returns the current state for the given attribute or null if it cannot be determined,
+		 * e.g. because the values are changed by attribute transformations.
+		 */
+		private static StatisticsState create(ExampleSet exampleSet, Attribute attribute, Attribute weightAttribute) {
+			if (!(attribute instanceof AbstractAttribute) || (attribute.getLastTransformation() != null)) {
+				return null;
+			}
+			if ((weightAttribute != null) && (!(weightAttribute instanceof AbstractAttribute) || (weightAttribute.getLastTransformation() != null))) {
+				return null;
+			}
+			if (!(exampleSet.getExampleTable() instanceof AbstractExampleTable)) {
+				return null;
+			}
+			return new StatisticsState(exampleSet, (AbstractAttribute)attribute, (AbstractAttribute)weightAttribute, (AbstractExampleTable)exampleSet.getExampleTable());
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof StatisticsState))
+				return false;
+			StatisticsState other = (StatisticsState)o;
+			return (this.attribute == other.attribute) &&
+				(this.tableIndex == other.tableIndex) &&
+				(this.attributeModifications == other.attributeModifications) &&
+				(this.numberOfStatistics == other.numberOfStatistics) &&
+				(this.mappingSize == other.mappingSize) &&
+				(this.weightAttribute == other.weightAttribute) &&
+				(this.weightModifications == other.weightModifications) &&
+				(this.table == other.table) &&
+				(this.tableModifications == other.tableModifications) &&
+				(this.size == other.size);
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(attribute) ^ (int)attributeModifications ^ (int)tableModifications;
+		}
+	}
 }
@@ -22,6 +22,7 @@
  */
 package com.rapidminer.example.set;
 
+import java.util.BitSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -29,6 +30,7 @@ import java.util.List;
 import com.rapidminer.example.Attribute;
 import com.rapidminer.example.Example;
 import com.rapidminer.example.ExampleSet;
+import com.rapidminer.example.table.AbstractExampleTable;
 
 
 /**
@@ -38,7 +40,7 @@ import com.rapidminer.example.ExampleSet;
  * 
  * @author Ingo Mierswa
  */
-public class AttributeValueFilter implements Condition {
+public class AttributeValueFilter implements IndexedCondition {
 
     private static final long serialVersionUID = 6977275837081172924L;
     
@@ -136,4 +138,22 @@ public class AttributeValueFilter implements Condition {
             return false;
         }
 	}
+
+	/** Combines the fulfilling rows of all single conditions by bitwise AND or OR. */
+	public BitSet getFulfillingRows(AbstractExampleTable table) {
+		BitSet result = null;
+		for (AttributeValueFilterSingleCondition condition : conditions) {
+			BitSet rows = condition.getFulfillingRows(table);
+			if (rows == null)
+				return null;
+			if (result == null) {
+				result = rows;
+			} else if (combinationMode == AND) {
+				result.and(rows);
+			} else {
+				result.or(rows);
+			}
+		}
+		return result;
+	}
 }
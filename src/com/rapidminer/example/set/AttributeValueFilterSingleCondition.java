@@ -24,6 +24,7 @@ package com.rapidminer.example.set;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.BitSet;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.regex.PatternSyntaxException;
@@ -31,6 +32,9 @@ import java.util.regex.PatternSyntaxException;
 import com.rapidminer.example.Attribute;
 import com.rapidminer.example.Example;
 import com.rapidminer.example.ExampleSet;
+import com.rapidminer.example.table.AbstractExampleTable;
+import com.rapidminer.example.table.ColumnValueIndex;
+import com.rapidminer.tools.Ontology;
 import com.rapidminer.tools.Tools;
 
 /**
@@ -38,7 +42,7 @@ import com.rapidminer.tools.Tools;
  * 
  * @author Ingo Mierswa, Nils Woehler
  */
-public class AttributeValueFilterSingleCondition implements Condition {
+public class AttributeValueFilterSingleCondition implements IndexedCondition {
 
 	private static final long serialVersionUID = 1537763901048986863L;
 
@@ -72,6 +76,13 @@ public class AttributeValueFilterSingleCondition implements Condition {
 
 	private Date dateValue;
 
+	/** Tests used by {@link #findFirstPosition(ColumnValueIndex, int, int)}. */
+	private static final int FULFILLED = 0;
+
+	private static final int NOT_FULFILLED = 1;
+
+	private static final int REACHED = 2;
+
 	private HashSet<Integer> allowedNominalValueIndices;
 	private boolean isMissingAllowed = false;
 
@@ -201,23 +212,7 @@ public class AttributeValueFilterSingleCondition implements Condition {
 				}
 			}
 		} else if (attribute.isNumerical()) {
-			switch (comparisonType) {
-				case LEQ:
-					return Tools.isLessEqual(e.getNumericalValue(attribute), numericalValue);
-				case GEQ:
-					return Tools.isGreaterEqual(e.getNumericalValue(attribute), numericalValue);
-				case NEQ1:
-				case NEQ2:
-					return Tools.isNotEqual(e.getNumericalValue(attribute), numericalValue);
-				case EQUALS:
-					return Tools.isEqual(e.getNumericalValue(attribute), numericalValue);
-				case LESS:
-					return Tools.isLess(e.getNumericalValue(attribute), numericalValue);
-				case GREATER:
-					return Tools.isGreater(e.getNumericalValue(attribute), numericalValue);
-				default:
-					return false;
-			}
+			return isNumericalValueOk(e.getNumericalValue(attribute));
 		} else { // date
 			Date currentDateValue;
 			if(Double.isNaN(e.getValue(attribute))) {
@@ -225,24 +220,137 @@ public class AttributeValueFilterSingleCondition implements Condition {
 			} else {
 				currentDateValue = e.getDateValue(attribute);
 			}
+			return isDateValueOk(currentDateValue);
+		}
+	}
+
+	private boolean isNumericalValueOk(double value) {
+		switch (comparisonType) {
+			case LEQ:
+				return Tools.isLessEqual(value, numericalValue);
+			case GEQ:
+				return Tools.isGreaterEqual(value, numericalValue);
+			case NEQ1:
+			case NEQ2:
+				return Tools.isNotEqual(value, numericalValue);
+			case EQUALS:
+				return Tools.isEqual(value, numericalValue);
+			case LESS:
+				return Tools.isLess(value, numericalValue);
+			case GREATER:
+				return Tools.isGreater(value, numericalValue);
+			default:
+				return false;
+		}
+	}
+
+	private boolean isDateValueOk(Date currentDateValue) {
+		switch (comparisonType) {
+			case LEQ:
+				return Tools.isLessEqual(currentDateValue, dateValue);
+			case GEQ:
+				return Tools.isGreaterEqual(currentDateValue, dateValue);
+			case NEQ1:
+			case NEQ2:
+				return Tools.isNotEqual(currentDateValue, dateValue);
+			case EQUALS:
+				return Tools.isEqual(currentDateValue, dateValue);
+			case LESS:
+				return Tools.isLess(currentDateValue, dateValue);
+			case GREATER:
+				return Tools.isGreater(currentDateValue, dateValue);
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * Returns the fulfilling rows from the value index of the attribute or null if the table has
+	 * no such index. Since all comparisons are monotone in the value, the fulfilling non missing
+	 * values form a contiguous range of the sorted values of the index, except for nominal values
+	 * given as regular expression, whose single values are looked up separately.
+	 */
+	public BitSet getFulfillingRows(AbstractExampleTable table) {
+		boolean isDate = !attribute.isNominal() && !attribute.isNumerical();
+		if (isDate && ((dateValue == null) || !Ontology.ATTRIBUTE_VALUE_TYPE.isA(attribute.getValueType(), Ontology.DATE_TIME))) {
+			return null;
+		}
+		ColumnValueIndex index = table.getValueIndex(attribute);
+		if (index == null) {
+			return null;
+		}
+		boolean inverted = (comparisonType == NEQ1) || (comparisonType == NEQ2);
+		BitSet result;
+		if (attribute.isNominal()) {
+			result = isMissingAllowed ? index.getMissingRows() : new BitSet(index.getNumberOfRows());
+			for (int value : allowedNominalValueIndices) {
+				index.addRows(result, index.getLowerBound(value), index.getUpperBound(value));
+			}
+		} else if (!isDate && Double.isNaN(numericalValue)) {
+			// only equality comparisons are fulfilled, namely by the missing values
+			result = ((comparisonType == EQUALS) || inverted) ? index.getMissingRows() : new BitSet(index.getNumberOfRows());
+		} else {
 			switch (comparisonType) {
 				case LEQ:
-					return Tools.isLessEqual(currentDateValue, dateValue);
+				case LESS:
+					result = index.getRows(0, findFirstPosition(index, 0, NOT_FULFILLED));
+					break;
 				case GEQ:
-					return Tools.isGreaterEqual(currentDateValue, dateValue);
+				case GREATER:
+					result = index.getRows(findFirstPosition(index, 0, FULFILLED), index.getNumberOfValues());
+					break;
 				case NEQ1:
 				case NEQ2:
-					return Tools.isNotEqual(currentDateValue, dateValue);
 				case EQUALS:
-					return Tools.isEqual(currentDateValue, dateValue);
-				case LESS:
-					return Tools.isLess(currentDateValue, dateValue);
-				case GREATER:
-					return Tools.isGreater(currentDateValue, dateValue);
+					int from = findFirstPosition(index, 0, REACHED);
+					result = index.getRows(from, findFirstPosition(index, from, NOT_FULFILLED));
+					break;
 				default:
-					return false;
+					return null;
+			}
+		}
+		if (inverted) {
+			result.flip(0, index.getNumberOfRows());
+		}
+		return result;
+	}
 
+	/**
+	 * Performs a binary search for the first position of the sorted values of the index, starting
+	 * at from, for which the given test is true. The test must be false for all positions before
+	 * and true for all positions after the searched one. For inequality comparisons, the tests
+	 * refer to the equality of the values.
+	 */
+	private int findFirstPosition(ColumnValueIndex index, int from, int test) {
+		boolean isDate = !attribute.isNumerical();
+		boolean inverted = (comparisonType == NEQ1) || (comparisonType == NEQ2);
+		int low = from;
+		int high = index.getNumberOfValues();
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			double value = index.getSortedValue(middle);
+			boolean ok = (isDate ? isDateValueOk(new Date((long)value)) : isNumericalValueOk(value)) != inverted;
+			boolean found;
+			switch (test) {
+				case FULFILLED:
+					found = ok;
+					break;
+				case NOT_FULFILLED:
+					found = !ok;
+					break;
+				default: // REACHED: the value is within or behind the equal values
+					if (isDate) {
+						found = ok || ((long)value >= dateValue.getTime());
+					} else {
+						found = ok || (Double.compare(value, numericalValue) >= 0);
+					}
+			}
+			if (found) {
+				high = middle;
+			} else {
+				low = middle + 1;
 			}
 		}
+		return low;
 	}
 }
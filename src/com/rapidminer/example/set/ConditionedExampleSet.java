@@ -23,6 +23,7 @@
 package com.rapidminer.example.set;
 
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -30,6 +31,7 @@ import java.util.List;
 import com.rapidminer.example.Attributes;
 import com.rapidminer.example.Example;
 import com.rapidminer.example.ExampleSet;
+import com.rapidminer.example.table.AbstractExampleTable;
 import com.rapidminer.example.table.ExampleTable;
 import com.rapidminer.operator.Annotations;
 
@@ -39,7 +41,7 @@ import com.rapidminer.operator.Annotations;
  *
  *  @author Ingo Mierswa
  */
-public class ConditionedExampleSet extends AbstractExampleSet {
+public class ConditionedExampleSet extends AbstractExampleSet implements IndexMappedView {
 
 	private static final long serialVersionUID = 877488093216198777L;
 
@@ -101,13 +103,17 @@ public class ConditionedExampleSet extends AbstractExampleSet {
 	public ConditionedExampleSet(ExampleSet parent, Condition condition, boolean inverted) {
 		this.parent = (ExampleSet)parent.clone();
 		this.mapping = calculateMapping(condition, inverted);
+		if (MappedExampleSet.canFlatten(this.parent)) {
+			this.mapping = MappedExampleSet.composeMapping(this.parent, this.mapping);
+			this.parent = ((IndexMappedView)this.parent).getParent();
+		}
 	}
 
 	/** Clone constructor. */
 	public ConditionedExampleSet(ConditionedExampleSet exampleSet) {
     	this.parent = (ExampleSet)exampleSet.parent.clone();
-		this.mapping = new int[exampleSet.mapping.length];
-		System.arraycopy(exampleSet.mapping, 0, this.mapping, 0, exampleSet.mapping.length);
+    	// the mapping is never modified and can be shared
+		this.mapping = exampleSet.mapping;
 	}
 
     @Override
@@ -131,6 +137,11 @@ public class ConditionedExampleSet extends AbstractExampleSet {
     }
         
     private int[] calculateMapping(Condition condition, boolean inverted) {
+    	if (condition instanceof IndexedCondition) {
+    		int[] indexedMapping = calculateIndexedMapping((IndexedCondition)condition, inverted);
+    		if (indexedMapping != null)
+    			return indexedMapping;
+    	}
     	List<Integer> indices = new LinkedList<Integer>();
     	
 		// create mapping
@@ -154,6 +165,43 @@ public class ConditionedExampleSet extends AbstractExampleSet {
 		return mapping;
 	}
 
+	/**
+	 * Calculates the mapping from the rows of the example table fulfilling the condition if these
+	 * can be determined by the value indices of the table, see {@link IndexedCondition}. This
+	 * is only possible if the parent is a {@link SimpleExampleSet}, whose examples are the rows
+	 * of its table, or a mapped view on it. Returns null otherwise.
+	 */
+	private int[] calculateIndexedMapping(IndexedCondition condition, boolean inverted) {
+		ExampleSet root = parent;
+		int[] rowMapping = null;
+		if ((root.getClass() == MappedExampleSet.class) || (root.getClass() == ConditionedExampleSet.class)) {
+			rowMapping = ((IndexMappedView)root).getMapping();
+			root = ((IndexMappedView)root).getParent();
+		}
+		if ((root.getClass() != SimpleExampleSet.class) || !((SimpleExampleSet)root).hasFixedExamples() ||
+			!(root.getExampleTable() instanceof AbstractExampleTable))
+			return null;
+		BitSet rows = condition.getFulfillingRows((AbstractExampleTable)root.getExampleTable());
+		if (rows == null)
+			return null;
+		
+		int size = parent.size();
+		int[] mapping = new int[size];
+		int m = 0;
+		for (int i = 0; i < size; i++) {
+			int row = rowMapping == null ? i : rowMapping[i];
+			if (rows.get(row) != inverted)
+				mapping[m++] = i;
+		}
+		if (m < size) {
+			int[] result = new int[m];
+			System.arraycopy(mapping, 0, result, 0, m);
+			return result;
+		} else {
+			return mapping;
+		}
+	}
+
 	/** Returns a {@link MappedExampleReader}. */
 	public Iterator<Example> iterator() {
 		return new MappedExampleReader(parent.iterator(), this.mapping);
@@ -175,10 +223,24 @@ public class ConditionedExampleSet extends AbstractExampleSet {
     public Attributes getAttributes() {
     	return parent.getAttributes();
     }
+    
+    public ExampleSet getParent() {
+    	return parent;
+    }
+    
+    public int[] getMapping() {
+    	return mapping;
+    }
 
 	public ExampleTable getExampleTable() {
 		return parent.getExampleTable();
 	}
+
+	/** The mapping is fixed after construction, hence this only depends on the parent. */
+	@Override
+	protected boolean hasFixedExamples() {
+		return (parent instanceof AbstractExampleSet) && ((AbstractExampleSet)parent).hasFixedExamples();
+	}
 	
 	/**
 	 * Checks if the given name is the short name of a known condition and
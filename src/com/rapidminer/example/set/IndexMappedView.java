@@ -0,0 +1,42 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.example.set;
+
+import com.rapidminer.example.ExampleSet;
+
+
+/**
+ * An example set which delivers a fixed selection of the examples of its parent by an index
+ * mapping and does not add anything else. New mapped views on top of such an example set use
+ * its parent directly together with the composed mapping, see
+ * {@link MappedExampleSet#canFlatten(ExampleSet)}. This avoids stacks of views in
+ * loops and validations, where every access to an example would otherwise pass through all levels.
+ */
+interface IndexMappedView {
+
+	/** Returns the parent example set. */
+	public ExampleSet getParent();
+
+	/** Returns the indices of the examples of the parent. Must not be modified. */
+	public int[] getMapping();
+}
@@ -0,0 +1,43 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.example.set;
+
+import java.util.BitSet;
+
+import com.rapidminer.example.table.AbstractExampleTable;
+import com.rapidminer.example.table.ColumnValueIndex;
+
+
+/**
+ * A condition which can determine the fulfilling rows of an example table from the
+ * {@link ColumnValueIndex}es of the table instead of evaluating the condition for each example.
+ * Used by {@link ConditionedExampleSet}.
+ */
+interface IndexedCondition extends Condition {
+
+	/**
+	 * Returns the numbers of all rows of the table for which {@link #conditionOk(com.rapidminer.example.Example)}
+	 * would return true or null if this cannot be answered by the indices of the table.
+	 */
+	public BitSet getFulfillingRows(AbstractExampleTable table);
+}
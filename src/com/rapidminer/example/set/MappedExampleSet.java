@@ -51,7 +51,7 @@ import com.rapidminer.operator.Annotations;
  *  
  *  @author Ingo Mierswa, Martin Scholz
  */
-public class MappedExampleSet extends AbstractExampleSet {
+public class MappedExampleSet extends AbstractExampleSet implements IndexMappedView {
 
 	private static final long serialVersionUID = -488025806523583178L;
 
@@ -98,6 +98,11 @@ public class MappedExampleSet extends AbstractExampleSet {
             while (i.hasNext())
                 this.mapping[index++] = i.next();
         }
+        
+        if (canFlatten(this.parent)) {
+        	this.mapping = composeMapping(this.parent, this.mapping);
+        	this.parent = ((IndexMappedView)this.parent).getParent();
+        }
     }
 
     /** Clone constructor. */
@@ -150,6 +155,51 @@ public class MappedExampleSet extends AbstractExampleSet {
     	return parent.getAttributes();
     }
     
+    public ExampleSet getParent() {
+    	return parent;
+    }
+    
+    public int[] getMapping() {
+    	return mapping;
+    }
+    
+	/** The mapping is fixed after construction, hence this only depends on the parent. */
+	@Override
+	protected boolean hasFixedExamples() {
+		return (parent instanceof AbstractExampleSet) && ((AbstractExampleSet)parent).hasFixedExamples();
+	}
+    
+    /**
+     * Returns true if a mapped view on the given parent can use the parent of parent instead. This is
+     * the case for the {@link IndexMappedView}s of this package if their mapping is sorted, since
+     * {@link MappedExampleReader} relies on sorted mappings.
+     */
+    static boolean canFlatten(ExampleSet parent) {
+    	if ((parent.getClass() != MappedExampleSet.class) && (parent.getClass() != ConditionedExampleSet.class)) {
+    		return false;
+    	}
+    	int[] parentMapping = ((IndexMappedView)parent).getMapping();
+    	for (int i = 1; i < parentMapping.length; i++) {
+    		if (parentMapping[i] < parentMapping[i - 1]) {
+    			return false;
+    		}
+    	}
+    	return true;
+    }
+    
+    /**
+     * Translates the given indices of examples of parent, which must fulfill {@link #canFlatten(ExampleSet)},
+     * into indices of the examples of its parent.
+     */
+    static int[] composeMapping(ExampleSet parent, int[] mapping) {
+    	int[] parentMapping = ((IndexMappedView)parent).getMapping();
+    	int[] composed = new int[mapping.length];
+    	for (int i = 0; i < mapping.length; i++) {
+    		composed[i] = parentMapping[mapping[i]];
+    	}
+    	return composed;
+    }
+    
 	public ExampleTable getExampleTable() {
 		return parent.getExampleTable();
 	}
@@ -0,0 +1,121 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.example.set;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import com.rapidminer.example.Attribute;
+import com.rapidminer.example.Example;
+import com.rapidminer.example.ExampleSet;
+import com.rapidminer.operator.OperatorException;
+import com.rapidminer.tools.ConcurrencyTools;
+
+
+/**
+ * Reads the values of some attributes of all examples in a single pass and folds them into a
+ * result. Example sets with fast random access are split into consecutive chunks which are read by
+ * several threads if the example set is large enough. Each chunk is folded into its own partial
+ * result and the partial results are merged in the order of the chunks.
+ * 
+ * @param <T> the type of the (partial) results
+ */
+public abstract class ParallelExampleScan<T> {
+
+	/** Example sets with less examples are read by a single thread. */
+	private static final int MIN_PARALLEL_SIZE = 10000;
+
+	/** Creates a new empty partial result. */
+	protected abstract T createPartialResult();
+
+	/**
+	 * Adds the values of one example to the partial result. The values array is reused for the next
+	 * example and must not be stored.
+	 */
+	protected abstract void add(T partialResult, double[] values);
+
+	/**
+	 * Merges the second partial result into the first one. The second one belongs to the chunk of
+	 * examples following the examples of the first one.
+	 */
+	protected abstract void merge(T result, T partialResult);
+
+	/** Reads the values of the given attributes of all examples and returns the merged result. */
+	public T scan(final ExampleSet exampleSet, final Attribute[] attributes) throws OperatorException {
+		final int size = exampleSet.size();
+		int numberOfThreads = ConcurrencyTools.getNumberOfThreads();
+		if ((numberOfThreads > 1) && (size >= MIN_PARALLEL_SIZE) &&
+			(exampleSet instanceof AbstractExampleSet) && ((AbstractExampleSet)exampleSet).hasFixedExamples()) {
+			final int chunkSize = (size + numberOfThreads - 1) / numberOfThreads;
+			List<Callable<T>> tasks = new ArrayList<Callable<T>>(numberOfThreads);
+			for (int start = 0; start < size; start += chunkSize) {
+				final int from = start;
+				final int to = Math.min(size, start + chunkSize);
+				tasks.add(new Callable<T>() {
+
+					@Override
+					public T call() {
+						T partialResult = createPartialResult();
+						double[] values = new double[attributes.length];
+						for (int i = from; i < to; i++) {
+							readValues(exampleSet.getExample(i), attributes, values);
+							add(partialResult, values);
+						}
+						return partialResult;
+					}
+				});
+			}
+			List<T> partialResults = ConcurrencyTools.call(tasks, numberOfThreads);
+			T result = partialResults.get(0);
+			for (int i = 1; i < partialResults.size(); i++) {
+				merge(result, partialResults.get(i));
+			}
+			return result;
+		} else {
+			T result = createPartialResult();
+			double[] values = new double[attributes.length];
+			for (Example example : exampleSet) {
+				readValues(example, attributes, values);
+				add(result, values);
+			}
+			return result;
+		}
+	}
+
+	/** Reads the values of all regular attributes of all examples and returns the merged result. */
+	public T scan(ExampleSet exampleSet) throws OperatorException {
+		Attribute[] attributes = new Attribute[exampleSet.getAttributes().size()];
+		int a = 0;
+		for (Attribute attribute : exampleSet.getAttributes()) {
+			attributes[a++] = attribute;
+		}
+		return scan(exampleSet, attributes);
+	}
+
+	private static void readValues(Example example, Attribute[] attributes, double[] values) {
+		for (int a = 0; a < attributes.length; a++) {
+			values[a] = example.getValue(attributes[a]);
+		}
+	}
+}
@@ -23,9 +23,6 @@
 package com.rapidminer.example.set;
 
 import java.io.Serializable;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.logging.Level;
 
 import com.rapidminer.tools.LogService;
@@ -88,21 +85,20 @@ public class Partition implements Cloneable, Serializable {
 		init(elements, numberOfPartitions);
 	}
 
-	/** Clone constructor. */
+	/** Clone constructor. Only the selection mask is copied, all other arrays are never modified after
+	 *  initialization and are shared. The table index map is replaced on every change of the
+	 *  selection and can be shared as well. */
 	private Partition(Partition p) {
-		this.partitionSizes = new int[p.partitionSizes.length];
-		System.arraycopy(p.partitionSizes, 0, this.partitionSizes, 0, p.partitionSizes.length);
+		this.partitionSizes = p.partitionSizes;
 		
 		this.mask = new boolean[p.mask.length];
 		System.arraycopy(p.mask, 0, this.mask, 0, p.mask.length);
 		
-		this.elements = new int[p.elements.length];
-		System.arraycopy(p.elements, 0, this.elements, 0, p.elements.length);
+		this.elements = p.elements;
 
-		this.lastElementIndex = new int[p.lastElementIndex.length];
-		System.arraycopy(p.lastElementIndex, 0, this.lastElementIndex, 0, p.lastElementIndex.length);
+		this.lastElementIndex = p.lastElementIndex;
 		
-		recalculateTableIndices();
+		this.tableIndexMap = p.tableIndexMap;
 	}
 
 	/**
@@ -244,18 +240,20 @@ public class Partition implements Cloneable, Serializable {
 	 * examples.
 	 */
 	private void recalculateTableIndices() {
-		List<Integer> indices = new LinkedList<Integer>();
+		int size = 0;
 		for (int i = 0; i < elements.length; i++) {
 			if (mask[elements[i]]) {
-				indices.add(i);
+				size++;
 			}
 		}
-		tableIndexMap = new int[indices.size()];
-		Iterator<Integer> i = indices.iterator();
+		int[] indices = new int[size];
 		int counter = 0;
-		while (i.hasNext()) {
-			tableIndexMap[counter++] = i.next();
+		for (int i = 0; i < elements.length; i++) {
+			if (mask[elements[i]]) {
+				indices[counter++] = i;
+			}
 		}
+		tableIndexMap = indices;
 	}
 
 	/**
@@ -170,4 +170,10 @@ public class SimpleExampleSet extends AbstractExampleSet {
 	public Iterator<Example> iterator() {
 		return new SimpleExampleReader(getExampleTable().getDataRowReader(), this);
 	}
+
+	/** Returns true if the examples are kept in a {@link MemoryExampleTable}. */
+	@Override
+	protected boolean hasFixedExamples() {
+		return exampleTable instanceof MemoryExampleTable;
+	}
 }
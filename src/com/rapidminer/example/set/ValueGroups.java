@@ -0,0 +1,130 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.example.set;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import com.rapidminer.example.Attribute;
+import com.rapidminer.example.Example;
+import com.rapidminer.example.ExampleSet;
+import com.rapidminer.operator.OperatorException;
+import com.rapidminer.tools.ConcurrencyTools;
+
+
+/**
+ * Groups the examples of an example set by the values of a nominal attribute. The values are
+ * read in a single pass over the data, afterwards the examples of each value are available as
+ * {@link MappedExampleSet} without filtering the example set once for each value. Example sets
+ * with fast random access are read by several threads if they are large enough.
+ */
+public class ValueGroups {
+
+	/** Example sets with less examples are read by a single thread. */
+	private static final int MIN_PARALLEL_SIZE = 100000;
+
+	private final ExampleSet exampleSet;
+
+	/** The indices of the examples of each value, indexed by the value index of the attribute mapping. */
+	private final int[][] groups;
+
+	public ValueGroups(ExampleSet exampleSet, Attribute attribute) throws OperatorException {
+		this.exampleSet = exampleSet;
+		int[] valueIndices = readValueIndices(exampleSet, attribute);
+
+		int numberOfValues = attribute.getMapping().size();
+		for (int valueIndex : valueIndices) {
+			numberOfValues = Math.max(numberOfValues, valueIndex + 1);
+		}
+		int[] counts = new int[numberOfValues];
+		for (int valueIndex : valueIndices) {
+			if (valueIndex >= 0)
+				counts[valueIndex]++;
+		}
+		this.groups = new int[numberOfValues][];
+		for (int v = 0; v < numberOfValues; v++) {
+			groups[v] = new int[counts[v]];
+			counts[v] = 0;
+		}
+		for (int i = 0; i < valueIndices.length; i++) {
+			int valueIndex = valueIndices[i];
+			if (valueIndex >= 0)
+				groups[valueIndex][counts[valueIndex]++] = i;
+		}
+	}
+
+	/** Returns the value index of each example, -1 for missing values. */
+	private static int[] readValueIndices(final ExampleSet exampleSet, final Attribute attribute) throws OperatorException {
+		final int size = exampleSet.size();
+		final int[] valueIndices = new int[size];
+		int numberOfThreads = ConcurrencyTools.getNumberOfThreads();
+		if ((numberOfThreads > 1) && (size >= MIN_PARALLEL_SIZE) &&
+			(exampleSet instanceof AbstractExampleSet) && ((AbstractExampleSet)exampleSet).hasFixedExamples()) {
+			final int chunkSize = (size + numberOfThreads - 1) / numberOfThreads;
+			List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(numberOfThreads);
+			for (int start = 0; start < size; start += chunkSize) {
+				final int from = start;
+				final int to = Math.min(size, start + chunkSize);
+				tasks.add(new Callable<Void>() {
+
+					@Override
+					public Void call() {
+						for (int i = from; i < to; i++) {
+							valueIndices[i] = toValueIndex(exampleSet.getExample(i).getValue(attribute));
+						}
+						return null;
+					}
+				});
+			}
+			ConcurrencyTools.call(tasks, numberOfThreads);
+		} else {
+			int i = 0;
+			for (Example example : exampleSet) {
+				valueIndices[i++] = toValueIndex(example.getValue(attribute));
+			}
+		}
+		return valueIndices;
+	}
+
+	private static int toValueIndex(double value) {
+		return Double.isNaN(value) ? -1 : (int)value;
+	}
+
+	/** Returns the number of examples with the given value index. */
+	public int getCount(int valueIndex) {
+		if ((valueIndex < 0) || (valueIndex >= groups.length))
+			return 0;
+		return groups[valueIndex].length;
+	}
+
+	/**
+	 * Returns a new example set containing the examples with the given value index in their
+	 * original order.
+	 */
+	public ExampleSet createGroup(int valueIndex) {
+		if ((valueIndex < 0) || (valueIndex >= groups.length))
+			return new MappedExampleSet(exampleSet, new int[0], true, false);
+		return new MappedExampleSet(exampleSet, groups[valueIndex], true, false);
+	}
+}
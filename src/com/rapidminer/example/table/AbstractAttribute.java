@@ -24,6 +24,7 @@ package com.rapidminer.example.table;
 
 import java.io.IOException;
 import java.io.ObjectInputStream;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -53,11 +54,19 @@ public abstract class AbstractAttribute implements Attribute {
 	/** The basic information about the attribute. Will only be shallowly cloned. */
 	private AttributeDescription attributeDescription;
 	
-	private final LinkedList<AttributeTransformation> transformations = new LinkedList<AttributeTransformation>();
+	/** The transformations of this attribute. The list may be shared with clones as long as
+	 *  {@link #transformationsShared} is true and is copied before it is modified. */
+	private LinkedList<AttributeTransformation> transformations = new LinkedList<AttributeTransformation>();
 	
-    /** Contains all attribute statistics calculation algorithms. */
+	private transient volatile boolean transformationsShared = false;
+	
+    /** Contains all attribute statistics calculation algorithms. The list and its elements may be
+     *  shared with clones as long as {@link #statisticsShared} is true. Since the statistics
+     *  objects are used for counting, they are cloned before they are handed out. */
 	private List<Statistics> statistics = new LinkedList<Statistics>();
 	
+	private transient volatile boolean statisticsShared = false;
+	
 	/** The current attribute construction description object. */
 	private String constructionDescription = null;
 	
@@ -71,25 +80,29 @@ public abstract class AbstractAttribute implements Attribute {
 	 * attributes which were not generated with help of a generator, i.e.
 	 * this attribute has no function arguments. Only the last transformation
 	 * is cloned, the other transformations are cloned by reference.
+	 * 
+	 * The statistics and the list of transformations are shared with the given
+	 * attribute until one of both modifies them (copy-on-write). Sharing and copying
+	 * are synchronized on the attribute owning the lists.
 	 */
 	protected AbstractAttribute(AbstractAttribute attribute) {
 		this.attributeDescription = attribute.attributeDescription;
 		
-		// copy statistics
-		this.statistics = new LinkedList<Statistics>();
-		for (Statistics statistics : attribute.statistics) {
-			this.statistics.add((Statistics)statistics.clone());
-		}
-		
-		// copy transformations if necessary (only the transformation on top of the view stack!)
-		int counter = 0;
-		for (AttributeTransformation transformation : attribute.transformations) {
-			if (counter < attribute.transformations.size() - 1) {
-				addTransformation(transformation);
+		synchronized (attribute) {
+			// share statistics
+			this.statistics = attribute.statistics;
+			this.statisticsShared = true;
+			attribute.statisticsShared = true;
+
+			// share transformations, only the transformation on top of the view stack is cloned
+			if (attribute.transformations.isEmpty()) {
+				this.transformations = attribute.transformations;
+				this.transformationsShared = true;
+				attribute.transformationsShared = true;
 			} else {
-				addTransformation((AttributeTransformation)transformation.clone());
+				this.transformations = new LinkedList<AttributeTransformation>(attribute.transformations);
+				this.transformations.set(this.transformations.size() - 1, (AttributeTransformation)this.transformations.getLast().clone());
 			}
-			counter++;
 		}
 		
 		// copy construction description
@@ -118,6 +131,9 @@ public abstract class AbstractAttribute implements Attribute {
     	if (annotations == null) {
     		annotations = new Annotations();
     	}
+    	// other deserialized attributes may reference the same lists
+    	statisticsShared = true;
+    	transformationsShared = true;
 	}
 	
 	public void addOwner(Attributes attributes) {
@@ -148,14 +164,23 @@ public abstract class AbstractAttribute implements Attribute {
 		return attributeDescription.hashCode();
 	}
 
-	public void addTransformation(AttributeTransformation transformation) {
+	public synchronized void addTransformation(AttributeTransformation transformation) {
+		ensureOwnTransformations();
 		this.transformations.add(transformation);
 	}
 	
-	public void clearTransformations() {
+	public synchronized void clearTransformations() {
+		ensureOwnTransformations();
 		this.transformations.clear();
 	}
 	
+	private synchronized void ensureOwnTransformations() {
+		if (transformationsShared) {
+			this.transformations = new LinkedList<AttributeTransformation>(this.transformations);
+			transformationsShared = false;
+		}
+	}
+	
 	public AttributeTransformation getLastTransformation() {
 		if (this.transformations.size() > 0)
 			return this.transformations.getLast();
@@ -182,6 +207,15 @@ public abstract class AbstractAttribute implements Attribute {
 			}
 		}
 		row.set(getTableIndex(), newValue, getDefault());
+		attributeDescription.dataChanged();
+	}
+
+	/**
+	 * Returns a number which changes whenever a value is set via this attribute or one of its
+	 * clones. Used to decide whether cached statistics are still valid.
+	 */
+	public long getModificationCount() {
+		return this.attributeDescription.getModificationCount();
 	}
 	
 	/** Returns the name of the attribute. */
@@ -243,14 +277,37 @@ public abstract class AbstractAttribute implements Attribute {
 	}
 
 	/** Returns the attribute statistics. */
-	public Iterator<Statistics> getAllStatistics() {
+	public synchronized Iterator<Statistics> getAllStatistics() {
+		ensureOwnStatistics();
 		return this.statistics.iterator();
 	}
+
+	/**
+	 * Returns the registered statistics without copying them if they are shared with clones of
+	 * this attribute. The statistics must not be modified, callers which count values must use
+	 * clones of them.
+	 */
+	public Iterator<Statistics> getRegisteredStatistics() {
+		return Collections.unmodifiableList(this.statistics).iterator();
+	}
 	
-    public void registerStatistics(Statistics statistics) {
+    public synchronized void registerStatistics(Statistics statistics) {
+    	ensureOwnStatistics();
         this.statistics.add(statistics);
     }
     
+    /** Clones the statistics if they are shared with other attributes since they are modified while counting. */
+    private synchronized void ensureOwnStatistics() {
+    	if (statisticsShared) {
+    		List<Statistics> ownStatistics = new LinkedList<Statistics>();
+    		for (Statistics statistics : this.statistics) {
+    			ownStatistics.add((Statistics)statistics.clone());
+    		}
+    		this.statistics = ownStatistics;
+    		statisticsShared = false;
+    	}
+    }
+    
 	/** Returns the attribute statistics. 
      *   
      *  @deprecated Please use the method {@link ExampleSet#getStatistics(Attribute, String)} instead. */
@@ -259,7 +316,8 @@ public abstract class AbstractAttribute implements Attribute {
         return getStatistics(name, null);
     }
     
-	/** Returns the attribute statistics. 
+	/** Returns the attribute statistics. Please note that example sets count their statistics
+     *  on copies, so only values counted on {@link #getAllStatistics()} directly are delivered.
      *   
      *  @deprecated Please use the method {@link ExampleSet#getStatistics(Attribute, String)} instead. */
 	@Deprecated
@@ -22,6 +22,7 @@
  */
 package com.rapidminer.example.table;
 
+import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -30,6 +31,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
+import com.rapidminer.RapidMiner;
 import com.rapidminer.example.Attribute;
 import com.rapidminer.example.AttributeRole;
 import com.rapidminer.example.Attributes;
@@ -37,6 +39,7 @@ import com.rapidminer.example.ExampleSet;
 import com.rapidminer.example.set.SimpleExampleSet;
 import com.rapidminer.operator.OperatorException;
 import com.rapidminer.operator.UserError;
+import com.rapidminer.tools.ParameterService;
 import com.rapidminer.tools.Tools;
 import com.rapidminer.tools.att.AttributeSet;
 
@@ -54,6 +57,9 @@ public abstract class AbstractExampleTable implements ExampleTable {
 	 */
 	private static final long serialVersionUID = -6996954528182122684L;
 
+	/** Value indices are not built for tables with less rows. */
+	private static final int MIN_INDEXED_ROWS = 1000;
+
 	/**
 	 * List of instances of {@link Attribute}. The <i>i</i>-th entry in the
 	 * list belongs to the <i>i</i>-th data column. Whenever attributes are
@@ -73,6 +79,18 @@ public abstract class AbstractExampleTable implements ExampleTable {
 	 */
 	private List<Integer> unusedColumnList = new LinkedList<Integer>();
 
+	/**
+	 * Counts structural modifications, i.e. added or removed data rows and removed columns.
+	 * Changes of single values are counted by the attributes.
+	 */
+	private transient long modificationCount = 0;
+
+	/**
+	 * The value indices of the columns, see {@link #getValueIndex(Attribute)}. The indices are softly
+	 * referenced so that they are discarded before memory runs out and rebuilt if requested again.
+	 */
+	private transient Map<Integer, SoftReference<ColumnValueIndex>> valueIndices;
+
 	/**
 	 * Creates a new ExampleTable.
 	 * 
@@ -184,6 +202,57 @@ public abstract class AbstractExampleTable implements ExampleTable {
 			return;
 		attributes.set(index, null);
 		unusedColumnList.add(index);
+		modified();
+	}
+
+	/**
+	 * Returns a number which changes whenever data rows are added or removed or a column is
+	 * removed. Together with {@link AbstractAttribute#getModificationCount()} this can be used
+	 * to decide whether cached information about the data is still valid.
+	 */
+	public long getModificationCount() {
+		return modificationCount;
+	}
+
+	/**
+	 * Returns an index on the values of the given attribute or null if no index is available.
+	 * Since building an index is more expensive than evaluating a condition once for all rows,
+	 * the index is only built if it is requested a second time while the data of the attribute
+	 * did not change. Indices are not available for attributes with transformations, for small
+	 * tables and unless {@link RapidMiner#PROPERTY_RAPIDMINER_GENERAL_VALUE_INDEX} is switched on.
+	 */
+	public synchronized ColumnValueIndex getValueIndex(Attribute attribute) {
+		if (!(attribute instanceof AbstractAttribute) || (attribute.getLastTransformation() != null) || (size() < MIN_INDEXED_ROWS)) {
+			return null;
+		}
+		int column = attribute.getTableIndex();
+		if ((column < 0) || (column >= getNumberOfAttributes()) || (getAttribute(column) == null)) {
+			return null;
+		}
+		if (!"true".equals(ParameterService.getParameterValue(RapidMiner.PROPERTY_RAPIDMINER_GENERAL_VALUE_INDEX))) {
+			valueIndices = null;
+			return null;
+		}
+		if (valueIndices == null) {
+			valueIndices = new HashMap<Integer, SoftReference<ColumnValueIndex>>();
+		}
+		AbstractAttribute abstractAttribute = (AbstractAttribute)attribute;
+		SoftReference<ColumnValueIndex> reference = valueIndices.get(column);
+		ColumnValueIndex index = (reference != null) ? reference.get() : null;
+		if ((index == null) || !index.isUpToDate(this, abstractAttribute)) {
+			// remember the request, the index is built on the next one
+			valueIndices.put(column, new SoftReference<ColumnValueIndex>(new ColumnValueIndex(this, abstractAttribute)));
+			return null;
+		}
+		if (!index.isBuilt()) {
+			index.build(this, attribute);
+		}
+		return index;
+	}
+
+	/** Must be invoked by subclasses whenever data rows are added or removed. */
+	protected void modified() {
+		modificationCount++;
 	}
 
 	/**
@@ -0,0 +1,250 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.example.table;
+
+import java.util.BitSet;
+
+import com.rapidminer.example.Attribute;
+
+/**
+ * An index on the values of a single column of an {@link AbstractExampleTable} which allows to
+ * answer equality and range conditions without reading the data rows. The numbers of all rows
+ * with non missing values are sorted by their value, so that the rows fulfilling such a condition
+ * form a contiguous range of positions in this order. These are delivered as a {@link BitSet} of
+ * row numbers which can be combined with the results of other conditions by bitwise AND and OR.
+ * 
+ * In order to avoid setting the bits of large ranges one by one, the sorted order is divided into
+ * at most {@link #MAX_BINS} bins of equal size whose rows are kept as bit sets and are combined
+ * by bitwise OR. This bounds the memory needed for the bit sets to the memory of a double column.
+ * 
+ * Indices are only created by {@link AbstractExampleTable#getValueIndex(Attribute)} and are never
+ * changed afterwards.
+ */
+public class ColumnValueIndex {
+
+	/** The maximum number of bins of the sorted order. */
+	private static final int MAX_BINS = 64;
+
+	/** Bins smaller than this are not worth a bit set of their own. */
+	private static final int MIN_BIN_SIZE = 1024;
+
+	private final int column;
+
+	private final long tableModifications;
+
+	private final long attributeModifications;
+
+	/** The total number of rows of the table including rows with missing values. */
+	private int numberOfRows;
+
+	/** The non missing values in ascending order. */
+	private double[] sortedValues;
+
+	/** The row numbers in the order of {@link #sortedValues}. */
+	private int[] sortedRows;
+
+	private int binSize;
+
+	/** The rows of the i-th bin, i.e. of the positions from i * binSize to (i + 1) * binSize. */
+	private BitSet[] bins;
+
+	private BitSet missingRows;
+
+	/** Creates an index which is not yet built. */
+	ColumnValueIndex(AbstractExampleTable table, AbstractAttribute attribute) {
+		this.column = attribute.getTableIndex();
+		this.tableModifications = table.getModificationCount();
+		this.attributeModifications = attribute.getModificationCount();
+	}
+
+	/** Returns true if this index still reflects the data of the given attribute. */
+	boolean isUpToDate(AbstractExampleTable table, AbstractAttribute attribute) {
+		return (column == attribute.getTableIndex()) &&
+			(tableModifications == table.getModificationCount()) &&
+			(attributeModifications == attribute.getModificationCount());
+	}
+
+	boolean isBuilt() {
+		return sortedValues != null;
+	}
+
+	/** Reads the values of the attribute from all rows of the table and builds the index. */
+	void build(AbstractExampleTable table, Attribute attribute) {
+		int size = table.size();
+		double[] values = new double[size];
+		int[] rows = new int[size];
+		BitSet missing = new BitSet(size);
+		int count = 0;
+		int row = 0;
+		DataRowReader reader = table.getDataRowReader();
+		while (reader.hasNext()) {
+			double value = attribute.getValue(reader.next());
+			if (Double.isNaN(value)) {
+				missing.set(row);
+			} else {
+				values[count] = value;
+				rows[count] = row;
+				count++;
+			}
+			row++;
+		}
+
+		double[] sortedValues = new double[count];
+		int[] sortedRows = new int[count];
+		System.arraycopy(values, 0, sortedValues, 0, count);
+		System.arraycopy(rows, 0, sortedRows, 0, count);
+		sort(sortedValues, sortedRows, values, rows, count);
+
+		this.binSize = Math.max(MIN_BIN_SIZE, (count + MAX_BINS - 1) / MAX_BINS);
+		this.bins = new BitSet[(count + binSize - 1) / binSize];
+		for (int b = 0; b < bins.length; b++) {
+			BitSet bin = new BitSet(row);
+			int end = Math.min(count, (b + 1) * binSize);
+			for (int p = b * binSize; p < end; p++) {
+				bin.set(sortedRows[p]);
+			}
+			bins[b] = bin;
+		}
+		this.numberOfRows = row;
+		this.missingRows = missing;
+		this.sortedRows = sortedRows;
+		this.sortedValues = sortedValues;
+	}
+
+	/**
+	 * Sorts the first count entries of values ascending with respect to {@link Double#compare(double, double)}
+	 * and reorders rows accordingly. The sort is a bottom up merge sort using the given buffers of
+	 * the same length.
+	 */
+	private static void sort(double[] values, int[] rows, double[] valueBuffer, int[] rowBuffer, int count) {
+		double[] fromValues = values;
+		int[] fromRows = rows;
+		double[] toValues = valueBuffer;
+		int[] toRows = rowBuffer;
+		for (int width = 1; width < count; width *= 2) {
+			for (int start = 0; start < count; start += 2 * width) {
+				int middle = Math.min(start + width, count);
+				int end = Math.min(start + 2 * width, count);
+				int left = start;
+				int right = middle;
+				for (int i = start; i < end; i++) {
+					if ((left < middle) && ((right >= end) || (Double.compare(fromValues[left], fromValues[right]) <= 0))) {
+						toValues[i] = fromValues[left];
+						toRows[i] = fromRows[left];
+						left++;
+					} else {
+						toValues[i] = fromValues[right];
+						toRows[i] = fromRows[right];
+						right++;
+					}
+				}
+			}
+			double[] swapValues = fromValues;
+			fromValues = toValues;
+			toValues = swapValues;
+			int[] swapRows = fromRows;
+			fromRows = toRows;
+			toRows = swapRows;
+		}
+		if (fromValues != values) {
+			System.arraycopy(fromValues, 0, values, 0, count);
+			System.arraycopy(fromRows, 0, rows, 0, count);
+		}
+	}
+
+	/** Returns the number of rows of the table when this index was built. */
+	public int getNumberOfRows() {
+		return numberOfRows;
+	}
+
+	/** Returns the number of non missing values, i.e. the number of positions of the sorted order. */
+	public int getNumberOfValues() {
+		return sortedValues.length;
+	}
+
+	/** Returns the value at the given position of the sorted order. */
+	public double getSortedValue(int position) {
+		return sortedValues[position];
+	}
+
+	/** Returns the first position whose value is not less than the given one. */
+	public int getLowerBound(double value) {
+		int low = 0;
+		int high = sortedValues.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (Double.compare(sortedValues[middle], value) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/** Returns the first position whose value is greater than the given one. */
+	public int getUpperBound(double value) {
+		int low = 0;
+		int high = sortedValues.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (Double.compare(sortedValues[middle], value) <= 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/** Returns a new bit set containing the rows whose values are at the positions from (inclusive) to to (exclusive) of the sorted order. */
+	public BitSet getRows(int from, int to) {
+		BitSet result = new BitSet(numberOfRows);
+		addRows(result, from, to);
+		return result;
+	}
+
+	/** Sets the bits of the rows whose values are at the positions from (inclusive) to to (exclusive) of the sorted order. */
+	public void addRows(BitSet result, int from, int to) {
+		int position = from;
+		while (position < to) {
+			int bin = position / binSize;
+			int binStart = bin * binSize;
+			int binEnd = Math.min(binStart + binSize, sortedRows.length);
+			if ((position == binStart) && (binEnd <= to)) {
+				result.or(bins[bin]);
+				position = binEnd;
+			} else {
+				int end = Math.min(binEnd, to);
+				for (; position < end; position++) {
+					result.set(sortedRows[position]);
+				}
+			}
+		}
+	}
+
+	/** Returns a new bit set containing the rows with missing values. */
+	public BitSet getMissingRows() {
+		return (BitSet)missingRows.clone();
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.example.table;
+
+import static com.rapidminer.example.table.CompactArrayLayout.BYTE_MISSING;
+import static com.rapidminer.example.table.CompactArrayLayout.CHAR_MISSING;
+import static com.rapidminer.example.table.CompactArrayLayout.INT_MISSING;
+import static com.rapidminer.example.table.CompactArrayLayout.KIND_BYTE;
+import static com.rapidminer.example.table.CompactArrayLayout.KIND_CHAR;
+import static com.rapidminer.example.table.CompactArrayLayout.KIND_DOUBLE;
+import static com.rapidminer.example.table.CompactArrayLayout.KIND_INT;
+
+/**
+ * Implementation of DataRow that stores each column in the narrowest primitive type able to
+ * hold its values. Indices of nominal values with fewer than 255 different values only need a
+ * single byte instead of the eight bytes of a {@link DoubleArrayDataRow}, numerical values are
+ * stored without loss of precision. Rows created by the same {@link DataRowFactory} share their
+ * {@link CompactArrayLayout}s.
+ */
+public class CompactArrayDataRow extends DataRow {
+
+	private static final long serialVersionUID = 4379584427385071125L;
+
+	private CompactArrayLayout layout;
+
+	private byte[] bytes;
+
+	private char[] chars;
+
+	private int[] ints;
+
+	private double[] doubles;
+
+	/* pp */ CompactArrayDataRow(CompactArrayLayout layout) {
+		this.layout = layout;
+		this.bytes = new byte[layout.byteCount];
+		this.chars = new char[layout.charCount];
+		this.ints = new int[layout.intCount];
+		this.doubles = new double[layout.doubleCount];
+	}
+
+	@Override
+	protected double get(int index, double defaultValue) {
+		int position = layout.positions[index];
+		switch (layout.kinds[index]) {
+		case KIND_BYTE:
+			int b = bytes[position] & 0xFF;
+			return b == BYTE_MISSING ? Double.NaN : b;
+		case KIND_CHAR:
+			char c = chars[position];
+			return c == CHAR_MISSING ? Double.NaN : c;
+		case KIND_INT:
+			int i = ints[position];
+			return i == INT_MISSING ? Double.NaN : i;
+		default:
+			return doubles[position];
+		}
+	}
+
+	@Override
+	protected void set(int index, double value, double defaultValue) {
+		byte required = CompactArrayLayout.getRequiredKind(value);
+		if (required > layout.kinds[index]) {
+			migrate(layout.widen(index, required));
+		}
+		int position = layout.positions[index];
+		boolean missing = Double.isNaN(value);
+		switch (layout.kinds[index]) {
+		case KIND_BYTE:
+			bytes[position] = (byte) (missing ? BYTE_MISSING : (int) value);
+			break;
+		case KIND_CHAR:
+			chars[position] = missing ? CHAR_MISSING : (char) value;
+			break;
+		case KIND_INT:
+			ints[position] = missing ? INT_MISSING : (int) value;
+			break;
+		default:
+			doubles[position] = value;
+		}
+	}
+
+	/** Copies all values into arrays organized by the new layout, which must not be narrower than the current one. */
+	private void migrate(CompactArrayLayout newLayout) {
+		CompactArrayLayout oldLayout = this.layout;
+		byte[] oldBytes = this.bytes;
+		char[] oldChars = this.chars;
+		int[] oldInts = this.ints;
+		double[] oldDoubles = this.doubles;
+		double[] values = new double[oldLayout.getNumberOfColumns()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = get(i, 0);
+		}
+
+		this.layout = newLayout;
+		this.bytes = newLayout.byteCount == oldLayout.byteCount ? oldBytes : new byte[newLayout.byteCount];
+		this.chars = newLayout.charCount == oldLayout.charCount ? oldChars : new char[newLayout.charCount];
+		this.ints = newLayout.intCount == oldLayout.intCount ? oldInts : new int[newLayout.intCount];
+		this.doubles = newLayout.doubleCount == oldLayout.doubleCount ? oldDoubles : new double[newLayout.doubleCount];
+		for (int i = 0; i < values.length; i++) {
+			set(i, values[i], 0);
+		}
+	}
+
+	@Override
+	protected void ensureNumberOfColumns(int numberOfColumns) {
+		if (layout.getNumberOfColumns() < numberOfColumns) {
+			migrate(layout.extend(numberOfColumns));
+		}
+	}
+
+	/** Does nothing. */
+	@Override
+	public void trim() {}
+
+	@Override
+	public String toString() {
+		StringBuffer result = new StringBuffer();
+		for (int i = 0; i < layout.getNumberOfColumns(); i++) {
+			result.append((i == 0 ? "" : ",") + get(i, 0));
+		}
+		return result.toString();
+	}
+
+	@Override
+	public int getType() {
+		return DataRowFactory.TYPE_COMPACT_ARRAY;
+	}
+}
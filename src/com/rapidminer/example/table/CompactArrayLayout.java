@@ -0,0 +1,203 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.example.table;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Describes how the columns of {@link CompactArrayDataRow}s are stored. Every column is kept in
+ * the narrowest of four primitive arrays which can hold all values written to it so far: bytes
+ * for small non-negative integers (e.g. indices of nominal values with fewer than 255 different
+ * values), chars for larger non-negative integers up to 65534, ints for all other integers and
+ * doubles for everything else.
+ *
+ * Layouts are immutable. Rows which need to widen a column switch to another layout obtained by
+ * {@link #widen(int, byte)}. Since these transitions are memoized, all rows of a table end up
+ * sharing a handful of layout instances.
+ */
+final class CompactArrayLayout implements Serializable {
+
+	private static final long serialVersionUID = -2384106591750372619L;
+
+	static final byte KIND_BYTE = 0;
+
+	static final byte KIND_CHAR = 1;
+
+	static final byte KIND_INT = 2;
+
+	static final byte KIND_DOUBLE = 3;
+
+	/** Marks missing values in byte columns (as unsigned value). */
+	static final int BYTE_MISSING = 0xFF;
+
+	/** Marks missing values in char columns. */
+	static final char CHAR_MISSING = 0xFFFF;
+
+	/** Marks missing values in int columns. */
+	static final int INT_MISSING = Integer.MIN_VALUE;
+
+	private static final long NEGATIVE_ZERO_BITS = Double.doubleToRawLongBits(-0.0d);
+
+	/** The storage kind of each column. */
+	final byte[] kinds;
+
+	/** The position of each column in the array of its kind. */
+	final int[] positions;
+
+	final int byteCount;
+
+	final int charCount;
+
+	final int intCount;
+
+	final int doubleCount;
+
+	private transient Map<Long, CompactArrayLayout> transitions;
+
+	/** The layout all transitions started from. */
+	private final CompactArrayLayout root;
+
+	/** Only used by the root: a layout at least as wide as all layouts derived from it so far. */
+	private transient CompactArrayLayout widest;
+
+	/** Creates a layout storing all columns as bytes. */
+	CompactArrayLayout(int numberOfColumns) {
+		this(new byte[numberOfColumns], null);
+	}
+
+	private CompactArrayLayout(byte[] kinds, CompactArrayLayout root) {
+		this.kinds = kinds;
+		this.root = root == null ? this : root;
+		this.positions = new int[kinds.length];
+		int[] counts = new int[4];
+		for (int i = 0; i < kinds.length; i++) {
+			positions[i] = counts[kinds[i]]++;
+		}
+		this.byteCount = counts[KIND_BYTE];
+		this.charCount = counts[KIND_CHAR];
+		this.intCount = counts[KIND_INT];
+		this.doubleCount = counts[KIND_DOUBLE];
+	}
+
+	int getNumberOfColumns() {
+		return kinds.length;
+	}
+
+	/** Returns the layout in which the given column has (at least) the given kind. */
+	CompactArrayLayout widen(int column, byte kind) {
+		if (kinds[column] >= kind) {
+			return this;
+		}
+		return getTransition(((long) column << 2) | kind, column, kind, kinds.length);
+	}
+
+	/** Returns the layout with the given number of columns, new columns are stored as bytes. */
+	CompactArrayLayout extend(int numberOfColumns) {
+		if (numberOfColumns <= kinds.length) {
+			return this;
+		}
+		return getTransition(-numberOfColumns, -1, KIND_BYTE, numberOfColumns);
+	}
+
+	private CompactArrayLayout getTransition(long key, int column, byte kind, int numberOfColumns) {
+		CompactArrayLayout next;
+		boolean created = false;
+		synchronized (this) {
+			if (transitions == null) {
+				transitions = new HashMap<Long, CompactArrayLayout>();
+			}
+			next = transitions.get(key);
+			if (next == null) {
+				byte[] newKinds = new byte[numberOfColumns];
+				System.arraycopy(kinds, 0, newKinds, 0, kinds.length);
+				if (column >= 0) {
+					newKinds[column] = kind;
+				}
+				next = new CompactArrayLayout(newKinds, root);
+				transitions.put(key, next);
+				created = true;
+			}
+		}
+		if (created) {
+			// must not hold the lock of this layout, updating the root may create further transitions
+			root.updateWidest(next);
+		}
+		return next;
+	}
+
+	/**
+	 * Returns a layout derived from this root which can store all values seen so far by rows using
+	 * layouts of this family. New rows should start with it to avoid widening the same columns
+	 * over and over again.
+	 */
+	synchronized CompactArrayLayout getWidest() {
+		return widest == null ? this : widest;
+	}
+
+	private synchronized void updateWidest(CompactArrayLayout layout) {
+		if (widest == null || layout.isAtLeastAsWideAs(widest)) {
+			widest = layout;
+		} else if (!widest.isAtLeastAsWideAs(layout)) {
+			CompactArrayLayout union = widest.extend(layout.getNumberOfColumns());
+			for (int i = 0; i < layout.kinds.length; i++) {
+				union = union.widen(i, layout.kinds[i]);
+			}
+			// the transitions above already updated widest with union
+		}
+	}
+
+	private boolean isAtLeastAsWideAs(CompactArrayLayout other) {
+		if (kinds.length < other.kinds.length) {
+			return false;
+		}
+		for (int i = 0; i < other.kinds.length; i++) {
+			if (kinds[i] < other.kinds[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** Returns the narrowest kind which can store the given value. */
+	static byte getRequiredKind(double value) {
+		if (Double.isNaN(value)) {
+			return KIND_BYTE;
+		}
+		if (value != Math.rint(value) || Double.isInfinite(value) || Double.doubleToRawLongBits(value) == NEGATIVE_ZERO_BITS) {
+			return KIND_DOUBLE;
+		}
+		if (value >= 0) {
+			if (value < BYTE_MISSING) {
+				return KIND_BYTE;
+			} else if (value < CHAR_MISSING) {
+				return KIND_CHAR;
+			}
+		}
+		if (value > INT_MISSING && value <= Integer.MAX_VALUE) {
+			return KIND_INT;
+		}
+		return KIND_DOUBLE;
+	}
+}
@@ -45,7 +45,8 @@ public class DataRowFactory {
 		"double_sparse_array", "float_sparse_array", 
 		"long_sparse_array", "int_sparse_array", "short_sparse_array", "byte_sparse_array", 
 		"boolean_sparse_array",
-		"sparse_map"
+		"sparse_map",
+		"compact_array"
 	};
 
 	public static final int FIRST_TYPE_INDEX = 0;
@@ -80,7 +81,10 @@ public class DataRowFactory {
 
 	public static final int TYPE_SPARSE_MAP = 14;
 
-	public static final int LAST_TYPE_INDEX = 14;
+	/** Stores each column in the narrowest primitive type able to hold its values, see {@link CompactArrayDataRow}. */
+	public static final int TYPE_COMPACT_ARRAY = 15;
+
+	public static final int LAST_TYPE_INDEX = 15;
 
 	public static final int TYPE_SPECIAL = -1;
 
@@ -96,6 +100,9 @@ public class DataRowFactory {
 	/** The decimal point character. */
 	private char decimalPointCharacter = '.';
 
+	/** The layout shared by all compact rows created by this factory. */
+	private CompactArrayLayout compactLayout = new CompactArrayLayout(0);
+
 
 	/**
 	 * @param type
@@ -115,7 +122,7 @@ public class DataRowFactory {
 	 *            must be one out of 
 	 *            TYPE_DOUBLE_ARRAY, TYPE_FLOAT_ARRAY, TYPE_LONG_ARRAY, TYPE_INT_ARRAY, TYPE_SHORT_ARRAY, TYPE_BYTE_ARRAY, TYPE_BOOLEAN_ARRAY, 
 	 *            TYPE_DOUBLE_SPARSE_ARRAY, TYPE_FLOAT_SPARSE_ARRAY, TYPE_LONG_SPARSE_ARRAY, TYPE_INT_SPARSE_ARRAY, TYPE_SHORT_SPARSE_ARRAY, TYPE_BYTE_SPARSE_ARRAY, TYPE_BOOLEAN_SPARSE_ARRAY,
-	 *            or TYPE_SPARSE_MAP.
+	 *            TYPE_SPARSE_MAP, or TYPE_COMPACT_ARRAY.
 	 * @param decimalPointCharacter the letter for decimal points, usually '.'
 	 */
 	public DataRowFactory(int type, char decimalPointCharacter) {
@@ -174,6 +181,9 @@ public class DataRowFactory {
 		case TYPE_SPARSE_MAP:
 			row = new SparseMapDataRow();
 			break;
+		case TYPE_COMPACT_ARRAY:
+			row = new CompactArrayDataRow(getCompactLayout(size));
+			break;
 		default:
 		}
 		return row;
@@ -261,6 +271,13 @@ public class DataRowFactory {
 	}
 
 
+	private synchronized CompactArrayLayout getCompactLayout(int size) {
+		if (compactLayout.getNumberOfColumns() != size) {
+			compactLayout = new CompactArrayLayout(size);
+		}
+		return compactLayout.getWidest();
+	}
+
 	/** Returns the type of the created data rows. */
 	public int getType() {
 		return type;
@@ -144,22 +144,32 @@ public class DatabaseDataRow extends DataRow {
 
 	/** Reads the data for the given attribute from the result set. */
 	public static double readColumn(ResultSet resultSet, Attribute attribute) throws SQLException {
+		return mapColumnValue(readColumnValue(resultSet, attribute), attribute);
+	}
+
+	/**
+	 * Reads the data for the given attribute from the result set without mapping nominal values.
+	 * Returns a {@link Double} for numerical and date attributes, a {@link String} for nominal
+	 * attributes and null for missing values. Since neither the attribute nor its mapping is
+	 * modified, this method may be used by other threads than the one using the attribute.
+	 */
+	public static Object readColumnValue(ResultSet resultSet, Attribute attribute) throws SQLException {
 		ResultSetMetaData metaData = resultSet.getMetaData();
 		String name = attribute.getName();
 		int valueType = attribute.getValueType();
-		double value;
 		if (Ontology.ATTRIBUTE_VALUE_TYPE.isA(valueType, Ontology.DATE_TIME)) {
 			Timestamp timestamp = resultSet.getTimestamp(name);
 			if (resultSet.wasNull()) {
-				value = Double.NaN;
+				return null;
 			} else {
-				value = timestamp.getTime();
+				return Double.valueOf(timestamp.getTime());
 			}
 		} else if (Ontology.ATTRIBUTE_VALUE_TYPE.isA(valueType, Ontology.NUMERICAL)) {
-			value = resultSet.getDouble(name);
+			double value = resultSet.getDouble(name);
 			if (resultSet.wasNull()) {
-				value = Double.NaN;
+				return null;
 			}
+			return Double.valueOf(value);
 		} else {
 			if (Ontology.ATTRIBUTE_VALUE_TYPE.isA(valueType, Ontology.NOMINAL)) {
 				String valueString = null;
@@ -178,7 +188,7 @@ public class DatabaseDataRow extends DataRow {
 								}
 								valueString = buffer.toString();
 							} catch (IOException e) {
-								value = Double.NaN;
+								valueString = null;
 							}
 						} finally {
 							try {
@@ -192,16 +202,25 @@ public class DatabaseDataRow extends DataRow {
 					valueString = resultSet.getString(name);
 				}
 				if (resultSet.wasNull() || valueString == null) {
-					value = Double.NaN;
+					return null;
 				} else {
-					value = attribute.getMapping().mapString(valueString);
+					return valueString;
 				}
 			} else {
-				value = Double.NaN;
+				return null;
 			}
 		}
+	}
 
-		return value;
+	/** Converts a value returned by {@link #readColumnValue(ResultSet, Attribute)} into the internal representation of the attribute. */
+	public static double mapColumnValue(Object value, Attribute attribute) {
+		if (value == null) {
+			return Double.NaN;
+		} else if (value instanceof String) {
+			return attribute.getMapping().mapString((String) value);
+		} else {
+			return ((Double) value).doubleValue();
+		}
 	}
 
 	@Override
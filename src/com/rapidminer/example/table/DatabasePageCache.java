@@ -0,0 +1,324 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.example.table;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+import com.rapidminer.RapidMiner;
+import com.rapidminer.example.Attribute;
+import com.rapidminer.tools.LogService;
+import com.rapidminer.tools.ParameterService;
+
+/**
+ * Caches pages of consecutive rows fetched from a database for the database backed example tables
+ * {@link IndexCachedDatabaseExampleTable} and {@link LimitCachedDatabaseExampleTable}. Pages are
+ * evicted in least recently used order as soon as the memory budget defined by
+ * {@link RapidMiner#PROPERTY_RAPIDMINER_TOOLS_DB_CACHE_MEMORY_BUDGET} would be exceeded.
+ *
+ * If the rows are accessed sequentially, the following page is loaded by a background thread
+ * while the current one is being read (see {@link RapidMiner#PROPERTY_RAPIDMINER_TOOLS_DB_CACHE_PREFETCH}).
+ * All pages are loaded one after another since the {@link PageLoader}s share a single database
+ * connection. The prefetch thread only fetches the raw column values; they are converted into data
+ * rows, including the mapping of nominal values, by the thread which accesses the page, since the
+ * attributes and their mappings are not thread safe.
+ */
+public class DatabasePageCache {
+
+	/** Loads rows from the database. */
+	public interface PageLoader {
+
+		/**
+		 * Returns the raw column values (see {@link DatabaseDataRow#readColumnValue(ResultSet, Attribute)})
+		 * of the rows with indices offset to offset + length - 1 (counting from 0). This method may be
+		 * invoked by the prefetch thread and must therefore not modify attributes or nominal mappings.
+		 */
+		public List<Object[]> fetchPage(int offset, int length) throws SQLException;
+
+		/** Creates a table from fetched rows. This method is invoked by the thread accessing the rows. */
+		public MemoryExampleTable createPage(List<Object[]> rows);
+	}
+
+	private static final int DEFAULT_MEMORY_BUDGET = 64;
+
+	/** Estimated memory overhead of a single data row in bytes. */
+	private static final int ROW_OVERHEAD = 48;
+
+	private final PageLoader loader;
+
+	private final int pageSize;
+
+	private final int numberOfRows;
+
+	private final int maxPages;
+
+	private final boolean prefetch;
+
+	/** Loaded pages in access order. */
+	private final LinkedHashMap<Integer, MemoryExampleTable> pages;
+
+	/** Pages fetched or being fetched by the prefetch thread which were not accessed yet. */
+	private final LinkedHashMap<Integer, Future<List<Object[]>>> pendingPages = new LinkedHashMap<Integer, Future<List<Object[]>>>();
+
+	/** Serializes the access to the database connection. */
+	private final Object loadLock = new Object();
+
+	private ThreadPoolExecutor prefetchExecutor;
+
+	private int lastPage = -1;
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	private final AtomicLong prefetches = new AtomicLong();
+
+	/**
+	 * Creates a cache for a table with the given number of rows and attributes. The number of
+	 * pages kept in memory is derived from the memory budget and the number of attributes. If the
+	 * number of rows is unknown (negative), full pages are requested and nothing is prefetched.
+	 */
+	public DatabasePageCache(PageLoader loader, int pageSize, int numberOfRows, int numberOfAttributes) {
+		this.loader = loader;
+		this.pageSize = pageSize;
+		this.numberOfRows = numberOfRows;
+		long budget = getMemoryBudget() * 1024L * 1024L;
+		long pageBytes = (long) pageSize * (numberOfAttributes * 8L + ROW_OVERHEAD);
+		// at least two pages are necessary for prefetching
+		this.maxPages = (int) Math.max(2, Math.min(Integer.MAX_VALUE, budget / pageBytes));
+		this.prefetch = !"false".equals(ParameterService.getParameterValue(RapidMiner.PROPERTY_RAPIDMINER_TOOLS_DB_CACHE_PREFETCH));
+		this.pages = new LinkedHashMap<Integer, MemoryExampleTable>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, MemoryExampleTable> eldest) {
+				return size() > maxPages;
+			}
+		};
+	}
+
+	/** Returns the data row with the given index (counting from 0) and loads its page if necessary. */
+	public DataRow getDataRow(int index) throws SQLException {
+		int page = index / pageSize;
+		MemoryExampleTable table = getPage(page);
+		boolean sequential;
+		synchronized (pages) {
+			sequential = page == lastPage + 1;
+			lastPage = page;
+		}
+		if (prefetch && sequential) {
+			prefetch(page + 1);
+		}
+		return table.getDataRow(index - page * pageSize);
+	}
+
+	private MemoryExampleTable getPage(int page) throws SQLException {
+		Future<List<Object[]>> pending;
+		synchronized (pages) {
+			MemoryExampleTable table = pages.get(page);
+			if (table != null) {
+				hits.incrementAndGet();
+				return table;
+			}
+			pending = pendingPages.remove(page);
+		}
+		List<Object[]> rows = null;
+		if (pending != null) {
+			hits.incrementAndGet();
+			try {
+				rows = pending.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new SQLException("Interrupted while waiting for database rows.");
+			} catch (ExecutionException e) {
+				// prefetch failed, try again in this thread to report the error properly
+				LogService.getRoot().log(Level.FINE, "Prefetching database rows failed: " + e.getCause(), e.getCause());
+			}
+		} else {
+			misses.incrementAndGet();
+		}
+		if (rows == null) {
+			rows = fetch(page);
+		}
+		MemoryExampleTable table = loader.createPage(rows);
+		synchronized (pages) {
+			pages.put(page, table);
+		}
+		return table;
+	}
+
+	private List<Object[]> fetch(int page) throws SQLException {
+		int offset = page * pageSize;
+		synchronized (loadLock) {
+			int length = numberOfRows < 0 ? pageSize : Math.min(pageSize, Math.max(0, numberOfRows - offset));
+			return loader.fetchPage(offset, length);
+		}
+	}
+
+	private void prefetch(final int page) {
+		if (numberOfRows < 0 || page * (long) pageSize >= numberOfRows) {
+			return;
+		}
+		synchronized (pages) {
+			if (pages.containsKey(page) || pendingPages.containsKey(page)) {
+				return;
+			}
+			FutureTask<List<Object[]>> task = new FutureTask<List<Object[]>>(new Callable<List<Object[]>>() {
+
+				@Override
+				public List<Object[]> call() throws Exception {
+					return fetch(page);
+				}
+			});
+			pendingPages.put(page, task);
+			// fetched pages are kept until they are accessed, drop the oldest ones if the reader jumped away
+			Iterator<Future<List<Object[]>>> i = pendingPages.values().iterator();
+			while (pendingPages.size() > maxPages && i.hasNext()) {
+				i.next().cancel(false);
+				i.remove();
+			}
+			prefetches.incrementAndGet();
+			getPrefetchExecutor().execute(task);
+		}
+	}
+
+	private ThreadPoolExecutor getPrefetchExecutor() {
+		if (prefetchExecutor == null) {
+			// the thread terminates when idle, so no explicit shutdown is necessary
+			prefetchExecutor = new ThreadPoolExecutor(0, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "DatabasePageCache-Prefetch");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return prefetchExecutor;
+	}
+
+	/**
+	 * Reads the raw column values of all remaining rows of the result set. The attributes are only
+	 * read, so this can be used by {@link PageLoader#fetchPage(int, int)}.
+	 */
+	public static List<Object[]> readRows(ResultSet resultSet, Attribute[] attributes) throws SQLException {
+		List<Object[]> rows = new ArrayList<Object[]>();
+		while (resultSet.next()) {
+			Object[] row = new Object[attributes.length];
+			for (int i = 0; i < attributes.length; i++) {
+				row[i] = DatabaseDataRow.readColumnValue(resultSet, attributes[i]);
+			}
+			rows.add(row);
+		}
+		return rows;
+	}
+
+	/** Creates a table from rows read by {@link #readRows(ResultSet, Attribute[])}, mapping nominal values. */
+	public static MemoryExampleTable createTable(List<Attribute> attributes, List<Object[]> rows, DataRowFactory factory) {
+		MemoryExampleTable table = new MemoryExampleTable(attributes);
+		Attribute[] attributeArray = attributes.toArray(new Attribute[attributes.size()]);
+		for (Object[] values : rows) {
+			DataRow row = factory.create(attributeArray.length);
+			for (int i = 0; i < attributeArray.length; i++) {
+				row.set(attributeArray[i], DatabaseDataRow.mapColumnValue(values[i], attributeArray[i]));
+			}
+			row.trim();
+			table.addDataRow(row);
+		}
+		return table;
+	}
+
+	/** Removes all pages from the cache. */
+	public void clear() {
+		synchronized (pages) {
+			pages.clear();
+			for (Future<List<Object[]>> pending : pendingPages.values()) {
+				pending.cancel(false);
+			}
+			pendingPages.clear();
+			lastPage = -1;
+		}
+	}
+
+	/** Returns the number of row accesses which were served from a loaded or prefetched page. */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/** Returns the number of row accesses which required a synchronous database query. */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/** Returns the number of pages which were loaded in the background. */
+	public long getPrefetchCount() {
+		return prefetches.get();
+	}
+
+	/** Returns the fraction of accesses served from the cache or 0 if no row was accessed yet. */
+	public double getHitRatio() {
+		long h = hits.get();
+		long total = h + misses.get();
+		return total == 0 ? 0 : (double) h / total;
+	}
+
+	/** Returns the maximum number of pages kept in memory. */
+	public int getMaximumNumberOfPages() {
+		return maxPages;
+	}
+
+	/** Returns the number of rows per page. */
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	@Override
+	public String toString() {
+		return "DatabasePageCache[pages<=" + maxPages + ", pageSize=" + pageSize + ", hits=" + getHitCount() + ", misses=" + getMissCount() + ", prefetches=" + getPrefetchCount() + "]";
+	}
+
+	private static int getMemoryBudget() {
+		try {
+			return Math.max(1, Integer.parseInt(ParameterService.getParameterValue(RapidMiner.PROPERTY_RAPIDMINER_TOOLS_DB_CACHE_MEMORY_BUDGET)));
+		} catch (NumberFormatException e) {
+			return DEFAULT_MEMORY_BUDGET;
+		}
+	}
+}
@@ -37,7 +37,8 @@ import com.rapidminer.tools.jdbc.DatabaseHandler;
 /**
  * This class is another data supplier for example sets. For performance reasons
  * one should use a {@link MemoryExampleTable} if the data is small enough for
- * the main memory.
+ * the main memory. Rows are fetched in pages of {@link #DEFAULT_BATCH_SIZE} rows
+ * which are kept in a {@link DatabasePageCache}.
  * 
  * @author Ingo Mierswa, Simon Fischer
  */
@@ -80,9 +81,7 @@ public class IndexCachedDatabaseExampleTable extends AbstractExampleTable {
 	
 	private String tableName;
 	
-	private MemoryExampleTable batchExampleTable;
-	
-	private int currentBatchStartCursor = -1;
+	private DatabasePageCache pageCache;
 	
 	private int size = -1;
 	
@@ -110,8 +109,26 @@ public class IndexCachedDatabaseExampleTable extends AbstractExampleTable {
 		// first: add attributes
 		initAttributes();
 		
-		// second: create batch table
-		updateBatchAndCursors(0);
+		// second: create page cache and fetch first page
+		this.pageCache = new DatabasePageCache(new DatabasePageCache.PageLoader() {
+			@Override
+			public List<Object[]> fetchPage(int offset, int length) throws SQLException {
+				return IndexCachedDatabaseExampleTable.this.fetchPage(offset, length);
+			}
+
+			@Override
+			public MemoryExampleTable createPage(List<Object[]> rows) {
+				return IndexCachedDatabaseExampleTable.this.createPage(rows);
+			}
+		}, DEFAULT_BATCH_SIZE, this.size, getAttributeCount());
+		if (this.size > 0) {
+			this.pageCache.getDataRow(0);
+		}
+	}
+	
+	/** Returns the cache holding the rows fetched from the database. Can be used to query hit and miss counts. */
+	public DatabasePageCache getPageCache() {
+		return pageCache;
 	}
 	
 	private void createIndex(boolean dropMappingTable, LoggingHandler logging) throws SQLException {
@@ -265,69 +282,50 @@ public class IndexCachedDatabaseExampleTable extends AbstractExampleTable {
 		attributeStatement.close();
 	}
 	
-    private void updateBatchAndCursors(int desiredRow) throws SQLException {
-    	desiredRow++; // RM starts counting with 0, DB with 1
-    	
-    	// simple fetching strategy...
-    	boolean newBatch = false;
-    	int newOffset = this.currentBatchStartCursor;
-    	if (desiredRow > this.currentBatchStartCursor + (int)(0.9d * DEFAULT_BATCH_SIZE)) { // reaching the upper end
-    		newOffset = desiredRow - (int)(0.1 * DEFAULT_BATCH_SIZE);
-    		newBatch = true;
-    	} else if (desiredRow < this.currentBatchStartCursor) { // reaching the lower end
-    		newOffset = desiredRow - (int)(0.7 * DEFAULT_BATCH_SIZE);
-    		newBatch = true;
+    private List<Object[]> fetchPage(int offset, int length) throws SQLException {
+    	int firstIndex = offset + 1; // RM starts counting with 0, DB with 1
+    	String index = databaseHandler.getStatementCreator().makeIdentifier(INDEX_COLUMN_NAME);
+    	String limitedQuery;
+    	if (this.mappingTableName == null) { // work directly on table
+    		limitedQuery = 
+    			"SELECT * FROM " + databaseHandler.getStatementCreator().makeIdentifier(tableName) + 
+    			" WHERE " + index + " >= " + firstIndex +
+    			" AND " + index + " < " + (firstIndex + length) +
+    			" ORDER BY " + index;
+    	} else { // work with mapping table
+    		limitedQuery = 
+    			"SELECT * FROM " + databaseHandler.getStatementCreator().makeIdentifier(this.tableName)+ 
+    			"," + databaseHandler.getStatementCreator().makeIdentifier(this.mappingTableName) +
+    			" WHERE " + index + " >= " + firstIndex +
+    			" AND " + index + " < " + (firstIndex + length) +
+    			" AND " + databaseHandler.getStatementCreator().makeIdentifier(this.tableName) + "." + databaseHandler.getStatementCreator().makeIdentifier(this.mappingPrimaryKey)+ 
+    			" = " + databaseHandler.getStatementCreator().makeIdentifier(this.mappingTableName) + "." + databaseHandler.getStatementCreator().makeIdentifier(this.mappingPrimaryKey) +
+    			" ORDER BY " + index;
     	}
-    	
-    	if (newOffset < 1) {
-    		newOffset = 1;
-    		newBatch = true;
-    	}
-    	
-    	// retrieve new batch
-    	if (newBatch) {
-    		if (this.mappingTableName == null) { // work directly on table
-    			Statement batchStatement = this.databaseHandler.createStatement(false);
-    			String limitedQuery = 
-    				"SELECT * FROM " + databaseHandler.getStatementCreator().makeIdentifier(tableName) + 
-    				" WHERE " + databaseHandler.getStatementCreator().makeIdentifier(INDEX_COLUMN_NAME) + " >= " + newOffset +
-    				" AND " + databaseHandler.getStatementCreator().makeIdentifier(INDEX_COLUMN_NAME) + " < " + (newOffset + DEFAULT_BATCH_SIZE);
-    			ResultSet batchResultSet = batchStatement.executeQuery(limitedQuery);
-    			this.batchExampleTable = createExampleTableFromBatch(batchResultSet);
-    			batchResultSet.close();
-    			batchStatement.close();
-    			this.currentBatchStartCursor = newOffset;
-    		} else { // work with mapping table
-    			Statement batchStatement = this.databaseHandler.createStatement(false);
-    			String limitedQuery = 
-    				"SELECT * FROM " + databaseHandler.getStatementCreator().makeIdentifier(this.tableName)+ 
-    				"," + databaseHandler.getStatementCreator().makeIdentifier(this.mappingTableName) +
-    				" WHERE " + databaseHandler.getStatementCreator().makeIdentifier(INDEX_COLUMN_NAME) + " >= " + newOffset +
-    				" AND " + databaseHandler.getStatementCreator().makeIdentifier(INDEX_COLUMN_NAME) + " < " + (newOffset + DEFAULT_BATCH_SIZE) +
-    				" AND " + databaseHandler.getStatementCreator().makeIdentifier(this.tableName) + "." + databaseHandler.getStatementCreator().makeIdentifier(this.mappingPrimaryKey)+ 
-    				" = " + databaseHandler.getStatementCreator().makeIdentifier(this.mappingTableName) + "." + databaseHandler.getStatementCreator().makeIdentifier(this.mappingPrimaryKey);
-    			ResultSet batchResultSet = batchStatement.executeQuery(limitedQuery);
-    			this.batchExampleTable = createExampleTableFromBatch(batchResultSet);
+    	Statement batchStatement = this.databaseHandler.createStatement(false);
+    	try {
+    		ResultSet batchResultSet = batchStatement.executeQuery(limitedQuery);
+    		try {
+    			return DatabasePageCache.readRows(batchResultSet, getAttributes());
+    		} finally {
     			batchResultSet.close();
-    			batchStatement.close();
-    			this.currentBatchStartCursor = newOffset;
     		}
+    	} finally {
+    		batchStatement.close();
     	}
     }
     
-    private MemoryExampleTable createExampleTableFromBatch(ResultSet batchResultSet) {
+    private MemoryExampleTable createPage(List<Object[]> rows) {
     	List<Attribute> attributes = new ArrayList<Attribute>(getAttributes().length);
     	for (Attribute attribute : getAttributes()) {
     		attributes.add(attribute);
     	}
-		DataRowReader reader = new ResultSetDataRowReader(new DataRowFactory(dataManagementType, '.'), attributes, batchResultSet);
-		return new MemoryExampleTable(attributes, reader);
+		return DatabasePageCache.createTable(attributes, rows, new DataRowFactory(dataManagementType, '.'));
     }
 	
 	public DataRow getDataRow(int index) {
 		try {
-			updateBatchAndCursors(index);
-			return new NonWritableDataRow(this.batchExampleTable.getDataRow(index - this.currentBatchStartCursor + 1));
+			return new NonWritableDataRow(this.pageCache.getDataRow(index));
 		} catch (SQLException e) {
 			throw new RuntimeException("Cannot retrieve data from database: " + e, e);
 		}
@@ -34,7 +34,7 @@ import com.rapidminer.tools.jdbc.DatabaseHandler;
 /**
  * This class is another data supplier for example sets. For performance reasons
  * one should use a {@link MemoryExampleTable} if the data is small enough for
- * the main memory.
+ * the main memory. Rows are fetched in pages which are kept in a {@link DatabasePageCache}.
  * 
  * @author Ingo Mierswa, Simon Fischer
  */
@@ -69,9 +69,7 @@ public class LimitCachedDatabaseExampleTable extends AbstractExampleTable {
 	
 	private String tableName;
 	
-	private MemoryExampleTable batchExampleTable;
-	
-	private int currentBatchStartCursor = -1;
+	private DatabasePageCache pageCache;
 	
 	private int size = -1;
 	
@@ -86,8 +84,26 @@ public class LimitCachedDatabaseExampleTable extends AbstractExampleTable {
 		// first: add attributes
 		initAttributes();
 		
-		// second: create batch table
-		this.updateBatchAndCursors(0);
+		// second: create page cache and fetch first page
+		this.pageCache = new DatabasePageCache(new DatabasePageCache.PageLoader() {
+			@Override
+			public List<Object[]> fetchPage(int offset, int length) throws SQLException {
+				return LimitCachedDatabaseExampleTable.this.fetchPage(offset, length);
+			}
+
+			@Override
+			public MemoryExampleTable createPage(List<Object[]> rows) {
+				return LimitCachedDatabaseExampleTable.this.createPage(rows);
+			}
+		}, DEFAULT_BATCH_SIZE, size(), getAttributeCount());
+		if (size() > 0) {
+			this.pageCache.getDataRow(0);
+		}
+	}
+	
+	/** Returns the cache holding the rows fetched from the database. Can be used to query hit and miss counts. */
+	public DatabasePageCache getPageCache() {
+		return pageCache;
 	}
 	
 	private void initAttributes() throws SQLException {
@@ -102,48 +118,32 @@ public class LimitCachedDatabaseExampleTable extends AbstractExampleTable {
 		attributeStatement.close();
 	}
 	
-    private void updateBatchAndCursors(int desiredRow) throws SQLException {
-    	// simple fetching strategy...
-    	boolean newBatch = false;
-    	int newOffset = this.currentBatchStartCursor;
-    	if (desiredRow > this.currentBatchStartCursor + (int)(0.9d * DEFAULT_BATCH_SIZE)) { // reaching the upper end
-    		newOffset = desiredRow - (int)(0.1 * DEFAULT_BATCH_SIZE);
-    		newBatch = true;
-    	} else if (desiredRow < this.currentBatchStartCursor) { // reaching the lower end
-    		newOffset = desiredRow - (int)(0.7 * DEFAULT_BATCH_SIZE);
-    		newBatch = true;
-    	}
-    	
-    	if (newOffset < 0) {
-    		newOffset = 0;
-    		newBatch = true;
-    	}
-    	
-    	// retrieve new batch
-    	if (newBatch) {
-    		Statement batchStatement = this.databaseHandler.createStatement(false);
-    		String limitedQuery = "SELECT * FROM " + databaseHandler.getStatementCreator().makeIdentifier(tableName) + " LIMIT " + DEFAULT_BATCH_SIZE + " OFFSET " + newOffset;
+    private List<Object[]> fetchPage(int offset, int length) throws SQLException {
+    	Statement batchStatement = this.databaseHandler.createStatement(false);
+    	try {
+    		String limitedQuery = "SELECT * FROM " + databaseHandler.getStatementCreator().makeIdentifier(tableName) + " LIMIT " + length + " OFFSET " + offset;
     		ResultSet batchResultSet = batchStatement.executeQuery(limitedQuery);
-    		this.batchExampleTable = createExampleTableFromBatch(batchResultSet);
-    		batchResultSet.close();
+    		try {
+    			return DatabasePageCache.readRows(batchResultSet, getAttributes());
+    		} finally {
+    			batchResultSet.close();
+    		}
+    	} finally {
     		batchStatement.close();
-    		this.currentBatchStartCursor = newOffset;
     	}
     }
     
-    private MemoryExampleTable createExampleTableFromBatch(ResultSet batchResultSet) {
+    private MemoryExampleTable createPage(List<Object[]> rows) {
     	List<Attribute> attributes = new ArrayList<Attribute>(getAttributes().length);
     	for (Attribute attribute : getAttributes()) {
     		attributes.add(attribute);
     	}
-		DataRowReader reader = new ResultSetDataRowReader(new DataRowFactory(dataManagementType, '.'), attributes, batchResultSet);
-		return new MemoryExampleTable(attributes, reader);
+		return DatabasePageCache.createTable(attributes, rows, new DataRowFactory(dataManagementType, '.'));
     }
 	
 	public DataRow getDataRow(int index) {
 		try {
-			updateBatchAndCursors(index);
-			return new NonWritableDataRow(this.batchExampleTable.getDataRow(index - this.currentBatchStartCursor));
+			return new NonWritableDataRow(this.pageCache.getDataRow(index));
 		} catch (SQLException e) {
 			throw new RuntimeException("Cannot retrieve data from database: " + e);
 		}
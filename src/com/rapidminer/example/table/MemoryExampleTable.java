@@ -137,6 +137,7 @@ public class MemoryExampleTable extends AbstractExampleTable {
 	 * data rows first.
 	 */
 	public void readExamples(DataRowReader i, boolean permute, Random random) {
+		modified();
 		dataList.clear();
 		while (i.hasNext()) {
 			if (permute) {
@@ -173,6 +174,7 @@ public class MemoryExampleTable extends AbstractExampleTable {
 	public void addDataRow(DataRow dataRow) {
 		dataRow.trim();
 		dataList.add(dataRow);
+		modified();
 		
 		// this has to be called in order to make sure, the row matches the current column count.
 		dataRow.ensureNumberOfColumns(columns);
@@ -180,16 +182,19 @@ public class MemoryExampleTable extends AbstractExampleTable {
 
 	/** Convenience method for removing data rows. */
 	public boolean removeDataRow(DataRow dataRow) {
+		modified();
 		return dataList.remove(dataRow);
 	}
 	
 	/** Convenience method for removing data rows. */
 	public DataRow removeDataRow(int index) {
+		modified();
 		return dataList.remove(index);
 	}
 	
 	/** Clears the table. */
 	public void clear() {
+		modified();
 		dataList.clear();
 	}
 	
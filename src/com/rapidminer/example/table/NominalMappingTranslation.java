@@ -0,0 +1,90 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.example.table;
+
+/**
+ * Translates indices of nominal values from one {@link NominalMapping} to another one, e.g. when
+ * rows are copied between example sets whose attributes were created independently. The
+ * translation table is built once per pair of mappings instead of mapping each value through its
+ * string representation. If both mappings share their values, the translation is the identity.
+ */
+public class NominalMappingTranslation {
+
+	private final NominalMapping source;
+
+	private final NominalMapping target;
+
+	private final boolean addMissingValues;
+
+	/** Index in the target mapping for every index of the source mapping, -1 for unknown values. */
+	private int[] translation;
+
+	/**
+	 * @param addMissingValues
+	 *            if true, values missing in the target mapping are added to it. Otherwise they are
+	 *            translated to missing values (NaN).
+	 */
+	public NominalMappingTranslation(NominalMapping source, NominalMapping target, boolean addMissingValues) {
+		this.source = source;
+		this.target = target;
+		this.addMissingValues = addMissingValues;
+		this.translation = new int[0];
+	}
+
+	/** Extends the translation table to values added to the source mapping since the last call. */
+	private void update() {
+		int size = source.size();
+		if (translation.length >= size) {
+			return;
+		}
+		int[] newTranslation = new int[size];
+		System.arraycopy(translation, 0, newTranslation, 0, translation.length);
+		for (int i = translation.length; i < size; i++) {
+			String value = source.mapIndex(i);
+			if (value == null) {
+				newTranslation[i] = -1;
+			} else {
+				newTranslation[i] = addMissingValues ? target.mapString(value) : target.getIndex(value);
+			}
+		}
+		translation = newTranslation;
+	}
+
+	/** Returns the index in the target mapping for the given index of the source mapping. Missing values stay missing. */
+	public double translate(double sourceIndex) {
+		if (Double.isNaN(sourceIndex) || isIdentity()) {
+			return sourceIndex;
+		}
+		int index = (int) sourceIndex;
+		if (index >= translation.length) {
+			update();
+		}
+		int translated = index < 0 || index >= translation.length ? -1 : translation[index];
+		return translated < 0 ? Double.NaN : translated;
+	}
+
+	/** Returns true if indices do not need to be translated since both mappings currently share their values. */
+	public boolean isIdentity() {
+		return source == target || (source instanceof PolynominalMapping && ((PolynominalMapping) source).sharesValuesWith(target));
+	}
+}
@@ -92,7 +92,12 @@ public class PolynominalAttribute extends NominalAttribute {
 	}
 	
 	public void setMapping(NominalMapping newMapping) {
-		this.nominalMapping = new PolynominalMapping(newMapping);
+		if (newMapping instanceof PolynominalMapping) {
+			// shares the values until one of the mappings is changed
+			this.nominalMapping = (NominalMapping) newMapping.clone();
+		} else {
+			this.nominalMapping = new PolynominalMapping(newMapping);
+		}
 	}
 
 	// ================================================================================
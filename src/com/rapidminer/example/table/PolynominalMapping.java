@@ -22,6 +22,7 @@
  */
 package com.rapidminer.example.table;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -29,6 +30,7 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 
 import com.rapidminer.example.AttributeTypeException;
 import com.rapidminer.example.Example;
@@ -47,10 +49,13 @@ public class PolynominalMapping implements NominalMapping {
 	private static final long serialVersionUID = 5021638750496191771L;
 
 	/** The map between symbolic values and their indices. */
-	private final Map<String, Integer> symbolToIndexMap = new HashMap<String, Integer>();
+	private Map<String, Integer> symbolToIndexMap = new HashMap<String, Integer>();
 
 	/** The map between indices of nominal values and the actual nominal value. */
-	private final List<String> indexToSymbolMap = new ArrayList<String>();
+	private List<String> indexToSymbolMap = new ArrayList<String>();
+	
+	/** True if the maps above might be used by a clone of this mapping and must be copied before they are modified. */
+	private volatile boolean shared = false;
 	
 	public PolynominalMapping() {}
 	
@@ -79,11 +84,37 @@ public class PolynominalMapping implements NominalMapping {
 		}
 	}
 	
+	/** Creates a mapping sharing the maps of the given one until one of both is modified. */
+	private PolynominalMapping(PolynominalMapping mapping) {
+		synchronized (mapping) {
+			this.symbolToIndexMap = mapping.symbolToIndexMap;
+			this.indexToSymbolMap = mapping.indexToSymbolMap;
+			this.shared = true;
+			mapping.shared = true;
+		}
+	}
+	
+	/** Returns a copy of this mapping. The copy shares the internal maps with this mapping until
+	 *  one of both is modified, so cloning example sets does not copy the nominal values. */
 	@Override
 	public Object clone() {
 		return new PolynominalMapping(this);
 	}
 
+	/** Returns true if both mappings currently share the same values, i.e. an index has the same meaning in both. */
+	public boolean sharesValuesWith(NominalMapping mapping) {
+		return mapping instanceof PolynominalMapping && ((PolynominalMapping) mapping).indexToSymbolMap == this.indexToSymbolMap;
+	}
+
+	/** Copies the maps if they are shared with a clone. Must be called before every modification. */
+	private synchronized void ensureOwnMaps() {
+		if (shared) {
+			symbolToIndexMap = new HashMap<String, Integer>(symbolToIndexMap);
+			indexToSymbolMap = new ArrayList<String>(indexToSymbolMap);
+			shared = false;
+		}
+	}
+
 	@Override
 	public boolean equals(NominalMapping mapping) {
 		if (mapping.size() != size())
@@ -108,6 +139,7 @@ public class PolynominalMapping implements NominalMapping {
 		// if string is not yet in the map, add it
 		if (index < 0) {
 			// new string -> insert
+			ensureOwnMaps();
 			str = new String(str);  // we copy the name if the underlying char array value is larger than needed
 			indexToSymbolMap.add(str);
 			index = indexToSymbolMap.size() - 1;
@@ -142,6 +174,7 @@ public class PolynominalMapping implements NominalMapping {
 	/** Sets the given mapping. Please note that this will overwrite existing mappings and might
 	 *  cause data changes in this way. */
 	public void setMapping(String nominalValue, int index) {
+		ensureOwnMaps();
 		String oldValue = indexToSymbolMap.get(index);
 		indexToSymbolMap.set(index, nominalValue);
 		symbolToIndexMap.remove(oldValue);
@@ -184,9 +217,11 @@ public class PolynominalMapping implements NominalMapping {
 		return mapIndex(getPositiveIndex());
 	}
 	
-	/** Returns the values of the attribute as an enumeration of strings. */
+	/** Returns the values of the attribute as an enumeration of strings. The returned list is a view
+	 *  which always reflects the current values of this mapping, also after shared values were copied.
+	 *  Modifications of the list copy shared values first, so clones of this mapping are not affected. */
 	public List<String> getValues() {
-		return indexToSymbolMap;
+		return new ValueList();
 	}
 
 	/** Returns the number of different nominal values. */
@@ -205,6 +240,7 @@ public class PolynominalMapping implements NominalMapping {
 	public void sortMappings() {
 		List<String> allStrings = new LinkedList<String>(symbolToIndexMap.keySet());
 		Collections.sort(allStrings);
+		ensureOwnMaps();
 		symbolToIndexMap.clear();
 		indexToSymbolMap.clear();
 		Iterator<String> i = allStrings.iterator();
@@ -215,6 +251,7 @@ public class PolynominalMapping implements NominalMapping {
 	
 	/** Clears all mappings for nominal values. */
 	public void clear() {
+		ensureOwnMaps();
 		symbolToIndexMap.clear();
 		indexToSymbolMap.clear();
 	}
@@ -232,4 +269,38 @@ public class PolynominalMapping implements NominalMapping {
 	public String toString() {
 		return indexToSymbolMap.toString() + Tools.getLineSeparator() + symbolToIndexMap.toString();
 	}
+
+	/** The list returned by {@link PolynominalMapping#getValues()}. */
+	private class ValueList extends AbstractList<String> implements RandomAccess {
+
+		@Override
+		public String get(int index) {
+			return indexToSymbolMap.get(index);
+		}
+
+		@Override
+		public int size() {
+			return indexToSymbolMap.size();
+		}
+
+		@Override
+		public String set(int index, String value) {
+			ensureOwnMaps();
+			return indexToSymbolMap.set(index, value);
+		}
+
+		@Override
+		public void add(int index, String value) {
+			ensureOwnMaps();
+			indexToSymbolMap.add(index, value);
+			modCount++;
+		}
+
+		@Override
+		public String remove(int index) {
+			ensureOwnMaps();
+			modCount++;
+			return indexToSymbolMap.remove(index);
+		}
+	}
 }
@@ -0,0 +1,539 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.example.table;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.rapidminer.example.Attribute;
+import com.rapidminer.example.Tools;
+
+
+/**
+ * An example table storing its data in compressed sparse row (CSR) format. The non-default values
+ * of all rows share one array of column indices and one array of values, the slice of a row is
+ * given by its start and end offset. Compared to a {@link MemoryExampleTable} filled with
+ * {@link SparseDataRow}s, this avoids two arrays and one object per example, which makes data
+ * sets with a very large number of mostly default attributes (e.g. word vectors) fit into memory.
+ * 
+ * The data rows returned by {@link #getDataRow(int)} are lightweight views implementing
+ * {@link SparseDataRow}. Learners which want to avoid any copying may iterate over the shared
+ * arrays directly using {@link #getRowStart(int)}, {@link #getRowEnd(int)},
+ * {@link #getColumnIndices()} and {@link #getValues()}.
+ * 
+ * Only the columns which exist at construction time are stored in the shared arrays. Attributes
+ * added later, e.g. predictions and confidences, are stored in dense columns which are created
+ * when their first value is set. Setting a new non-default value in a sparse column moves the
+ * slice of the row to the end of the shared arrays; the gaps are removed once they take more
+ * space than the actual data. Like all example tables, this table must not be modified by
+ * several threads at the same time.
+ */
+public class SparseExampleTable extends AbstractExampleTable {
+
+	private static final long serialVersionUID = 2934725930251093751L;
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	/** The number of columns stored in the shared sparse arrays. */
+	private final int sparseColumns;
+
+	/** The number of rows. */
+	private int size = 0;
+
+	private int[] rowStart = new int[INITIAL_CAPACITY];
+
+	private int[] rowEnd = new int[INITIAL_CAPACITY];
+
+	/** The table indices of the non-default values, sorted ascending within each row. */
+	private int[] columnIndices = new int[INITIAL_CAPACITY];
+
+	private double[] values = new double[INITIAL_CAPACITY];
+
+	/** The number of used entries of the shared arrays including the unused gaps. */
+	private int used = 0;
+
+	/** The number of entries of the shared arrays which do not belong to any row any more. */
+	private int garbage = 0;
+
+	/** Columns with table index sparseColumns + i are stored in denseColumns[i] or are not set at all if this is null. */
+	private double[][] denseColumns = new double[0][];
+
+	/** Creates an empty table. Rows can be added by {@link #addDataRow(DataRow)}. */
+	public SparseExampleTable(List<Attribute> attributes) {
+		super(attributes);
+		this.sparseColumns = attributes.size();
+	}
+
+	/** Creates a table with the non-default values of all data rows delivered by the reader. */
+	public SparseExampleTable(List<Attribute> attributes, DataRowReader reader) {
+		this(attributes);
+		while (reader.hasNext()) {
+			addDataRow(reader.next());
+		}
+	}
+
+	/** Creates a sparse copy of the given table. */
+	public static SparseExampleTable createCompleteCopy(ExampleTable oldTable) {
+		return new SparseExampleTable(Arrays.asList(oldTable.getAttributes()), oldTable.getDataRowReader());
+	}
+
+	/** Appends the non-default values of the given data row as a new row. */
+	public synchronized void addDataRow(DataRow dataRow) {
+		int row = appendEmptyRow();
+		if (dataRow instanceof SparseDataRow) {
+			int[] indices = ((SparseDataRow) dataRow).getNonDefaultIndices();
+			for (int index : indices) {
+				appendValue(row, index, dataRow);
+			}
+		} else {
+			int columns = getNumberOfAttributes();
+			for (int index = 0; index < columns; index++) {
+				appendValue(row, index, dataRow);
+			}
+		}
+		sortRow(row);
+		modified();
+	}
+
+	/**
+	 * Appends a row consisting of the given pairs of table indices and values. Only the first count
+	 * entries of the arrays are used, default values are skipped.
+	 */
+	public synchronized void addRow(int[] indices, double[] rowValues, int count) {
+		int row = appendEmptyRow();
+		for (int i = 0; i < count; i++) {
+			Attribute attribute = getAttribute(indices[i]);
+			if (attribute != null) {
+				appendValue(row, indices[i], rowValues[i], attribute.getDefault());
+			}
+		}
+		sortRow(row);
+		modified();
+	}
+
+	private void appendValue(int row, int index, DataRow dataRow) {
+		Attribute attribute = getAttribute(index);
+		if (attribute != null) {
+			double defaultValue = attribute.getDefault();
+			appendValue(row, index, dataRow.get(index, defaultValue), defaultValue);
+		}
+	}
+
+	private void appendValue(int row, int index, double value, double defaultValue) {
+		if (Tools.isDefault(defaultValue, value)) {
+			return;
+		}
+		if (index >= sparseColumns) {
+			setValue(row, index, value, defaultValue);
+		} else {
+			ensureCapacity(used + 1);
+			columnIndices[used] = index;
+			values[used] = value;
+			used++;
+			rowEnd[row] = used;
+		}
+	}
+
+	private int appendEmptyRow() {
+		if (size == rowStart.length) {
+			int newLength = rowStart.length + (rowStart.length >> 1) + 1;
+			rowStart = Arrays.copyOf(rowStart, newLength);
+			rowEnd = Arrays.copyOf(rowEnd, newLength);
+			for (int i = 0; i < denseColumns.length; i++) {
+				if (denseColumns[i] != null) {
+					double[] column = Arrays.copyOf(denseColumns[i], newLength);
+					Arrays.fill(column, size, newLength, getDenseDefault(i));
+					denseColumns[i] = column;
+				}
+			}
+		}
+		rowStart[size] = used;
+		rowEnd[size] = used;
+		return size++;
+	}
+
+	/** Sorts the slice of the given row by column index if it is not sorted yet. */
+	private void sortRow(int row) {
+		int start = rowStart[row];
+		int end = rowEnd[row];
+		for (int i = start + 1; i < end; i++) {
+			if (columnIndices[i - 1] > columnIndices[i]) {
+				// insertion sort, the rows of most readers are already sorted
+				for (int j = start + 1; j < end; j++) {
+					int index = columnIndices[j];
+					double value = values[j];
+					int k = j - 1;
+					while (k >= start && columnIndices[k] > index) {
+						columnIndices[k + 1] = columnIndices[k];
+						values[k + 1] = values[k];
+						k--;
+					}
+					columnIndices[k + 1] = index;
+					values[k + 1] = value;
+				}
+				return;
+			}
+		}
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > columnIndices.length) {
+			int newLength = Math.max(capacity, columnIndices.length + (columnIndices.length >> 1) + 1);
+			columnIndices = Arrays.copyOf(columnIndices, newLength);
+			values = Arrays.copyOf(values, newLength);
+		}
+	}
+
+	/** Copies all rows into new arrays of the given capacity, removing all gaps. */
+	private void compact(int capacity) {
+		int[] newIndices = new int[Math.max(capacity, used - garbage)];
+		double[] newValues = new double[newIndices.length];
+		int position = 0;
+		for (int row = 0; row < size; row++) {
+			int length = rowEnd[row] - rowStart[row];
+			System.arraycopy(columnIndices, rowStart[row], newIndices, position, length);
+			System.arraycopy(values, rowStart[row], newValues, position, length);
+			rowStart[row] = position;
+			position += length;
+			rowEnd[row] = position;
+		}
+		columnIndices = newIndices;
+		values = newValues;
+		used = position;
+		garbage = 0;
+	}
+
+	/** Returns the raw value of the given cell. */
+	double getValue(int row, int column, double defaultValue) {
+		if (column >= sparseColumns) {
+			int denseIndex = column - sparseColumns;
+			if (denseIndex < denseColumns.length) {
+				double[] denseColumn = denseColumns[denseIndex];
+				if (denseColumn != null) {
+					return denseColumn[row];
+				}
+			}
+			return defaultValue;
+		}
+		int position = Arrays.binarySearch(columnIndices, rowStart[row], rowEnd[row], column);
+		if (position < 0) {
+			return defaultValue;
+		} else {
+			return values[position];
+		}
+	}
+
+	/** Sets the raw value of the given cell. */
+	synchronized void setValue(int row, int column, double value, double defaultValue) {
+		boolean isDefault = Tools.isDefault(defaultValue, value);
+		if (column >= sparseColumns) {
+			int denseIndex = column - sparseColumns;
+			if (denseIndex >= denseColumns.length) {
+				if (isDefault) {
+					return;
+				}
+				denseColumns = Arrays.copyOf(denseColumns, denseIndex + 1);
+			}
+			double[] denseColumn = denseColumns[denseIndex];
+			if (denseColumn == null) {
+				if (isDefault) {
+					return;
+				}
+				denseColumn = new double[rowStart.length];
+				Arrays.fill(denseColumn, defaultValue);
+				denseColumns[denseIndex] = denseColumn;
+			}
+			denseColumn[row] = value;
+			return;
+		}
+
+		int start = rowStart[row];
+		int end = rowEnd[row];
+		int position = Arrays.binarySearch(columnIndices, start, end, column);
+		if (position >= 0) {
+			if (isDefault) {
+				System.arraycopy(columnIndices, position + 1, columnIndices, position, end - position - 1);
+				System.arraycopy(values, position + 1, values, position, end - position - 1);
+				rowEnd[row] = end - 1;
+				garbage++;
+			} else {
+				values[position] = value;
+			}
+		} else if (!isDefault) {
+			int insert = -position - 1;
+			if (end == used) {
+				// last row in the arrays can grow in place
+				ensureCapacity(used + 1);
+				System.arraycopy(columnIndices, insert, columnIndices, insert + 1, end - insert);
+				System.arraycopy(values, insert, values, insert + 1, end - insert);
+				columnIndices[insert] = column;
+				values[insert] = value;
+				rowEnd[row] = end + 1;
+				used++;
+			} else {
+				int length = end - start;
+				if (garbage + length > used - garbage) {
+					int live = used - garbage;
+					compact(live + (live >> 1) + length + 1);
+					start = rowStart[row];
+					end = rowEnd[row];
+					insert = -Arrays.binarySearch(columnIndices, start, end, column) - 1;
+				}
+				ensureCapacity(used + length + 1);
+				int target = used;
+				System.arraycopy(columnIndices, start, columnIndices, target, insert - start);
+				System.arraycopy(values, start, values, target, insert - start);
+				columnIndices[target + insert - start] = column;
+				values[target + insert - start] = value;
+				System.arraycopy(columnIndices, insert, columnIndices, target + insert - start + 1, end - insert);
+				System.arraycopy(values, insert, values, target + insert - start + 1, end - insert);
+				rowStart[row] = target;
+				rowEnd[row] = target + length + 1;
+				used = target + length + 1;
+				garbage += length;
+			}
+		}
+	}
+
+	private double getDenseDefault(int denseIndex) {
+		Attribute attribute = getAttribute(sparseColumns + denseIndex);
+		return attribute == null ? Double.NaN : attribute.getDefault();
+	}
+
+	/** Removes all values of the column such that it can be reused for a new attribute. */
+	@Override
+	public synchronized void removeAttribute(int index) {
+		if (getAttribute(index) == null) {
+			return;
+		}
+		if (index >= sparseColumns) {
+			int denseIndex = index - sparseColumns;
+			if (denseIndex < denseColumns.length) {
+				denseColumns[denseIndex] = null;
+			}
+		} else {
+			for (int row = 0; row < size; row++) {
+				int start = rowStart[row];
+				int end = rowEnd[row];
+				int position = Arrays.binarySearch(columnIndices, start, end, index);
+				if (position >= 0) {
+					System.arraycopy(columnIndices, position + 1, columnIndices, position, end - position - 1);
+					System.arraycopy(values, position + 1, values, position, end - position - 1);
+					rowEnd[row] = end - 1;
+					garbage++;
+				}
+			}
+		}
+		super.removeAttribute(index);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public DataRow getDataRow(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+		}
+		return new Row(index);
+	}
+
+	public DataRowReader getDataRowReader() {
+		return new DataRowReader() {
+
+			private int next = 0;
+
+			public boolean hasNext() {
+				return next < size;
+			}
+
+			public DataRow next() {
+				if (next >= size) {
+					throw new NoSuchElementException();
+				}
+				return new Row(next++);
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException("The method 'remove' is not supported by DataRowReaders!");
+			}
+		};
+	}
+
+	/** Returns the number of columns which are stored in the shared arrays. Columns with a larger table index are stored densely. */
+	public int getNumberOfSparseColumns() {
+		return sparseColumns;
+	}
+
+	/** Returns the offset of the first non-default value of the given row in {@link #getColumnIndices()} and {@link #getValues()}. */
+	public int getRowStart(int row) {
+		return rowStart[row];
+	}
+
+	/** Returns the offset after the last non-default value of the given row in {@link #getColumnIndices()} and {@link #getValues()}. */
+	public int getRowEnd(int row) {
+		return rowEnd[row];
+	}
+
+	/**
+	 * Returns the shared array of table indices. The array must not be modified and is only
+	 * valid until the next modification of the table.
+	 */
+	public int[] getColumnIndices() {
+		return columnIndices;
+	}
+
+	/**
+	 * Returns the shared array of raw values. The array must not be modified and is only
+	 * valid until the next modification of the table.
+	 */
+	public double[] getValues() {
+		return values;
+	}
+
+	private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+		if (garbage > 0 || used < columnIndices.length) {
+			compact(used - garbage);
+		}
+		out.defaultWriteObject();
+	}
+
+	/** A view on one row of the table. */
+	public class Row extends DataRow implements SparseDataRow {
+
+		private static final long serialVersionUID = -4472983059380591204L;
+
+		private final int row;
+
+		private Row(int row) {
+			this.row = row;
+		}
+
+		/** Returns the index of this row in its table. */
+		public int getRowIndex() {
+			return row;
+		}
+
+		/** Returns the table this row belongs to. */
+		public SparseExampleTable getTable() {
+			return SparseExampleTable.this;
+		}
+
+		@Override
+		protected double get(int index, double defaultValue) {
+			return getValue(row, index, defaultValue);
+		}
+
+		@Override
+		protected void set(int index, double value, double defaultValue) {
+			setValue(row, index, value, defaultValue);
+		}
+
+		/** Does nothing since columns are allocated by the table. */
+		@Override
+		protected void ensureNumberOfColumns(int numberOfColumns) {}
+
+		/** Does nothing since the table is always trimmed. */
+		@Override
+		public void trim() {}
+
+		@Override
+		public int getType() {
+			return DataRowFactory.TYPE_DOUBLE_SPARSE_ARRAY;
+		}
+
+		public int[] getNonDefaultIndices() {
+			synchronized (SparseExampleTable.this) {
+				int[] indices = new int[countNonDefaultValues()];
+				int count = rowEnd[row] - rowStart[row];
+				System.arraycopy(columnIndices, rowStart[row], indices, 0, count);
+				for (int i = 0; i < denseColumns.length; i++) {
+					if (isDenseNonDefault(i)) {
+						indices[count++] = sparseColumns + i;
+					}
+				}
+				return indices;
+			}
+		}
+
+		public double[] getNonDefaultValues() {
+			synchronized (SparseExampleTable.this) {
+				double[] result = new double[countNonDefaultValues()];
+				int count = rowEnd[row] - rowStart[row];
+				System.arraycopy(values, rowStart[row], result, 0, count);
+				for (int i = 0; i < denseColumns.length; i++) {
+					if (isDenseNonDefault(i)) {
+						result[count++] = denseColumns[i][row];
+					}
+				}
+				return result;
+			}
+		}
+
+		private int countNonDefaultValues() {
+			int count = rowEnd[row] - rowStart[row];
+			for (int i = 0; i < denseColumns.length; i++) {
+				if (isDenseNonDefault(i)) {
+					count++;
+				}
+			}
+			return count;
+		}
+
+		private boolean isDenseNonDefault(int denseIndex) {
+			return denseColumns[denseIndex] != null && getAttribute(sparseColumns + denseIndex) != null &&
+					!Tools.isDefault(getDenseDefault(denseIndex), denseColumns[denseIndex][row]);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof Row)) {
+				return false;
+			}
+			Row otherRow = (Row) other;
+			return otherRow.getTable() == getTable() && otherRow.row == row;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(getTable()) * 31 + row;
+		}
+
+		@Override
+		public String toString() {
+			StringBuffer result = new StringBuffer();
+			int[] indices = getNonDefaultIndices();
+			double[] rowValues = getNonDefaultValues();
+			for (int i = 0; i < indices.length; i++) {
+				if (i > 0) {
+					result.append(",");
+				}
+				result.append(indices[i] + ":" + rowValues[i]);
+			}
+			return result.toString();
+		}
+	}
+}
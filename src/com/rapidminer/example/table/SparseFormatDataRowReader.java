@@ -22,16 +22,26 @@
  */
 package com.rapidminer.example.table;
 
-import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.StringTokenizer;
+import java.util.concurrent.Callable;
 
 import com.rapidminer.example.Attribute;
-import com.rapidminer.tools.Tools;
+import com.rapidminer.operator.OperatorException;
+import com.rapidminer.tools.ConcurrencyTools;
 import com.rapidminer.tools.att.AttributeSet;
+import com.rapidminer.tools.io.ByteTokenizer;
+import com.rapidminer.tools.io.DoubleParser;
 
 
 /**
@@ -65,8 +75,8 @@ public class SparseFormatDataRowReader extends AbstractDataRowReader {
 	/** Label is missing. */
 	public static final int FORMAT_NO_LABEL = 4;
 
-	/** Reader for the labels. */
-	private BufferedReader inAttributes, inLabels;
+	/** Tokenizers for the data and the labels. */
+	private ByteTokenizer inAttributes, inLabels;
 
 	/** The attribute set with regular and special attributes. */
 	private AttributeSet attributeSet = null;
@@ -105,6 +115,21 @@ public class SparseFormatDataRowReader extends AbstractDataRowReader {
 	
 	private char quoteChar;
 
+	/** Nominal values of the current row, which are mapped after the row is parsed. */
+	private final List<Attribute> nominalAttributes = new ArrayList<Attribute>();
+
+	private final List<String> nominalValues = new ArrayList<String>();
+
+	/** The data split into chunks which are parsed in parallel, null if the data is read sequentially. */
+	private List<ByteBuffer> chunks;
+
+	private int numberOfThreads;
+
+	/** The parsed chunks, available after the first call of {@link #hasNext()}. */
+	private Iterator<ParsedChunk> parsedChunks;
+
+	private ParsedChunk currentChunk;
+
 	/**
 	 * Creates a new data row reader for sparse format. The attributes indices
 	 * must not be set. If they are, they are reassigned new values when this
@@ -134,6 +159,35 @@ public class SparseFormatDataRowReader extends AbstractDataRowReader {
 	 * 			  The char that is used to surround nominal values.
 	 */
 	public SparseFormatDataRowReader(DataRowFactory factory, int format, Map<String, String> prefixMap, AttributeSet attributeSet, Reader attributeReader, Reader labelReader, int sampleSize, boolean useQuotesForNominalValues, char quoteChar) {
+		this(factory, format, prefixMap, attributeSet, new ByteTokenizer(attributeReader), labelReader == null ? null : new ByteTokenizer(labelReader), sampleSize, useQuotesForNominalValues, quoteChar);
+	}
+
+	/**
+	 * Creates a new data row reader for sparse format which reads the given streams with the given
+	 * encoding. See {@link #SparseFormatDataRowReader(DataRowFactory, int, Map, AttributeSet, Reader, Reader, int, boolean, char)}
+	 * for the other parameters.
+	 */
+	public SparseFormatDataRowReader(DataRowFactory factory, int format, Map<String, String> prefixMap, AttributeSet attributeSet, InputStream attributeStream, InputStream labelStream, Charset encoding, int sampleSize, boolean useQuotesForNominalValues, char quoteChar) {
+		this(factory, format, prefixMap, attributeSet, new ByteTokenizer(attributeStream, encoding), labelStream == null ? null : new ByteTokenizer(labelStream, encoding), sampleSize, useQuotesForNominalValues, quoteChar);
+	}
+
+	/**
+	 * Creates a new data row reader for sparse format which parses the given data, e.g. a memory
+	 * mapped file, in chunks using the given number of threads. The format must not be
+	 * FORMAT_SEPARATE_FILE and the encoding must be ASCII compatible, see
+	 * {@link ByteTokenizer#isAsciiCompatible(Charset)}. See {@link #SparseFormatDataRowReader(DataRowFactory, int, Map, AttributeSet, Reader, Reader, int, boolean, char)}
+	 * for the other parameters.
+	 */
+	public SparseFormatDataRowReader(DataRowFactory factory, int format, Map<String, String> prefixMap, AttributeSet attributeSet, ByteBuffer data, Charset encoding, int sampleSize, boolean useQuotesForNominalValues, char quoteChar, int numberOfThreads) {
+		this(factory, format, prefixMap, attributeSet, new ByteTokenizer(data.duplicate(), encoding), null, sampleSize, useQuotesForNominalValues, quoteChar);
+		if (numberOfThreads > 1) {
+			// several chunks per thread balance the load
+			this.chunks = ByteTokenizer.split(data, 4 * numberOfThreads);
+			this.numberOfThreads = numberOfThreads;
+		}
+	}
+
+	private SparseFormatDataRowReader(DataRowFactory factory, int format, Map<String, String> prefixMap, AttributeSet attributeSet, ByteTokenizer attributeTokenizer, ByteTokenizer labelTokenizer, int sampleSize, boolean useQuotesForNominalValues, char quoteChar) {
 		super(factory);
 		this.format = format;
 		this.prefixMap = prefixMap;
@@ -143,11 +197,11 @@ public class SparseFormatDataRowReader extends AbstractDataRowReader {
 		}
 		this.dimension = attributeSet.getAllAttributes().size();
 		this.maxNumber = sampleSize;
-		this.inAttributes = new BufferedReader(attributeReader);
+		this.inAttributes = attributeTokenizer;
 		if (format == FORMAT_SEPARATE_FILE) {
-			if (labelReader == null)
+			if (labelTokenizer == null)
 				throw new IllegalArgumentException("labelReader must not be null if format is 'separate_file'!");
-			this.inLabels = new BufferedReader(labelReader);
+			this.inLabels = labelTokenizer;
 		}
 		if (format != FORMAT_NO_LABEL) {
 			if (attributeSet.getSpecialAttribute("label") == null) {
@@ -165,7 +219,11 @@ public class SparseFormatDataRowReader extends AbstractDataRowReader {
 		if (lineRead)
 			return !eof;
 		try {
-			eof = !readLine();
+			if (chunks != null) {
+				eof = !nextParsedRow();
+			} else {
+				eof = !readLine();
+			}
 			if (eof) {
 				inAttributes.close();
 				if (inLabels != null)
@@ -173,27 +231,19 @@ public class SparseFormatDataRowReader extends AbstractDataRowReader {
 			}
 		} catch (IOException e) {
 			throw new RuntimeException(e.getMessage(), e);
+		} catch (OperatorException e) {
+			throw new RuntimeException(e.getMessage(), e);
 		}
 		lineRead = true;
 		return (!eof);
 	}
 
 	private boolean readLine() throws IOException {
-		String attributeLine = null;
-		do {
-			attributeLine = inAttributes.readLine();
-			if (attributeLine == null)
-				return false;
-		} while (attributeLine.startsWith("#") || (attributeLine.length() == 0));
-
-		this.currentDataRow = getFactory().create(dimension);
-
-		StringTokenizer tokenizer = new StringTokenizer(attributeLine);
+		if (!skipCommentsAndEmptyLines(inAttributes))
+			return false;
 
 		String labelString = null;
-		if (format == FORMAT_YX) {
-			labelString = tokenizer.nextToken();
-		} else if (format == FORMAT_SEPARATE_FILE) {
+		if (format == FORMAT_SEPARATE_FILE) {
 			do {
 				labelString = inLabels.readLine();
 				if (labelString == null)
@@ -201,31 +251,117 @@ public class SparseFormatDataRowReader extends AbstractDataRowReader {
 			} while (labelString.startsWith("#") || (labelString.length() == 0));
 		}
 
-		while (tokenizer.hasMoreTokens()) {
-			String attributeToken = tokenizer.nextToken();
+		nominalAttributes.clear();
+		nominalValues.clear();
+		this.currentDataRow = parseRow(inAttributes, labelString, nominalAttributes, nominalValues);
+		setNominalValues(currentDataRow, nominalAttributes, nominalValues, 0, nominalAttributes.size());
+		return true;
+	}
+
+	/** Moves to the next row parsed in parallel. Parses all chunks on the first call. */
+	private boolean nextParsedRow() throws OperatorException {
+		if (parsedChunks == null) {
+			List<Callable<ParsedChunk>> tasks = new ArrayList<Callable<ParsedChunk>>(chunks.size());
+			for (final ByteBuffer chunk : chunks) {
+				tasks.add(new Callable<ParsedChunk>() {
+
+					@Override
+					public ParsedChunk call() throws IOException {
+						return parseChunk(new ByteTokenizer(chunk, inAttributes.getCharset()));
+					}
+				});
+			}
+			parsedChunks = ConcurrencyTools.call(tasks, numberOfThreads).iterator();
+			chunks = Collections.emptyList();
+		}
+		while (currentChunk == null || currentChunk.nextRow == currentChunk.rows.size()) {
+			if (!parsedChunks.hasNext()) {
+				currentChunk = null;
+				return false;
+			}
+			currentChunk = parsedChunks.next();
+		}
+		int row = currentChunk.nextRow++;
+		currentDataRow = currentChunk.rows.get(row);
+		currentChunk.rows.set(row, null);
+		setNominalValues(currentDataRow, currentChunk.nominalAttributes, currentChunk.nominalValues, row == 0 ? 0 : currentChunk.nominalValuesEnd[row - 1], currentChunk.nominalValuesEnd[row]);
+		return true;
+	}
+
+	/** Parses all rows of a chunk. Nominal values are not mapped since this is not thread safe. */
+	private ParsedChunk parseChunk(ByteTokenizer tokenizer) throws IOException {
+		ParsedChunk chunk = new ParsedChunk();
+		int[] nominalValuesEnd = new int[64];
+		while (skipCommentsAndEmptyLines(tokenizer)) {
+			chunk.rows.add(parseRow(tokenizer, null, chunk.nominalAttributes, chunk.nominalValues));
+			if (chunk.rows.size() > nominalValuesEnd.length) {
+				nominalValuesEnd = Arrays.copyOf(nominalValuesEnd, 2 * nominalValuesEnd.length);
+			}
+			nominalValuesEnd[chunk.rows.size() - 1] = chunk.nominalAttributes.size();
+		}
+		chunk.nominalValuesEnd = nominalValuesEnd;
+		return chunk;
+	}
+
+	/** Skips comment lines starting with # and empty lines. Returns false at the end of the input. */
+	private static boolean skipCommentsAndEmptyLines(ByteTokenizer tokenizer) throws IOException {
+		while (true) {
+			int c = tokenizer.peek();
+			if (c < 0) {
+				return false;
+			} else if (c == '#' || c == '\n' || c == '\r') {
+				tokenizer.skipLine();
+			} else {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Parses the current line into a new data row. The values of nominal attributes are added to
+	 * the given lists and must be set afterwards by
+	 * {@link #setNominalValues(DataRow, List, List, int, int)}.
+	 */
+	private DataRow parseRow(ByteTokenizer tokenizer, String labelString, List<Attribute> nominalAttributes, List<String> nominalValues) throws IOException {
+		DataRow dataRow = getFactory().create(dimension);
 
-			int colonIndex = attributeToken.indexOf(':');
+		if (format == FORMAT_YX) {
+			if (tokenizer.nextToken() != ByteTokenizer.TT_WORD) {
+				throw new IOException("Malformed line in examplefile: label expected in line " + tokenizer.getLineNumber());
+			}
+			labelString = tokenizer.getString();
+		}
+
+		while (tokenizer.nextToken() == ByteTokenizer.TT_WORD) {
+			byte[] token = tokenizer.getTokenBytes();
+			int length = tokenizer.getTokenLength();
+
+			int colonIndex = -1;
+			for (int i = 0; i < length; i++) {
+				if (token[i] == ':') {
+					colonIndex = i;
+					break;
+				}
+			}
 			if ((format == FORMAT_XY) && (colonIndex == -1)) {
 				if (labelString != null) {
-					throw new IOException("Malformed line in examplefile: " + attributeToken);
+					throw new IOException("Malformed line in examplefile: " + tokenizer.getString());
 				} else {
-					labelString = attributeToken;
+					labelString = tokenizer.getString();
 				}
 			} else {
-				String pos = attributeToken.substring(0, colonIndex);// references
-																		// the
-																		// attribute
-				String value = attributeToken.substring(colonIndex + 1); // the
-																			// attribute
-																			// value
+				if (colonIndex == -1) {
+					throw new IOException("Malformed line in examplefile: " + tokenizer.getString());
+				}
 				Attribute attribute = null; // the referenced attribute
 
 				try {
-					int index = Integer.parseInt(pos) - 1;
+					int index = DoubleParser.parseInt(token, 0, colonIndex) - 1;
 					if ((index < 0) || (index >= attributeSet.getNumberOfRegularAttributes()))
 						throw new IOException("Attribute index out of range: '" + (index + 1) + "'! Index must be between 1 and dimension " + attributeSet.getNumberOfRegularAttributes() + "!");
 					attribute = attributeSet.getAttribute(index);
 				} catch (NumberFormatException e) {
+					String pos = tokenizer.decode(token, 0, colonIndex);
 					String specialAttributeName = prefixMap.get(pos);
 					if (specialAttributeName == null) {
 						attribute = attributeSet.getSpecialAttribute(pos);
@@ -241,6 +377,7 @@ public class SparseFormatDataRowReader extends AbstractDataRowReader {
 
 				if (attribute != null) {
 					if (attribute.isNominal()) {
+						String value = tokenizer.decode(token, colonIndex + 1, length - colonIndex - 1);
 						if (useQuotesForNominalValues){
 							String quote = Character.toString(quoteChar);
 							if (value.startsWith(quote) && value.endsWith(quote)){
@@ -248,14 +385,14 @@ public class SparseFormatDataRowReader extends AbstractDataRowReader {
 							} else{
 								throw new RuntimeException("The value ' "+  value +" ' does not start and end with a quote character ' "+quote+" '.");
 							}
-							Tools.unescape(value);
 						}
-						currentDataRow.set(attribute, attribute.getMapping().mapString(value));
+						nominalAttributes.add(attribute);
+						nominalValues.add(value);
 					} else {
 						try {
-							currentDataRow.set(attribute, Double.parseDouble(value));
+							dataRow.set(attribute, DoubleParser.parseDouble(token, colonIndex + 1, length - colonIndex - 1));
 						} catch (NumberFormatException e) {
-							throw new IOException("Attribute is not numerical: '" + value + "'!");
+							throw new IOException("Attribute is not numerical: '" + tokenizer.decode(token, colonIndex + 1, length - colonIndex - 1) + "'!");
 						}
 					}
 				}
@@ -265,18 +402,26 @@ public class SparseFormatDataRowReader extends AbstractDataRowReader {
 		if (labelString != null) {
 			Attribute label = attributeSet.getSpecialAttribute("label");
 			if (label.isNominal()) {
-				currentDataRow.set(label, label.getMapping().mapString(labelString));
+				nominalAttributes.add(label);
+				nominalValues.add(labelString);
 			} else {
 				try {
-					currentDataRow.set(label, Double.parseDouble(labelString));
+					dataRow.set(label, Double.parseDouble(labelString));
 				} catch (NumberFormatException e) {
 					throw new IOException("Label is not numerical: '" + labelString + "'.");
 				}
 			}
 		}
-		
-		currentDataRow.trim();
-		return true;
+		return dataRow;
+	}
+
+	/** Maps the nominal values with the given indices, sets them and trims the row. */
+	private static void setNominalValues(DataRow dataRow, List<Attribute> attributes, List<String> values, int start, int end) {
+		for (int i = start; i < end; i++) {
+			Attribute attribute = attributes.get(i);
+			dataRow.set(attribute, attribute.getMapping().mapString(values.get(i)));
+		}
+		dataRow.trim();
 	}
 
 	/** Returns the next Example. */
@@ -290,4 +435,19 @@ public class SparseFormatDataRowReader extends AbstractDataRowReader {
 		lineRead = false;
 		return currentDataRow;
 	}
+
+	/** The rows of a chunk together with their nominal values, which are mapped sequentially. */
+	private static class ParsedChunk {
+
+		private final List<DataRow> rows = new ArrayList<DataRow>();
+
+		private final List<Attribute> nominalAttributes = new ArrayList<Attribute>();
+
+		private final List<String> nominalValues = new ArrayList<String>();
+
+		/** End index of the nominal values of each row. */
+		private int[] nominalValuesEnd;
+
+		private int nextRow = 0;
+	}
 }
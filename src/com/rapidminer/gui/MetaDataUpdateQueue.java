@@ -30,6 +30,7 @@ import javax.swing.SwingUtilities;
 import com.rapidminer.Process;
 import com.rapidminer.gui.tools.ProgressThread;
 import com.rapidminer.gui.tools.UpdateQueue;
+import com.rapidminer.operator.ports.Port;
 import com.rapidminer.tools.I18N;
 import com.rapidminer.tools.LogService;
 
@@ -59,6 +60,10 @@ public class MetaDataUpdateQueue extends UpdateQueue {
 						getProgressListener().setTotal(100);
 						getProgressListener().setCompleted(10);
 						if (force || mainFrame.VALIDATE_AUTOMATICALLY_ACTION.isSelected()) {
+							if (force) {
+								// an explicit validation also picks up changes outside of the process, e.g. in the repository 
+								process.getRootOperator().clear(Port.CLEAR_METADATA);
+							}
 							process.getRootOperator().checkAll();	
 						} else {
 							process.getRootOperator().checkAllExcludingMetaData();
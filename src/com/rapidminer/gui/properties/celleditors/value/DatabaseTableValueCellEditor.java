@@ -163,10 +163,11 @@ public class DatabaseTableValueCellEditor extends AbstractCellEditor implements
 									} catch (SQLException e) {
 										// do nothing
 										return;
-									}
-									try {
-										handler.disconnect();
-									} catch (SQLException e) {
+									} finally {
+										try {
+											handler.disconnect();
+										} catch (SQLException e) {
+										}
 									}
 								}
 								if (getSelectedItem() == null) {
@@ -32,6 +32,7 @@ import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.logging.Level;
 
 import javax.swing.DefaultListModel;
 import javax.swing.JList;
@@ -48,6 +49,7 @@ import com.rapidminer.gui.tools.ExtendedJScrollPane;
 import com.rapidminer.gui.tools.ProgressThread;
 import com.rapidminer.gui.tools.SQLEditor;
 import com.rapidminer.gui.tools.SwingTools;
+import com.rapidminer.tools.LogService;
 import com.rapidminer.tools.ParameterService;
 import com.rapidminer.tools.jdbc.ColumnIdentifier;
 import com.rapidminer.tools.jdbc.DatabaseHandler;
@@ -85,6 +87,10 @@ public class SQLQueryBuilder extends ButtonDialog {
 	private final Map<TableName, List<ColumnIdentifier>> attributeNameMap = new LinkedHashMap<TableName, List<ColumnIdentifier>>();
 
 	private DatabaseHandler databaseHandler;
+
+	/** If set, {@link #databaseHandler} is disconnected and a connection to this entry is opened
+	 *  whenever meta data is fetched. */
+	private ConnectionEntry connectionEntry;
 	
 	private TableMetaDataCache cache;
 	
@@ -104,12 +110,16 @@ public class SQLQueryBuilder extends ButtonDialog {
 	}
 
 	public void setConnectionEntry(ConnectionEntry entry) {
+		this.connectionEntry = null;
 		if (entry == null) {
 			this.databaseHandler = null;
 		} else {
 			if (!"false".equals(ParameterService.getParameterValue(RapidMinerGUI.PROPERTY_FETCH_DATA_BASE_TABLES_NAMES))) {
 				try {
+					// the handler is only kept for its statement creator, meta data is fetched using new connections
 					this.databaseHandler = DatabaseHandler.getConnectedDatabaseHandler(entry);
+					this.databaseHandler.disconnect();
+					this.connectionEntry = entry;
 					retrieveTableNames();
 				} catch (SQLException e) {
 					SwingTools.showSimpleErrorMessage("db_connection_failed_url", e, entry.getURL());
@@ -119,6 +129,26 @@ public class SQLQueryBuilder extends ButtonDialog {
 		}
 	}
 
+	/** Returns a connected handler which must be passed to {@link #release(DatabaseHandler)} after use. */
+	private DatabaseHandler connect() throws SQLException {
+		if (connectionEntry != null) {
+			return DatabaseHandler.getConnectedDatabaseHandler(connectionEntry);
+		} else {
+			return databaseHandler;
+		}
+	}
+
+	/** Disconnects handlers opened by {@link #connect()}. Handlers passed to the constructor are left open. */
+	private void release(DatabaseHandler handler) {
+		if (handler != null && handler != databaseHandler) {
+			try {
+				handler.disconnect();
+			} catch (SQLException e) {
+				LogService.getRoot().log(Level.WARNING, "Failed to close database connection: " + e, e);
+			}
+		}
+	}
+
 	public JPanel makeQueryBuilderPanel() {
 		return makeQueryBuilderPanel(false);
 	}
@@ -291,8 +321,10 @@ public class SQLQueryBuilder extends ButtonDialog {
 				public void run() {
 					getProgressListener().setTotal(100);
 					getProgressListener().setCompleted(10);
+					DatabaseHandler handler = null;
 					try {
-						List<ColumnIdentifier> attributeNames = cache.getAllColumnNames(databaseHandler.getDatabaseUrl(), databaseHandler, tableName);
+						handler = connect();
+						List<ColumnIdentifier> attributeNames = cache.getAllColumnNames(handler.getDatabaseUrl(), handler, tableName);
 						attributeNameMap.put(tableName, attributeNames);
 						SwingUtilities.invokeLater(new Runnable() {
 							@Override
@@ -302,6 +334,8 @@ public class SQLQueryBuilder extends ButtonDialog {
 						});
 					} catch (SQLException e) {
 						// don't do anything: Convenient method does not work
+					} finally {
+						release(handler);
 					}
 				}
 			};
@@ -324,11 +358,15 @@ public class SQLQueryBuilder extends ButtonDialog {
 						attributeNameMap.clear();
 						if (databaseHandler != null) {
 							Map<TableName, List<ColumnIdentifier>> newAttributeMap;
+							DatabaseHandler handler = null;
 							try {
-								newAttributeMap = cache.getAllTableMetaData(databaseHandler.getDatabaseUrl(), databaseHandler, getProgressListener(), 10, 100);
+								handler = connect();
+								newAttributeMap = cache.getAllTableMetaData(handler.getDatabaseUrl(), handler, getProgressListener(), 10, 100);
 								attributeNameMap.putAll(newAttributeMap);
 							} catch (SQLException e) {
 								SwingTools.showSimpleErrorMessage("db_connection_failed_simple", e, e.getMessage());
+							} finally {
+								release(handler);
 							}
 						}
 
@@ -344,12 +382,6 @@ public class SQLQueryBuilder extends ButtonDialog {
 						});
 					} finally {
 						getProgressListener().complete();
-						// disconnect
-						// try {
-						// databaseHandler.disconnect();
-						// } catch (SQLException e) {
-						// SwingTools.showSimpleErrorMessage("db_connection_failed_simple", e, e.getMessage());
-						// }
 					}
 				}
 			};
@@ -318,12 +318,23 @@ public class ExecutionUnit extends AbstractObservable<ExecutionUnit> {
 
 	public void transformMetaData() {
 		List<Operator> sorted = topologicalSort();		
+		boolean incremental = getEnclosingOperator().isTransformingMetaDataIncrementally();
 		for (Operator op : sorted) {
-			op.transformMetaData();						
+			if (incremental) {
+				op.transformMetaDataIfNecessary();
+			} else {
+				op.transformMetaData();
+			}
 		}
 		if (sorted.size() != operators.size()) {
 			List<Operator> remainder = new LinkedList<Operator>(operators);
 			remainder.removeAll(sorted);
+			if (incremental) {
+				// these were not transformed, so nothing they delivered before is valid any more
+				for (Operator nodeInCircle : remainder) {
+					nodeInCircle.invalidateMetaData();
+				}
+			}
 			for (Operator nodeInCircle : remainder) {
 				for (OutputPort outputPort : nodeInCircle.getOutputPorts().getAllPorts()) {
 					InputPort destination = outputPort.getDestination();
@@ -31,10 +31,12 @@ import java.lang.management.ManagementFactory;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.GregorianCalendar;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -71,6 +73,7 @@ import com.rapidminer.operator.ports.Ports;
 import com.rapidminer.operator.ports.impl.InputPortsImpl;
 import com.rapidminer.operator.ports.impl.OutputPortsImpl;
 import com.rapidminer.operator.ports.metadata.CompatibilityLevel;
+import com.rapidminer.operator.ports.metadata.ExampleSetMetaData;
 import com.rapidminer.operator.ports.metadata.MDTransformer;
 import com.rapidminer.operator.ports.metadata.MetaData;
 import com.rapidminer.operator.ports.metadata.MetaDataError;
@@ -226,6 +229,21 @@ public abstract class Operator extends AbstractObservable<Operator> implements C
 	/** Indicates whether {@link #propagateDirtyness()} was called after the last call to {@link #makeDirty()}. */
 	private boolean dirtynessWasPropagated = false;
 
+	/** Signals whether parameters, ports or connections changed since the last meta data transformation. */
+	private boolean metaDataDirty = true;
+
+	/** The meta data of the input ports at the time of the last meta data transformation. Compared by identity. */
+	private final Map<InputPort, MetaData> lastInputMetaData = new HashMap<InputPort, MetaData>();
+
+	/** The errors added to this operator by the last meta data transformation. */
+	private List<ProcessSetupError> lastMetaDataErrors = Collections.emptyList();
+
+	/** True while this operator is transformed by {@link #transformMetaDataIfNecessary()}. */
+	private boolean transformingIncrementally = false;
+
+	/** True if the input meta data was unchanged when the current incremental transformation started. */
+	private boolean inputMetaDataUnchanged = false;
+
 	private transient final Logger logger = Logger.getLogger(Operator.class.getName());
 
 	private transient final LoggingHandler logService = new WrapperLoggingHandler(logger);
@@ -257,6 +275,8 @@ public abstract class Operator extends AbstractObservable<Operator> implements C
 		inputPorts.addObserver(delegatingPortObserver, false);
 		outputPorts.addObserver(delegatingPortObserver, false);
 		makeDirtyOnUpdate(inputPorts);
+		inputPorts.addObserver(metaDataDirtyPortObserver, false);
+		outputPorts.addObserver(metaDataDirtyPortObserver, false);
 
 		addValue(new ValueDouble("applycount", "The number of times the operator was applied.", false) {
 
@@ -504,6 +524,7 @@ public abstract class Operator extends AbstractObservable<Operator> implements C
 	public void setEnabled(boolean enabled) {
 		if (this.enabled != enabled) {
 			this.enabled = enabled;
+			this.metaDataDirty = true;
 			fireUpdate(this);
 		}
 	}
@@ -1158,6 +1179,7 @@ public abstract class Operator extends AbstractObservable<Operator> implements C
 			//				}
 			//			}, false);
 			parameters.addObserver(delegatingParameterObserver, false);
+			parameters.addObserver(metaDataDirtyParameterObserver, false);
 
 			makeDirtyOnUpdate(parameters);
 		}
@@ -1805,15 +1827,30 @@ public abstract class Operator extends AbstractObservable<Operator> implements C
 	 *  and sorts execution order.
 	 */
 	public void checkAll() {
-		getRoot().clear(Port.CLEAR_METADATA | Port.CLEAR_ALL_ERRORS);
+		boolean incremental = isIncrementalMetaDataPropagation();
+		if (incremental) {
+			// meta data and meta data errors of unaffected operators are kept
+			getRoot().clear(Port.CLEAR_SIMPLE_ERRORS);
+		} else {
+			getRoot().clear(Port.CLEAR_METADATA | Port.CLEAR_ALL_ERRORS);
+		}
 		if (isEnabled()) {
 			checkOperator();
-			getRoot().transformMetaData();
+			if (incremental) {
+				getRoot().transformMetaDataIfNecessary();
+			} else {
+				getRoot().transformMetaData();
+			}
 			propagateDirtyness();
 		}
 		updateExecutionOrder();
 	}
 
+	/** Returns true if {@link RapidMiner#PROPERTY_RAPIDMINER_GENERAL_INCREMENTAL_META_DATA} is set. */
+	public static boolean isIncrementalMetaDataPropagation() {
+		return "true".equals(ParameterService.getParameterValue(RapidMiner.PROPERTY_RAPIDMINER_GENERAL_INCREMENTAL_META_DATA));
+	}
+
 	/** As check all, but does not check the meta data for performance reasons. */
 	public void checkAllExcludingMetaData() {
 		getRoot().clear(Port.CLEAR_METADATA | Port.CLEAR_SIMPLE_ERRORS);
@@ -2048,6 +2085,22 @@ public abstract class Operator extends AbstractObservable<Operator> implements C
 	private final MDTransformer transformer = new MDTransformer(this);
 	private final Observer<Port> delegatingPortObserver = new DelegatingObserver<Port, Operator>(this, this);
 	private final Observer<String> delegatingParameterObserver = new DelegatingObserver<String, Operator>(this, this);
+	/** Forces a new meta data transformation on any update of the ports. */
+	private final Observer<Port> metaDataDirtyPortObserver = new Observer<Port>() {
+
+		@Override
+		public void update(Observable<Port> observable, Port arg) {
+			metaDataDirty = true;
+		}
+	};
+	/** Forces a new meta data transformation on any update of the parameters. */
+	private final Observer<String> metaDataDirtyParameterObserver = new Observer<String>() {
+
+		@Override
+		public void update(Observable<String> observable, String arg) {
+			metaDataDirty = true;
+		}
+	};
 	/** Sets the dirty flag on any update. */
 	private final Observer dirtyObserver = new Observer<Object>() {
 
@@ -2110,6 +2163,7 @@ public abstract class Operator extends AbstractObservable<Operator> implements C
 			throw new IllegalStateException("Parent already set.");
 		}
 		this.enclosingExecutionUnit = parent;
+		this.metaDataDirty = true;
 	}
 
 	/** Clears output and input ports. */
@@ -2117,6 +2171,9 @@ public abstract class Operator extends AbstractObservable<Operator> implements C
 		if ((clearFlags & Port.CLEAR_SIMPLE_ERRORS) > 0) {
 			errorList.clear();
 		}
+		if ((clearFlags & Port.CLEAR_METADATA) > 0) {
+			metaDataDirty = true;
+		}
 		getInputPorts().clear(clearFlags);
 		getOutputPorts().clear(clearFlags);
 	}
@@ -2154,14 +2211,136 @@ public abstract class Operator extends AbstractObservable<Operator> implements C
 	 */
 	public void transformMetaData() {
 		clear(Port.CLEAR_META_DATA_ERRORS);
-		if (!isEnabled()) {
+		performMetaDataTransformation();
+	}
+
+	/**
+	 * Transforms the meta data of this operator like {@link #transformMetaData()}, but only if
+	 * its parameters, ports or connections changed or the meta data at one of its input ports
+	 * is not the one it was transformed with the last time. Otherwise, the meta data delivered
+	 * by the last transformation is kept and only the errors found by it are restored.
+	 * Assumes that all errors were cleared by {@link #checkAll()} before.
+	 */
+	void transformMetaDataIfNecessary() {
+		if (!isMetaDataTransformationNecessary()) {
+			restoreMetaDataErrors();
+			return;
+		}
+		inputMetaDataUnchanged = !metaDataDirty && isInputMetaDataUnchanged();
+		invalidateMetaData();
+		transformingIncrementally = true;
+		try {
+			performMetaDataTransformation();
+		} finally {
+			transformingIncrementally = false;
+		}
+	}
+
+	private void performMetaDataTransformation() {
+		metaDataDirty = false;
+		lastInputMetaData.clear();
+		for (InputPort port : getInputPorts().getAllPorts()) {
+			lastInputMetaData.put(port, port.getMetaData());
+		}
+		int errorCount = errorList.size();
+		if (isEnabled()) {
+			getInputPorts().checkPreconditions();
+			getTransformer().transformMetaData();
+			//			if (!isDirty()) {
+			//			  Use real meta data
+			//			}
+			limitOutputMetaData();
+		}
+		metaDataTransformed();
+		synchronized (errorList) {
+			if (errorList.size() > errorCount) {
+				lastMetaDataErrors = new ArrayList<ProcessSetupError>(errorList.subList(errorCount, errorList.size()));
+			} else {
+				lastMetaDataErrors = Collections.emptyList();
+			}
+		}
+	}
+
+	/** Shrinks the example set meta data delivered by this operator to the limit specified by
+	 *  {@link RapidMiner#PROPERTY_RAPIDMINER_GENERAL_MAX_PROPAGATED_META_DATA_ATTRIBUTES}. */
+	private void limitOutputMetaData() {
+		int maxAttributes = ExampleSetMetaData.getMaximumNumberOfPropagatedAttributes();
+		if (maxAttributes == Integer.MAX_VALUE) {
 			return;
 		}
-		getInputPorts().checkPreconditions();
-		getTransformer().transformMetaData();
-		//			if (!isDirty()) {
-		//			  Use real meta data
-		//			}
+		for (OutputPort port : getOutputPorts().getAllPorts()) {
+			MetaData md = port.getMetaData();
+			if (md instanceof ExampleSetMetaData) {
+				((ExampleSetMetaData) md).shrinkAttributes(maxAttributes);
+			}
+		}
+	}
+
+	/** Called after the meta data of this operator was transformed. */
+	void metaDataTransformed() {}
+
+	/** Returns true if this operator must be transformed by {@link #transformMetaDataIfNecessary()}. */
+	boolean isMetaDataTransformationNecessary() {
+		return metaDataDirty || !isInputMetaDataUnchanged();
+	}
+
+	/** Returns true if no input port received new meta data since the last transformation. */
+	boolean isInputMetaDataUnchanged() {
+		for (InputPort port : getInputPorts().getAllPorts()) {
+			if (!isSameMetaData(port)) {
+				OutputPort source = port.getSource();
+				ExecutionUnit unit = getExecutionUnit();
+				// inner sources are delivered again whenever the parent is transformed
+				if ((source == null) || (unit == null) || (source.getPorts() != unit.getInnerSources()) ||
+						!unit.getEnclosingOperator().areInnerSourcesUnchanged(unit)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/** Returns true if the port holds the same meta data object it held during the last transformation. */
+	boolean isSameMetaData(InputPort port) {
+		return lastInputMetaData.containsKey(port) && (lastInputMetaData.get(port) == port.getMetaData());
+	}
+
+	/** Returns true if {@link #transformMetaDataIfNecessary()} started with unchanged input meta data.
+	 *  Outside of such a transformation, this is computed from the current state. */
+	boolean wasInputMetaDataUnchanged() {
+		if (transformingIncrementally) {
+			return inputMetaDataUnchanged;
+		} else {
+			return !metaDataDirty && isInputMetaDataUnchanged();
+		}
+	}
+
+	/** Returns true while the meta data of this operator is transformed incrementally, i.e. inner
+	 *  operators keep their meta data and errors unless they must be transformed again. */
+	public boolean isTransformingMetaDataIncrementally() {
+		return transformingIncrementally;
+	}
+
+	/** Removes the meta data delivered by this operator and forces a new transformation. Unlike
+	 *  {@link #clear(int)}, this does not affect the meta data received by this operator. */
+	void invalidateMetaData() {
+		metaDataDirty = true;
+		clearOwnMetaDataErrors();
+		// let operators downstream notice the change even if nothing is delivered next time
+		for (OutputPort port : getOutputPorts().getAllPorts()) {
+			port.deliverMD(null);
+		}
+	}
+
+	/** Adds the errors found by the last meta data transformation again. */
+	void restoreMetaDataErrors() {
+		errorList.addAll(lastMetaDataErrors);
+	}
+
+	/** Clears the meta data errors of the ports of this operator, but not of inner operators. */
+	void clearOwnMetaDataErrors() {
+		getInputPorts().clear(Port.CLEAR_META_DATA_ERRORS);
+		getOutputPorts().clear(Port.CLEAR_META_DATA_ERRORS);
 	}
 
 	/** By default, all ports will be auto-connected by {@link ExecutionUnit#autoWire(CompatibilityLevel, boolean, boolean)}.
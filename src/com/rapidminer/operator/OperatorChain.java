@@ -23,14 +23,18 @@
 package com.rapidminer.operator;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import com.rapidminer.Process;
 import com.rapidminer.operator.ports.InputPort;
+import com.rapidminer.operator.ports.OutputPort;
 import com.rapidminer.operator.ports.Port;
 import com.rapidminer.operator.ports.metadata.MDTransformer;
+import com.rapidminer.operator.ports.metadata.MetaData;
 import com.rapidminer.operator.ports.metadata.Precondition;
 import com.rapidminer.tools.DelegatingObserver;
 import com.rapidminer.tools.Observer;
@@ -55,6 +59,9 @@ public abstract class OperatorChain extends Operator {
 
 	private ExecutionUnit[] subprocesses;
 
+	/** The meta data of the inner sinks after the last meta data transformation. Compared by identity. */
+	private final Map<InputPort, MetaData> lastInnerSinkMetaData = new HashMap<InputPort, MetaData>();
+
 	private final Observer<ExecutionUnit> delegatingObserver = new DelegatingObserver<ExecutionUnit, Operator>(this, this);
 
 	/** Creates an empty operator chain. 
@@ -497,6 +504,83 @@ public abstract class OperatorChain extends Operator {
 		}			
 	}
 
+	@Override
+	boolean isMetaDataTransformationNecessary() {
+		if (super.isMetaDataTransformationNecessary()) {
+			return true;
+		}
+		for (ExecutionUnit executionUnit : subprocesses) {
+			for (Operator operator : executionUnit.getOperators()) {
+				if (operator.isMetaDataTransformationNecessary()) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	@Override
+	void restoreMetaDataErrors() {
+		super.restoreMetaDataErrors();
+		for (ExecutionUnit executionUnit : subprocesses) {
+			for (Operator operator : executionUnit.getOperators()) {
+				operator.restoreMetaDataErrors();
+			}
+		}
+	}
+
+	@Override
+	void clearOwnMetaDataErrors() {
+		super.clearOwnMetaDataErrors();
+		for (ExecutionUnit executionUnit : subprocesses) {
+			executionUnit.getInnerSources().clear(Port.CLEAR_META_DATA_ERRORS);
+			executionUnit.getInnerSinks().clear(Port.CLEAR_META_DATA_ERRORS);
+		}
+	}
+
+	@Override
+	void invalidateMetaData() {
+		super.invalidateMetaData();
+		// the inner sources are delivered again by the transformation unless the input is missing
+		for (ExecutionUnit executionUnit : subprocesses) {
+			for (OutputPort source : executionUnit.getInnerSources().getAllPorts()) {
+				source.deliverMD(null);
+			}
+		}
+	}
+
+	@Override
+	void metaDataTransformed() {
+		lastInnerSinkMetaData.clear();
+		for (ExecutionUnit executionUnit : subprocesses) {
+			for (InputPort sink : executionUnit.getInnerSinks().getAllPorts()) {
+				lastInnerSinkMetaData.put(sink, sink.getMetaData());
+			}
+		}
+	}
+
+	/**
+	 * Returns true if the meta data at the inner sources of the given subprocess can be assumed
+	 * to be equal to the one of the last transformation although the objects may have been
+	 * delivered again. This is the case if neither the configuration and input of this operator nor
+	 * the inner sinks of the other subprocesses changed.
+	 */
+	boolean areInnerSourcesUnchanged(ExecutionUnit unit) {
+		if (!wasInputMetaDataUnchanged()) {
+			return false;
+		}
+		for (ExecutionUnit executionUnit : subprocesses) {
+			if (executionUnit != unit) {
+				for (InputPort sink : executionUnit.getInnerSinks().getAllPorts()) {
+					if (!lastInnerSinkMetaData.containsKey(sink) || (lastInnerSinkMetaData.get(sink) != sink.getMetaData())) {
+						return false;
+					}
+				}
+			}
+		}
+		return true;
+	}
+
 	@Override
 	public void assumePreconditionsSatisfied() {
 		super.assumePreconditionsSatisfied();
@@ -57,7 +57,10 @@ public class OperatorDescription implements Comparable<OperatorDescription> {
     private final Class<? extends Operator> clazz;
     private List<String> replacesDeprecatedKeys;
 
-    private final OperatorDocumentation documentation;
+    private OperatorDocumentation documentation;
+
+    /** The bundle the documentation is taken from when it is accessed for the first time. */
+    private OperatorDocBundle documentationBundle;
 
     private ImageIcon[] icons;
 
@@ -93,11 +96,7 @@ public class OperatorDescription implements Comparable<OperatorDescription> {
         Class<?> generatedClass = Class.forName(XMLTools.getTagContents(element, "class", true).trim(), true, classLoader);
         this.clazz = (Class<? extends Operator>) generatedClass;
 
-        this.documentation = (OperatorDocumentation) bundle.getObject("operator." + key);
-        if (documentation.getName().equals("")) {
-            documentation.setName(key);
-            documentation.setDocumentation("Operator's description is missing in referenced OperatorDoc.");
-        }
+        this.documentationBundle = bundle;
 
         NodeList children = element.getChildNodes();
         for (int i = 0; i < children.getLength(); i++) {
@@ -126,11 +125,7 @@ public class OperatorDescription implements Comparable<OperatorDescription> {
         if (bundle == null) {
             this.documentation = new OperatorDocumentation(key);
         } else {
-            this.documentation = (OperatorDocumentation) bundle.getObject("operator." + key);
-            if (documentation.getName().equals("")) {
-                documentation.setName(key);
-                documentation.setDocumentation("Operator's description is missing in referenced OperatorDoc.");
-            }
+            this.documentationBundle = bundle;
         }
     }
 
@@ -210,7 +205,15 @@ public class OperatorDescription implements Comparable<OperatorDescription> {
         return "";
     }
 
-    public OperatorDocumentation getOperatorDocumentation() {
+    public synchronized OperatorDocumentation getOperatorDocumentation() {
+        if (documentation == null) {
+            documentation = (OperatorDocumentation) documentationBundle.getObject("operator." + key);
+            if (documentation.getName().equals("")) {
+                documentation.setName(key);
+                documentation.setDocumentation("Operator's description is missing in referenced OperatorDoc.");
+            }
+            documentationBundle = null;
+        }
         return documentation;
     }
 
@@ -73,8 +73,12 @@ public class SQLExecution extends Operator {
 	public void doWork() throws OperatorException {
 		try {
 			DatabaseHandler databaseHandler = DatabaseHandler.getConnectedDatabaseHandler(this);
-			String query = getQuery();
-			databaseHandler.executeStatement(query, false, this, getLogger());
+			try {
+				String query = getQuery();
+				databaseHandler.executeStatement(query, false, this, getLogger());
+			} finally {
+				databaseHandler.disconnect();
+			}
 //			Statement statement;
 //			if (getParameterAsBoolean(DatabaseHandler.PARAMETER_PREPARE_STATEMENT)) {
 //				PreparedStatement prepared = databaseHandler.getConnection().prepareStatement(query);
@@ -92,7 +96,6 @@ public class SQLExecution extends Operator {
 //			
 //			getLogger().info("Query executed.");			
 //			statement.close();			
-			databaseHandler.disconnect();
 		} catch (SQLException sqle) {
 			throw new UserError(this, sqle, 304, sqle.getMessage());
 		}
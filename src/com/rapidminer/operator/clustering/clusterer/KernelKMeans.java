@@ -38,16 +38,18 @@ import com.rapidminer.operator.clustering.ClusterModel;
 import com.rapidminer.parameter.ParameterType;
 import com.rapidminer.parameter.ParameterTypeBoolean;
 import com.rapidminer.parameter.ParameterTypeInt;
+import com.rapidminer.tools.ConcurrencyTools;
 import com.rapidminer.tools.Ontology;
 import com.rapidminer.tools.RandomGenerator;
 import com.rapidminer.tools.math.kernels.Kernel;
+import com.rapidminer.tools.math.kernels.KernelRowCache;
 
 
 /**
  * This operator is an implementation of kernel k means. Kernel K Means uses kernels to estimate distance between 
  * objects and clusters. Because of the nature of kernels it is necessary to sum over all elements of a cluster to 
  * calculate one distance. So this algorithm is quadratic in number of examples and returns NO CentroidClusterModel,
- * as its older brother KMeans does.
+ * as its older brother KMeans does. The kernel values are cached row-wise within the memory budget for kernel caches.
  * This operator will create a cluster attribute if not present yet.
  * 
  * @author Sebastian Land
@@ -63,6 +65,9 @@ public class KernelKMeans extends RMAbstractClusterer {
 	/** The parameter name for &quot;the maximal number of iterations performed for one run of the k method&quot; */
 	public static final String PARAMETER_MAX_OPTIMIZATION_STEPS = "max_optimization_steps";
 
+	/** The number of kernel matrix rows each thread computes at once. */
+	private static final int ROWS_PER_THREAD = 16;
+
 	public KernelKMeans(OperatorDescription description) {
 		super(description);
 	}
@@ -102,29 +107,50 @@ public class KernelKMeans extends RMAbstractClusterer {
 			clusterAssignments[i] = generator.nextIntInRange(0, k);
 		}
 
+		double[] exampleWeights = new double[exampleSet.size()];
+		int i = 0;
+		for (Example example: exampleSet) {
+			exampleWeights[i++] = (useExampleWeights)? example.getValue(weightAttribute) : 1d;
+		}
+		KernelRowCache cache = new KernelRowCache(exampleSet, kernel);
+		int blockSize = Math.max(1, Math.min(cache.getMaximumNumberOfRows(), ROWS_PER_THREAD * ConcurrencyTools.getNumberOfThreads()));
+
 		// run optimization steps
 		boolean stable = false;
 		for (int step = 0; (step < maxOptimizationSteps) && !stable; step++) {
 			// checking for stop
 			checkForStop();
 
-			// calculating cluster kernel properties
+			// summing up the weighted kernel values between each example and each cluster
 			double[] clusterWeights = new double[k];
-			double[] clusterKernelCorrection = new double[k];
-			int i = 0;
-			for (Example firstExample: exampleSet) {
-				double firstExampleWeight = (useExampleWeights)? firstExample.getValue(weightAttribute) : 1d;
-				double[] firstExampleValues = getAsDoubleArray(firstExample, attributes);
-				clusterWeights[clusterAssignments[i]] += firstExampleWeight;
-				int j = 0;
-				for (Example secondExample: exampleSet) {
-					if (clusterAssignments[i] == clusterAssignments[j]) {
-						double secondExampleWeight =  (useExampleWeights)? secondExample.getValue(weightAttribute) : 1d;
-						clusterKernelCorrection[clusterAssignments[i]] += firstExampleWeight * secondExampleWeight * kernel.calculateDistance(firstExampleValues, getAsDoubleArray(secondExample, attributes));
+			for (i = 0; i < exampleSet.size(); i++) {
+				clusterWeights[clusterAssignments[i]] += exampleWeights[i];
+			}
+			double[][] clusterKernelSums = new double[exampleSet.size()][k];
+			double[] exampleKernelValues = new double[exampleSet.size()];
+			// alternating the direction keeps the rows of the end of the last pass in the cache
+			boolean backwards = step % 2 == 1;
+			for (int blockStart = 0; blockStart < exampleSet.size(); blockStart += blockSize) {
+				int[] indices = new int[Math.min(blockSize, exampleSet.size() - blockStart)];
+				for (int r = 0; r < indices.length; r++) {
+					indices[r] = backwards ? exampleSet.size() - 1 - blockStart - r : blockStart + r;
+				}
+				double[][] rows = cache.getRows(indices);
+				for (int r = 0; r < indices.length; r++) {
+					double[] row = rows[r];
+					double[] sums = clusterKernelSums[indices[r]];
+					for (int j = 0; j < row.length; j++) {
+						sums[clusterAssignments[j]] += exampleWeights[j] * row[j];
 					}
-					j++;	
+					exampleKernelValues[indices[r]] = row[indices[r]];
 				}
-				i++;
+				checkForStop();
+			}
+
+			// calculating cluster kernel properties
+			double[] clusterKernelCorrection = new double[k];
+			for (i = 0; i < exampleSet.size(); i++) {
+				clusterKernelCorrection[clusterAssignments[i]] += exampleWeights[i] * clusterKernelSums[i][clusterAssignments[i]];
 			}
 			for (int z = 0; z < k; z++) {
 				clusterKernelCorrection[z] /= clusterWeights[z] * clusterWeights[z];
@@ -132,25 +158,12 @@ public class KernelKMeans extends RMAbstractClusterer {
 
 			// assign examples to new centroids
 			int[] newClusterAssignments = new int[exampleSet.size()];
-			i = 0;
-			for (Example example: exampleSet) {
-				double[] exampleValues = getAsDoubleArray(example, attributes);
-				double exampleKernelValue = kernel.calculateDistance(exampleValues, exampleValues);
+			for (i = 0; i < exampleSet.size(); i++) {
 				double nearestDistance = Double.POSITIVE_INFINITY;
 				int nearestIndex = 0;
 				for (int clusterIndex = 0; clusterIndex < k; clusterIndex++) {
-					double distance = 0; 
-					// iterating over all examples in cluster to get kernel distance
-					int j = 0;
-					for (Example clusterExample: exampleSet) {
-						if (clusterAssignments[j] == clusterIndex) {
-							distance += ((useExampleWeights)? clusterExample.getValue(weightAttribute) : 1d) * kernel.calculateDistance(getAsDoubleArray(clusterExample, attributes), exampleValues);
-						}
-						j++;
-					}
-					distance *= (-2d) / clusterWeights[clusterIndex];
-					// copy in outer loop
-					distance += exampleKernelValue;
+					double distance = clusterKernelSums[i][clusterIndex] * (-2d) / clusterWeights[clusterIndex];
+					distance += exampleKernelValues[i];
 					distance += clusterKernelCorrection[clusterIndex];
 					if (distance < nearestDistance) {
 						nearestDistance = distance;
@@ -158,7 +171,6 @@ public class KernelKMeans extends RMAbstractClusterer {
 					}
 				}
 				newClusterAssignments[i] = nearestIndex;
-				i++;
 			}
 
 			// finishing assignment
@@ -175,7 +187,7 @@ public class KernelKMeans extends RMAbstractClusterer {
 			Attribute cluster = AttributeFactory.createAttribute("cluster", Ontology.NOMINAL);
 			exampleSet.getExampleTable().addAttribute(cluster);
 			exampleSet.getAttributes().setCluster(cluster);
-			int i = 0;
+			i = 0;
 			for (Example example: exampleSet) {
 				example.setValue(cluster, "cluster_" + clusterAssignments[i]);
 				i++;
@@ -184,16 +196,6 @@ public class KernelKMeans extends RMAbstractClusterer {
 		return model;
 	}
 
-	private double[] getAsDoubleArray(Example example, Attributes attributes) {
-		double[] values = new double[attributes.size()];
-		int i = 0;
-		for (Attribute attribute: attributes) {
-			values[i] = example.getValue(attribute);
-			i++;
-		}
-		return values;
-	}
-
 	@Override
 	public List<ParameterType> getParameterTypes() {
 		List<ParameterType> types = super.getParameterTypes();	
@@ -29,6 +29,7 @@ import java.io.PrintWriter;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import com.rapidminer.datatable.SimpleDataTable;
 import com.rapidminer.example.Attribute;
@@ -37,6 +38,7 @@ import com.rapidminer.example.ExampleSet;
 import com.rapidminer.example.set.AttributeWeightedExampleSet;
 import com.rapidminer.gui.dialog.IndividualSelector;
 import com.rapidminer.gui.dialog.StopDialog;
+import com.rapidminer.operator.IOObject;
 import com.rapidminer.operator.OperatorChain;
 import com.rapidminer.operator.OperatorDescription;
 import com.rapidminer.operator.OperatorException;
@@ -61,6 +63,7 @@ import com.rapidminer.parameter.ParameterTypeDouble;
 import com.rapidminer.parameter.ParameterTypeFile;
 import com.rapidminer.parameter.ParameterTypeInt;
 import com.rapidminer.parameter.conditions.BooleanParameterCondition;
+import com.rapidminer.tools.ConcurrencyTools;
 import com.rapidminer.tools.RandomGenerator;
 import com.rapidminer.tools.Tools;
 
@@ -97,6 +100,10 @@ public abstract class FeatureOperator extends OperatorChain {
 
 	public static final String PARAMETER_MAXIMAL_FITNESS = "maximal_fitness";
 
+	public static final String PARAMETER_PARALLELIZE_EVALUATION = "parallelize_evaluation";
+
+	public static final String PARAMETER_FITNESS_CACHE_SIZE = "fitness_cache_size";
+
 	private final InputPort exampleSetInput = getInputPorts().createPort("example set in");
 	private final OutputPort exampleSetOutput = getOutputPorts().createPort("example set out");
 	private final OutputPort attributeWeightsOutput = getOutputPorts().createPort("weights");
@@ -118,6 +125,12 @@ public abstract class FeatureOperator extends OperatorChain {
 
 	private RandomGenerator random;
 
+	/**
+	 * The objects delivered to the through ports of the subprocess by name. Only set for clones
+	 * created by {@link #createEvaluationClone()} since their own input ports do not receive data.
+	 */
+	private Map<String, IOObject> throughData;
+
 
 	public FeatureOperator(OperatorDescription description) {
 		super(description, "Evaluation Process");
@@ -471,7 +484,16 @@ public abstract class FeatureOperator extends OperatorChain {
 	 */
 	public final PerformanceVector executeEvaluationProcess(ExampleSet exampleSet) throws OperatorException {
 		subprocessExampleOutput.deliver(exampleSet);
-		throughExtender.passDataThrough();
+		if (throughData == null) {
+			throughExtender.passDataThrough();
+		} else {
+			for (Map.Entry<String, IOObject> entry : throughData.entrySet()) {
+				OutputPort port = getSubprocess(0).getInnerSources().getPortByName(entry.getKey());
+				if (port != null) {
+					port.deliver(entry.getValue());
+				}
+			}
+		}
 
 		runEvaluationProcess();
 
@@ -551,10 +573,42 @@ public abstract class FeatureOperator extends OperatorChain {
 
 		types.add(new ParameterTypeFile(PARAMETER_POPULATION_CRITERIA_DATA_FILE, "The path to the file in which the criteria data of the final population should be saved.", "cri", true));
 		types.add(new ParameterTypeDouble(PARAMETER_MAXIMAL_FITNESS, "The optimization will stop if the fitness reaches the defined maximum.", 0.0d, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY));
+
+		type = new ParameterTypeBoolean(PARAMETER_PARALLELIZE_EVALUATION, "If checked, the individuals of a population are evaluated in parallel by clones of the evaluation process. The evaluation process must not depend on the order of the evaluations.", false);
+		type.setExpert(true);
+		types.add(type);
+		type = new ParameterTypeInt(PARAMETER_FITNESS_CACHE_SIZE, "The number of evaluated weight vectors whose performance is remembered, so that recurring individuals are not evaluated again (0 to disable).", 0, Integer.MAX_VALUE, 0);
+		type.setExpert(true);
+		types.add(type);
 		return types;
 	}
 
 	protected PopulationEvaluator getPopulationEvaluator(ExampleSet exampleSet) throws OperatorException {
-		return new SimplePopulationEvaluator(this, exampleSet);
+		boolean parallel = getParameterAsBoolean(PARAMETER_PARALLELIZE_EVALUATION);
+		int cacheSize = getParameterAsInt(PARAMETER_FITNESS_CACHE_SIZE);
+		if (parallel || (cacheSize > 0)) {
+			return new ParallelPopulationEvaluator(this, exampleSet, parallel ? ConcurrencyTools.getNumberOfThreads() : 1, cacheSize);
+		} else {
+			return new SimplePopulationEvaluator(this, exampleSet);
+		}
+	}
+
+	/**
+	 * Creates a clone of this operator whose evaluation process can be executed by
+	 * {@link #executeEvaluationProcess(ExampleSet)} in parallel to the one of this operator. The
+	 * clone is part of the same process but is not registered with it. The data at the through
+	 * ports of this operator is copied for the clone.
+	 */
+	FeatureOperator createEvaluationClone() {
+		FeatureOperator clone = (FeatureOperator)cloneOperator(getName(), true);
+		clone.setEnclosingProcess(getExecutionUnit());
+		clone.throughData = new HashMap<String, IOObject>();
+		for (PortPairExtender.PortPair pair : throughExtender.getManagedPairs()) {
+			IOObject data = pair.getInputPort().getAnyDataOrNull();
+			if (data != null) {
+				clone.throughData.put(pair.getOutputPort().getName(), data.copy());
+			}
+		}
+		return clone;
 	}
 }
@@ -0,0 +1,172 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.operator.features;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import com.rapidminer.example.ExampleSet;
+import com.rapidminer.operator.OperatorException;
+import com.rapidminer.operator.performance.PerformanceVector;
+import com.rapidminer.tools.ConcurrencyTools;
+
+/**
+ * A population evaluator which evaluates the individuals of a population concurrently by
+ * clones of the evaluation subprocess of the {@link FeatureOperator}, see
+ * {@link FeatureOperator#createEvaluationClone()}. The clones are created once and reused for
+ * all generations.
+ * 
+ * Additionally, the performances of evaluated weight vectors are kept in a bounded cache, so that
+ * individuals whose weights already occurred in this or an earlier generation are not evaluated
+ * again. With a single thread, the individuals are evaluated by the operator itself in the order
+ * of the population.
+ */
+public class ParallelPopulationEvaluator implements PopulationEvaluator {
+
+	private final FeatureOperator operator;
+
+	private final ExampleSet originalSet;
+
+	private final int numberOfThreads;
+
+	/** Clones of the operator for all but the first thread, which uses the operator itself. */
+	private final List<FeatureOperator> evaluators = new ArrayList<FeatureOperator>();
+
+	/** The performances of recently evaluated weight vectors, least recently used first. Null if caching is disabled. */
+	private final Map<WeightsKey, PerformanceVector> cache;
+
+	public ParallelPopulationEvaluator(FeatureOperator operator, ExampleSet originalSet, int numberOfThreads, final int cacheSize) {
+		this.operator = operator;
+		this.originalSet = originalSet;
+		this.numberOfThreads = Math.max(1, numberOfThreads);
+		if (cacheSize > 0) {
+			this.cache = new LinkedHashMap<WeightsKey, PerformanceVector>(16, 0.75f, true) {
+
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<WeightsKey, PerformanceVector> eldest) {
+					return size() > cacheSize;
+				}
+			};
+		} else {
+			this.cache = null;
+		}
+	}
+
+	public void evaluate(Population population) throws OperatorException {
+		// collecting the distinct weight vectors which are neither evaluated nor cached
+		final List<WeightsKey> pending = new ArrayList<WeightsKey>();
+		Map<WeightsKey, PerformanceVector> results = new HashMap<WeightsKey, PerformanceVector>();
+		for (int i = 0; i < population.getNumberOfIndividuals(); i++) {
+			Individual individual = population.get(i);
+			if (individual.getPerformance() == null) {
+				WeightsKey key = new WeightsKey(individual.getWeights());
+				if (!results.containsKey(key)) {
+					PerformanceVector cached = cache != null ? cache.get(key) : null;
+					results.put(key, cached);
+					if (cached == null) {
+						pending.add(key);
+					}
+				}
+			}
+		}
+
+		final int threads = Math.min(numberOfThreads, pending.size());
+		if (threads > 1) {
+			while (evaluators.size() < threads - 1) {
+				evaluators.add(operator.createEvaluationClone());
+			}
+			List<Callable<List<PerformanceVector>>> tasks = new ArrayList<Callable<List<PerformanceVector>>>(threads);
+			for (int t = 0; t < threads; t++) {
+				final int first = t;
+				final FeatureOperator evaluator = t == 0 ? operator : evaluators.get(t - 1);
+				tasks.add(new Callable<List<PerformanceVector>>() {
+
+					@Override
+					public List<PerformanceVector> call() throws OperatorException {
+						List<PerformanceVector> performances = new ArrayList<PerformanceVector>();
+						for (int i = first; i < pending.size(); i += threads) {
+							performances.add(evaluate(evaluator, pending.get(i)));
+						}
+						return performances;
+					}
+				});
+			}
+			List<List<PerformanceVector>> performances = ConcurrencyTools.call(tasks, threads);
+			for (int i = 0; i < pending.size(); i++) {
+				results.put(pending.get(i), performances.get(i % threads).get(i / threads));
+			}
+		} else {
+			for (WeightsKey key : pending) {
+				results.put(key, evaluate(operator, key));
+			}
+		}
+
+		if (cache != null) {
+			for (WeightsKey key : pending) {
+				cache.put(key, results.get(key));
+			}
+		}
+		for (int i = 0; i < population.getNumberOfIndividuals(); i++) {
+			Individual individual = population.get(i);
+			if (individual.getPerformance() == null) {
+				individual.setPerformance(results.get(new WeightsKey(individual.getWeights())));
+			}
+			population.updateEvaluation();
+		}
+	}
+
+	private PerformanceVector evaluate(FeatureOperator evaluator, WeightsKey key) throws OperatorException {
+		ExampleSet clone = FeatureOperator.createCleanClone(originalSet, key.weights);
+		return evaluator.executeEvaluationProcess(clone);
+	}
+
+	/** Compares weight vectors by their values. */
+	private static final class WeightsKey {
+
+		private final double[] weights;
+
+		private final int hashCode;
+
+		private WeightsKey(double[] weights) {
+			this.weights = weights.clone();
+			this.hashCode = Arrays.hashCode(this.weights);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return (o instanceof WeightsKey) && Arrays.equals(weights, ((WeightsKey)o).weights);
+		}
+	}
+}
@@ -30,6 +30,7 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Callable;
 
 import com.rapidminer.datatable.SimpleDataTable;
 import com.rapidminer.example.Attribute;
@@ -50,11 +51,13 @@ import com.rapidminer.operator.ports.metadata.ExampleSetPassThroughRule;
 import com.rapidminer.operator.ports.metadata.SetRelation;
 import com.rapidminer.operator.ports.metadata.SubprocessTransformRule;
 import com.rapidminer.parameter.ParameterType;
+import com.rapidminer.parameter.ParameterTypeBoolean;
 import com.rapidminer.parameter.ParameterTypeCategory;
 import com.rapidminer.parameter.ParameterTypeDouble;
 import com.rapidminer.parameter.ParameterTypeFile;
 import com.rapidminer.parameter.ParameterTypeInt;
 import com.rapidminer.parameter.conditions.EqualTypeCondition;
+import com.rapidminer.tools.ConcurrencyTools;
 import com.rapidminer.tools.RandomGenerator;
 
 
@@ -83,6 +86,8 @@ public class EvolutionaryFeatureAggregation extends OperatorChain {
 
 	public static final String PARAMETER_P_CROSSOVER = "p_crossover";
 
+	public static final String PARAMETER_PARALLELIZE_EVALUATION = "parallelize_evaluation";
+
 	/** The names for the selection types. */
 	private static final String[] SELECTION_TYPES = { "tournament", "non-dominated" };
 
@@ -113,6 +118,9 @@ public class EvolutionaryFeatureAggregation extends OperatorChain {
 	/** The maximum generation. */
 	private int maxGeneration = 100;
 
+	/** Clones of this operator used for parallel evaluations, created on demand during one execution. */
+	private List<EvolutionaryFeatureAggregation> evaluationClones;
+
 	private final InputPort exampleSetInput = getInputPorts().createPort("example set in", ExampleSet.class);
 
 	private final OutputPort innerExampleSetSource = getSubprocess(0).getInnerSources().createPort("example set source") ;
@@ -157,6 +165,7 @@ public class EvolutionaryFeatureAggregation extends OperatorChain {
 		ExampleSet exampleSet = exampleSetInput.getData(ExampleSet.class);
 		int popSize = getParameterAsInt(PARAMETER_POPULATION_SIZE);
 		this.generation = 0;
+		this.evaluationClones = new ArrayList<EvolutionaryFeatureAggregation>();
 		this.maxGeneration = getParameterAsInt(PARAMETER_MAXIMUM_NUMBER_OF_GENERATIONS);
 		int functionType = getParameterAsInt(PARAMETER_AGGREGATION_FUNCTION);
 		switch (functionType) {
@@ -272,6 +281,9 @@ public class EvolutionaryFeatureAggregation extends OperatorChain {
 	 * in order to estimate the performance.
 	 */
 	public void evaluate(List population, ExampleSet originalExampleSet) throws OperatorException {
+		boolean parallel = getParameterAsBoolean(PARAMETER_PARALLELIZE_EVALUATION) && (ConcurrencyTools.getNumberOfThreads() > 1);
+		List<AggregationIndividual> pendingIndividuals = new ArrayList<AggregationIndividual>();
+		final List<ExampleSet> pendingSets = new ArrayList<ExampleSet>();
 		Iterator i = population.iterator();
 		while (i.hasNext()) {
 			AggregationIndividual individual = (AggregationIndividual) i.next();
@@ -279,14 +291,51 @@ public class EvolutionaryFeatureAggregation extends OperatorChain {
 				ExampleSet exampleSet = individual.createExampleSet(originalExampleSet, allAttributes, generator);
 				if (exampleSet.getAttributes().size() == 0) {
 					i.remove();
+				} else if (parallel) {
+					// the example sets are created sequentially since this changes the example table
+					pendingIndividuals.add(individual);
+					pendingSets.add(exampleSet);
 				} else {
-					innerExampleSetSource.deliver(exampleSet);
-					getSubprocess(0).execute();
-					PerformanceVector performanceVector = innerPerformanceSink.getData(PerformanceVector.class);
-					individual.setPerformance(performanceVector);
+					individual.setPerformance(executeEvaluationProcess(exampleSet));
 				}
 			}
 		}
+		if (pendingSets.isEmpty()) {
+			return;
+		}
+
+		final int threads = Math.min(ConcurrencyTools.getNumberOfThreads(), pendingSets.size());
+		while (evaluationClones.size() < threads - 1) {
+			EvolutionaryFeatureAggregation clone = (EvolutionaryFeatureAggregation)cloneOperator(getName(), true);
+			clone.setEnclosingProcess(getExecutionUnit());
+			evaluationClones.add(clone);
+		}
+		List<Callable<List<PerformanceVector>>> tasks = new ArrayList<Callable<List<PerformanceVector>>>(threads);
+		for (int t = 0; t < threads; t++) {
+			final int first = t;
+			final EvolutionaryFeatureAggregation evaluator = t == 0 ? this : evaluationClones.get(t - 1);
+			tasks.add(new Callable<List<PerformanceVector>>() {
+
+				@Override
+				public List<PerformanceVector> call() throws OperatorException {
+					List<PerformanceVector> performances = new ArrayList<PerformanceVector>();
+					for (int n = first; n < pendingSets.size(); n += threads) {
+						performances.add(evaluator.executeEvaluationProcess(pendingSets.get(n)));
+					}
+					return performances;
+				}
+			});
+		}
+		List<List<PerformanceVector>> performances = ConcurrencyTools.call(tasks, threads);
+		for (int p = 0; p < pendingIndividuals.size(); p++) {
+			pendingIndividuals.get(p).setPerformance(performances.get(p % threads).get(p / threads));
+		}
+	}
+
+	private PerformanceVector executeEvaluationProcess(ExampleSet exampleSet) throws OperatorException {
+		innerExampleSetSource.deliver(exampleSet);
+		getSubprocess(0).execute();
+		return innerPerformanceSink.getData(PerformanceVector.class);
 	}
 
 	@Override
@@ -313,6 +362,10 @@ public class EvolutionaryFeatureAggregation extends OperatorChain {
 
 		types.addAll(RandomGenerator.getRandomGeneratorParameters(this));
 
+		type = new ParameterTypeBoolean(PARAMETER_PARALLELIZE_EVALUATION, "If checked, the individuals of a population are evaluated in parallel by clones of the evaluation process. The evaluation process must not depend on the order of the evaluations.", false);
+		type.setExpert(true);
+		types.add(type);
+
 		return types;
 	}
 }
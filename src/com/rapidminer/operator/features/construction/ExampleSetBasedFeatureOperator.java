@@ -22,8 +22,10 @@
  */
 package com.rapidminer.operator.features.construction;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import com.rapidminer.example.Attribute;
 import com.rapidminer.example.AttributeWeights;
@@ -44,6 +46,7 @@ import com.rapidminer.operator.ports.metadata.SubprocessTransformRule;
 import com.rapidminer.parameter.ParameterType;
 import com.rapidminer.parameter.ParameterTypeBoolean;
 import com.rapidminer.parameter.ParameterTypeDouble;
+import com.rapidminer.tools.ConcurrencyTools;
 import com.rapidminer.tools.RandomGenerator;
 import com.rapidminer.tools.Tools;
 
@@ -66,6 +69,8 @@ public abstract class ExampleSetBasedFeatureOperator extends OperatorChain {
 
 	public static final String PARAMETER_MAXIMAL_FITNESS = "maximal_fitness";
 
+	public static final String PARAMETER_PARALLELIZE_EVALUATION = "parallelize_evaluation";
+
 	private ExampleSetBasedPopulation population;
 
 	/** The optimization stops if this maximal fitness was reached. */
@@ -79,6 +84,9 @@ public abstract class ExampleSetBasedFeatureOperator extends OperatorChain {
 
 	private RandomGenerator random;
 
+	/** Clones of this operator used for parallel evaluations, created on demand during one execution. */
+	private List<ExampleSetBasedFeatureOperator> evaluationClones;
+
 	private final InputPort exampleSetInput = getInputPorts().createPort("example set in", ExampleSet.class);
 
 	private final OutputPort innerExampleSetSource = getSubprocess(0).getInnerSources().createPort("example set source");
@@ -220,6 +228,7 @@ public abstract class ExampleSetBasedFeatureOperator extends OperatorChain {
 		this.random = RandomGenerator.getRandomGenerator(this);
 		this.evaluationCounter = 0;
 		this.totalEvaluations = 0;
+		this.evaluationClones = new ArrayList<ExampleSetBasedFeatureOperator>();
 		this.maximalFitness = getParameterAsDouble(PARAMETER_MAXIMAL_FITNESS);
 
 		ExampleSet es = exampleSetInput.getData(ExampleSet.class);
@@ -321,11 +330,67 @@ public abstract class ExampleSetBasedFeatureOperator extends OperatorChain {
 	 * operators.
 	 */
 	protected void evaluate(ExampleSetBasedPopulation population) throws OperatorException {
+		boolean parallel = getParameterAsBoolean(PARAMETER_PARALLELIZE_EVALUATION) && (ConcurrencyTools.getNumberOfThreads() > 1);
+		List<ExampleSetBasedIndividual> pending = new ArrayList<ExampleSetBasedIndividual>();
 		for (int i = 0; i < population.getNumberOfIndividuals(); i++) {
-			evaluate(population.get(i));
+			ExampleSetBasedIndividual individual = population.get(i);
+			if (parallel && (individual.getPerformance() == null)) {
+				pending.add(individual);
+			} else {
+				evaluate(individual);
+			}
+		}
+		if (pending.size() > 0) {
+			evaluateInParallel(pending);
+		}
+	}
+
+	/**
+	 * Evaluates the given individuals concurrently by this operator and clones of it. The example
+	 * sets are created before since this might not be thread safe.
+	 */
+	private void evaluateInParallel(List<ExampleSetBasedIndividual> individuals) throws OperatorException {
+		totalEvaluations += individuals.size();
+		evaluationCounter += individuals.size();
+		final List<ExampleSet> exampleSets = new ArrayList<ExampleSet>(individuals.size());
+		for (ExampleSetBasedIndividual individual : individuals) {
+			exampleSets.add(individual.getExampleSet().createCleanClone());
+		}
+
+		final int threads = Math.min(ConcurrencyTools.getNumberOfThreads(), individuals.size());
+		while (evaluationClones.size() < threads - 1) {
+			ExampleSetBasedFeatureOperator clone = (ExampleSetBasedFeatureOperator)cloneOperator(getName(), true);
+			clone.setEnclosingProcess(getExecutionUnit());
+			evaluationClones.add(clone);
+		}
+		List<Callable<List<PerformanceVector>>> tasks = new ArrayList<Callable<List<PerformanceVector>>>(threads);
+		for (int t = 0; t < threads; t++) {
+			final int first = t;
+			final ExampleSetBasedFeatureOperator evaluator = t == 0 ? this : evaluationClones.get(t - 1);
+			tasks.add(new Callable<List<PerformanceVector>>() {
+
+				@Override
+				public List<PerformanceVector> call() throws OperatorException {
+					List<PerformanceVector> performances = new ArrayList<PerformanceVector>();
+					for (int i = first; i < exampleSets.size(); i += threads) {
+						performances.add(evaluator.executeEvaluationProcess(exampleSets.get(i)));
+					}
+					return performances;
+				}
+			});
+		}
+		List<List<PerformanceVector>> performances = ConcurrencyTools.call(tasks, threads);
+		for (int i = 0; i < individuals.size(); i++) {
+			individuals.get(i).setPerformance(performances.get(i % threads).get(i / threads));
 		}
 	}
 
+	private PerformanceVector executeEvaluationProcess(ExampleSet exampleSet) throws OperatorException {
+		innerExampleSetSource.deliver(exampleSet);
+		getSubprocess(0).execute();
+		return innerPerformanceSink.getData(PerformanceVector.class);
+	}
+
 	/**
 	 * Evaluates the given individual. The performance is set as user data of
 	 * the individual and also returned by this method.
@@ -337,11 +402,7 @@ public abstract class ExampleSetBasedFeatureOperator extends OperatorChain {
 		} else {
 			evaluationCounter++;
 			AttributeWeightedExampleSet clone = individual.getExampleSet().createCleanClone();
-			innerExampleSetSource.deliver(clone);
-
-			getSubprocess(0).execute();
-
-			PerformanceVector performanceVector = innerPerformanceSink.getData(PerformanceVector.class);
+			PerformanceVector performanceVector = executeEvaluationProcess(clone);
 			individual.setPerformance(performanceVector);
 			return performanceVector;
 		}
@@ -394,6 +455,10 @@ public abstract class ExampleSetBasedFeatureOperator extends OperatorChain {
 		types.add(type);
 
 		types.add(new ParameterTypeDouble(PARAMETER_MAXIMAL_FITNESS, "The optimization will stop if the fitness reaches the defined maximum.", 0.0d, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY));
+
+		type = new ParameterTypeBoolean(PARAMETER_PARALLELIZE_EVALUATION, "If checked, the individuals of a population are evaluated in parallel by clones of the evaluation process. The evaluation process must not depend on the order of the evaluations.", false);
+		type.setExpert(true);
+		types.add(type);
 		return types;
 	}
 }
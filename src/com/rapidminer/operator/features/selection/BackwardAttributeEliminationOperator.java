@@ -26,11 +26,13 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import com.rapidminer.example.Attribute;
 import com.rapidminer.example.AttributeWeights;
 import com.rapidminer.example.Attributes;
 import com.rapidminer.example.ExampleSet;
+import com.rapidminer.example.set.AttributeSelectionExampleSet;
 import com.rapidminer.operator.MissingIOObjectException;
 import com.rapidminer.operator.OperatorChain;
 import com.rapidminer.operator.OperatorDescription;
@@ -50,6 +52,8 @@ import com.rapidminer.parameter.ParameterTypeDouble;
 import com.rapidminer.parameter.ParameterTypeInt;
 import com.rapidminer.parameter.conditions.BooleanParameterCondition;
 import com.rapidminer.parameter.conditions.EqualTypeCondition;
+import com.rapidminer.tools.ConcurrencyTools;
+import com.rapidminer.tools.RandomGenerator;
 import com.rapidminer.tools.math.AnovaCalculator;
 import com.rapidminer.tools.math.SignificanceCalculationException;
 import com.rapidminer.tools.math.SignificanceTestResult;
@@ -75,6 +79,12 @@ import com.rapidminer.tools.math.SignificanceTestResult;
  * 
  * The operator provides a value for logging the performance in each round using a ProcessLog.
  * 
+ * If the parameter parallelize_evaluation is checked, all candidates of a round are evaluated in parallel by clones of
+ * the inner subprocess, each on its own view of the remaining attributes. Each evaluation uses its own random generator
+ * derived from the process random seed instead of the global one, so the results do not depend on the number of threads.
+ * If the inner subprocess only uses local random seeds, the attribute removed in a round is the same as in the sequential
+ * mode. Otherwise it may differ, since the sequential mode draws all random numbers from the global generator.
+ * 
  * @author Sebastian Land
  * 
  */
@@ -87,6 +97,7 @@ public class BackwardAttributeEliminationOperator extends OperatorChain {
     public static final String PARAMETER_USE_RELATIVE_DECREASE = "use_relative_decrease";
     public static final String PARAMETER_ALPHA = "alpha";
     public static final String PARAMETER_ALLOWED_CONSECUTIVE_FAILS = "speculative_rounds";
+    public static final String PARAMETER_PARALLELIZE_EVALUATION = "parallelize_evaluation";
 
     public static final String[] STOPPING_BEHAVIORS = new String[] {
         "with decrease",
@@ -101,6 +112,9 @@ public class BackwardAttributeEliminationOperator extends OperatorChain {
     private double currentNumberOfFeatures = 0;
     private Attributes currentAttributes;
 
+    /** Clones of this operator used for parallel evaluations, created on demand during one execution. */
+    private List<BackwardAttributeEliminationOperator> evaluationClones;
+
     private InputPort exampleSetInput = getInputPorts().createPort("example set", ExampleSet.class);
 
     private OutputPort innerExampleSetSource = getSubprocess(0).getInnerSources().createPort("example set");
@@ -156,6 +170,8 @@ public class BackwardAttributeEliminationOperator extends OperatorChain {
         int maxNumberOfAttributes = Math.min(getParameterAsInt(PARAMETER_MAX_ATTRIBUTES), numberOfAttributes - 1);
         int maxNumberOfFails = getParameterAsInt(PARAMETER_ALLOWED_CONSECUTIVE_FAILS);
         int behavior = getParameterAsInt(PARAMETER_STOPPING_BEHAVIOR);
+        boolean parallel = getParameterAsBoolean(PARAMETER_PARALLELIZE_EVALUATION) && (ConcurrencyTools.getNumberOfThreads() > 1);
+        evaluationClones = new ArrayList<BackwardAttributeEliminationOperator>();
 
         boolean useRelativeIncrease = (behavior == WITH_DECREASE_EXCEEDS) ? getParameterAsBoolean(PARAMETER_USE_RELATIVE_DECREASE) : false;
         double maximalDecrease = 0;
@@ -190,22 +206,43 @@ public class BackwardAttributeEliminationOperator extends OperatorChain {
                 // performing a round
                 int bestIndex = 0;
                 PerformanceVector currentBestPerformance = null;
-                for (int current = 0; current < numberOfAttributes; current++) {
-                    if (selected[current]) {
-                        // switching off
-                        attributes.remove(attributeArray[current]);
-                        currentAttributes = attributes;
-
-                        // evaluate performance
-                        PerformanceVector performance = getPerformance(exampleSet);
+                if (parallel) {
+                    List<Integer> candidates = new ArrayList<Integer>();
+                    List<ExampleSet> candidateSets = new ArrayList<ExampleSet>();
+                    for (int current = 0; current < numberOfAttributes; current++) {
+                        if (selected[current]) {
+                            selected[current] = false;
+                            candidates.add(current);
+                            candidateSets.add(new AttributeSelectionExampleSet(exampleSetOriginal, selected));
+                            selected[current] = true;
+                        }
+                    }
+                    List<PerformanceVector> performances = evaluateInParallel(candidateSets);
+                    for (int c = 0; c < candidates.size(); c++) {
+                        PerformanceVector performance = performances.get(c);
                         if (currentBestPerformance == null || performance.compareTo(currentBestPerformance) > 0) {
-                            bestIndex = current;
+                            bestIndex = candidates.get(c);
                             currentBestPerformance = performance;
                         }
-
-                        // switching on
-                        attributes.addRegular(attributeArray[current]);
-                        currentAttributes = null; // removing reference
+                    }
+                } else {
+                    for (int current = 0; current < numberOfAttributes; current++) {
+                        if (selected[current]) {
+                            // switching off
+                            attributes.remove(attributeArray[current]);
+                            currentAttributes = attributes;
+
+                            // evaluate performance
+                            PerformanceVector performance = getPerformance(exampleSet);
+                            if (currentBestPerformance == null || performance.compareTo(currentBestPerformance) > 0) {
+                                bestIndex = current;
+                                currentBestPerformance = performance;
+                            }
+
+                            // switching on
+                            attributes.addRegular(attributeArray[current]);
+                            currentAttributes = null; // removing reference
+                        }
                     }
                 }
                 double currentFitness = currentBestPerformance.getMainCriterion().getFitness();
@@ -290,6 +327,53 @@ public class BackwardAttributeEliminationOperator extends OperatorChain {
             exampleSetOutput.deliver(exampleSet);
             performanceOutput.deliver(bestPerformanceEver);
             weightsOutput.deliver(weights);
+            evaluationClones = null;
+    }
+
+    /**
+     * Evaluates the given example sets by this operator and clones of it and returns the performances in the
+     * order of the example sets.
+     */
+    private List<PerformanceVector> evaluateInParallel(final List<ExampleSet> exampleSets) throws OperatorException {
+        // each evaluation gets its own generator derived from the global one, independent of the thread running it
+        final long seed = RandomGenerator.getGlobalRandomGenerator().nextLong();
+        final int threads = Math.min(ConcurrencyTools.getNumberOfThreads(), exampleSets.size());
+        while (evaluationClones.size() < threads - 1) {
+            BackwardAttributeEliminationOperator clone = (BackwardAttributeEliminationOperator) cloneOperator(getName(), true);
+            clone.setEnclosingProcess(getExecutionUnit());
+            evaluationClones.add(clone);
+        }
+        List<Callable<List<PerformanceVector>>> tasks = new ArrayList<Callable<List<PerformanceVector>>>(threads);
+        for (int t = 0; t < threads; t++) {
+            final int first = t;
+            final BackwardAttributeEliminationOperator evaluator = t == 0 ? this : evaluationClones.get(t - 1);
+            tasks.add(new Callable<List<PerformanceVector>>() {
+
+                @Override
+                public List<PerformanceVector> call() throws OperatorException {
+                    List<PerformanceVector> performances = new ArrayList<PerformanceVector>();
+                    RandomGenerator previousGenerator = RandomGenerator.setThreadRandomGenerator(null);
+                    try {
+                        for (int n = first; n < exampleSets.size(); n += threads) {
+                            ExampleSet exampleSet = exampleSets.get(n);
+                            evaluator.currentAttributes = exampleSet.getAttributes();
+                            RandomGenerator.setThreadRandomGenerator(new RandomGenerator(seed + n));
+                            performances.add(evaluator.getPerformance(exampleSet));
+                            evaluator.currentAttributes = null;
+                        }
+                    } finally {
+                        RandomGenerator.setThreadRandomGenerator(previousGenerator);
+                    }
+                    return performances;
+                }
+            });
+        }
+        List<List<PerformanceVector>> results = ConcurrencyTools.call(tasks, threads);
+        List<PerformanceVector> performances = new ArrayList<PerformanceVector>(exampleSets.size());
+        for (int n = 0; n < exampleSets.size(); n++) {
+            performances.add(results.get(n % threads).get(n / threads));
+        }
+        return performances;
     }
 
     private PerformanceVector getPerformance(ExampleSet exampleSet) throws OperatorException, MissingIOObjectException {
@@ -335,6 +419,10 @@ public class BackwardAttributeEliminationOperator extends OperatorChain {
         type = new ParameterTypeDouble(PARAMETER_ALPHA, "The probability threshold which determines if differences are considered as significant.", 0.0d, 1.0d, 0.05d);
         type.registerDependencyCondition(new EqualTypeCondition(this, PARAMETER_STOPPING_BEHAVIOR, STOPPING_BEHAVIORS, true, WITH_DECREASE_SIGNIFICANT));
         types.add(type);
+
+        type = new ParameterTypeBoolean(PARAMETER_PARALLELIZE_EVALUATION, "If checked, all remaining attributes of a round are evaluated in parallel by clones of the inner subprocess. The subprocess must not depend on the order of the evaluations.", false);
+        type.setExpert(true);
+        types.add(type);
         return types;
     }
 }
@@ -25,11 +25,13 @@ package com.rapidminer.operator.features.selection;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import com.rapidminer.example.Attribute;
 import com.rapidminer.example.AttributeWeights;
 import com.rapidminer.example.Attributes;
 import com.rapidminer.example.ExampleSet;
+import com.rapidminer.example.set.AttributeSelectionExampleSet;
 import com.rapidminer.operator.OperatorChain;
 import com.rapidminer.operator.OperatorDescription;
 import com.rapidminer.operator.OperatorException;
@@ -48,6 +50,8 @@ import com.rapidminer.parameter.ParameterTypeDouble;
 import com.rapidminer.parameter.ParameterTypeInt;
 import com.rapidminer.parameter.conditions.BooleanParameterCondition;
 import com.rapidminer.parameter.conditions.EqualTypeCondition;
+import com.rapidminer.tools.ConcurrencyTools;
+import com.rapidminer.tools.RandomGenerator;
 import com.rapidminer.tools.math.AnovaCalculator;
 import com.rapidminer.tools.math.SignificanceCalculationException;
 import com.rapidminer.tools.math.SignificanceTestResult;
@@ -74,6 +78,12 @@ import com.rapidminer.tools.math.SignificanceTestResult;
  * 
  * The operator provides a value for logging the performance in each round using a ProcessLog.
  * 
+ * If the parameter parallelize_evaluation is checked, all candidates of a round are evaluated in parallel by clones of
+ * the inner subprocess, each on its own view of the selected attributes. Each evaluation uses its own random generator
+ * derived from the process random seed instead of the global one, so the results do not depend on the number of threads.
+ * If the inner subprocess only uses local random seeds, the attribute added in a round is the same as in the sequential
+ * mode. Otherwise it may differ, since the sequential mode draws all random numbers from the global generator.
+ * 
  * @author Sebastian Land
  * 
  */
@@ -86,6 +96,7 @@ public class ForwardAttributeSelectionOperator extends OperatorChain {
     public static final String PARAMETER_USE_RELATIVE_INCREASE = "use_relative_increase";
     public static final String PARAMETER_ALPHA = "alpha";
     public static final String PARAMETER_ALLOWED_CONSECUTIVE_FAILS = "speculative_rounds";
+    public static final String PARAMETER_PARALLELIZE_EVALUATION = "parallelize_evaluation";
 
     public static final String[] STOPPING_BEHAVIORS = new String[] {
         "without increase",
@@ -100,6 +111,9 @@ public class ForwardAttributeSelectionOperator extends OperatorChain {
     private double currentNumberOfFeatures = 0;
     private Attributes currentAttributes;
 
+    /** Clones of this operator used for parallel evaluations, created on demand during one execution. */
+    private List<ForwardAttributeSelectionOperator> evaluationClones;
+
     private InputPort exampleSetInput = getInputPorts().createPort("example set", ExampleSet.class);
 
     private OutputPort innerExampleSetSource = getSubprocess(0).getInnerSources().createPort("example set");
@@ -153,6 +167,8 @@ public class ForwardAttributeSelectionOperator extends OperatorChain {
         int maxNumberOfAttributes = Math.min(getParameterAsInt(PARAMETER_MAX_ATTRIBUTES), numberOfAttributes);
         int maxNumberOfFails = getParameterAsInt(PARAMETER_ALLOWED_CONSECUTIVE_FAILS);
         int behavior = getParameterAsInt(PARAMETER_STOPPING_BEHAVIOR);
+        boolean parallel = getParameterAsBoolean(PARAMETER_PARALLELIZE_EVALUATION) && (ConcurrencyTools.getNumberOfThreads() > 1);
+        evaluationClones = new ArrayList<ForwardAttributeSelectionOperator>();
 
         boolean useRelativeIncrease = (behavior == WITHOUT_INCREASE_OF_AT_LEAST) ? getParameterAsBoolean(PARAMETER_USE_RELATIVE_INCREASE) : false;
         double minimalIncrease = 0;
@@ -184,26 +200,47 @@ public class ForwardAttributeSelectionOperator extends OperatorChain {
                 // performing a round
                 int bestIndex = 0;
                 PerformanceVector currentBestPerformance = null;
-                for (int current = 0; current < numberOfAttributes; current++) {
-                    if (!selected[current]) {
-                        // switching on
-                        attributes.addRegular(attributeArray[current]);
-                        currentAttributes = attributes;
-
-                        // evaluate performance
-                        innerExampleSetSource.deliver(exampleSet);
-
-                        getSubprocess(0).execute();
-
-                        PerformanceVector performance = innerPerformanceSink.getData(PerformanceVector.class);
+                if (parallel) {
+                    List<Integer> candidates = new ArrayList<Integer>();
+                    List<ExampleSet> candidateSets = new ArrayList<ExampleSet>();
+                    for (int current = 0; current < numberOfAttributes; current++) {
+                        if (!selected[current]) {
+                            selected[current] = true;
+                            candidates.add(current);
+                            candidateSets.add(new AttributeSelectionExampleSet(exampleSetOriginal, selected));
+                            selected[current] = false;
+                        }
+                    }
+                    List<PerformanceVector> performances = evaluateInParallel(candidateSets);
+                    for (int c = 0; c < candidates.size(); c++) {
+                        PerformanceVector performance = performances.get(c);
                         if (currentBestPerformance == null || performance.compareTo(currentBestPerformance) > 0) {
-                            bestIndex = current;
+                            bestIndex = candidates.get(c);
                             currentBestPerformance = performance;
                         }
-
-                        // switching off
-                        attributes.remove(attributeArray[current]);
-                        currentAttributes = null;
+                    }
+                } else {
+                    for (int current = 0; current < numberOfAttributes; current++) {
+                        if (!selected[current]) {
+                            // switching on
+                            attributes.addRegular(attributeArray[current]);
+                            currentAttributes = attributes;
+
+                            // evaluate performance
+                            innerExampleSetSource.deliver(exampleSet);
+
+                            getSubprocess(0).execute();
+
+                            PerformanceVector performance = innerPerformanceSink.getData(PerformanceVector.class);
+                            if (currentBestPerformance == null || performance.compareTo(currentBestPerformance) > 0) {
+                                bestIndex = current;
+                                currentBestPerformance = performance;
+                            }
+
+                            // switching off
+                            attributes.remove(attributeArray[current]);
+                            currentAttributes = null;
+                        }
                     }
                 }
                 double currentFitness = currentBestPerformance.getMainCriterion().getFitness();
@@ -288,6 +325,59 @@ public class ForwardAttributeSelectionOperator extends OperatorChain {
             exampleSetOutput.deliver(exampleSet);
             performanceOutput.deliver(bestPerformanceEver);
             weightsOutput.deliver(weights);
+            evaluationClones = null;
+    }
+
+    /**
+     * Evaluates the given example sets by this operator and clones of it and returns the performances in the
+     * order of the example sets.
+     */
+    private List<PerformanceVector> evaluateInParallel(final List<ExampleSet> exampleSets) throws OperatorException {
+        // each evaluation gets its own generator derived from the global one, independent of the thread running it
+        final long seed = RandomGenerator.getGlobalRandomGenerator().nextLong();
+        final int threads = Math.min(ConcurrencyTools.getNumberOfThreads(), exampleSets.size());
+        while (evaluationClones.size() < threads - 1) {
+            ForwardAttributeSelectionOperator clone = (ForwardAttributeSelectionOperator) cloneOperator(getName(), true);
+            clone.setEnclosingProcess(getExecutionUnit());
+            evaluationClones.add(clone);
+        }
+        List<Callable<List<PerformanceVector>>> tasks = new ArrayList<Callable<List<PerformanceVector>>>(threads);
+        for (int t = 0; t < threads; t++) {
+            final int first = t;
+            final ForwardAttributeSelectionOperator evaluator = t == 0 ? this : evaluationClones.get(t - 1);
+            tasks.add(new Callable<List<PerformanceVector>>() {
+
+                @Override
+                public List<PerformanceVector> call() throws OperatorException {
+                    List<PerformanceVector> performances = new ArrayList<PerformanceVector>();
+                    RandomGenerator previousGenerator = RandomGenerator.setThreadRandomGenerator(null);
+                    try {
+                        for (int n = first; n < exampleSets.size(); n += threads) {
+                            RandomGenerator.setThreadRandomGenerator(new RandomGenerator(seed + n));
+                            performances.add(evaluator.getPerformance(exampleSets.get(n)));
+                        }
+                    } finally {
+                        RandomGenerator.setThreadRandomGenerator(previousGenerator);
+                    }
+                    return performances;
+                }
+            });
+        }
+        List<List<PerformanceVector>> results = ConcurrencyTools.call(tasks, threads);
+        List<PerformanceVector> performances = new ArrayList<PerformanceVector>(exampleSets.size());
+        for (int n = 0; n < exampleSets.size(); n++) {
+            performances.add(results.get(n % threads).get(n / threads));
+        }
+        return performances;
+    }
+
+    private PerformanceVector getPerformance(ExampleSet exampleSet) throws OperatorException {
+        currentAttributes = exampleSet.getAttributes();
+        innerExampleSetSource.deliver(exampleSet);
+        getSubprocess(0).execute();
+        PerformanceVector performance = innerPerformanceSink.getData(PerformanceVector.class);
+        currentAttributes = null;
+        return performance;
     }
 
     @Override
@@ -325,6 +415,10 @@ public class ForwardAttributeSelectionOperator extends OperatorChain {
         type = new ParameterTypeDouble(PARAMETER_ALPHA, "The probability threshold which determines if differences are considered as significant.", 0.0d, 1.0d, 0.05d);
         type.registerDependencyCondition(new EqualTypeCondition(this, PARAMETER_STOPPING_BEHAVIOR, STOPPING_BEHAVIORS, true, WITHOUT_INCREASE_SIGNIFICANT));
         types.add(type);
+
+        type = new ParameterTypeBoolean(PARAMETER_PARALLELIZE_EVALUATION, "If checked, all candidate attributes of a round are evaluated in parallel by clones of the inner subprocess. The subprocess must not depend on the order of the evaluations.", false);
+        type.setExpert(true);
+        types.add(type);
         return types;
     }
 }
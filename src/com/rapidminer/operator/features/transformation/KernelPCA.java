@@ -134,11 +134,16 @@ public class KernelPCA extends Operator {
 			i++;
 		}
 
-		// filling kernel matrix
+		// filling kernel matrix, kernels are symmetric
 		Matrix kernelMatrix = new Matrix(numberOfExamples, numberOfExamples);
-		for (i = 0; i < numberOfExamples; i++)
-			for (int j = 0; j < numberOfExamples; j++)
-				kernelMatrix.set(i, j, kernel.calculateDistance(exampleValues.get(i), exampleValues.get(j)));
+		double[][] kernelValues = kernelMatrix.getArray();
+		for (i = 0; i < numberOfExamples; i++) {
+			for (int j = i; j < numberOfExamples; j++) {
+				double value = kernel.calculateDistance(exampleValues.get(i), exampleValues.get(j));
+				kernelValues[i][j] = value;
+				kernelValues[j][i] = value;
+			}
+		}
 
 		// calculating eigenVectors
 		EigenvalueDecomposition eig = kernelMatrix.eig();
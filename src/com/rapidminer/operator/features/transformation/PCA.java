@@ -45,14 +45,18 @@ import com.rapidminer.operator.ports.metadata.MDReal;
 import com.rapidminer.operator.ports.metadata.PassThroughRule;
 import com.rapidminer.operator.ports.metadata.SetRelation;
 import com.rapidminer.parameter.ParameterType;
+import com.rapidminer.parameter.ParameterTypeBoolean;
 import com.rapidminer.parameter.ParameterTypeCategory;
 import com.rapidminer.parameter.ParameterTypeDouble;
 import com.rapidminer.parameter.ParameterTypeInt;
 import com.rapidminer.parameter.UndefinedParameterError;
+import com.rapidminer.parameter.conditions.BooleanParameterCondition;
 import com.rapidminer.parameter.conditions.EqualTypeCondition;
 import com.rapidminer.tools.LogService;
 import com.rapidminer.tools.Ontology;
+import com.rapidminer.tools.RandomGenerator;
 import com.rapidminer.tools.math.matrix.CovarianceMatrix;
+import com.rapidminer.tools.math.matrix.RandomizedEigenDecomposition;
 
 /**
  * This operator performs a principal components analysis (PCA) using the
@@ -62,6 +66,10 @@ import com.rapidminer.tools.math.matrix.CovarianceMatrix;
  * operator outputs a <code>PCAModel</code>. With the
  * <code>ModelApplier</code> you can transform the features.
  * 
+ * If a fixed number of components is kept, the components can optionally be approximated by a
+ * randomized decomposition which neither creates the covariance matrix nor decomposes it completely.
+ * This is much faster for data sets with many attributes if only few components are needed.
+ * 
  * @author Ingo Mierswa
  * @see PCAModel
  */
@@ -74,6 +82,8 @@ public class PCA extends Operator {
 
 	public static final String PARAMETER_REDUCTION_TYPE = "dimensionality_reduction";
 
+	public static final String PARAMETER_RANDOMIZED_DECOMPOSITION = "randomized_decomposition";
+
 	public static final String[] REDUCTION_METHODS = new String[] {
 		"none",
 		"keep variance",
@@ -141,6 +151,17 @@ public class PCA extends Operator {
 		Tools.onlyNonMissingValues(exampleSet, "PCA");
 		Tools.onlyNumericalAttributes(exampleSet, "PCA");
 
+		int reductionType = getParameterAsInt(PARAMETER_REDUCTION_TYPE);
+		if (reductionType == REDUCTION_FIXED && getParameterAsBoolean(PARAMETER_RANDOMIZED_DECOMPOSITION)) {
+			int numberOfComponents = Math.min(exampleSet.getAttributes().size(), getParameterAsInt(PARAMETER_NUMBER_OF_COMPONENTS));
+			log("Performing the randomized eigenvalue decomposition...");
+			RandomizedEigenDecomposition decomposition = new RandomizedEigenDecomposition(exampleSet, numberOfComponents, true, RandomGenerator.getRandomGenerator(this));
+			PCAModel model = new PCAModel(exampleSet, decomposition.getRealEigenvalues(), decomposition.getEigenvectors(), decomposition.getTrace());
+			model.setNumberOfComponents(numberOfComponents);
+			deliver(exampleSet, model);
+			return;
+		}
+
 		// create covariance matrix
 		log("Creating the covariance matrix...");
 		Matrix covarianceMatrix = CovarianceMatrix.getCovarianceMatrix(exampleSet);
@@ -156,7 +177,6 @@ public class PCA extends Operator {
 
 		PCAModel model = new PCAModel(exampleSet, eigenvalues, eigenvectors);
 
-		int reductionType = getParameterAsInt(PARAMETER_REDUCTION_TYPE);
 		switch (reductionType) {
 		case REDUCTION_NONE:
 			model.setNumberOfComponents(exampleSet.getAttributes().size());
@@ -169,6 +189,10 @@ public class PCA extends Operator {
 			break;
 		}
 
+		deliver(exampleSet, model);
+	}
+
+	private void deliver(ExampleSet exampleSet, PCAModel model) throws OperatorException {
 		modelOutput.deliver(model);
 		originalOutput.deliver(exampleSet);
 		if (exampleSetOutput.isConnected()) {
@@ -192,6 +216,15 @@ public class PCA extends Operator {
 		type.setExpert(false);
 		type.registerDependencyCondition(new EqualTypeCondition(this, PARAMETER_REDUCTION_TYPE, REDUCTION_METHODS, true, REDUCTION_FIXED));
 		list.add(type);
+
+		type = new ParameterTypeBoolean(PARAMETER_RANDOMIZED_DECOMPOSITION, "If checked, only the kept components are approximated by a randomized decomposition without creating the covariance matrix. This is much faster for many attributes and few components.", false);
+		type.registerDependencyCondition(new EqualTypeCondition(this, PARAMETER_REDUCTION_TYPE, REDUCTION_METHODS, true, REDUCTION_FIXED));
+		list.add(type);
+
+		for (ParameterType randomType : RandomGenerator.getRandomGeneratorParameters(this)) {
+			randomType.registerDependencyCondition(new BooleanParameterCondition(this, PARAMETER_RANDOMIZED_DECOMPOSITION, true, true));
+			list.add(randomType);
+		}
 		return list;
 	}
 }
@@ -78,8 +78,22 @@ public class PCAModel extends AbstractEigenvectorModel implements ComponentWeigh
 
     private boolean keepAttributes = false;
 
+    /** The sum of all eigenvalues including the ones of omitted components, 0 if all components are known. */
+    private double totalVariance = 0.0d;
+
     public PCAModel(ExampleSet eSet, double[] eigenvalues, double[][] eigenvectors) {
+        this(eSet, eigenvalues, eigenvectors, 0.0d);
+    }
+
+    /**
+     * Creates a model which might only contain the leading components, e.g. calculated by a
+     * {@link com.rapidminer.tools.math.matrix.RandomizedEigenDecomposition}. The variance proportions
+     * are then calculated with respect to the given total variance of the data. If the total variance
+     * is 0, it is the sum of the given eigenvalues.
+     */
+    public PCAModel(ExampleSet eSet, double[] eigenvalues, double[][] eigenvectors, double totalVariance) {
         super(eSet);
+        this.totalVariance = totalVariance;
 
         this.keepAttributes = false;
         this.attributeNames = new String[eSet.getAttributes().size()];
@@ -184,7 +198,7 @@ public class PCAModel extends AbstractEigenvectorModel implements ComponentWeigh
                 numberOfUsedComponents = -1;
             } else {
                 numberOfUsedComponents = 0;
-                while (cumulativeVariance[numberOfUsedComponents] < varianceThreshold) {
+                while (numberOfUsedComponents < cumulativeVariance.length - 1 && cumulativeVariance[numberOfUsedComponents] < varianceThreshold) {
                     numberOfUsedComponents++;
                 }
                 numberOfUsedComponents++;
@@ -197,6 +211,8 @@ public class PCAModel extends AbstractEigenvectorModel implements ComponentWeigh
             // keep all components
             numberOfUsedComponents = attributes.size();
         }
+        // truncated models do not contain all components
+        numberOfUsedComponents = Math.min(numberOfUsedComponents, eigenVectors.size());
 
         // retrieve factors inside eigenVectors
         double[][] eigenValueFactors = new double[numberOfUsedComponents][attributeNames.length];
@@ -246,10 +262,7 @@ public class PCAModel extends AbstractEigenvectorModel implements ComponentWeigh
 
     /** Calculates the cumulative variance. */
     private void calculateCumulativeVariance() {
-        double sumvariance = 0.0d;
-        for (Eigenvector ev : this.eigenVectors) {
-            sumvariance += ev.getEigenvalue();
-        }
+        double sumvariance = getTotalVariance();
         this.variances = new double[this.eigenVectors.size()];
         this.cumulativeVariance = new double[variances.length];
         double cumulative = 0.0d;
@@ -263,6 +276,18 @@ public class PCAModel extends AbstractEigenvectorModel implements ComponentWeigh
         }
     }
 
+    /** Returns the sum of the eigenvalues of all components, including omitted ones. */
+    private double getTotalVariance() {
+        if (totalVariance > 0.0d) {
+            return totalVariance;
+        }
+        double sumvariance = 0.0d;
+        for (Eigenvector ev : this.eigenVectors) {
+            sumvariance += ev.getEigenvalue();
+        }
+        return sumvariance;
+    }
+
     @Override
     public void setParameter(String name, Object object) throws OperatorException {
         if (name.equals("variance_threshold")) {
@@ -299,9 +324,9 @@ public class PCAModel extends AbstractEigenvectorModel implements ComponentWeigh
         if (component < 1) {
             component = 1;
         }
-        if (component > attributeNames.length) {
-            logWarning("Creating weights of component " + attributeNames.length + "!");
-            component = attributeNames.length;
+        if (component > eigenVectors.size()) {
+            logWarning("Creating weights of component " + eigenVectors.size() + "!");
+            component = eigenVectors.size();
         }
         AttributeWeights weights = new AttributeWeights();
 
@@ -361,11 +386,7 @@ public class PCAModel extends AbstractEigenvectorModel implements ComponentWeigh
 
     @Override
     public EigenvalueTableModel getEigenvalueTableModel() {
-        double varianceSum = 0.0d;
-        for (Eigenvector wv : eigenVectors) {
-            varianceSum += wv.getEigenvalue();
-        }
-        return new EigenvalueTableModel(eigenVectors, cumulativeVariance, varianceSum);
+        return new EigenvalueTableModel(eigenVectors, cumulativeVariance, getTotalVariance());
     }
 
     @Override
@@ -45,19 +45,27 @@ import com.rapidminer.operator.ports.metadata.MDReal;
 import com.rapidminer.operator.ports.metadata.PassThroughRule;
 import com.rapidminer.operator.ports.metadata.SetRelation;
 import com.rapidminer.parameter.ParameterType;
+import com.rapidminer.parameter.ParameterTypeBoolean;
 import com.rapidminer.parameter.ParameterTypeCategory;
 import com.rapidminer.parameter.ParameterTypeDouble;
 import com.rapidminer.parameter.ParameterTypeInt;
 import com.rapidminer.parameter.UndefinedParameterError;
+import com.rapidminer.parameter.conditions.BooleanParameterCondition;
 import com.rapidminer.parameter.conditions.EqualTypeCondition;
 import com.rapidminer.tools.Ontology;
+import com.rapidminer.tools.RandomGenerator;
 import com.rapidminer.tools.math.matrix.MatrixTools;
+import com.rapidminer.tools.math.matrix.RandomizedEigenDecomposition;
 
 /**
  * This operator performs a Singular Value Decomposition (SVD) of the data
  * The user can specify the number of target dimensions
  * operator outputs a {@link SVDModel}. With the <code>ModelApplier</code> you can transform the features.
  * 
+ * If a fixed number of dimensions is kept, the singular vectors can optionally be approximated by a
+ * randomized decomposition which does not copy the data into a matrix. The singular value proportions
+ * of such a model refer to the calculated components only.
+ * 
  * @author Sebastian Land
  */
 public class SVDReduction extends Operator {
@@ -71,6 +79,8 @@ public class SVDReduction extends Operator {
 
     public static final String PARAMETER_REDUCTION_TYPE = "dimensionality_reduction";
 
+    public static final String PARAMETER_RANDOMIZED_DECOMPOSITION = "randomized_decomposition";
+
     public static final String[] REDUCTION_METHODS = new String[] {
         "none",
         "keep percentage",
@@ -131,21 +141,34 @@ public class SVDReduction extends Operator {
         Tools.onlyNonMissingValues(exampleSet, "SVD");
         Tools.onlyNumericalAttributes(exampleSet, "SVD");
 
-        // create data matrix
-        Matrix dataMatrix = MatrixTools.getDataAsMatrix(exampleSet);
-
-        // Singular Value Decomposition
-        SingularValueDecomposition singularValueDecomposition = dataMatrix.svd();
+        int reductionType = getParameterAsInt(PARAMETER_REDUCTION_TYPE);
+        double[] singularvalues;
+        Matrix vMatrix;
+        if (reductionType == REDUCTION_FIXED && getParameterAsBoolean(PARAMETER_RANDOMIZED_DECOMPOSITION)) {
+            // the right singular vectors are the eigenvectors of X^T X
+            int numberOfComponents = Math.min(exampleSet.getAttributes().size(), getParameterAsInt(PARAMETER_NUMBER_OF_COMPONENTS));
+            RandomizedEigenDecomposition decomposition = new RandomizedEigenDecomposition(exampleSet, numberOfComponents, false, RandomGenerator.getRandomGenerator(this));
+            double[] eigenvalues = decomposition.getRealEigenvalues();
+            singularvalues = new double[eigenvalues.length];
+            for (int i = 0; i < eigenvalues.length; i++) {
+                singularvalues[i] = Math.sqrt(Math.max(0.0d, eigenvalues[i]));
+            }
+            vMatrix = new Matrix(decomposition.getEigenvectors());
+        } else {
+            // create data matrix
+            Matrix dataMatrix = MatrixTools.getDataAsMatrix(exampleSet);
+
+            // Singular Value Decomposition
+            SingularValueDecomposition singularValueDecomposition = dataMatrix.svd();
+            singularvalues = singularValueDecomposition.getSingularValues();
+            vMatrix = singularValueDecomposition.getV();
+        }
 
         // create and deliver results
-        double[] singularvalues = singularValueDecomposition.getSingularValues();
-        Matrix vMatrix = singularValueDecomposition.getV();
-
         SVDModel model = new SVDModel(exampleSet, singularvalues, vMatrix);
         if (getCompatibilityLevel().isAtMost(OPERATOR_VERSION_CHANGED_ATTRIBUTE_NAME))
             model.enableLegacyMode();
 
-        int reductionType = getParameterAsInt(PARAMETER_REDUCTION_TYPE);
         switch (reductionType) {
         case REDUCTION_NONE:
             model.setNumberOfComponents(exampleSet.getAttributes().size());
@@ -186,6 +209,15 @@ public class SVDReduction extends Operator {
         type.setExpert(false);
         type.registerDependencyCondition(new EqualTypeCondition(this, PARAMETER_REDUCTION_TYPE, REDUCTION_METHODS, true, REDUCTION_FIXED));
         list.add(type);
+
+        type = new ParameterTypeBoolean(PARAMETER_RANDOMIZED_DECOMPOSITION, "If checked, only the kept dimensions are approximated by a randomized decomposition without copying the data into a matrix. This is much faster for many attributes and few dimensions.", false);
+        type.registerDependencyCondition(new EqualTypeCondition(this, PARAMETER_REDUCTION_TYPE, REDUCTION_METHODS, true, REDUCTION_FIXED));
+        list.add(type);
+
+        for (ParameterType randomType : RandomGenerator.getRandomGeneratorParameters(this)) {
+            randomType.registerDependencyCondition(new BooleanParameterCondition(this, PARAMETER_RANDOMIZED_DECOMPOSITION, true, true));
+            list.add(randomType);
+        }
         return list;
     }
 }
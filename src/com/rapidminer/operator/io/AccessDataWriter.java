@@ -77,8 +77,11 @@ public class AccessDataWriter extends AbstractStreamWriter {
 		DatabaseHandler handler = null;
 		try {
 			handler = DatabaseHandler.getConnectedDatabaseHandler(databaseURL, username, password);
-			handler.createTable(exampleSet, getParameterAsString(PARAMETER_TABLE_NAME), getParameterAsInt(PARAMETER_OVERWRITE_MODE), getApplyCount() == 0, -1);
-			handler.disconnect();
+			try {
+				handler.createTable(exampleSet, getParameterAsString(PARAMETER_TABLE_NAME), getParameterAsInt(PARAMETER_OVERWRITE_MODE), getApplyCount() == 0, -1);
+			} finally {
+				handler.disconnect();
+			}
 			return exampleSet;
 		} catch (SQLException e) {
 			throw new UserError(this, e, 304, e.getMessage());
@@ -22,16 +22,16 @@
  */
 package com.rapidminer.operator.io;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
-import java.io.StreamTokenizer;
+import java.nio.charset.Charset;
 import java.text.DateFormat;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
 import java.text.NumberFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
@@ -51,7 +51,8 @@ import com.rapidminer.parameter.PortProvider;
 import com.rapidminer.tools.LogService;
 import com.rapidminer.tools.Ontology;
 import com.rapidminer.tools.StrictDecimalFormat;
-import com.rapidminer.tools.Tools;
+import com.rapidminer.tools.io.ByteTokenizer;
+import com.rapidminer.tools.io.DoubleParser;
 import com.rapidminer.tools.io.Encoding;
 
 
@@ -136,74 +137,78 @@ public class ArffExampleSource extends AbstractDataReader {
 	@Override
 	protected DataSet getDataSet() throws OperatorException, IOException {
 		return new DataSet() {
-			private InputStream inputStream = null;
-			
-			private BufferedReader in = null;
-			
-			private StreamTokenizer tokenizer = null;
+			private ByteTokenizer tokenizer = null;
 			
 			private NumberFormat numberFormat = StrictDecimalFormat.getInstance(ArffExampleSource.this);
 			
+			private boolean parsePlainDecimals = isPlainDecimalFormat(numberFormat);
+			
 			private DateFormat   dateFormat   = new SimpleDateFormat();
 			
-			private String[] tokens = null;
+			/** The bytes of the tokens of the current row. */
+			private byte[] rowBytes = new byte[1024];
+			
+			/** Start of each token in {@link #rowBytes}, -1 for missing values. */
+			private int[] tokenStarts = null;
+			
+			private int[] tokenLengths = null;
 			
 			private HashMap<Integer,String> datePattern = new HashMap<Integer, String>();
 			
 			{	
-				inputStream = filePortHandler.openSelectedFile();
-				in = new BufferedReader(new InputStreamReader(inputStream, Encoding.getEncoding(ArffExampleSource.this)));
-				tokenizer = createTokenizer(in);
+				InputStream inputStream = filePortHandler.openSelectedFile();
+				tokenizer = createTokenizer(inputStream, Encoding.getEncoding(ArffExampleSource.this));
 
 				// read file
 
-				Tools.getFirstToken(tokenizer);
-				if (tokenizer.ttype == StreamTokenizer.TT_EOF) {
+				getFirstToken(tokenizer);
+				if (tokenizer.ttype == ByteTokenizer.TT_EOF) {
 					throw new UserError(ArffExampleSource.this, 302, filePortHandler.getSelectedFileDescription(), "file is empty");
 				}
 
-				if ("@relation".equalsIgnoreCase(tokenizer.sval)) {
-					Tools.getNextToken(tokenizer);
-					Tools.getLastToken(tokenizer, false);
+				if ("@relation".equalsIgnoreCase(tokenizer.getString())) {
+					getNextToken(tokenizer);
+					getLastToken(tokenizer, false);
 				} else {
-					throw new IOException("expected the keyword @relation in line " + tokenizer.lineno());
+					throw new IOException("expected the keyword @relation in line " + tokenizer.getLineNumber());
 				}
 
 				// attributes
-				Tools.getFirstToken(tokenizer);
-				if (tokenizer.ttype == StreamTokenizer.TT_EOF) {
-					throw new IOException("unexpected end of file in line " + tokenizer.lineno() + ", attribute description expected...");
+				getFirstToken(tokenizer);
+				if (tokenizer.ttype == ByteTokenizer.TT_EOF) {
+					throw new IOException("unexpected end of file in line " + tokenizer.getLineNumber() + ", attribute description expected...");
 				}
 
 				LinkedList<String> attributeNamesList = new LinkedList<String>();
 				LinkedList<Integer> valueTypesList = new LinkedList<Integer>();
 				LinkedList<Set<String>> valueSets = new LinkedList<Set<String>>();
 				LinkedHashSet<String> valueSet = null;
-				while ("@attribute".equalsIgnoreCase(tokenizer.sval)) {
+				while ("@attribute".equalsIgnoreCase(tokenizer.getString())) {
 					// name
-					Tools.getNextToken(tokenizer);
-					String attributeName = tokenizer.sval;
+					getNextToken(tokenizer);
+					String attributeName = tokenizer.getString();
 					attributeNamesList.add(attributeName);
 
 					// determine value type
-					Tools.getNextToken(tokenizer);
+					getNextToken(tokenizer);
 					int valueType = Ontology.ATTRIBUTE_VALUE;
-					if (tokenizer.ttype == StreamTokenizer.TT_WORD) {
+					if (tokenizer.ttype == ByteTokenizer.TT_WORD) {
 						// numerical or string value type
-						if (tokenizer.sval.equalsIgnoreCase("real")) {
+						String typeName = tokenizer.getString();
+						if (typeName.equalsIgnoreCase("real")) {
 							valueType = Ontology.REAL;
-						} else if (tokenizer.sval.equalsIgnoreCase("integer")) {
+						} else if (typeName.equalsIgnoreCase("integer")) {
 							valueType = Ontology.INTEGER;
-						} else if (tokenizer.sval.equalsIgnoreCase("numeric")) {
+						} else if (typeName.equalsIgnoreCase("numeric")) {
 							valueType = Ontology.NUMERICAL;
-						} else if (tokenizer.sval.equalsIgnoreCase("string")) {
+						} else if (typeName.equalsIgnoreCase("string")) {
 							valueType = Ontology.STRING;
-						} else if (tokenizer.sval.equalsIgnoreCase("date")) {
+						} else if (typeName.equalsIgnoreCase("date")) {
 							valueType = Ontology.DATE_TIME;
-							Tools.getNextToken(tokenizer);
-							datePattern.put(attributeNamesList.indexOf(attributeName), tokenizer.sval);
+							getNextToken(tokenizer);
+							datePattern.put(attributeNamesList.indexOf(attributeName), tokenizer.getString());
 						}
-						Tools.waitForEOL(tokenizer);
+						waitForEOL(tokenizer);
 						valueSet = null;
 					} else {
 						// nominal attribute
@@ -214,29 +219,29 @@ public class ArffExampleSource extends AbstractDataReader {
 
 						// check if nominal value definition starts
 						if (tokenizer.nextToken() != '{') {
-							throw new IOException("{ expected at beginning of nominal values definition in line " + tokenizer.lineno());
+							throw new IOException("{ expected at beginning of nominal values definition in line " + tokenizer.getLineNumber());
 						}
 
 						// read all nominal values until the end of the definition
 						while (tokenizer.nextToken() != '}') {
-							if (tokenizer.ttype == StreamTokenizer.TT_EOL) {
-								throw new IOException("} expected at end of the nominal values definition in line " + tokenizer.lineno());
+							if (tokenizer.ttype == ByteTokenizer.TT_EOL || tokenizer.ttype == ByteTokenizer.TT_EOF) {
+								throw new IOException("} expected at end of the nominal values definition in line " + tokenizer.getLineNumber());
 							} else {
-								valueSet.add(tokenizer.sval);
+								valueSet.add(tokenizer.getString());
 							}
 						}
 
 						if (valueSet.size() == 0) {
-							throw new IOException("empty definition of nominal values is not suggested in line " + tokenizer.lineno());
+							throw new IOException("empty definition of nominal values is not suggested in line " + tokenizer.getLineNumber());
 						}
 					}
 					valueTypesList.add(valueType);
 					valueSets.add(valueSet);
-					Tools.getLastToken(tokenizer, false);
-					Tools.getFirstToken(tokenizer);
+					getLastToken(tokenizer, false);
+					getFirstToken(tokenizer);
 
-					if (tokenizer.ttype == StreamTokenizer.TT_EOF)
-						throw new IOException("unexpected end of file before data section in line " + tokenizer.lineno());
+					if (tokenizer.ttype == ByteTokenizer.TT_EOF)
+						throw new IOException("unexpected end of file before data section in line " + tokenizer.getLineNumber());
 				}
 				String[] attributeNames = new String[attributeNamesList.size()];
 				attributeNames = attributeNamesList.toArray(attributeNames);
@@ -245,8 +250,8 @@ public class ArffExampleSource extends AbstractDataReader {
 				setValueTypes(valueTypesList);
 
 				// expect data declaration
-				if (!"@data".equalsIgnoreCase(tokenizer.sval)) {
-					throw new IOException("expected keyword '@data' in line " + tokenizer.lineno());
+				if (!"@data".equalsIgnoreCase(tokenizer.getString())) {
+					throw new IOException("expected keyword '@data' in line " + tokenizer.getLineNumber());
 				}
 
 				// check attribute number
@@ -258,46 +263,55 @@ public class ArffExampleSource extends AbstractDataReader {
 			@Override
 			public boolean next() {
 				try {
-					Tools.getFirstToken(tokenizer);
+					getFirstToken(tokenizer);
 				} catch (IOException e) {
 					return false;
 				}
-				if (tokenizer.ttype == StreamTokenizer.TT_EOF) {
+				if (tokenizer.ttype == ByteTokenizer.TT_EOF) {
 					return false;
 				}
 				try {
-					tokens = new String[getColumnCount()];
+					int columns = getColumnCount();
+					if (tokenStarts == null || tokenStarts.length != columns) {
+						tokenStarts = new int[columns];
+						tokenLengths = new int[columns];
+					}
+					int rowLength = 0;
 					if (tokenizer.ttype == '{') {
-						for (int t = 0; t < tokens.length; t++) {
-							tokens[t] = "0";
-						}
+						// sparse rows default to 0
+						rowBytes[0] = '0';
+						rowLength = 1;
+						Arrays.fill(tokenStarts, 0);
+						Arrays.fill(tokenLengths, 1);
 						do {
-							if (tokenizer.nextToken() == StreamTokenizer.TT_EOL) {
-								throw new IOException("unexpedted end of line " + tokenizer.lineno());
+							if (tokenizer.nextToken() == ByteTokenizer.TT_EOL) {
+								throw new IOException("unexpedted end of line " + tokenizer.getLineNumber());
 							}
-							if (tokenizer.ttype == StreamTokenizer.TT_EOF) {
-								throw new IOException("unexpedted end of file in line " + tokenizer.lineno());
+							if (tokenizer.ttype == ByteTokenizer.TT_EOF) {
+								throw new IOException("unexpedted end of file in line " + tokenizer.getLineNumber());
 							} 
 							if (tokenizer.ttype == '}') {
 								break;
 							}
-							int index = Integer.valueOf(tokenizer.sval);
-							Tools.getNextToken(tokenizer);
+							int index = DoubleParser.parseInt(tokenizer.getTokenBytes(), 0, tokenizer.getTokenLength());
+							getNextToken(tokenizer);
 							if  (tokenizer.ttype == '?') {
-								tokens[index] = null;
+								tokenStarts[index] = -1;
 							} else {
-								if (tokenizer.ttype != StreamTokenizer.TT_WORD) {
-									throw new IOException("not a valid value '" + tokenizer.sval + "' in line " + tokenizer.lineno());
+								if (tokenizer.ttype != ByteTokenizer.TT_WORD) {
+									throw new IOException("not a valid value '" + tokenizer.getString() + "' in line " + tokenizer.getLineNumber());
 								}
-								tokens[index] = tokenizer.sval;
+								tokenStarts[index] = rowLength;
+								tokenLengths[index] = tokenizer.getTokenLength();
+								rowLength = appendToken(rowLength);
 							}
 						} while (true);
-						Tools.getLastToken(tokenizer, true);
+						getLastToken(tokenizer, true);
 					} else {
-						for (int i = 0; i < getColumnCount(); i++) {
+						for (int i = 0; i < columns; i++) {
 							if (i > 0) {
 								try {
-									Tools.getNextToken(tokenizer);
+									getNextToken(tokenizer);
 								} catch (IOException e) {
 									// this exception indicates a malformed .arff file, log it
 									try {
@@ -309,15 +323,17 @@ public class ArffExampleSource extends AbstractDataReader {
 								}
 							}
 							if (tokenizer.ttype == '?') {
-								tokens[i] = null;
+								tokenStarts[i] = -1;
 							} else {
-								if (tokenizer.ttype != StreamTokenizer.TT_WORD) {
-									throw new IOException("not a valid value '" + tokenizer.sval + "' in line " + tokenizer.lineno());
+								if (tokenizer.ttype != ByteTokenizer.TT_WORD) {
+									throw new IOException("not a valid value '" + tokenizer.getString() + "' in line " + tokenizer.getLineNumber());
 								}
-								tokens[i] = tokenizer.sval;
+								tokenStarts[i] = rowLength;
+								tokenLengths[i] = tokenizer.getTokenLength();
+								rowLength = appendToken(rowLength);
 							}
 						}
-						Tools.getLastToken(tokenizer, true);
+						getLastToken(tokenizer, true);
 					}
 					return true;
 				} catch (IOException e) {
@@ -325,10 +341,20 @@ public class ArffExampleSource extends AbstractDataReader {
 				}
 			}
 
+			/** Copies the current token to the row bytes and returns the new row length. */
+			private int appendToken(int rowLength) {
+				int length = tokenizer.getTokenLength();
+				if (rowLength + length > rowBytes.length) {
+					rowBytes = Arrays.copyOf(rowBytes, Math.max(2 * rowBytes.length, rowLength + length));
+				}
+				System.arraycopy(tokenizer.getTokenBytes(), 0, rowBytes, rowLength, length);
+				return rowLength + length;
+			}
+
 			@Override
 			public void close() {
 				try {
-					in.close();
+					tokenizer.close();
 				} catch (IOException e) {
 					
 				}
@@ -336,18 +362,28 @@ public class ArffExampleSource extends AbstractDataReader {
 
 			@Override
 			public int getNumberOfColumnsInCurrentRow() {
-				return tokens.length;
+				return tokenStarts.length;
 			}
 
 			@Override
 			public boolean isMissing(int columnIndex) {
-				return tokens[columnIndex] == null || tokens[columnIndex].isEmpty();
+				return tokenStarts[columnIndex] < 0 || tokenLengths[columnIndex] == 0;
 			}
 
 			@Override
 			public Number getNumber(int columnIndex) {
+				if (parsePlainDecimals && tokenStarts[columnIndex] >= 0 && DoubleParser.isPlainDecimal(rowBytes, tokenStarts[columnIndex], tokenLengths[columnIndex])) {
+					double value = DoubleParser.parseDouble(rowBytes, tokenStarts[columnIndex], tokenLengths[columnIndex]);
+					if (Math.abs(value) < MAX_EXACT_INTEGER) {
+						// like the decimal format, deliver integral values except -0 as long
+						if (value == Math.rint(value) && (value != 0 || 1 / value > 0)) {
+							return Long.valueOf((long) value);
+						}
+						return Double.valueOf(value);
+					}
+				}
 				try {
-					return numberFormat.parse(tokens[columnIndex]);
+					return numberFormat.parse(getString(columnIndex));
 				} catch (ParseException e) {
 				}
 				return null; 
@@ -355,7 +391,10 @@ public class ArffExampleSource extends AbstractDataReader {
 
 			@Override
 			public String getString(int columnIndex) {
-				return tokens[columnIndex];
+				if (tokenStarts[columnIndex] < 0) {
+					return null;
+				}
+				return tokenizer.decode(rowBytes, tokenStarts[columnIndex], tokenLengths[columnIndex]);
 			}
 
 			@Override
@@ -364,9 +403,9 @@ public class ArffExampleSource extends AbstractDataReader {
 				try {
 					if(pattern != null){
 						SimpleDateFormat format = new SimpleDateFormat(pattern);
-						return format.parse(tokens[columnIndex]);
+						return format.parse(getString(columnIndex));
 					}
-					return dateFormat.parse(tokens[columnIndex]);					
+					return dateFormat.parse(getString(columnIndex));					
 				} catch (ParseException e) {
 				}
 				return null;
@@ -374,22 +413,75 @@ public class ArffExampleSource extends AbstractDataReader {
 		};			
 	}
 
-	/** Creates a StreamTokenizer for reading ARFF files. */
-	private StreamTokenizer createTokenizer(Reader in){
-		StreamTokenizer tokenizer = new StreamTokenizer(in);
-		tokenizer.resetSyntax();         
-		tokenizer.whitespaceChars(0, ' ');    
-		tokenizer.wordChars(' '+1,'\u00FF');
-		tokenizer.whitespaceChars(',',',');
+	/** Up to this absolute value, integral doubles are exact. */
+	private static final double MAX_EXACT_INTEGER = 1L << 53;
+
+	/** Creates a ByteTokenizer for reading ARFF files. */
+	private ByteTokenizer createTokenizer(InputStream in, Charset encoding){
+		ByteTokenizer tokenizer = new ByteTokenizer(in, encoding);
+		tokenizer.whitespaceChar(',');
 		tokenizer.commentChar('%');
 		tokenizer.quoteChar('"');
 		tokenizer.quoteChar('\'');
 		tokenizer.ordinaryChar('{');
 		tokenizer.ordinaryChar('}');
-		tokenizer.eolIsSignificant(true);
 		return tokenizer;
 	}
 
+	/**
+	 * Returns true if the given format reads plain decimal numbers like
+	 * {@link DoubleParser#parseDouble(byte[], int, int)}, so that the latter can be used instead.
+	 */
+	private static boolean isPlainDecimalFormat(NumberFormat format) {
+		if (!(format instanceof DecimalFormat)) {
+			return false;
+		}
+		DecimalFormatSymbols symbols = ((DecimalFormat) format).getDecimalFormatSymbols();
+		char grouping = symbols.getGroupingSeparator();
+		return symbols.getDecimalSeparator() == '.' && symbols.getMinusSign() == '-' && (!format.isGroupingUsed() || (grouping != '.' && grouping != '-' && !Character.isDigit(grouping)));
+	}
+
+	/** Delivers the next token and skips empty lines. Quoted strings are delivered as words, unquoted question marks as '?'. */
+	private static void getFirstToken(ByteTokenizer tokenizer) throws IOException {
+		// skip empty lines
+		while (tokenizer.nextToken() == ByteTokenizer.TT_EOL) {}
+
+		markQuestionMark(tokenizer);
+	}
+
+	/** Delivers the next token and checks if its the end of line. */
+	private static void getLastToken(ByteTokenizer tokenizer, boolean endOfFileOk) throws IOException {
+		if (tokenizer.nextToken() != ByteTokenizer.TT_EOL
+				&& (tokenizer.ttype != ByteTokenizer.TT_EOF || !endOfFileOk)) {
+			throw new IOException("expected the end of the line " + tokenizer.getLineNumber());
+		}
+	}
+
+	/** Delivers the next token and checks for an unexpected end of line or file. */
+	private static void getNextToken(ByteTokenizer tokenizer) throws IOException {
+		if (tokenizer.nextToken() == ByteTokenizer.TT_EOL) {
+			throw new IOException("unexpected end of line " + tokenizer.getLineNumber());
+		}
+		if (tokenizer.ttype == ByteTokenizer.TT_EOF) {
+			throw new IOException("unexpected end of file in line " + tokenizer.getLineNumber());
+		}
+		markQuestionMark(tokenizer);
+	}
+
+	private static void markQuestionMark(ByteTokenizer tokenizer) {
+		if (tokenizer.ttype == '\'' || tokenizer.ttype == '"') {
+			tokenizer.ttype = ByteTokenizer.TT_WORD;
+		} else if (tokenizer.ttype == ByteTokenizer.TT_WORD && tokenizer.tokenEquals("?")) {
+			tokenizer.ttype = '?';
+		}
+	}
+
+	/** Skips all tokens before next end of line (EOL). */
+	private static void waitForEOL(ByteTokenizer tokenizer) throws IOException {
+		while (tokenizer.nextToken() != ByteTokenizer.TT_EOL && tokenizer.ttype != ByteTokenizer.TT_EOF) {}
+		tokenizer.pushBack();
+	}
+
 	@Override
 	protected boolean supportsEncoding() {
 		return true;
@@ -22,10 +22,13 @@
  */
 package com.rapidminer.operator.io;
 
-import java.io.OutputStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.nio.charset.Charset;
 import java.sql.Date;
 import java.text.DateFormat;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -35,14 +38,17 @@ import com.rapidminer.example.Example;
 import com.rapidminer.example.ExampleSet;
 import com.rapidminer.operator.OperatorDescription;
 import com.rapidminer.operator.OperatorException;
+import com.rapidminer.operator.UserError;
 import com.rapidminer.operator.ports.Port;
 import com.rapidminer.parameter.ParameterType;
 import com.rapidminer.parameter.ParameterTypeBoolean;
 import com.rapidminer.parameter.ParameterTypeString;
 import com.rapidminer.parameter.PortProvider;
 import com.rapidminer.parameter.conditions.PortConnectedCondition;
+import com.rapidminer.tools.ConcurrencyTools;
 import com.rapidminer.tools.Ontology;
 import com.rapidminer.tools.io.Encoding;
+import com.rapidminer.tools.io.ParallelBlockWriter;
 
 /**
  * <p>
@@ -80,68 +86,106 @@ public class CSVExampleSetWriter extends AbstractStreamWriter {
 	// Nominal2Date operator
 	public static final String PARAMETER_FORMAT_DATE = "format_date_attributes";
 
+	/** Indicates if the examples should be formatted in parallel. */
+	public static final String PARAMETER_PARALLELIZE_WRITING = "parallelize_writing";
+
 	public CSVExampleSetWriter(OperatorDescription description) {
 		super(description);
 	}
 
 	public static void writeCSV(ExampleSet exampleSet, PrintWriter out, String colSeparator, boolean quoteNomValues, boolean writeAttribNames, boolean formatDate) {
-		String columnSeparator = colSeparator;
-		boolean quoteNominalValues = quoteNomValues;
-
-		// write column names
 		if (writeAttribNames) {
-			Iterator<Attribute> a = exampleSet.getAttributes().allAttributes();
-			boolean first = true;
-			while (a.hasNext()) {
-				if (!first)
-					out.print(columnSeparator);
-				Attribute attribute = a.next();
-				String name = attribute.getName();
-				if (quoteNominalValues) {
-					name = name.replaceAll("\"", "'");
-					name = "\"" + name + "\"";
+			out.println(getHeader(exampleSet, colSeparator, quoteNomValues));
+		}
+		Attribute[] attributes = getAttributes(exampleSet);
+		DateFormat dateFormat = DateFormat.getInstance();
+		StringBuilder line = new StringBuilder();
+		for (Example example : exampleSet) {
+			line.setLength(0);
+			formatExample(example, attributes, colSeparator, quoteNomValues, formatDate ? dateFormat : null, line);
+			out.println(line);
+		}
+	}
+
+	/**
+	 * Writes the example set like {@link #writeCSV(ExampleSet, PrintWriter, String, boolean, boolean, boolean)}
+	 * into the given stream, which is closed afterwards. Blocks of examples are formatted by the given number
+	 * of threads.
+	 */
+	public static void writeCSV(ExampleSet exampleSet, OutputStream out, Charset encoding, final String colSeparator, final boolean quoteNomValues, boolean writeAttribNames, final boolean formatDate, int numberOfThreads) throws IOException {
+		final Attribute[] attributes = getAttributes(exampleSet);
+		ParallelBlockWriter<Example> writer = new ParallelBlockWriter<Example>(out, encoding, false, numberOfThreads) {
+
+			@Override
+			protected void formatBlock(List<Example> examples, StringBuilder result) {
+				DateFormat dateFormat = formatDate ? DateFormat.getInstance() : null;
+				for (Example example : examples) {
+					formatExample(example, attributes, colSeparator, quoteNomValues, dateFormat, result);
+					result.append(getLineSeparator());
 				}
-				out.print(name);
-				first = false;
 			}
-			out.println();
+		};
+		try {
+			if (writeAttribNames) {
+				writer.write(getHeader(exampleSet, colSeparator, quoteNomValues) + writer.getLineSeparator());
+			}
+			writer.writeRows(exampleSet.iterator());
+		} finally {
+			writer.close();
 		}
+	}
 
-		// write data
-		for (Example example : exampleSet) {
-			Iterator<Attribute> a = exampleSet.getAttributes().allAttributes();
-			boolean first = true;
-			while (a.hasNext()) {
-				Attribute attribute = a.next();
-				if (!first)
-					out.print(columnSeparator);
-				if (!Double.isNaN(example.getValue(attribute))) {
-					if (attribute.isNominal()) {
-						String stringValue = example.getValueAsString(attribute);
-						if (quoteNominalValues) {
-							stringValue = stringValue.replaceAll("\"", "'");
-							stringValue = "\"" + stringValue + "\"";
-						}
-						out.print(stringValue);
-					} else {
-						Double value = example.getValue(attribute);
-						if (Ontology.ATTRIBUTE_VALUE_TYPE.isA(attribute.getValueType(), Ontology.DATE_TIME)) {
-							if (formatDate) {
-								Date date = new Date(value.longValue());
-								String s = DateFormat.getInstance().format(date);
-								out.print(s);
-							} else {
-								out.print(value);
-							}
-						} else {
-							out.print(value);
-						}
+	private static Attribute[] getAttributes(ExampleSet exampleSet) {
+		List<Attribute> attributes = new ArrayList<Attribute>(exampleSet.getAttributes().allSize());
+		Iterator<Attribute> a = exampleSet.getAttributes().allAttributes();
+		while (a.hasNext()) {
+			attributes.add(a.next());
+		}
+		return attributes.toArray(new Attribute[attributes.size()]);
+	}
+
+	private static String getHeader(ExampleSet exampleSet, String columnSeparator, boolean quoteNominalValues) {
+		StringBuilder header = new StringBuilder();
+		Iterator<Attribute> a = exampleSet.getAttributes().allAttributes();
+		boolean first = true;
+		while (a.hasNext()) {
+			if (!first)
+				header.append(columnSeparator);
+			Attribute attribute = a.next();
+			String name = attribute.getName();
+			if (quoteNominalValues) {
+				name = "\"" + name.replace('"', '\'') + "\"";
+			}
+			header.append(name);
+			first = false;
+		}
+		return header.toString();
+	}
 
+	/**
+	 * Appends the values of the example to the line. Missing values are left empty, dates are
+	 * formatted if a date format is given and written as milliseconds otherwise.
+	 */
+	private static void formatExample(Example example, Attribute[] attributes, String columnSeparator, boolean quoteNominalValues, DateFormat dateFormat, StringBuilder line) {
+		for (int i = 0; i < attributes.length; i++) {
+			Attribute attribute = attributes[i];
+			if (i > 0)
+				line.append(columnSeparator);
+			double value = example.getValue(attribute);
+			if (!Double.isNaN(value)) {
+				if (attribute.isNominal()) {
+					String stringValue = example.getValueAsString(attribute);
+					if (quoteNominalValues) {
+						line.append('"').append(stringValue.replace('"', '\'')).append('"');
+					} else {
+						line.append(stringValue);
 					}
+				} else if (dateFormat != null && Ontology.ATTRIBUTE_VALUE_TYPE.isA(attribute.getValueType(), Ontology.DATE_TIME)) {
+					line.append(dateFormat.format(new Date((long) value)));
+				} else {
+					line.append(value);
 				}
-				first = false;
 			}
-			out.println();
 		}
 	}
 
@@ -152,17 +196,12 @@ public class CSVExampleSetWriter extends AbstractStreamWriter {
 		boolean quoteNominalValues = getParameterAsBoolean(PARAMETER_QUOTE_NOMINAL_VALUES);
 		boolean writeAttribNames = getParameterAsBoolean(PARAMETER_WRITE_ATTRIBUTE_NAMES);
 		boolean formatDate = getParameterAsBoolean(PARAMETER_FORMAT_DATE);
-		PrintWriter out = null;
+		int numberOfThreads = getParameterAsBoolean(PARAMETER_PARALLELIZE_WRITING) ? ConcurrencyTools.getNumberOfThreads() : 1;
 		try {
-			out = new PrintWriter(new OutputStreamWriter(outputStream, Encoding.getEncoding(this)));
-			writeCSV(exampleSet, out, columnSeparator, quoteNominalValues, writeAttribNames, formatDate);
-			out.flush();
-		} finally {
-			if (out != null) {
-				out.close();
-			}
+			writeCSV(exampleSet, outputStream, Encoding.getEncoding(this), columnSeparator, quoteNominalValues, writeAttribNames, formatDate, numberOfThreads);
+		} catch (IOException e) {
+			throw new UserError(this, e, 322, getParameterAsString(PARAMETER_CSV_FILE), e.getMessage());
 		}
-
 	}
 
 	@Override
@@ -196,6 +235,7 @@ public class CSVExampleSetWriter extends AbstractStreamWriter {
 			}
 		}, true, false));
 		types.add(type);
+		types.add(new ParameterTypeBoolean(PARAMETER_PARALLELIZE_WRITING, "If checked, blocks of examples are formatted by several threads.", false, true));
 		types.addAll(super.getParameterTypes());
 		return types;
 	}
@@ -25,6 +25,7 @@ package com.rapidminer.operator.io;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.sql.Clob;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -33,15 +34,18 @@ import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.rapidminer.example.Attribute;
 import com.rapidminer.example.ExampleSet;
+import com.rapidminer.example.table.NominalMapping;
 import com.rapidminer.example.table.AttributeFactory;
 import com.rapidminer.example.table.DataRow;
 import com.rapidminer.example.table.DataRowFactory;
@@ -55,6 +59,9 @@ import com.rapidminer.operator.ports.metadata.ExampleSetMetaData;
 import com.rapidminer.operator.ports.metadata.MetaData;
 import com.rapidminer.parameter.ParameterType;
 import com.rapidminer.parameter.ParameterTypeCategory;
+import com.rapidminer.parameter.ParameterTypeInt;
+import com.rapidminer.parameter.ParameterTypeString;
+import com.rapidminer.tools.ConcurrencyTools;
 import com.rapidminer.tools.I18N;
 import com.rapidminer.tools.LogService;
 import com.rapidminer.tools.Ontology;
@@ -65,6 +72,7 @@ import com.rapidminer.tools.jdbc.DatabaseHandler;
 import com.rapidminer.tools.jdbc.StatementCreator;
 import com.rapidminer.tools.jdbc.TableName;
 import com.rapidminer.tools.jdbc.connection.ConnectionEntry;
+import com.rapidminer.tools.jdbc.connection.ConnectionPool;
 import com.rapidminer.tools.jdbc.connection.ConnectionProvider;
 
 /**
@@ -76,6 +84,10 @@ import com.rapidminer.tools.jdbc.connection.ConnectionProvider;
  * fail on some systems but which enables us to retrieve the structure of the table without performing the entire query
  * itself.
  * 
+ * The number of rows transferred per round trip can be set by the parameter {@value #PARAMETER_FETCH_SIZE}. If a
+ * numerical {@value #PARAMETER_PARTITION_COLUMN} is given, the query is split into {@value #PARAMETER_NUMBER_OF_PARTITIONS}
+ * ranges of this column which are read in parallel over separate connections. The rows are then ordered by partition.
+ * 
  * @author Simon Fischer
  * 
  */
@@ -84,6 +96,25 @@ public class DatabaseDataReader extends AbstractExampleSource implements Connect
 	/** System property to decide whether meta data should be fetched from DB for database queries. */
 	public static final String PROPERTY_EVALUATE_MD_FOR_SQL_QUERIES = "rapidminer.gui.evaluate_meta_data_for_sql_queries";
 
+	public static final String PARAMETER_FETCH_SIZE = "fetch_size";
+
+	public static final String PARAMETER_PARTITION_COLUMN = "partition_column";
+
+	public static final String PARAMETER_NUMBER_OF_PARTITIONS = "number_of_partitions";
+
+	/** Alias of the user query if it is wrapped into a partitioning query. */
+	private static final String PARTITION_SOURCE_ALIAS = "rm_partition_source";
+
+	private static final int COLUMN_UNKNOWN = 0;
+
+	private static final int COLUMN_DATE_TIME = 1;
+
+	private static final int COLUMN_NUMERICAL = 2;
+
+	private static final int COLUMN_NOMINAL = 3;
+
+	private static final int COLUMN_CLOB = 4;
+
 	public DatabaseDataReader(OperatorDescription description) {
 		super(description);
 	}
@@ -98,7 +129,7 @@ public class DatabaseDataReader extends AbstractExampleSource implements Connect
 		} finally {
 			if (databaseHandler != null && databaseHandler.getConnection() != null) {
 				try {
-					databaseHandler.getConnection().close();
+					databaseHandler.disconnect();
 				} catch (SQLException e) {
 					getLogger().log(Level.WARNING, "Error closing database connection: " + e, e);
 				}
@@ -113,14 +144,29 @@ public class DatabaseDataReader extends AbstractExampleSource implements Connect
 			if (query == null) {
 				throw new UserError(this, 202, new Object[] { "query", "query_file", "table_name" });
 			}
-			return databaseHandler.executeStatement(query, true, this, getLogger());
+			return executeQuery(databaseHandler, query, DatabaseHandler.getStatementParameters(this), getParameterAsInt(PARAMETER_FETCH_SIZE), getLogger());
 		} catch (SQLException sqle) {
 			throw new UserError(this, sqle, 304, sqle.getMessage());
 		}
 	}
 
+	/**
+	 * Executes the query using the given fetch size. The statement parameters and the fetch size are passed
+	 * explicitly since this method is also called by the partition tasks, which must not access the parameters.
+	 */
+	private ResultSet executeQuery(DatabaseHandler handler, String query, String[] statementParameters, int fetchSize, Logger logger) throws SQLException, OperatorException {
+		if (fetchSize > 0) {
+			// some drivers only use server side cursors outside of auto commit mode
+			handler.getConnection().setAutoCommit(false);
+		}
+		return handler.executeStatement(query, true, statementParameters, this, logger, fetchSize);
+	}
+
 	@Override
 	public ExampleSet createExampleSet() throws OperatorException {
+		if (isParameterSet(PARAMETER_PARTITION_COLUMN) && getParameterAsInt(PARAMETER_NUMBER_OF_PARTITIONS) > 1) {
+			return createPartitionedExampleTable().createExampleSet();
+		}
 		ResultSet resultSet = getResultSet();
 		MemoryExampleTable table;
 		try {
@@ -138,6 +184,151 @@ public class DatabaseDataReader extends AbstractExampleSource implements Connect
 		return table.createExampleSet();
 	}
 
+	/**
+	 * Splits the query into key ranges of the partition column and reads each range over its own connection.
+	 * The range boundaries are computed from the minimum and maximum of the partition column. Rows with missing
+	 * keys are read by the first partition. The main connection is closed by {@link #read()}, the connections of
+	 * the other partitions are opened and closed by their tasks. The number of threads is limited such that the
+	 * connection pool is not exhausted. All parameters are resolved before the tasks are started, and each task
+	 * buffers the rows of its partition until they are added to the table in partition order.
+	 */
+	private MemoryExampleTable createPartitionedExampleTable() throws OperatorException {
+		final List<ResultSet> resultSets = new ArrayList<ResultSet>();
+		try {
+			databaseHandler = DatabaseHandler.getConnectedDatabaseHandler(this);
+			StatementCreator statementCreator = databaseHandler.getStatementCreator();
+			String query = getQuery(statementCreator);
+			if (query == null) {
+				throw new UserError(this, 202, new Object[] { "query", "query_file", "table_name" });
+			}
+			String column = statementCreator.makeIdentifier(getParameterAsString(PARAMETER_PARTITION_COLUMN));
+			String source = "(" + query + ") " + PARTITION_SOURCE_ALIAS;
+
+			// determine key range
+			double min = Double.NaN;
+			double max = Double.NaN;
+			ResultSet bounds = databaseHandler.executeStatement("SELECT MIN(" + column + "), MAX(" + column + ") FROM " + source, true, this, getLogger());
+			try {
+				if (bounds.next()) {
+					min = bounds.getDouble(1);
+					if (bounds.wasNull()) {
+						min = Double.NaN;
+					}
+					max = bounds.getDouble(2);
+					if (bounds.wasNull()) {
+						max = Double.NaN;
+					}
+				}
+			} finally {
+				bounds.close();
+			}
+
+			List<String> partitionQueries = new ArrayList<String>();
+			int numberOfPartitions = getParameterAsInt(PARAMETER_NUMBER_OF_PARTITIONS);
+			// the main connection stays open while the partitions are read
+			int additionalConnections = ConnectionPool.getMaximumSize() - 1;
+			if (Double.isNaN(min) || Double.isNaN(max) || min >= max || additionalConnections < 1) {
+				partitionQueries.add(query);
+			} else {
+				// integral keys get integral boundaries, some databases cast decimal literals to the column type
+				boolean integral = min == Math.rint(min) && max == Math.rint(max);
+				for (int i = 0; i < numberOfPartitions; i++) {
+					String lower = formatBound(getBound(min, max, i, numberOfPartitions, integral));
+					String upper = formatBound(getBound(min, max, i + 1, numberOfPartitions, integral));
+					String condition;
+					if (i == 0) {
+						condition = column + " < " + upper + " OR " + column + " IS NULL";
+					} else if (i == numberOfPartitions - 1) {
+						condition = column + " >= " + lower;
+					} else {
+						condition = column + " >= " + lower + " AND " + column + " < " + upper;
+					}
+					partitionQueries.add("SELECT * FROM " + source + " WHERE " + condition);
+				}
+			}
+
+			// connect in the calling thread, the operator parameters must not be accessed concurrently
+			final DatabaseHandler.Connector connector = DatabaseHandler.getConnector(this);
+			final String[] statementParameters = DatabaseHandler.getStatementParameters(this);
+			final int fetchSize = getParameterAsInt(PARAMETER_FETCH_SIZE);
+			final Logger logger = getLogger();
+
+			// the first partition uses the main connection, the others connect in their tasks
+			ResultSet firstResultSet = executeQuery(databaseHandler, partitionQueries.get(0), statementParameters, fetchSize, logger);
+			resultSets.add(firstResultSet);
+			List<Attribute> attributes = getAttributes(firstResultSet);
+			// creating the table assigns the column indices used by the data rows
+			MemoryExampleTable table = new MemoryExampleTable(attributes);
+			final Attribute[] attributeArray = attributes.toArray(new Attribute[attributes.size()]);
+			final DataRowFactory factory = new DataRowFactory(getParameterAsInt(ExampleSource.PARAMETER_DATAMANAGEMENT), '.');
+			final int[] columnKinds = getColumnKinds(firstResultSet.getMetaData(), attributeArray, logger);
+
+			List<Callable<List<DataRow>>> tasks = new ArrayList<Callable<List<DataRow>>>();
+			for (int i = 0; i < partitionQueries.size(); i++) {
+				final int partition = i;
+				final String partitionQuery = partitionQueries.get(i);
+				tasks.add(new Callable<List<DataRow>>() {
+
+					@Override
+					public List<DataRow> call() throws Exception {
+						DatabaseHandler handler = null;
+						ResultSet resultSet = null;
+						try {
+							if (partition == 0) {
+								resultSet = resultSets.get(0);
+							} else {
+								handler = connector.connect();
+								resultSet = executeQuery(handler, partitionQuery, statementParameters, fetchSize, logger);
+							}
+							List<DataRow> rows = new ArrayList<DataRow>();
+							while (resultSet.next()) {
+								rows.add(readDataRow(resultSet, attributeArray, columnKinds, factory, true));
+							}
+							return rows;
+						} finally {
+							try {
+								if (resultSet != null) {
+									resultSet.close();
+								}
+							} finally {
+								if (handler != null) {
+									handler.disconnect();
+								}
+							}
+						}
+					}
+				});
+			}
+			logger.fine("Reading " + tasks.size() + " partitions of '" + getParameterAsString(PARAMETER_PARTITION_COLUMN) + "' in parallel.");
+			// each thread holds at most one connection in addition to the main one
+			int numberOfThreads = Math.min(ConcurrencyTools.getNumberOfThreads(tasks.size()), Math.max(1, additionalConnections));
+			List<List<DataRow>> partitions = ConcurrencyTools.call(tasks, numberOfThreads);
+
+			for (List<DataRow> rows : partitions) {
+				for (DataRow dataRow : rows) {
+					table.addDataRow(dataRow);
+				}
+			}
+			return table;
+		} catch (SQLException e) {
+			throw new UserError(this, e, 304, e.getMessage());
+		}
+	}
+
+	private static double getBound(double min, double max, int partition, int numberOfPartitions, boolean integral) {
+		double bound = min + (max - min) * partition / numberOfPartitions;
+		return integral ? Math.floor(bound) : bound;
+	}
+
+	/** Formats a partition boundary as SQL literal. */
+	private static String formatBound(double value) {
+		if (value == Math.rint(value) && Math.abs(value) < Long.MAX_VALUE) {
+			return Long.toString((long) value);
+		} else {
+			return BigDecimal.valueOf(value).toPlainString();
+		}
+	}
+
 	@Override
 	public MetaData getGeneratedMetaData() throws OperatorException {
 		ExampleSetMetaData metaData = new ExampleSetMetaData();
@@ -156,7 +347,7 @@ public class DatabaseDataReader extends AbstractExampleSource implements Connect
 				default:
 					if (!"false".equals(ParameterService.getParameterValue(PROPERTY_EVALUATE_MD_FOR_SQL_QUERIES))) {
 						String query = getQuery(databaseHandler.getStatementCreator());
-						PreparedStatement prepared = databaseHandler.getConnection().prepareStatement(query);
+						PreparedStatement prepared = databaseHandler.createPreparedStatement(query, false);
 						// query = "SELECT * FROM (" + query + ") dummy WHERE 1=0";
 						// ResultSet resultSet = databaseHandler.executeStatement(query, true, this, getLogger());
 						List<Attribute> attributes = getAttributes(prepared.getMetaData());
@@ -188,77 +379,112 @@ public class DatabaseDataReader extends AbstractExampleSource implements Connect
 	}
 
 	public static MemoryExampleTable createExampleTable(ResultSet resultSet, List<Attribute> attributes, int dataManagementType, Logger logger) throws SQLException, OperatorException {
-		ResultSetMetaData metaData = resultSet.getMetaData();
 		Attribute[] attributeArray = attributes.toArray(new Attribute[attributes.size()]);
 		MemoryExampleTable table = new MemoryExampleTable(attributes);
 		DataRowFactory factory = new DataRowFactory(dataManagementType, '.');
+		int[] columnKinds = getColumnKinds(resultSet.getMetaData(), attributeArray, logger);
 		while (resultSet.next()) {
-			DataRow dataRow = factory.create(attributeArray.length);
-			// double[] data = new double[attributeArray.length];
-			for (int i = 1; i <= metaData.getColumnCount(); i++) {
-				Attribute attribute = attributeArray[i - 1];
-				int valueType = attribute.getValueType();
-				double value;
-				if (Ontology.ATTRIBUTE_VALUE_TYPE.isA(valueType, Ontology.DATE_TIME)) {
+			table.addDataRow(readDataRow(resultSet, attributeArray, columnKinds, factory, false));
+		}
+		return table;
+	}
+
+	/** Determines the kinds of the columns once before reading instead of for every cell. */
+	private static int[] getColumnKinds(ResultSetMetaData metaData, Attribute[] attributeArray, Logger logger) throws SQLException {
+		int numberOfColumns = metaData.getColumnCount();
+		int[] columnKinds = new int[numberOfColumns];
+		for (int i = 0; i < numberOfColumns; i++) {
+			int valueType = attributeArray[i].getValueType();
+			if (Ontology.ATTRIBUTE_VALUE_TYPE.isA(valueType, Ontology.DATE_TIME)) {
+				columnKinds[i] = COLUMN_DATE_TIME;
+			} else if (Ontology.ATTRIBUTE_VALUE_TYPE.isA(valueType, Ontology.NUMERICAL)) {
+				columnKinds[i] = COLUMN_NUMERICAL;
+			} else if (Ontology.ATTRIBUTE_VALUE_TYPE.isA(valueType, Ontology.NOMINAL)) {
+				columnKinds[i] = metaData.getColumnType(i + 1) == Types.CLOB ? COLUMN_CLOB : COLUMN_NOMINAL;
+			} else {
+				if (logger != null) {
+					logger.warning("Unknown column type: " + attributeArray[i]);
+				}
+				columnKinds[i] = COLUMN_UNKNOWN;
+			}
+		}
+		return columnKinds;
+	}
+
+	/**
+	 * Reads the current row of the result set. If synchronizeMappings is true, access to the nominal mappings
+	 * of the attributes is synchronized so that several result sets can be read into the same attributes
+	 * concurrently.
+	 */
+	private static DataRow readDataRow(ResultSet resultSet, Attribute[] attributeArray, int[] columnKinds, DataRowFactory factory, boolean synchronizeMappings) throws SQLException, OperatorException {
+		DataRow dataRow = factory.create(attributeArray.length);
+		for (int i = 1; i <= columnKinds.length; i++) {
+			Attribute attribute = attributeArray[i - 1];
+			double value;
+			switch (columnKinds[i - 1]) {
+				case COLUMN_DATE_TIME:
 					Timestamp timestamp = resultSet.getTimestamp(i);
 					if (resultSet.wasNull()) {
 						value = Double.NaN;
 					} else {
 						value = timestamp.getTime();
 					}
-				} else if (Ontology.ATTRIBUTE_VALUE_TYPE.isA(valueType, Ontology.NUMERICAL)) {
+					break;
+				case COLUMN_NUMERICAL:
 					value = resultSet.getDouble(i);
 					if (resultSet.wasNull()) {
 						value = Double.NaN;
 					}
-				} else {
-					if (Ontology.ATTRIBUTE_VALUE_TYPE.isA(valueType, Ontology.NOMINAL)) {
-						String valueString;
-						if (metaData.getColumnType(i) == Types.CLOB) {
-							Clob clob = resultSet.getClob(i);
-							if (clob != null) {
-								BufferedReader in = null;
-								try {
-									in = new BufferedReader(clob.getCharacterStream());
-									String line = null;
-									try {
-										StringBuffer buffer = new StringBuffer();
-										while ((line = in.readLine()) != null) {
-											buffer.append(line + "\n");
-										}
-										valueString = buffer.toString();
-									} catch (IOException e) {
-										throw new OperatorException("Database error occurred: " + e, e);
-									}
-								} finally {
-									try {
-										in.close();
-									} catch (IOException e) {}
-								}
-							} else {
-								valueString = null;
-							}
-						} else {
-							valueString = resultSet.getString(i);
-						}
-						if (resultSet.wasNull() || valueString == null) {
-							value = Double.NaN;
-						} else {
-							value = attribute.getMapping().mapString(valueString);
-						}
+					break;
+				case COLUMN_NOMINAL:
+				case COLUMN_CLOB:
+					String valueString;
+					if (columnKinds[i - 1] == COLUMN_CLOB) {
+						valueString = readClob(resultSet.getClob(i));
 					} else {
-						if (logger != null) {
-							logger.warning("Unknown column type: " + attribute);
-						}
+						valueString = resultSet.getString(i);
+					}
+					if (resultSet.wasNull() || valueString == null) {
 						value = Double.NaN;
+					} else if (synchronizeMappings) {
+						NominalMapping mapping = attribute.getMapping();
+						synchronized (mapping) {
+							value = mapping.mapString(valueString);
+						}
+					} else {
+						value = attribute.getMapping().mapString(valueString);
 					}
+					break;
+				default:
+					value = Double.NaN;
+			}
+			dataRow.set(attribute, value);
+		}
+		return dataRow;
+	}
+
+	private static String readClob(Clob clob) throws SQLException, OperatorException {
+		if (clob == null) {
+			return null;
+		}
+		BufferedReader in = null;
+		try {
+			in = new BufferedReader(clob.getCharacterStream());
+			String line = null;
+			try {
+				StringBuffer buffer = new StringBuffer();
+				while ((line = in.readLine()) != null) {
+					buffer.append(line + "\n");
 				}
-				dataRow.set(attribute, value);
-				// data[i-1] = value;
+				return buffer.toString();
+			} catch (IOException e) {
+				throw new OperatorException("Database error occurred: " + e, e);
 			}
-			table.addDataRow(dataRow); // new DoubleArrayDataRow(data));
+		} finally {
+			try {
+				in.close();
+			} catch (IOException e) {}
 		}
-		return table;
 	}
 
 	public static List<Attribute> getAttributes(ResultSet resultSet) throws SQLException {
@@ -375,6 +601,9 @@ public class DatabaseDataReader extends AbstractExampleSource implements Connect
 		list.addAll(DatabaseHandler.getStatementPreparationParamterTypes(this));
 
 		list.add(new ParameterTypeCategory(ExampleSource.PARAMETER_DATAMANAGEMENT, "Determines, how the data is represented internally.", DataRowFactory.TYPE_NAMES, DataRowFactory.TYPE_DOUBLE_ARRAY, false));
+		list.add(new ParameterTypeInt(PARAMETER_FETCH_SIZE, "The number of rows fetched from the database in one round trip. 0 uses the default of the JDBC driver.", 0, Integer.MAX_VALUE, 0, true));
+		list.add(new ParameterTypeString(PARAMETER_PARTITION_COLUMN, "If set, the query is split into ranges of this numerical column which are read in parallel over separate connections.", true, true));
+		list.add(new ParameterTypeInt(PARAMETER_NUMBER_OF_PARTITIONS, "The number of ranges of the partition column which are read in parallel.", 1, Integer.MAX_VALUE, 4, true));
 		return list;
 	}
 
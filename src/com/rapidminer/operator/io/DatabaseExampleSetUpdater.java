@@ -69,16 +69,18 @@ public class DatabaseExampleSetUpdater extends AbstractExampleSetWriter implemen
 		try {
 			Set<Attribute> idAttributeSet = attributeSelector.getAttributeSubset(exampleSet, true);
 			DatabaseHandler databaseHandler = DatabaseHandler.getConnectedDatabaseHandler(this);
-			TableName selectedTableName = DatabaseHandler.getSelectedTableName(this);
-			for (Attribute idAtt : idAttributeSet) {
-				// id attributes exist?
-				if (idAtt == null) {
-					throw new UserError(this, 129);
+			try {
+				TableName selectedTableName = DatabaseHandler.getSelectedTableName(this);
+				for (Attribute idAtt : idAttributeSet) {
+					// id attributes exist?
+					if (idAtt == null) {
+						throw new UserError(this, 129);
+					}
 				}
+				databaseHandler.updateTable(exampleSet, selectedTableName, idAttributeSet, getLogger());
+			} finally {
+				databaseHandler.disconnect();
 			}
-			databaseHandler.updateTable(exampleSet, selectedTableName, idAttributeSet, getLogger());
-			
-			databaseHandler.disconnect();
 		} catch (SQLException e) {
 			throw new UserError(this, e, 304, e.getMessage());
 		}
@@ -92,6 +92,14 @@ public class DatabaseExampleSetWriter extends AbstractExampleSetWriter implement
 
 	public static final String PARAMETER_BATCH_SIZE = "batch_size";
 
+	/**
+	 * The parameter name for &quot;Indicates if a database specific bulk insert should be used.&quot;
+	 */
+	public static final String PARAMETER_USE_BULK_INSERT = "use_bulk_insert";
+
+	/** The parameter name for &quot;The number of connections used in parallel for bulk inserts.&quot; */
+	public static final String PARAMETER_NUMBER_OF_CONNECTIONS = "number_of_connections";
+
 	public DatabaseExampleSetWriter(OperatorDescription description) {
 		super(description);
 	}
@@ -111,6 +119,8 @@ public class DatabaseExampleSetWriter extends AbstractExampleSetWriter implement
 						getParameterAsBoolean(PARAMETER_GET_GENERATED_PRIMARY_KEYS),
 						getParameterAsString(PARAMETER_GENERATED_KEYS_ATTRIBUTE_NAME),
 						getParameterAsInt(PARAMETER_BATCH_SIZE),
+						getParameterAsBoolean(PARAMETER_USE_BULK_INSERT),
+						getParameterAsInt(PARAMETER_NUMBER_OF_CONNECTIONS),
 						this);
 			} finally  {
 				databaseHandler.disconnect();
@@ -150,6 +160,19 @@ public class DatabaseExampleSetWriter extends AbstractExampleSetWriter implement
 				1, Integer.MAX_VALUE, 1, true);
 		type.setExpert(true);
 		types.add(type);
+
+		type = new ParameterTypeBoolean(PARAMETER_USE_BULK_INSERT,
+				"If checked, a database specific bulk insert is used if available (COPY for PostgreSQL, multi-row INSERT statements for MySQL, Microsoft SQL Server and H2). The batch size then specifies the number of examples written by one statement. Cannot be combined with generated primary keys.",
+				false);
+		type.setExpert(true);
+		types.add(type);
+
+		type = new ParameterTypeInt(PARAMETER_NUMBER_OF_CONNECTIONS,
+				"The number of connections writing disjoint ranges of examples in parallel during a bulk insert. Each connection commits its own range, so a failure may leave a part of the examples in the table.",
+				1, Integer.MAX_VALUE, 1);
+		type.setExpert(true);
+		type.registerDependencyCondition(new BooleanParameterCondition(this, PARAMETER_USE_BULK_INSERT, true, true));
+		types.add(type);
 		return types;
 	}
 
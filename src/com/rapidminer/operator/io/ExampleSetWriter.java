@@ -38,6 +38,7 @@ import com.rapidminer.parameter.ParameterType;
 import com.rapidminer.parameter.ParameterTypeBoolean;
 import com.rapidminer.parameter.ParameterTypeCategory;
 import com.rapidminer.parameter.ParameterTypeFile;
+import com.rapidminer.tools.ConcurrencyTools;
 import com.rapidminer.tools.io.Encoding;
 
 
@@ -88,6 +89,9 @@ public class ExampleSetWriter extends AppendingExampleSetWriter {
 	/** The parameter name for &quot;Indicates if the data file content should be zipped.&quot; */
 	public static final String PARAMETER_ZIPPED = "zipped";
 
+	/** Indicates if the data file should be formatted in parallel. */
+	public static final String PARAMETER_PARALLELIZE_WRITING = "parallelize_writing";
+
 	private static final String[] FORMAT_NAMES = new String[SparseFormatDataRowReader.FORMAT_NAMES.length + 1];
 
 	private static final int DENSE_FORMAT = 0;
@@ -114,18 +118,19 @@ public class ExampleSetWriter extends AppendingExampleSetWriter {
 
 		boolean append = shouldAppend(dataFile);
 		Charset encoding = Encoding.getEncoding(this);
+		int numberOfThreads = getParameterAsBoolean(PARAMETER_PARALLELIZE_WRITING) ? ConcurrencyTools.getNumberOfThreads() : 1;
 
 		try {
 			// write example set
 			int format = getParameterAsInt(PARAMETER_FORMAT);
 			getLogger().info("Writing example set in format '" + FORMAT_NAMES[format] + "'.");
 			if (format == DENSE_FORMAT) { // dense
-				eSet.writeDataFile(dataFile, NumericalAttribute.UNLIMITED_NUMBER_OF_DIGITS, true, zipped, append, encoding);
+				eSet.writeDataFile(dataFile, NumericalAttribute.UNLIMITED_NUMBER_OF_DIGITS, true, zipped, append, encoding, numberOfThreads);
 				if (attFile != null) {
 					eSet.writeAttributeFile(attFile, dataFile, encoding);
 				}
 			} else { // sparse
-				eSet.writeSparseDataFile(dataFile, format - 1, NumericalAttribute.UNLIMITED_NUMBER_OF_DIGITS, true, zipped, append, encoding);
+				eSet.writeSparseDataFile(dataFile, format - 1, NumericalAttribute.UNLIMITED_NUMBER_OF_DIGITS, true, zipped, append, encoding, numberOfThreads);
 				if (attFile != null)
 					eSet.writeSparseAttributeFile(attFile, dataFile, format - 1, encoding);
 			}
@@ -148,6 +153,8 @@ public class ExampleSetWriter extends AppendingExampleSetWriter {
 		types.add(new ParameterTypeFile(PARAMETER_ATTRIBUTE_DESCRIPTION_FILE, "File to save the attribute descriptions to.", "aml", true));
 		types.add(new ParameterTypeCategory(PARAMETER_FORMAT, "Format to use for output.", FORMAT_NAMES, 0));
 		types.add(new ParameterTypeBoolean(PARAMETER_ZIPPED, "Indicates if the data file content should be zipped.", false));		
+		types.add(new ParameterTypeBoolean(PARAMETER_PARALLELIZE_WRITING,
+				"If checked, blocks of examples are formatted by several threads.", false));
 		types.addAll(super.getParameterTypes());
 		return types;
 	}
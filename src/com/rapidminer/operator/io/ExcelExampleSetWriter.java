@@ -25,12 +25,15 @@ package com.rapidminer.operator.io;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.nio.charset.Charset;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
+import java.util.logging.Level;
 
 import jxl.Workbook;
 import jxl.WorkbookSettings;
@@ -52,6 +55,9 @@ import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.util.WorkbookUtil;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.streaming.SheetDataWriter;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import com.rapidminer.example.Attribute;
@@ -61,12 +67,16 @@ import com.rapidminer.operator.OperatorDescription;
 import com.rapidminer.operator.OperatorException;
 import com.rapidminer.operator.UserError;
 import com.rapidminer.parameter.ParameterType;
+import com.rapidminer.parameter.ParameterTypeBoolean;
 import com.rapidminer.parameter.ParameterTypeCategory;
 import com.rapidminer.parameter.ParameterTypeDateFormat;
+import com.rapidminer.parameter.ParameterTypeInt;
 import com.rapidminer.parameter.ParameterTypeString;
+import com.rapidminer.parameter.conditions.BooleanParameterCondition;
 import com.rapidminer.parameter.conditions.EqualTypeCondition;
 import com.rapidminer.tools.DateParser;
 import com.rapidminer.tools.I18N;
+import com.rapidminer.tools.LogService;
 import com.rapidminer.tools.Ontology;
 import com.rapidminer.tools.io.Encoding;
 
@@ -75,6 +85,10 @@ import com.rapidminer.tools.io.Encoding;
  * This operator creates Excel files readable by Excel 95, 97, 2000, XP, 2003 
  * and newer. Missing data values are indicated by empty cells.</p>
  *
+ * <p>XLSX files are written in streaming mode by default: only a window of the most recent rows
+ * is kept in memory, older rows are flushed to temporary files which are assembled when the
+ * workbook is written. The memory needed is therefore independent of the number of examples.</p>
+ *
  * @author Ingo Mierswa, Nils Woehler
  */
 public class ExcelExampleSetWriter extends AbstractStreamWriter {
@@ -94,6 +108,9 @@ public class ExcelExampleSetWriter extends AbstractStreamWriter {
 	public static final String PARAMETER_DATE_FORMAT = "date_format";
 	public static final String PARAMETER_NUMBER_FORMAT = "number_format";
 	public static final String PARAMETER_SHEET_NAME = "sheet_name";
+	public static final String PARAMETER_STREAM_ROWS = "stream_rows";
+	public static final String PARAMETER_ROW_WINDOW = "row_window";
+	public static final String PARAMETER_COMPRESS_TEMPORARY_FILES = "compress_temporary_files";
 
 	public static final String DEFAULT_DATE_FORMAT = "yyyy-MM-dd HH:mm:ss";
 	public static final String DEFAULT_NUMBER_FORMAT = "#.0";
@@ -204,6 +221,17 @@ public class ExcelExampleSetWriter extends AbstractStreamWriter {
 		xlsxTypes.add(new ParameterTypeDateFormat(PARAMETER_DATE_FORMAT, "The parse format of the date values. Default: for example \"yyyy-MM-dd HH:mm:ss\".", DEFAULT_DATE_FORMAT,
 				true));
 		xlsxTypes.add(new ParameterTypeString(PARAMETER_NUMBER_FORMAT, "Specifies the number format for date entries. Default: \"#.0\"", DEFAULT_NUMBER_FORMAT, true));
+		xlsxTypes.add(new ParameterTypeBoolean(PARAMETER_STREAM_ROWS,
+				"If checked, only a window of rows is kept in memory while writing and all other rows are flushed to temporary files.", true, true));
+		List<ParameterType> streamingTypes = new LinkedList<ParameterType>();
+		streamingTypes.add(new ParameterTypeInt(PARAMETER_ROW_WINDOW, "The number of rows which are kept in memory before they are flushed to a temporary file.", 1,
+				Integer.MAX_VALUE, SXSSFWorkbook.DEFAULT_WINDOW_SIZE, true));
+		streamingTypes.add(new ParameterTypeBoolean(PARAMETER_COMPRESS_TEMPORARY_FILES,
+				"If checked, the temporary files holding the flushed rows are compressed. This saves disk space at the cost of speed.", false, true));
+		for (ParameterType type : streamingTypes) {
+			type.registerDependencyCondition(new BooleanParameterCondition(this, PARAMETER_STREAM_ROWS, true, true));
+		}
+		xlsxTypes.addAll(streamingTypes);
 		for (ParameterType type : xlsxTypes) {
 			type.registerDependencyCondition(new EqualTypeCondition(this, PARAMETER_FILE_FORMAT, FILE_FORMAT_CATEGORIES, false, new int[] { FILE_FORMAT_XLSX_INDEX }));
 		}
@@ -231,13 +259,15 @@ public class ExcelExampleSetWriter extends AbstractStreamWriter {
 			String dateFormat = isParameterSet(PARAMETER_DATE_FORMAT) ? getParameterAsString(PARAMETER_DATE_FORMAT) : null;
 			String numberFormat = isParameterSet(PARAMETER_NUMBER_FORMAT) ? getParameterAsString(PARAMETER_NUMBER_FORMAT) : null;
 			String sheetName = getParameterAsString(PARAMETER_SHEET_NAME);
+			int rowWindow = getParameterAsBoolean(PARAMETER_STREAM_ROWS) ? getParameterAsInt(PARAMETER_ROW_WINDOW) : -1;
+			boolean compressTemporaryFiles = getParameterAsBoolean(PARAMETER_COMPRESS_TEMPORARY_FILES);
 
 			if (sheetName.length() > 31) {
 				throw new UserError(this, "excel_sheet_name_too_long", sheetName, sheetName.length());
 			}
 
 			try {
-				writeXLSX(exampleSet, sheetName, dateFormat, numberFormat, outputStream);
+				writeXLSX(exampleSet, sheetName, dateFormat, numberFormat, outputStream, rowWindow, compressTemporaryFiles);
 			} catch (Exception e) {
 				throw new UserError(this, 303, file.getName(), e.getMessage());
 			}
@@ -262,15 +292,34 @@ public class ExcelExampleSetWriter extends AbstractStreamWriter {
 	 * If you want to write it in XLS format use {@link #write(ExampleSet, Charset, OutputStream)}.
 	 */
 	public static void writeXLSX(ExampleSet exampleSet, String sheetName, String dateFormat, String numberFormat, OutputStream outputStream) throws WriteException, IOException {
+		writeXLSX(exampleSet, sheetName, dateFormat, numberFormat, outputStream, -1, false);
+	}
+
+	/**
+	 * Writes the example set into a excel file with XLSX format. If rowWindow is positive, the
+	 * workbook is streamed: only the last rowWindow rows are kept in memory, all others are
+	 * flushed to temporary files, which are optionally compressed and are deleted after writing.
+	 * Otherwise the complete workbook is built in memory before it is written.
+	 */
+	public static void writeXLSX(ExampleSet exampleSet, String sheetName, String dateFormat, String numberFormat, OutputStream outputStream, int rowWindow,
+			boolean compressTemporaryFiles) throws WriteException, IOException {
 		// .xlsx files can only store up to 16384 columns, so throw error in case of more
 		if (exampleSet.getAttributes().allSize() > 16384) {
 			throw new IllegalArgumentException(I18N.getMessage(I18N.getErrorBundle(), "export.excel.excel_xlsx_file_exceeds_column_limit"));
 		}
 					
+		Sheet sheet = null;
 		try {
-			XSSFWorkbook workbook = new XSSFWorkbook();
+			org.apache.poi.ss.usermodel.Workbook workbook;
+			if (rowWindow > 0) {
+				SXSSFWorkbook streamingWorkbook = new SXSSFWorkbook(rowWindow);
+				streamingWorkbook.setCompressTempFiles(compressTemporaryFiles);
+				workbook = streamingWorkbook;
+			} else {
+				workbook = new XSSFWorkbook();
+			}
 
-			Sheet sheet = workbook.createSheet(WorkbookUtil.createSafeSheetName(sheetName));
+			sheet = workbook.createSheet(WorkbookUtil.createSafeSheetName(sheetName));
 			dateFormat = dateFormat == null ? DEFAULT_DATE_FORMAT : dateFormat;
 
 			numberFormat = numberFormat == null ? "#.0" : numberFormat;
@@ -278,8 +327,38 @@ public class ExcelExampleSetWriter extends AbstractStreamWriter {
 			writeXLSXDataSheet(workbook, sheet, dateFormat, numberFormat, exampleSet);
 			workbook.write(outputStream);
 		} finally {
-			outputStream.flush();
-			outputStream.close();
+			try {
+				outputStream.flush();
+				outputStream.close();
+			} finally {
+				if (sheet instanceof SXSSFSheet) {
+					deleteTemporaryFile((SXSSFSheet) sheet);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Deletes the temporary file holding the flushed rows of the given sheet. POI 3.8 offers no
+	 * method for this and would only delete the file when the JVM exits, so the file is looked up
+	 * by reflection. If this fails, e.g. for other versions of POI, the file is left to POI.
+	 */
+	private static void deleteTemporaryFile(SXSSFSheet sheet) {
+		try {
+			Field writerField = SXSSFSheet.class.getDeclaredField("_writer");
+			writerField.setAccessible(true);
+			Object writer = writerField.get(sheet);
+			if (writer == null) {
+				return;
+			}
+			Method getTempFile = SheetDataWriter.class.getDeclaredMethod("getTempFile");
+			getTempFile.setAccessible(true);
+			File file = (File) getTempFile.invoke(writer);
+			if ((file != null) && file.exists() && !file.delete()) {
+				LogService.getRoot().log(Level.WARNING, "Cannot delete temporary file " + file + " of Excel sheet.");
+			}
+		} catch (Exception e) {
+			LogService.getRoot().log(Level.FINE, "Cannot determine temporary file of Excel sheet: " + e, e);
 		}
 	}
 
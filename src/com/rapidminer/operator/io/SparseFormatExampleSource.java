@@ -24,7 +24,9 @@ package com.rapidminer.operator.io;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.Reader;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -51,9 +53,11 @@ import com.rapidminer.parameter.ParameterTypeList;
 import com.rapidminer.parameter.ParameterTypeString;
 import com.rapidminer.parameter.ParameterTypeStringCategory;
 import com.rapidminer.parameter.conditions.BooleanParameterCondition;
+import com.rapidminer.tools.ConcurrencyTools;
 import com.rapidminer.tools.Ontology;
 import com.rapidminer.tools.Tools;
 import com.rapidminer.tools.att.AttributeSet;
+import com.rapidminer.tools.io.ByteTokenizer;
 import com.rapidminer.tools.io.Encoding;
 
 
@@ -85,6 +89,9 @@ import com.rapidminer.tools.io.Encoding;
  * A detailed introduction to the sparse file format is given in section
  * {@rapidminer.ref sec:sparse_format|First steps/File formats/Data files}.
  * 
+ * Large uncompressed data files can be parsed in parallel: the file is memory mapped, split
+ * into chunks at line boundaries and each chunk is parsed by a separate thread.
+ * 
  * @see SparseFormatDataRowReader
  * 
  * @author Ingo Mierswa, Simon Fischer
@@ -125,6 +132,9 @@ public class SparseFormatExampleSource extends AbstractExampleSource {
 	/**   The char that is used to surround nominal values. */
 	public static final String PARAMETER_QUOTES_CHARACTER = "quotes_character";
 
+	/** Indicates if the data file should be parsed in parallel. */
+	public static final String PARAMETER_PARALLELIZE_PARSING = "parallelize_parsing";
+
 	public SparseFormatExampleSource(OperatorDescription description) {
 		super(description);
 	}
@@ -185,10 +195,30 @@ public class SparseFormatExampleSource extends AbstractExampleSource {
 		}
 
 		// +++++++++++++ reader +++++++++++++++++++++++++++++++++
-		Reader inData = null;
-		Reader inLabels = null;
+		Charset encoding = Encoding.getEncoding(this);
+		DataRowFactory factory = new DataRowFactory(getParameterAsInt(PARAMETER_DATAMANAGEMENT), getParameterAsString(PARAMETER_DECIMAL_POINT_CHARACTER).charAt(0));
+		int sampleSize = getParameterAsInt(PARAMETER_SAMPLE_SIZE);
+		boolean useQuotes = getParameterAsBoolean(PARAMETER_USE_QUOTES);
+		char quotesCharacter = getParameterAsChar(PARAMETER_QUOTES_CHARACTER);
+		MemoryExampleTable table = new MemoryExampleTable(attributeSet.getAllAttributes());
+
+		String fileName = dataFile.getName();
+		if (getParameterAsBoolean(PARAMETER_PARALLELIZE_PARSING) && format != SparseFormatDataRowReader.FORMAT_SEPARATE_FILE && sampleSize == -1
+				&& ByteTokenizer.isAsciiCompatible(encoding) && !fileName.endsWith(".zip") && !fileName.endsWith(".gz") && dataFile.length() <= Integer.MAX_VALUE) {
+			ByteBuffer data;
+			try {
+				data = ByteTokenizer.map(dataFile);
+			} catch (IOException e) {
+				throw new UserError(this, e, 302, new Object[] { dataFile, e.getMessage() });
+			}
+			table.readExamples(new SparseFormatDataRowReader(factory, format, prefixMap, attributeSet, data, encoding, sampleSize, useQuotes, quotesCharacter, ConcurrencyTools.getNumberOfThreads()));
+			return table.createExampleSet(attributeSet);
+		}
+
+		InputStream inData = null;
+		InputStream inLabels = null;
 		try {
-			inData = Tools.getReader(dataFile, Encoding.getEncoding(this));
+			inData = Tools.getInputStream(dataFile);
 		} catch (IOException e) {
 			throw new UserError(this, e, 302, new Object[] { dataFile, e.getMessage() });
 		}
@@ -199,14 +229,13 @@ public class SparseFormatExampleSource extends AbstractExampleSource {
 				throw new UserError(this, 201, new Object[] { "format", SparseFormatDataRowReader.FORMAT_NAMES[SparseFormatDataRowReader.FORMAT_SEPARATE_FILE], "label_file" });
 			}
 			try {
-				inLabels = Tools.getReader(labelFile, Encoding.getEncoding(this));
+				inLabels = Tools.getInputStream(labelFile);
 			} catch (IOException e) {
 				throw new UserError(this, e, 302, new Object[] { labelFile, e.getMessage() });
 			}
 		}
 
-		MemoryExampleTable table = new MemoryExampleTable(attributeSet.getAllAttributes());
-		SparseFormatDataRowReader reader = new SparseFormatDataRowReader(new DataRowFactory(getParameterAsInt(PARAMETER_DATAMANAGEMENT), getParameterAsString(PARAMETER_DECIMAL_POINT_CHARACTER).charAt(0)), format, prefixMap, attributeSet, inData, inLabels, getParameterAsInt(PARAMETER_SAMPLE_SIZE), getParameterAsBoolean(PARAMETER_USE_QUOTES), getParameterAsChar(PARAMETER_QUOTES_CHARACTER));
+		SparseFormatDataRowReader reader = new SparseFormatDataRowReader(factory, format, prefixMap, attributeSet, inData, inLabels, encoding, sampleSize, useQuotes, quotesCharacter);
 		table.readExamples(reader);
 		ExampleSet exampleSet = table.createExampleSet(attributeSet);
 		return exampleSet;
@@ -236,6 +265,8 @@ public class SparseFormatExampleSource extends AbstractExampleSource {
 		type.registerDependencyCondition(new BooleanParameterCondition(this, PARAMETER_USE_QUOTES, false, true));
 		types.add(type);
 		
+		types.add(new ParameterTypeBoolean(PARAMETER_PARALLELIZE_PARSING,
+				"If checked, the data file is memory mapped and parsed in chunks by several threads. Not used for compressed files, separate label files or if a sample size is set.", false));
 		types.add(new ParameterTypeCategory(PARAMETER_DATAMANAGEMENT, "Determines, how the data is represented internally.", DataRowFactory.TYPE_NAMES, DataRowFactory.TYPE_DOUBLE_ARRAY));
 		types.add(new ParameterTypeString(PARAMETER_DECIMAL_POINT_CHARACTER, "Character that is used as decimal point.", "."));
 		types.add(new ParameterTypeList(PARAMETER_PREFIX_MAP, "Maps prefixes to names of special attributes.", 
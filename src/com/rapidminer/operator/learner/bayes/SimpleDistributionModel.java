@@ -29,6 +29,8 @@ import com.rapidminer.example.Attribute;
 import com.rapidminer.example.Attributes;
 import com.rapidminer.example.Example;
 import com.rapidminer.example.ExampleSet;
+import com.rapidminer.example.FastExample2SparseTransform;
+import com.rapidminer.operator.UserError;
 import com.rapidminer.tools.Tools;
 import com.rapidminer.tools.math.VectorMath;
 import com.rapidminer.tools.math.distribution.DiscreteDistribution;
@@ -272,6 +274,14 @@ public class SimpleDistributionModel extends DistributionModel {
 	 */
 	@Override
 	public void update(ExampleSet exampleSet) {
+		if (FastExample2SparseTransform.isSparse(exampleSet)) {
+			try {
+				updateSparse(exampleSet, new FastExample2SparseTransform(exampleSet));
+				return;
+			} catch (UserError e) {
+				// view attributes cannot be handled sparsely, use dense update
+			}
+		}
 		Attribute weightAttribute = exampleSet.getAttributes().getWeight();
 		for (Example example : exampleSet) {
 			double weight = weightAttribute == null ? 1.0d : example.getWeight();
@@ -282,43 +292,7 @@ public class SimpleDistributionModel extends DistributionModel {
 				classWeights[classIndex] += weight;
 				int attributeIndex = 0;
 				for (Attribute attribute : exampleSet.getAttributes()) {
-					double attributeValue = example.getValue(attribute);
-					if (nominal[attributeIndex]) {
-						if (!Double.isNaN(attributeValue)) {
-							if ((int) attributeValue < weightSums[attributeIndex][classIndex].length - 1) {
-								weightSums[attributeIndex][classIndex][(int) attributeValue] += weight;
-							} else {
-								// extend weight array if attribute value is not in mapping
-								for (int i = 0; i < numberOfClasses; i++) {
-									double[] newWeightSums = new double[(int) attributeValue + 2];
-									newWeightSums[newWeightSums.length - 1] = weightSums[attributeIndex][i][weightSums[attributeIndex][i].length - 1];
-									for (int j = 0; j < weightSums[attributeIndex][i].length - 1; j++) {
-										newWeightSums[j] = weightSums[attributeIndex][i][j];
-									}
-									weightSums[attributeIndex][i] = newWeightSums;
-									distributionProperties[attributeIndex][i] = new double[(int) attributeValue + 2];
-								}
-								weightSums[attributeIndex][classIndex][(int) attributeValue] += weight;
-								// recreate internal attribute value mapping
-								attributeValues[attributeIndex] = new String[(int) attributeValue + 2];
-								for (int i = 0; i < attributeValues[attributeIndex].length - 1; i++) {
-									attributeValues[attributeIndex][i] = attribute.getMapping().mapIndex(i);
-								}
-								attributeValues[attributeIndex][attributeValues[attributeIndex].length - 1] = UNKNOWN_VALUE_NAME;
-							}
-						} else {
-							weightSums[attributeIndex][classIndex][weightSums[attributeIndex][classIndex].length - 1] += weight;
-						}
-					} else if (attribute.isNumerical()) {
-						// numerical attribute
-						if (!Double.isNaN(attributeValue)) {
-							weightSums[attributeIndex][classIndex][INDEX_VALUE_SUM] += weight * attributeValue;
-							weightSums[attributeIndex][classIndex][INDEX_SQUARED_VALUE_SUM] += weight * attributeValue * attributeValue;
-						} else {
-							// these are used to distinguish between total class weights and the current attribute's weights
-							weightSums[attributeIndex][classIndex][INDEX_MISSING_WEIGHTS] += weight;
-						}
-					}
+					updateWeightSums(attributeIndex, attribute, classIndex, example.getValue(attribute), weight);
 					attributeIndex++;
 				}
 			}
@@ -326,6 +300,84 @@ public class SimpleDistributionModel extends DistributionModel {
 		modelRecentlyUpdated = true;
 	}
 
+	/**
+	 * Updates the weight counters using only the non-default values of the examples. The default values are
+	 * accounted for once per attribute and class with the weight of all examples not having an explicit value.
+	 */
+	private void updateSparse(ExampleSet exampleSet, FastExample2SparseTransform sparseTransform) {
+		Attribute[] attributes = exampleSet.getAttributes().createRegularAttributeArray();
+		Attribute weightAttribute = exampleSet.getAttributes().getWeight();
+		int[] indices = new int[sparseTransform.getNumberOfAttributes()];
+		double[] values = new double[indices.length];
+		double[] addedClassWeights = new double[numberOfClasses];
+		double[][] explicitWeights = new double[numberOfAttributes][numberOfClasses];
+		for (Example example : exampleSet) {
+			double weight = weightAttribute == null ? 1.0d : example.getWeight();
+			totalWeight += weight;
+			double labelValue = example.getLabel();
+			if (!Double.isNaN(labelValue)) {
+				int classIndex = (int) labelValue;
+				classWeights[classIndex] += weight;
+				addedClassWeights[classIndex] += weight;
+				int count = sparseTransform.getNonDefaultAttributes(example, indices, values);
+				for (int i = 0; i < count; i++) {
+					updateWeightSums(indices[i], attributes[indices[i]], classIndex, values[i], weight);
+					explicitWeights[indices[i]][classIndex] += weight;
+				}
+			}
+		}
+		for (int attributeIndex = 0; attributeIndex < numberOfAttributes; attributeIndex++) {
+			double defaultValue = attributes[attributeIndex].getDefault();
+			for (int classIndex = 0; classIndex < numberOfClasses; classIndex++) {
+				double defaultWeight = addedClassWeights[classIndex] - explicitWeights[attributeIndex][classIndex];
+				if (defaultWeight != 0) {
+					updateWeightSums(attributeIndex, attributes[attributeIndex], classIndex, defaultValue, defaultWeight);
+				}
+			}
+		}
+		modelRecentlyUpdated = true;
+	}
+
+	/** Adds the given weight to the counters of the given attribute value and class. */
+	private void updateWeightSums(int attributeIndex, Attribute attribute, int classIndex, double attributeValue, double weight) {
+		if (nominal[attributeIndex]) {
+			if (!Double.isNaN(attributeValue)) {
+				if ((int) attributeValue < weightSums[attributeIndex][classIndex].length - 1) {
+					weightSums[attributeIndex][classIndex][(int) attributeValue] += weight;
+				} else {
+					// extend weight array if attribute value is not in mapping
+					for (int i = 0; i < numberOfClasses; i++) {
+						double[] newWeightSums = new double[(int) attributeValue + 2];
+						newWeightSums[newWeightSums.length - 1] = weightSums[attributeIndex][i][weightSums[attributeIndex][i].length - 1];
+						for (int j = 0; j < weightSums[attributeIndex][i].length - 1; j++) {
+							newWeightSums[j] = weightSums[attributeIndex][i][j];
+						}
+						weightSums[attributeIndex][i] = newWeightSums;
+						distributionProperties[attributeIndex][i] = new double[(int) attributeValue + 2];
+					}
+					weightSums[attributeIndex][classIndex][(int) attributeValue] += weight;
+					// recreate internal attribute value mapping
+					attributeValues[attributeIndex] = new String[(int) attributeValue + 2];
+					for (int i = 0; i < attributeValues[attributeIndex].length - 1; i++) {
+						attributeValues[attributeIndex][i] = attribute.getMapping().mapIndex(i);
+					}
+					attributeValues[attributeIndex][attributeValues[attributeIndex].length - 1] = UNKNOWN_VALUE_NAME;
+				}
+			} else {
+				weightSums[attributeIndex][classIndex][weightSums[attributeIndex][classIndex].length - 1] += weight;
+			}
+		} else if (attribute.isNumerical()) {
+			// numerical attribute
+			if (!Double.isNaN(attributeValue)) {
+				weightSums[attributeIndex][classIndex][INDEX_VALUE_SUM] += weight * attributeValue;
+				weightSums[attributeIndex][classIndex][INDEX_SQUARED_VALUE_SUM] += weight * attributeValue * attributeValue;
+			} else {
+				// these are used to distinguish between total class weights and the current attribute's weights
+				weightSums[attributeIndex][classIndex][INDEX_MISSING_WEIGHTS] += weight;
+			}
+		}
+	}
+
 	/**
 	 * Updates the distribution properties by calculating the logged probabilities and distribution parameters on the
 	 * basis of the weight counters.
@@ -369,38 +421,57 @@ public class SimpleDistributionModel extends DistributionModel {
 			updateDistributionProperties();
 		}
 		double[] probabilities = new double[numberOfClasses];
+		FastExample2SparseTransform sparseTransform = null;
+		double[] defaultProbabilities = null;
+		double[][] defaultContributions = null;
+		if (FastExample2SparseTransform.isSparse(exampleSet)) {
+			try {
+				sparseTransform = new FastExample2SparseTransform(exampleSet);
+			} catch (UserError e) {
+				// view attributes cannot be handled sparsely, use dense prediction
+			}
+		}
+		Attribute[] attributes = exampleSet.getAttributes().createRegularAttributeArray();
+		if (sparseTransform != null) {
+			// the log probabilities of an example having only default values are adjusted by the non-default values
+			defaultProbabilities = priors.clone();
+			defaultContributions = new double[attributes.length][numberOfClasses];
+			for (int j = 0; j < attributes.length && sparseTransform != null; j++) {
+				for (int i = 0; i < numberOfClasses; i++) {
+					defaultContributions[j][i] = getLogContribution(j, i, attributes[j].getDefault());
+					if (Double.isInfinite(defaultContributions[j][i]) || Double.isNaN(defaultContributions[j][i])) {
+						// cannot be subtracted again
+						sparseTransform = null;
+					}
+					defaultProbabilities[i] += defaultContributions[j][i];
+				}
+			}
+		}
+		int[] indices = sparseTransform == null ? null : new int[sparseTransform.getNumberOfAttributes()];
+		double[] values = sparseTransform == null ? null : new double[indices.length];
 		for (Example example : exampleSet) {
 			double maxLogProbability = Double.NEGATIVE_INFINITY;
 			double probabilitySum = 0;
 			int mostProbableClass = 0;
-			int j = 0;
-			for (int i = 0; i < numberOfClasses; i++) {
-				probabilities[i] = priors[i];
-			}
-			for (Attribute attribute : exampleSet.getAttributes()) {
-				double value = example.getValue(attribute);
-				if (nominal[j]) {
-					if (!Double.isNaN(value)) {
-						int intValue = (int) value;
-						for (int i = 0; i < numberOfClasses; i++) {
-							if (intValue < distributionProperties[j][i].length) {
-								probabilities[i] += distributionProperties[j][i][intValue];
-							}
-						}
-					} else {
-						for (int i = 0; i < numberOfClasses; i++) {
-							probabilities[i] += distributionProperties[j][i][distributionProperties[j][i].length - 1];
-						}
+			if (sparseTransform != null) {
+				System.arraycopy(defaultProbabilities, 0, probabilities, 0, numberOfClasses);
+				int count = sparseTransform.getNonDefaultAttributes(example, indices, values);
+				for (int k = 0; k < count; k++) {
+					int j = indices[k];
+					for (int i = 0; i < numberOfClasses; i++) {
+						probabilities[i] += getLogContribution(j, i, values[k]) - defaultContributions[j][i];
 					}
-				} else {
-					if (!Double.isNaN(value)) {
-						for (int i = 0; i < numberOfClasses; i++) {
-							double base = (value - distributionProperties[j][i][INDEX_MEAN]) / distributionProperties[j][i][INDEX_STANDARD_DEVIATION];
-							probabilities[i] -= distributionProperties[j][i][INDEX_LOG_FACTOR] + 0.5 * base * base;
-						}
+				}
+			} else {
+				for (int i = 0; i < numberOfClasses; i++) {
+					probabilities[i] = priors[i];
+				}
+				for (int j = 0; j < attributes.length; j++) {
+					double value = example.getValue(attributes[j]);
+					for (int i = 0; i < numberOfClasses; i++) {
+						probabilities[i] += getLogContribution(j, i, value);
 					}
 				}
-				j++;
 			}
 			for (int i = 0; i < numberOfClasses; i++) {
 				if (!Double.isNaN(probabilities[i]) && probabilities[i] > maxLogProbability) {
@@ -432,6 +503,30 @@ public class SimpleDistributionModel extends DistributionModel {
 		return exampleSet;
 	}
 
+	/** Returns the summand of the log probability of the given class for the given attribute value. */
+	private double getLogContribution(int attributeIndex, int classIndex, double value) {
+		double[] properties = distributionProperties[attributeIndex][classIndex];
+		if (nominal[attributeIndex]) {
+			if (!Double.isNaN(value)) {
+				int intValue = (int) value;
+				if (intValue < properties.length) {
+					return properties[intValue];
+				} else {
+					return 0;
+				}
+			} else {
+				return properties[properties.length - 1];
+			}
+		} else {
+			if (!Double.isNaN(value)) {
+				double base = (value - properties[INDEX_MEAN]) / properties[INDEX_STANDARD_DEVIATION];
+				return -(properties[INDEX_LOG_FACTOR] + 0.5 * base * base);
+			} else {
+				return 0;
+			}
+		}
+	}
+
 	public void setLaplaceCorrectionEnabled(boolean laplaceCorrectionEnabled) {
 		this.laplaceCorrectionEnabled = laplaceCorrectionEnabled;
 	}
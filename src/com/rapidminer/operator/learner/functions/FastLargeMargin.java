@@ -111,14 +111,22 @@ public class FastLargeMargin extends AbstractLearner {
 	 * default).
 	 */
 	public static FeatureNode[] makeNodes(Example e, FastExample2SparseTransform ripper, boolean useBias) {
-		int[] nonDefaultIndices = ripper.getNonDefaultAttributeIndices(e);
-		double[] nonDefaultValues = ripper.getNonDefaultAttributeValues(e, nonDefaultIndices);
+		return makeNodes(e, ripper, useBias, new int[ripper.getNumberOfAttributes()], new double[ripper.getNumberOfAttributes()]);
+	}
+
+	/**
+	 * Creates the nodes of the given example using the given buffers which must provide space for
+	 * {@link FastExample2SparseTransform#getNumberOfAttributes()} entries. Reusing the buffers for all
+	 * examples avoids creating temporary arrays for each example.
+	 */
+	public static FeatureNode[] makeNodes(Example e, FastExample2SparseTransform ripper, boolean useBias, int[] indexBuffer, double[] valueBuffer) {
+		int count = ripper.getNonDefaultAttributes(e, indexBuffer, valueBuffer);
 		int offset = 0;
 		if (useBias)
 			offset = 1;
-		FeatureNode[] nodeArray = new FeatureNode[nonDefaultIndices.length + offset];
-		for (int a = 0; a < nonDefaultIndices.length; a++) {
-			FeatureNode node = new FeatureNode(nonDefaultIndices[a] + 1, nonDefaultValues[a]);
+		FeatureNode[] nodeArray = new FeatureNode[count + offset];
+		for (int a = 0; a < count; a++) {
+			FeatureNode node = new FeatureNode(indexBuffer[a] + 1, valueBuffer[a]);
 			nodeArray[a] = node;
 		}
 		if (useBias)
@@ -148,6 +156,8 @@ public class FastLargeMargin extends AbstractLearner {
 
 		problem.y = new int[exampleSet.size()];
 		problem.x = new FeatureNode[exampleSet.size()][];
+		int[] indexBuffer = new int[ripper.getNumberOfAttributes()];
+		double[] valueBuffer = new double[ripper.getNumberOfAttributes()];
 		Iterator<Example> i = exampleSet.iterator();
 		Attribute label = exampleSet.getAttributes().getLabel();
 		int j = 0;
@@ -156,7 +166,7 @@ public class FastLargeMargin extends AbstractLearner {
 
 		while (i.hasNext()) {
 			Example e = i.next();
-			problem.x[j] = makeNodes(e, ripper, useBias);
+			problem.x[j] = makeNodes(e, ripper, useBias, indexBuffer, valueBuffer);
 			problem.y[j] = (int) e.getValue(label) == firstIndex ? 0 : 1;
 			nodeCount += problem.x[j].length;
 			j++;
@@ -67,6 +67,8 @@ public class FastMarginModel extends PredictionModel {
 	@Override
 	public ExampleSet performPrediction(ExampleSet exampleSet, Attribute predictedLabel) throws OperatorException {
 		FastExample2SparseTransform ripper = new FastExample2SparseTransform(exampleSet);		
+		int[] indexBuffer = new int[ripper.getNumberOfAttributes()];
+		double[] valueBuffer = new double[ripper.getNumberOfAttributes()];
 		Attribute label = getLabel();
 
 		Attribute[] confidenceAttributes = null;
@@ -83,7 +85,7 @@ public class FastMarginModel extends PredictionModel {
 			Example e = i.next();
 
 			// set prediction
-			FeatureNode[] currentNodes = FastLargeMargin.makeNodes(e, ripper, this.useBias);
+			FeatureNode[] currentNodes = FastLargeMargin.makeNodes(e, ripper, this.useBias, indexBuffer, valueBuffer);
 
 			double predictedClass = Linear.predict(linearModel, currentNodes);
 			e.setValue(predictedLabel, predictedClass);
@@ -38,6 +38,7 @@ import com.rapidminer.parameter.ParameterTypeBoolean;
 import com.rapidminer.parameter.ParameterTypeCategory;
 import com.rapidminer.parameter.ParameterTypeDouble;
 import com.rapidminer.parameter.ParameterTypeInt;
+import com.rapidminer.tools.ConcurrencyTools;
 import com.rapidminer.tools.RandomGenerator;
 import com.rapidminer.tools.math.optimization.ec.es.ESOptimization;
 
@@ -85,6 +86,9 @@ public class LogisticRegression extends AbstractLearner {
 	/** The parameter name for &quot;Indicates if a dialog with a convergence plot should be drawn.&quot; */
 	public static final String PARAMETER_SHOW_CONVERGENCE_PLOT = "show_convergence_plot";
 
+	/** The parameter name for &quot;Indicates if the individuals of a generation should be evaluated in parallel.&quot; */
+	public static final String PARAMETER_PARALLELIZE_EVALUATION = "parallelize_evaluation";
+
 	private PerformanceVector estimatedPerformance;
 
 	public LogisticRegression(OperatorDescription description) {
@@ -105,6 +109,9 @@ public class LogisticRegression extends AbstractLearner {
 					getParameterAsBoolean(PARAMETER_SHOW_CONVERGENCE_PLOT), 
 					random,
 					this);
+		if (getParameterAsBoolean(PARAMETER_PARALLELIZE_EVALUATION)) {
+			optimization.setNumberOfThreads(ConcurrencyTools.getNumberOfThreads());
+		}
 		LogisticRegressionModel model = optimization.train();
 		estimatedPerformance = optimization.getPerformance(); 
 		return model;
@@ -159,8 +166,12 @@ public class LogisticRegression extends AbstractLearner {
 
 		types.add(new ParameterTypeBoolean(PARAMETER_SHOW_CONVERGENCE_PLOT, "Indicates if a dialog with a convergence plot should be drawn.", false));
 
+		ParameterType type = new ParameterTypeBoolean(PARAMETER_PARALLELIZE_EVALUATION, "Indicates if the individuals of a generation should be evaluated in parallel. Only pays off for large example sets.", false);
+		type.setExpert(true);
+		types.add(type);
+
 		// deprecated parameters
-		ParameterType type =  new ParameterTypeBoolean(PARAMETER_RETURN_PERFORMANCE, "Determines whether to return the performance.", true);
+		type =  new ParameterTypeBoolean(PARAMETER_RETURN_PERFORMANCE, "Determines whether to return the performance.", true);
 		type.setDeprecated();
 		types.add(type);
 
@@ -25,6 +25,7 @@ package com.rapidminer.operator.learner.functions;
 import com.rapidminer.example.Attribute;
 import com.rapidminer.example.Example;
 import com.rapidminer.example.ExampleSet;
+import com.rapidminer.operator.OperatorException;
 import com.rapidminer.operator.learner.SimpleBinaryPredictionModel;
 import com.rapidminer.tools.Tools;
 
@@ -48,6 +49,14 @@ public class LogisticRegressionModel extends SimpleBinaryPredictionModel {
     
     private boolean interceptAdded;
     
+    private transient SparseLinearFunction sparseFunction;
+    
+    private transient int[] sparseIndices;
+    
+    private transient double[] sparseValues;
+    
+    private transient double sparseDefaultEta;
+    
     public LogisticRegressionModel(ExampleSet exampleSet, double[] beta, double[] variance, boolean interceptAdded) {
         super(exampleSet, 0.5d);
         this.attributeNames = com.rapidminer.example.Tools.getRegularAttributeNames(exampleSet);
@@ -62,14 +71,36 @@ public class LogisticRegressionModel extends SimpleBinaryPredictionModel {
         }
     }
     
+    /** Skips the default values of sparse data during {@link #performPrediction(ExampleSet, Attribute)}. */
+    @Override
+	public synchronized ExampleSet performPrediction(ExampleSet exampleSet, Attribute predictedLabel) throws OperatorException {
+        sparseFunction = SparseLinearFunction.create(exampleSet);
+        try {
+            if (sparseFunction != null) {
+                sparseIndices = sparseFunction.createIndexBuffer();
+                sparseValues = sparseFunction.createValueBuffer();
+                sparseDefaultEta = sparseFunction.getDefaultValue(beta);
+            }
+            return super.performPrediction(exampleSet, predictedLabel);
+        } finally {
+            sparseFunction = null;
+            sparseIndices = null;
+            sparseValues = null;
+        }
+    }
+
     @Override
 	public double predict(Example example) {
         double eta = 0.0d;
-        int i = 0;
-        for (Attribute attribute : example.getAttributes()) {
-            double value = example.getValue(attribute);
-            eta += beta[i] * value;
-            i++;
+        if (sparseFunction != null) {
+            eta = sparseFunction.evaluate(beta, sparseDefaultEta, example, sparseIndices, sparseValues);
+        } else {
+            int i = 0;
+            for (Attribute attribute : example.getAttributes()) {
+                double value = example.getValue(attribute);
+                eta += beta[i] * value;
+                i++;
+            }
         }
         if (interceptAdded) {
         	eta += beta[beta.length - 1];
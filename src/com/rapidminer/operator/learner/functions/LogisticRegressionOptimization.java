@@ -51,6 +51,9 @@ public class LogisticRegressionOptimization extends ESOptimization {
     
     private boolean addIntercept;
     
+    /** Skips the default values of sparse data, null for dense data. */
+    private SparseLinearFunction sparseFunction;
+    
     LoggingHandler logging;
     
     /** Creates a new evolutionary optimization. */
@@ -77,6 +80,7 @@ public class LogisticRegressionOptimization extends ESOptimization {
         this.weight = exampleSet.getAttributes().getWeight();
 
         this.addIntercept = addIntercept;
+        this.sparseFunction = SparseLinearFunction.create(exampleSet);
     }
     
     @Override
@@ -84,17 +88,11 @@ public class LogisticRegressionOptimization extends ESOptimization {
         double[] beta = individual.getValues();
         
         double fitness = 0.0d;
+        int[] indices = sparseFunction == null ? null : sparseFunction.createIndexBuffer();
+        double[] values = sparseFunction == null ? null : sparseFunction.createValueBuffer();
+        double defaultEta = sparseFunction == null ? 0.0d : sparseFunction.getDefaultValue(beta);
         for (Example example : exampleSet) {
-            double eta = 0.0d;
-            int i = 0;
-            for (Attribute attribute : example.getAttributes()) {
-                double value = example.getValue(attribute);
-                eta += beta[i] * value;
-                i++;
-            }
-            if (addIntercept) {
-            	eta += beta[beta.length - 1];
-            }
+            double eta = getEta(beta, defaultEta, example, indices, values);
             double pi = Math.exp(eta) / (1 + Math.exp(eta));
             
             double classValue = example.getValue(label);
@@ -110,6 +108,28 @@ public class LogisticRegressionOptimization extends ESOptimization {
         return performanceVector;
     }
 
+    /**
+     * Returns the linear predictor of the given example. For sparse data, only the non-default values
+     * are visited using the given buffers.
+     */
+    private double getEta(double[] beta, double defaultEta, Example example, int[] indices, double[] values) {
+        double eta = 0.0d;
+        if (sparseFunction != null) {
+            eta = sparseFunction.evaluate(beta, defaultEta, example, indices, values);
+        } else {
+            int i = 0;
+            for (Attribute attribute : example.getAttributes()) {
+                double value = example.getValue(attribute);
+                eta += beta[i] * value;
+                i++;
+            }
+        }
+        if (addIntercept) {
+        	eta += beta[beta.length - 1];
+        }
+        return eta;
+    }
+
     public LogisticRegressionModel train() throws OperatorException {
     	optimize();
         return new LogisticRegressionModel(this.exampleSet, getBestValuesEver(), estimateVariance(), addIntercept);
@@ -202,17 +222,11 @@ public class LogisticRegressionOptimization extends ESOptimization {
 
     	double weightSum = 0.0d;
     	double positiveSum = 0.0d;
+        int[] indices = sparseFunction == null ? null : sparseFunction.createIndexBuffer();
+        double[] values = sparseFunction == null ? null : sparseFunction.createValueBuffer();
+        double defaultEta = sparseFunction == null ? 0.0d : sparseFunction.getDefaultValue(beta);
     	for (Example example : exampleSet) {
-            double eta = 0.0d;
-            int i = 0;
-            for (Attribute attribute : example.getAttributes()) {
-                double value = example.getValue(attribute);
-                eta += beta[i] * value;
-                i++;
-            }
-            if (addIntercept) {
-            	eta += beta[beta.length - 1];
-            }
+            double eta = getEta(beta, defaultEta, example, indices, values);
             double pi = Math.exp(eta) / (1 + Math.exp(eta));
             
             double classValue = example.getValue(label);
@@ -0,0 +1,104 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.operator.learner.functions;
+
+import com.rapidminer.example.Attribute;
+import com.rapidminer.example.Example;
+import com.rapidminer.example.ExampleSet;
+import com.rapidminer.example.FastExample2SparseTransform;
+import com.rapidminer.operator.UserError;
+
+
+/**
+ * Evaluates the linear function <code>sum_i beta_i * x_i</code> over the regular attributes of
+ * sparse examples by only visiting their non-default values. The sum of the coefficients times
+ * the default values is added as a constant, the non-default values only contribute their
+ * difference to the default.
+ * 
+ * Instances can be shared between threads, the buffers needed for the evaluation are passed by
+ * the caller and can be created by {@link #createIndexBuffer()} and {@link #createValueBuffer()}.
+ */
+class SparseLinearFunction {
+
+	private final FastExample2SparseTransform sparseTransform;
+
+	private final double[] defaults;
+
+	private SparseLinearFunction(FastExample2SparseTransform sparseTransform, double[] defaults) {
+		this.sparseTransform = sparseTransform;
+		this.defaults = defaults;
+	}
+
+	/** Returns a function for the given example set or null if the data is not sparse. */
+	static SparseLinearFunction create(ExampleSet exampleSet) {
+		if (!FastExample2SparseTransform.isSparse(exampleSet)) {
+			return null;
+		}
+		Attribute[] attributes = exampleSet.getAttributes().createRegularAttributeArray();
+		double[] defaults = new double[attributes.length];
+		for (int i = 0; i < attributes.length; i++) {
+			defaults[i] = attributes[i].getDefault();
+			if (Double.isNaN(defaults[i]) || Double.isInfinite(defaults[i])) {
+				return null;
+			}
+		}
+		try {
+			return new SparseLinearFunction(new FastExample2SparseTransform(exampleSet), defaults);
+		} catch (UserError e) {
+			// view attributes cannot be handled sparsely
+			return null;
+		}
+	}
+
+	int[] createIndexBuffer() {
+		return new int[defaults.length];
+	}
+
+	double[] createValueBuffer() {
+		return new double[defaults.length];
+	}
+
+	/** Returns the sum of the coefficients times the default values. */
+	double getDefaultValue(double[] beta) {
+		double result = 0.0d;
+		for (int i = 0; i < defaults.length; i++) {
+			if (defaults[i] != 0.0d) {
+				result += beta[i] * defaults[i];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the linear function of the given example without intercept. The defaultValue must
+	 * be the result of {@link #getDefaultValue(double[])} for the same coefficients.
+	 */
+	double evaluate(double[] beta, double defaultValue, Example example, int[] indices, double[] values) {
+		double result = defaultValue;
+		int count = sparseTransform.getNonDefaultAttributes(example, indices, values);
+		for (int i = 0; i < count; i++) {
+			result += beta[indices[i]] * (values[i] - defaults[indices[i]]);
+		}
+		return result;
+	}
+}
@@ -28,10 +28,12 @@ import com.rapidminer.example.Attribute;
 import com.rapidminer.example.Attributes;
 import com.rapidminer.example.Example;
 import com.rapidminer.example.ExampleSet;
+import com.rapidminer.example.FastExample2SparseTransform;
 import com.rapidminer.operator.Model;
 import com.rapidminer.operator.OperatorCapability;
 import com.rapidminer.operator.OperatorDescription;
 import com.rapidminer.operator.OperatorException;
+import com.rapidminer.operator.UserError;
 import com.rapidminer.operator.annotation.ResourceConsumptionEstimator;
 import com.rapidminer.operator.learner.AbstractLearner;
 import com.rapidminer.operator.learner.PredictionModel;
@@ -42,6 +44,7 @@ import com.rapidminer.parameter.ParameterTypeInt;
 import com.rapidminer.tools.OperatorResourceConsumptionHandler;
 import com.rapidminer.tools.math.container.GeometricDataCollection;
 import com.rapidminer.tools.math.container.LinearList;
+import com.rapidminer.tools.math.container.SparseLinearList;
 import com.rapidminer.tools.math.similarity.DistanceMeasure;
 import com.rapidminer.tools.math.similarity.DistanceMeasureHelper;
 import com.rapidminer.tools.math.similarity.DistanceMeasures;
@@ -75,6 +78,18 @@ public class KNNLearner extends AbstractLearner {
 		Attribute label = exampleSet.getAttributes().getLabel();
 		if (label.isNominal()) {
 			// classification
+			FastExample2SparseTransform sparseTransform = getSparseTransform(exampleSet);
+			if (sparseTransform != null) {
+				SparseLinearList<Integer> samples = new SparseLinearList<Integer>(measure, sparseTransform.getNumberOfAttributes());
+				int[] indices = new int[sparseTransform.getNumberOfAttributes()];
+				double[] values = new double[indices.length];
+				for (Example example: exampleSet) {
+					int count = sparseTransform.getNonDefaultAttributes(example, indices, values);
+					samples.add(indices, values, count, (int) example.getValue(label));
+					checkForStop();
+				}
+				return new KNNClassificationModel(exampleSet, samples, getParameterAsInt(PARAMETER_K), getParameterAsBoolean(PARAMETER_WEIGHTED_VOTE));
+			}
 			GeometricDataCollection<Integer> samples = new LinearList<Integer>(measure);
 
 			Attributes attributes = exampleSet.getAttributes();
@@ -94,6 +109,18 @@ public class KNNLearner extends AbstractLearner {
 			return new KNNClassificationModel(exampleSet, samples, getParameterAsInt(PARAMETER_K), getParameterAsBoolean(PARAMETER_WEIGHTED_VOTE));
 		} else {
 			// regression
+			FastExample2SparseTransform sparseTransform = getSparseTransform(exampleSet);
+			if (sparseTransform != null) {
+				SparseLinearList<Double> samples = new SparseLinearList<Double>(measure, sparseTransform.getNumberOfAttributes());
+				int[] indices = new int[sparseTransform.getNumberOfAttributes()];
+				double[] values = new double[indices.length];
+				for (Example example: exampleSet) {
+					int count = sparseTransform.getNonDefaultAttributes(example, indices, values);
+					samples.add(indices, values, count, example.getValue(label));
+					checkForStop();
+				}
+				return new KNNRegressionModel(exampleSet, samples, getParameterAsInt(PARAMETER_K), getParameterAsBoolean(PARAMETER_WEIGHTED_VOTE));
+			}
 			GeometricDataCollection<Double> samples = new LinearList<Double>(measure);
 			Attributes attributes = exampleSet.getAttributes();
 
@@ -113,6 +140,27 @@ public class KNNLearner extends AbstractLearner {
 		}
 	}
 
+	/**
+	 * Returns a transformation for storing only the non-default values of the examples if the data is
+	 * sparse and all regular attributes have the default value 0. Returns null otherwise.
+	 */
+	private FastExample2SparseTransform getSparseTransform(ExampleSet exampleSet) {
+		if (!FastExample2SparseTransform.isSparse(exampleSet)) {
+			return null;
+		}
+		for (Attribute attribute : exampleSet.getAttributes()) {
+			if (attribute.getDefault() != 0.0d) {
+				return null;
+			}
+		}
+		try {
+			return new FastExample2SparseTransform(exampleSet);
+		} catch (UserError e) {
+			// view attributes cannot be handled sparsely
+			return null;
+		}
+	}
+
 	@Override
 	public Class<? extends PredictionModel> getModelClass() {
 		//TODO: Needs to unify models in order to return common class
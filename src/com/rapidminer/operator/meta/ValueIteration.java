@@ -22,12 +22,13 @@
  */
 package com.rapidminer.operator.meta;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import com.rapidminer.example.Attribute;
 import com.rapidminer.example.ExampleSet;
-import com.rapidminer.example.Statistics;
+import com.rapidminer.example.set.ValueGroups;
 import com.rapidminer.operator.IOObject;
 import com.rapidminer.operator.OperatorChain;
 import com.rapidminer.operator.OperatorDescription;
@@ -37,13 +38,15 @@ import com.rapidminer.operator.ValueString;
 import com.rapidminer.operator.ports.CollectingPortPairExtender;
 import com.rapidminer.operator.ports.InputPort;
 import com.rapidminer.operator.ports.OutputPort;
-import com.rapidminer.operator.ports.PortPairExtender;
+import com.rapidminer.operator.ports.PortPairExtender.PortPair;
 import com.rapidminer.operator.ports.metadata.AttributeParameterPrecondition;
 import com.rapidminer.operator.ports.metadata.ExampleSetMetaData;
 import com.rapidminer.operator.ports.metadata.SubprocessTransformRule;
 import com.rapidminer.parameter.ParameterType;
 import com.rapidminer.parameter.ParameterTypeAttribute;
+import com.rapidminer.parameter.ParameterTypeBoolean;
 import com.rapidminer.parameter.ParameterTypeString;
+import com.rapidminer.tools.ConcurrencyTools;
 import com.rapidminer.tools.Ontology;
 
 
@@ -57,6 +60,10 @@ import com.rapidminer.tools.Ontology;
  * 
  * <p>The current value of the loop can be accessed with the specified macro name.</p>
  * 
+ * <p>If <code>parallelize_iterations</code> is checked, the iterations are distributed among
+ * clones of the subprocess which are executed in parallel. The macro is then only defined for
+ * the clone executing the respective iteration. The collected results keep the order of the values.</p>
+ * 
  * @author Tobias Malbrecht, Ingo Mierswa
  */
 public class ValueIteration extends OperatorChain {
@@ -67,6 +74,8 @@ public class ValueIteration extends OperatorChain {
 
 	public static final String DEFAULT_ITERATION_MACRO_NAME = "loop_value";
 
+	public static final String PARAMETER_PARALLELIZE_ITERATIONS = "parallelize_iterations";
+
 	private String currentValue = null; // for logging 
 
 	private final InputPort exampleSetInput = getInputPorts().createPort("example set", new ExampleSetMetaData());
@@ -93,8 +102,7 @@ public class ValueIteration extends OperatorChain {
 
 	@Override
 	public void doWork() throws OperatorException {
-		ExampleSet exampleSet = exampleSetInput.getData(ExampleSet.class);
-		exampleSet.recalculateAllAttributeStatistics();
+		final ExampleSet exampleSet = exampleSetInput.getData(ExampleSet.class);
 		outExtender.reset();
 
 		String attributeName = getParameterAsString(PARAMETER_ATTRIBUTE);		
@@ -106,32 +114,49 @@ public class ValueIteration extends OperatorChain {
 			throw new UserError(this, 119, attributeName, getName());
 		}
 
-		String iterationMacro = getParameterAsString(PARAMETER_ITERATION_MACRO);
-
-		List<String> values = new LinkedList<String>(attribute.getMapping().getValues());
-		for (String value : values) {
-			if (exampleSet.getStatistics(attribute, Statistics.COUNT, value) > 0) {
-				if (iterationMacro != null) {
-					//getProcess().getMacroHandler().addMacro(iterationMacro, value.replace(' ', '_'));
-					getProcess().getMacroHandler().addMacro(iterationMacro, value);
-				}
+		final String iterationMacro = getParameterAsString(PARAMETER_ITERATION_MACRO);
 
-				// store for logging
-				this.currentValue = value;
-
-				exampleInnerSource.deliver((ExampleSet)exampleSet.clone());
-
-				getSubprocess(0).execute();
+		// counting all values in one pass is cheaper than calculating the statistics of all attributes
+		ValueGroups groups = new ValueGroups(exampleSet, attribute);
+		final List<String> values = new ArrayList<String>();
+		for (String value : attribute.getMapping().getValues()) {
+			if (groups.getCount(attribute.getMapping().getIndex(value)) > 0) {
+				values.add(value);
+			}
+		}
 
-				for (PortPairExtender.PortPair pair : outExtender.getManagedPairs()) {
-					IOObject result = pair.getInputPort().getDataOrNull(IOObject.class);
-					if (result != null) {
-						result.setSource(this.getName() + ":" + value);
+		int numberOfThreads = getParameterAsBoolean(PARAMETER_PARALLELIZE_ITERATIONS) ? Math.min(ConcurrencyTools.getNumberOfThreads(), values.size()) : 1;
+		if (numberOfThreads > 1) {
+			final int threads = numberOfThreads;
+			List<Callable<List<IOObject[]>>> tasks = new ArrayList<Callable<List<IOObject[]>>>(threads);
+			for (int t = 0; t < threads; t++) {
+				final int firstIteration = t;
+				final ValueIteration clone = createParallelClone();
+				tasks.add(new Callable<List<IOObject[]>>() {
+
+					@Override
+					public List<IOObject[]> call() throws OperatorException {
+						List<IOObject[]> results = new ArrayList<IOObject[]>();
+						try {
+							for (int i = firstIteration; i < values.size(); i += threads) {
+								results.add(clone.executeIteration(exampleSet, values.get(i), iterationMacro, true));
+							}
+						} finally {
+							getProcess().getMacroHandler().addThreadLocalMacro(iterationMacro, null);
+						}
+						return results;
 					}
-				}				
+				});
+			}
+			List<List<IOObject[]>> results = ConcurrencyTools.call(tasks, threads);
+			for (int i = 0; i < values.size(); i++) {
+				outExtender.collect(results.get(i % threads).get(i / threads));
+			}
+		} else {
+			for (String value : values) {
+				executeIteration(exampleSet, value, iterationMacro, false);
 				outExtender.collect();
 			}
-			inApplyLoop();
 		}
 
 		if (iterationMacro != null) {
@@ -139,6 +164,48 @@ public class ValueIteration extends OperatorChain {
 		}
 	}
 
+	/**
+	 * Executes the subprocess for the given value and returns the results at the inner sinks.
+	 * Parallel iterations set the macro only for the current thread.
+	 */
+	private IOObject[] executeIteration(ExampleSet exampleSet, String value, String iterationMacro, boolean parallel) throws OperatorException {
+		if (iterationMacro != null) {
+			if (parallel) {
+				getProcess().getMacroHandler().addThreadLocalMacro(iterationMacro, value);
+			} else {
+				getProcess().getMacroHandler().addMacro(iterationMacro, value);
+			}
+		}
+
+		// store for logging
+		this.currentValue = value;
+
+		exampleInnerSource.deliver((ExampleSet)exampleSet.clone());
+
+		getSubprocess(0).execute();
+
+		List<PortPair> pairs = outExtender.getManagedPairs();
+		IOObject[] results = new IOObject[pairs.size()];
+		for (int i = 0; i < results.length; i++) {
+			results[i] = pairs.get(i).getInputPort().getAnyDataOrNull();
+			if (results[i] != null) {
+				results[i].setSource(this.getName() + ":" + value);
+			}
+		}
+		inApplyLoop();
+		return results;
+	}
+
+	/**
+	 * Creates a clone of this operator for executing iterations in parallel. The clone is part of
+	 * the same process but is not registered with it.
+	 */
+	private ValueIteration createParallelClone() {
+		ValueIteration clone = (ValueIteration)cloneOperator(getName(), true);
+		clone.setEnclosingProcess(getExecutionUnit());
+		return clone;
+	}
+
 	@Override
 	public List<ParameterType> getParameterTypes() {
 		List<ParameterType> types = super.getParameterTypes();
@@ -148,6 +215,10 @@ public class ValueIteration extends OperatorChain {
 
 		types.add(new ParameterTypeString(PARAMETER_ITERATION_MACRO, "Name of macro which is set in each iteration.", DEFAULT_ITERATION_MACRO_NAME, false));
 
+		type = new ParameterTypeBoolean(PARAMETER_PARALLELIZE_ITERATIONS, "If checked, the iterations are executed in parallel by clones of the subprocess. The subprocess must not depend on the order of the iterations or define macros.", false);
+		type.setExpert(true);
+		types.add(type);
+
 		return types;
 	}
 }
@@ -22,21 +22,19 @@
  */
 package com.rapidminer.operator.meta;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map.Entry;
-import java.util.Vector;
+import java.util.concurrent.Callable;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 import com.rapidminer.example.Attribute;
 import com.rapidminer.example.ExampleSet;
-import com.rapidminer.example.Statistics;
-import com.rapidminer.example.set.Condition;
-import com.rapidminer.example.set.ConditionCreationException;
-import com.rapidminer.example.set.ConditionedExampleSet;
+import com.rapidminer.example.set.ValueGroups;
 import com.rapidminer.operator.OperatorChain;
 import com.rapidminer.operator.OperatorDescription;
 import com.rapidminer.operator.OperatorException;
@@ -58,6 +56,7 @@ import com.rapidminer.parameter.ParameterTypeDouble;
 import com.rapidminer.parameter.ParameterTypeList;
 import com.rapidminer.parameter.ParameterTypeString;
 import com.rapidminer.parameter.UndefinedParameterError;
+import com.rapidminer.tools.ConcurrencyTools;
 import com.rapidminer.tools.Ontology;
 
 
@@ -86,6 +85,11 @@ import com.rapidminer.tools.Ontology;
  * 
  * <p>The current value of the loop can be accessed with the specified macro name.</p>
  * 
+ * <p>The subgroups of an attribute are determined in a single pass over the data. If
+ * <code>parallelize_iterations</code> is checked, the subgroups are distributed among clones
+ * of the subprocess which are executed in parallel. The macro is then only defined for the
+ * clone processing the respective subgroup.</p>
+ * 
  * @author Tobias Malbrecht
  */
 public class ValueSubgroupIteration extends OperatorChain {
@@ -110,6 +114,8 @@ public class ValueSubgroupIteration extends OperatorChain {
 
 	public static final String DEFAULT_ITERATION_MACRO_NAME = "loop_value";
 
+	public static final String PARAMETER_PARALLELIZE_ITERATIONS = "parallelize_iterations";
+
 	private final InputPort exampleSetInput = getInputPorts().createPort("example set in");
 	private final OutputPort innerExampleSetSource = getSubprocess(0).getInnerSources().createPort("example set source");
 
@@ -165,7 +171,6 @@ public class ValueSubgroupIteration extends OperatorChain {
 	@Override
 	public void doWork() throws OperatorException {
 		ExampleSet exampleSet = exampleSetInput.getData(ExampleSet.class);
-		exampleSet.recalculateAllAttributeStatistics();
 
 		List<String[]> attributeValueOptions = getParameterList(PARAMETER_ATTRIBUTES);
 
@@ -202,8 +207,8 @@ public class ValueSubgroupIteration extends OperatorChain {
 		}
 
 		double p = getParameterAsDouble(PARAMETER_P);
-		boolean filterAttribute = getParameterAsBoolean(PARAMETER_FILTER_ATTRIBUTE);
-		String iterationMacro = getParameterAsString(PARAMETER_ITERATION_MACRO);
+		final boolean filterAttribute = getParameterAsBoolean(PARAMETER_FILTER_ATTRIBUTE);
+		final String iterationMacro = getParameterAsString(PARAMETER_ITERATION_MACRO);
 
 		// applying on complete set
 		if (getParameterAsBoolean(PARAMETER_APPLY_ON_COMPLETE_SET)) {
@@ -215,58 +220,57 @@ public class ValueSubgroupIteration extends OperatorChain {
 			getSubprocess(0).execute();
 		}
 
-		// applying on subgroups defined by attributes
+		// collecting the subgroups defined by attributes, each attribute is read in a single pass
+		final List<Attribute> subgroupAttributes = new ArrayList<Attribute>();
+		final List<ValueGroups> subgroupGroups = new ArrayList<ValueGroups>();
+		final List<Integer> subgroupValues = new ArrayList<Integer>();
+		final List<String> subgroupMacros = new ArrayList<String>();
 		for (Entry<Attribute, Integer> attributeEntry : attributeValueOptionsMap.entrySet()) {
 			Attribute attribute = attributeEntry.getKey();
 			if (!attribute.isNominal()) {
 				continue;
 			}
-			List<String> values = null;
-			switch (attributeEntry.getValue()) {
-			case VALUE_OPTION_ALL:
-				values = attribute.getMapping().getValues();
-				break;
-			case VALUE_OPTION_ABOVE_P:
-				values = new Vector<String>();
-				for (String value : attribute.getMapping().getValues()) {
-					if (exampleSet.getStatistics(attribute, Statistics.COUNT, value) / exampleSet.size() >= p) {
-						values.add(value);
-					}
+			ValueGroups groups = new ValueGroups(exampleSet, attribute);
+			for (String value : attribute.getMapping().getValues()) {
+				int count = groups.getCount(attribute.getMapping().getIndex(value));
+				if ((attributeEntry.getValue() == VALUE_OPTION_ABOVE_P) && ((double)count / exampleSet.size() < p)) {
+					continue;
+				}
+				if (count > 0) {
+					subgroupAttributes.add(attribute);
+					subgroupGroups.add(groups);
+					subgroupValues.add(attribute.getMapping().getIndex(value));
+					subgroupMacros.add((attribute.getName() + "=" + value).replace(' ', '_'));
 				}
-				break;
-			default:
-				values = attribute.getMapping().getValues();
-				break;
 			}
+		}
 
-			for (String value : values) {
-				if (exampleSet.getStatistics(attribute, Statistics.COUNT, value) > 0) {
-					String className = "attribute_value_filter";
-					String parameter = attribute.getName() + "=" + value;
-					log("Creating condition '" + className + "' with parameter '" + parameter + "'");
-					Condition condition = null;
-					try {
-						condition = ConditionedExampleSet.createCondition(className, exampleSet, parameter);
-					} catch (ConditionCreationException e) {
-						throw new UserError(this, 904, className, e.getMessage());
-					}
-					ExampleSet subgroupSet = new ConditionedExampleSet(exampleSet, condition, false);
-					if (filterAttribute) {
-						subgroupSet.getAttributes().remove(attribute);
-					}
-					if (iterationMacro != null) {
-						getProcess().getMacroHandler().addMacro(iterationMacro, parameter.replace(' ', '_'));
-					}
-
-					// applying subprocess
-					innerExampleSetSource.deliver(subgroupSet);
-					getSubprocess(0).execute();
-
-					if (filterAttribute) {
-						subgroupSet.getAttributes().addRegular(attribute);
+		int numberOfThreads = getParameterAsBoolean(PARAMETER_PARALLELIZE_ITERATIONS) ? Math.min(ConcurrencyTools.getNumberOfThreads(), subgroupValues.size()) : 1;
+		if (numberOfThreads > 1) {
+			final int threads = numberOfThreads;
+			List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(threads);
+			for (int t = 0; t < threads; t++) {
+				final int firstIteration = t;
+				final ValueSubgroupIteration clone = createParallelClone();
+				tasks.add(new Callable<Void>() {
+
+					@Override
+					public Void call() throws OperatorException {
+						try {
+							for (int i = firstIteration; i < subgroupValues.size(); i += threads) {
+								clone.executeIteration(subgroupGroups.get(i).createGroup(subgroupValues.get(i)), subgroupAttributes.get(i), filterAttribute, iterationMacro, subgroupMacros.get(i), true);
+							}
+						} finally {
+							getProcess().getMacroHandler().addThreadLocalMacro(iterationMacro, null);
+						}
+						return null;
 					}
-				}
-				inApplyLoop();
+				});
+			}
+			ConcurrencyTools.call(tasks, threads);
+		} else {
+			for (int i = 0; i < subgroupValues.size(); i++) {
+				executeIteration(subgroupGroups.get(i).createGroup(subgroupValues.get(i)), subgroupAttributes.get(i), filterAttribute, iterationMacro, subgroupMacros.get(i), false);
 			}
 		}
 
@@ -275,6 +279,36 @@ public class ValueSubgroupIteration extends OperatorChain {
 		}
 	}
 
+	/** Applies the subprocess to the given subgroup. Parallel iterations set the macro only for the current thread. */
+	private void executeIteration(ExampleSet subgroupSet, Attribute attribute, boolean filterAttribute, String iterationMacro, String macroValue, boolean parallel) throws OperatorException {
+		if (filterAttribute) {
+			subgroupSet.getAttributes().remove(attribute);
+		}
+		if (iterationMacro != null) {
+			if (parallel) {
+				getProcess().getMacroHandler().addThreadLocalMacro(iterationMacro, macroValue);
+			} else {
+				getProcess().getMacroHandler().addMacro(iterationMacro, macroValue);
+			}
+		}
+
+		// applying subprocess
+		innerExampleSetSource.deliver(subgroupSet);
+		getSubprocess(0).execute();
+
+		inApplyLoop();
+	}
+
+	/**
+	 * Creates a clone of this operator for executing iterations in parallel. The clone is part of
+	 * the same process but is not registered with it.
+	 */
+	private ValueSubgroupIteration createParallelClone() {
+		ValueSubgroupIteration clone = (ValueSubgroupIteration)cloneOperator(getName(), true);
+		clone.setEnclosingProcess(getExecutionUnit());
+		return clone;
+	}
+
 	@Override
 	public List<ParameterType> getParameterTypes() {
 		List<ParameterType> types = super.getParameterTypes();
@@ -289,6 +323,9 @@ public class ValueSubgroupIteration extends OperatorChain {
 		types.add(new ParameterTypeBoolean(PARAMETER_FILTER_ATTRIBUTE, "Filter subgroup defining attribute.", true));
 		types.add(new ParameterTypeBoolean(PARAMETER_APPLY_ON_COMPLETE_SET, "Apply inner operators also on complete set.", false));
 		types.add(new ParameterTypeString(PARAMETER_ITERATION_MACRO, "Name of macro which is set in each iteration.", DEFAULT_ITERATION_MACRO_NAME));
+		type = new ParameterTypeBoolean(PARAMETER_PARALLELIZE_ITERATIONS, "If checked, the subgroups are processed in parallel by clones of the subprocess. The subprocess must not depend on the order of the subgroups or define macros.", false);
+		type.setExpert(true);
+		types.add(type);
 		return types;
 	}
 }
@@ -22,6 +22,10 @@
  */
 package com.rapidminer.operator.nio;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.swing.table.AbstractTableModel;
 
 import org.apache.poi.hssf.usermodel.HSSFDateUtil;
@@ -29,10 +33,12 @@ import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 
+import com.rapidminer.operator.nio.model.Excel2007SheetReader;
 import com.rapidminer.operator.nio.model.ExcelResultSetConfiguration;
 import com.rapidminer.tools.Tools;
 
-/** Returns values backed by an operned excel workbook.
+/** Returns values backed by an operned excel workbook or by the first rows
+ *  read by an {@link Excel2007SheetReader}.
  * 
  * @author Simon Fischer, Marco Boeck
  *
@@ -43,13 +49,46 @@ public class Excel2007SheetTableModel extends AbstractTableModel {
 	private Sheet sheet;
 
 	private ExcelResultSetConfiguration config;
+
+	/** The cells of the first rows if the sheet was streamed, null otherwise. */
+	private Excel2007SheetReader.SheetCell[][] streamedRows;
+
+	private int streamedColumnCount;
 	
 	public Excel2007SheetTableModel(Sheet sheet) {
 		this.sheet = sheet;
 	}
 
+	/** Reads the rows with an index smaller than maxRows and closes the reader. */
+	public Excel2007SheetTableModel(Excel2007SheetReader reader, int maxRows) throws IOException {
+		List<Excel2007SheetReader.SheetCell[]> rows = new ArrayList<Excel2007SheetReader.SheetCell[]>();
+		try {
+			boolean first = true;
+			while (reader.nextRow() && reader.getRowIndex() < maxRows) {
+				if (first) {
+					streamedColumnCount = Math.max(0, reader.getLastCellNum());
+					first = false;
+				}
+				Excel2007SheetReader.SheetCell[] cells = new Excel2007SheetReader.SheetCell[Math.max(0, reader.getLastCellNum())];
+				for (int c = 0; c < cells.length; c++) {
+					cells[c] = reader.getCell(c);
+				}
+				while (rows.size() < reader.getRowIndex()) {
+					rows.add(null);
+				}
+				rows.add(cells);
+			}
+		} finally {
+			reader.close();
+		}
+		this.streamedRows = rows.toArray(new Excel2007SheetReader.SheetCell[rows.size()][]);
+	}
+
 	@Override
 	public Object getValueAt(int rowIndex, int columnIndex) {
+		if (streamedRows != null) {
+			return getStreamedValueAt(rowIndex, columnIndex);
+		}
 		Cell cell;
 		if (config != null) {
 			Row row = sheet.getRow(rowIndex + config.getRowOffset());
@@ -88,9 +127,36 @@ public class Excel2007SheetTableModel extends AbstractTableModel {
 		}
 	}
 
+	private Object getStreamedValueAt(int rowIndex, int columnIndex) {
+		Excel2007SheetReader.SheetCell[] row = streamedRows[rowIndex];
+		if (row == null || columnIndex >= row.length || row[columnIndex] == null) {
+			return null;
+		}
+		Excel2007SheetReader.SheetCell cell = row[columnIndex];
+		if (cell.getCellType() == Cell.CELL_TYPE_BOOLEAN) {
+			return cell.getBooleanCellValue();
+		} else if (cell.getCellType() == Cell.CELL_TYPE_STRING) {
+			return cell.getStringCellValue();
+		} else if (cell.getCellType() == Cell.CELL_TYPE_NUMERIC) {
+			if (cell.isDateFormatted()) {
+				return cell.getDateCellValue();
+			} else {
+				return cell.getNumericCellValue();
+			}
+		} else if (cell.getCellType() == Cell.CELL_TYPE_ERROR) {
+			return cell.getErrorCellString();
+		} else if (cell.getCellType() == Cell.CELL_TYPE_FORMULA) {
+			return cell.getNumericCellValue();
+		} else {
+			return "";
+		}
+	}
+
 	@Override
 	public int getRowCount() {
-		if (config != null) {
+		if (streamedRows != null) {
+			return streamedRows.length;
+		} else if (config != null) {
 			return config.getRowLast() - config.getRowOffset() + 1;
 		} else {
 			return sheet.getLastRowNum()+1;
@@ -99,7 +165,9 @@ public class Excel2007SheetTableModel extends AbstractTableModel {
 
 	@Override
 	public int getColumnCount() {
-		if (config != null) {
+		if (streamedRows != null) {
+			return streamedColumnCount;
+		} else if (config != null) {
 			return config.getColumnLast() - config.getColumnOffset() + 1;
 		} else {
 			Row row = sheet.getRow(sheet.getFirstRowNum());
@@ -22,11 +22,12 @@
  */
 package com.rapidminer.operator.nio.model;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.text.SimpleDateFormat;
-import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
@@ -34,10 +35,8 @@ import java.util.NoSuchElementException;
 import java.util.TimeZone;
 import java.util.logging.Level;
 
-import org.apache.poi.hssf.usermodel.HSSFDateUtil;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
 import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
 
@@ -50,14 +49,16 @@ import com.rapidminer.tools.ProgressListener;
 import com.rapidminer.tools.Tools;
 
 /**
- * A DataResultSet for an Excel 2007 File.
+ * A DataResultSet for an Excel 2007 File. The sheet is streamed by an {@link Excel2007SheetReader}
+ * twice: once to determine the empty rows and columns and once while delivering the rows. Only
+ * files which are no Excel 2007 packages are loaded completely into POI's object model.
  * 
  * @author Marco Boeck
  * 
  */
 public class Excel2007ResultSet implements DataResultSet {
 
-	private Sheet sheet = null;
+	private Excel2007SheetReader sheetReader = null;
 
 	private boolean[] emptyRows;
 	private boolean[] emptyColumns;
@@ -69,11 +70,13 @@ public class Excel2007ResultSet implements DataResultSet {
 	private int totalNumberOfColumns = 0;
 
 	private int currentRow;
-	private Cell[] currentRowCells;
+	private Excel2007SheetReader.SheetCell[] currentRowCells;
 
 	private Workbook workbook;
 	private InputStream workbookInputStream;
 
+	private File file;
+
 	//private ExcelResultSetConfiguration configuration;
 
 	private String[] attributeNames;
@@ -93,12 +96,6 @@ public class Excel2007ResultSet implements DataResultSet {
 
 		timeZone = configuration.getTimezone();
 		dateFormat = configuration.getDatePattern();
-		try {
-			workbookInputStream = new FileInputStream(configuration.getFile());
-			workbook = WorkbookFactory.create(workbookInputStream);
-		} catch (Exception e1) {
-			throw new UserError(callingOperator, "file_consumer.error_loading_file");
-		}
 
 		// check range
 		if (columnOffset > configuration.getColumnLast() || rowOffset > configuration.getRowLast() || columnOffset < 0 || rowOffset < 0)
@@ -108,41 +105,52 @@ public class Excel2007ResultSet implements DataResultSet {
 		if (configuration.getFile() == null) {
 			throw new UserError(callingOperator, "file_consumer.no_file_defined");
 		}
+		file = configuration.getFile();
 		try {
-			sheet = workbook.getSheetAt(configuration.getSheet());
+			sheetReader = new Excel2007SheetReader(file, configuration.getSheet());
 		} catch (IndexOutOfBoundsException e) {
 			throw new UserError(callingOperator, 953, configuration.getSheet());
+		} catch (OpenXML4JException e) {
+			// no Excel 2007 file, maybe an old one with a new name: load the complete workbook
+			try {
+				workbookInputStream = new FileInputStream(file);
+				workbook = WorkbookFactory.create(workbookInputStream);
+			} catch (Exception e1) {
+				throw new UserError(callingOperator, "file_consumer.error_loading_file");
+			}
+			try {
+				sheetReader = new Excel2007SheetReader(workbook.getSheetAt(configuration.getSheet()));
+			} catch (IndexOutOfBoundsException e1) {
+				throw new UserError(callingOperator, 953, configuration.getSheet());
+			}
+		} catch (Exception e) {
+			throw new UserError(callingOperator, "file_consumer.error_loading_file");
 		}
 
-		Row row = sheet.getRow(sheet.getFirstRowNum());
-		if (row == null) {
-			totalNumberOfColumns = 0;
-			totalNumberOfRows = 0;
-		} else {
-			totalNumberOfColumns = Math.min(configuration.getColumnLast(), sheet.getRow(sheet.getFirstRowNum()).getLastCellNum() - 1) - columnOffset + 1;
-			totalNumberOfRows = Math.min(configuration.getRowLast(), sheet.getLastRowNum()) - rowOffset + 1;
-		}
-
-		if (totalNumberOfColumns < 0 || totalNumberOfRows < 0)
-			throw new UserError(callingOperator, 404);
-
-		emptyColumns = new boolean[totalNumberOfColumns];
-		emptyRows = new boolean[totalNumberOfRows];
-
-		// filling offsets
-		Arrays.fill(emptyColumns, true);
-		Arrays.fill(emptyRows, true);
-
-		// determine offsets and emptiness
-		boolean foundAny = false;
-		for (int r = 0; r < totalNumberOfRows; r++) {
-			for (int c = 0; c < totalNumberOfColumns; c++) {
-				if (emptyRows[r] || emptyColumns[c]) {
-					final Row rowItem = sheet.getRow(r + rowOffset);
-					if (rowItem == null) {
-						continue;
-					}
-					final Cell cell = rowItem.getCell(c + columnOffset);
+		// determine size, offsets and emptiness in one pass over the rows within the range
+		BitSet nonEmptyRows = new BitSet();
+		BitSet nonEmptyColumns = new BitSet();
+		int firstRowLastCellNum = 0;
+		int lastRowNum = -1;
+		int lastColumn = -1;
+		try {
+			while (sheetReader.nextRow()) {
+				int r = sheetReader.getRowIndex();
+				if (lastRowNum < 0) {
+					// like the object model, the first row defines the number of columns
+					firstRowLastCellNum = sheetReader.getLastCellNum();
+					lastColumn = Math.min(configuration.getColumnLast(), firstRowLastCellNum - 1);
+				}
+				lastRowNum = r;
+				if (r > configuration.getRowLast()) {
+					break;
+				}
+				if (r < rowOffset) {
+					continue;
+				}
+				int lastCellInRow = Math.min(lastColumn, sheetReader.getLastCellNum() - 1);
+				for (int c = columnOffset; c <= lastCellInRow; c++) {
+					final Excel2007SheetReader.SheetCell cell = sheetReader.getCell(c);
 					if (cell == null) {
 						continue;
 					}
@@ -153,15 +161,37 @@ public class Excel2007ResultSet implements DataResultSet {
 						empty = false;
 					}
 					if (!empty) {
-						foundAny = true;
-						emptyRows[r] = false;
-						emptyColumns[c] = false;
+						nonEmptyRows.set(r);
+						nonEmptyColumns.set(c);
 					}
 				}
 			}
+			sheetReader.reset();
+		} catch (IOException e) {
+			throw new UserError(callingOperator, 302, file.getPath(), e.getMessage());
 		}
-		if (!foundAny) {
-			throw new UserError(callingOperator, 302, configuration.getFile().getPath(), "spreadsheet seems to be empty");
+
+		if (lastRowNum < 0) {
+			totalNumberOfColumns = 0;
+			totalNumberOfRows = 0;
+		} else {
+			totalNumberOfColumns = lastColumn - columnOffset + 1;
+			totalNumberOfRows = Math.min(configuration.getRowLast(), lastRowNum) - rowOffset + 1;
+		}
+
+		if (totalNumberOfColumns < 0 || totalNumberOfRows < 0)
+			throw new UserError(callingOperator, 404);
+
+		emptyColumns = new boolean[totalNumberOfColumns];
+		emptyRows = new boolean[totalNumberOfRows];
+		for (int c = 0; c < totalNumberOfColumns; c++) {
+			emptyColumns[c] = !nonEmptyColumns.get(c + columnOffset);
+		}
+		for (int r = 0; r < totalNumberOfRows; r++) {
+			emptyRows[r] = !nonEmptyRows.get(r + rowOffset);
+		}
+		if (nonEmptyRows.isEmpty()) {
+			throw new UserError(callingOperator, 302, file.getPath(), "spreadsheet seems to be empty");
 		}
 
 		// retrieve attribute names: first count columns
@@ -192,8 +222,13 @@ public class Excel2007ResultSet implements DataResultSet {
 	}
 
 	@Override
-	public void reset(ProgressListener listener) {
+	public void reset(ProgressListener listener) throws OperatorException {
 		currentRow = rowOffset - 1;
+		try {
+			sheetReader.reset();
+		} catch (IOException e) {
+			throw new UserError(null, 302, file.getPath(), e.getMessage());
+		}
 		if (listener != null) {
 			listener.setTotal(totalNumberOfRows);
 			listener.setCompleted(0);
@@ -209,7 +244,7 @@ public class Excel2007ResultSet implements DataResultSet {
 	}
 
 	@Override
-	public void next(ProgressListener listener) {
+	public void next(ProgressListener listener) throws OperatorException {
 		currentRow++;
 		while (currentRow < totalNumberOfRows + rowOffset && emptyRows[currentRow - rowOffset]) {
 			currentRow++;
@@ -219,11 +254,22 @@ public class Excel2007ResultSet implements DataResultSet {
 			throw new NoSuchElementException("No further row in excel sheet.");
 		}
 
-		currentRowCells = new Cell[attributeNames.length];
+		// non empty rows are defined in the file, so the reader stops exactly at the current row
+		try {
+			while (sheetReader.getRowIndex() < currentRow) {
+				if (!sheetReader.nextRow()) {
+					throw new NoSuchElementException("No further row in excel sheet.");
+				}
+			}
+		} catch (IOException e) {
+			throw new UserError(null, 302, file.getPath(), e.getMessage());
+		}
+
+		currentRowCells = new Excel2007SheetReader.SheetCell[attributeNames.length];
 		int columnCounter = 0;
 		for (int c = 0; c < totalNumberOfColumns; c++) {
 			if (!emptyColumns[c]) {
-				currentRowCells[columnCounter] = sheet.getRow(currentRow).getCell(c + columnOffset);
+				currentRowCells[columnCounter] = sheetReader.getCell(c + columnOffset);
 				columnCounter++;
 			}
 		}
@@ -236,6 +282,9 @@ public class Excel2007ResultSet implements DataResultSet {
 
 	@Override
 	public void close() throws OperatorException {
+		if (sheetReader != null) {
+			sheetReader.close();
+		}
 		try {
 			if (workbookInputStream != null) {
 				workbookInputStream.close();
@@ -258,7 +307,7 @@ public class Excel2007ResultSet implements DataResultSet {
 
 	@Override
 	public boolean isMissing(int columnIndex) {
-		Cell cell = getCurrentCell(columnIndex);
+		Excel2007SheetReader.SheetCell cell = getCurrentCell(columnIndex);
 		try {
 			boolean missing = cell == null || cell.getCellType() == Cell.CELL_TYPE_BLANK ||
 					cell.getCellType() == Cell.CELL_TYPE_ERROR ||
@@ -274,14 +323,14 @@ public class Excel2007ResultSet implements DataResultSet {
 	 * @param index
 	 * @return
 	 */
-	private Cell getCurrentCell(int index) {
+	private Excel2007SheetReader.SheetCell getCurrentCell(int index) {
 		// return currentRowCells[index + columnOffset];
 		return currentRowCells[index];
 	}
 
 	@Override
 	public Number getNumber(int columnIndex) throws ParseException {
-		final Cell cell = getCurrentCell(columnIndex);
+		final Excel2007SheetReader.SheetCell cell = getCurrentCell(columnIndex);
 		if (cell == null) {
 			return Double.NaN;
 		}
@@ -303,7 +352,7 @@ public class Excel2007ResultSet implements DataResultSet {
 
 	@Override
 	public Date getDate(int columnIndex) throws ParseException {
-		final Cell cell = getCurrentCell(columnIndex);
+		final Excel2007SheetReader.SheetCell cell = getCurrentCell(columnIndex);
 		if (cell == null) {
 			return null;
 		}
@@ -328,7 +377,7 @@ public class Excel2007ResultSet implements DataResultSet {
 
 	@Override
 	public String getString(int columnIndex) {
-		final Cell cell = getCurrentCell(columnIndex);
+		final Excel2007SheetReader.SheetCell cell = getCurrentCell(columnIndex);
 		if (cell == null) {
 			return "";
 		}
@@ -355,14 +404,14 @@ public class Excel2007ResultSet implements DataResultSet {
 
 	@Override
 	public ValueType getNativeValueType(int columnIndex) throws ParseException {
-		Cell cell = getCurrentCell(columnIndex);
+		Excel2007SheetReader.SheetCell cell = getCurrentCell(columnIndex);
 		final int type = cell.getCellType();
 		if (type == Cell.CELL_TYPE_BLANK) {
 			return ValueType.EMPTY;
 		} else if (type == Cell.CELL_TYPE_STRING) {
 			return ValueType.STRING;
 		} else if (type == Cell.CELL_TYPE_NUMERIC) {
-			if (HSSFDateUtil.isCellDateFormatted(cell)) {
+			if (cell.isDateFormatted()) {
 				return ValueType.DATE;
 			} else {
 				return ValueType.NUMBER;
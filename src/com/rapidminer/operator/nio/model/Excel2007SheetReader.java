@@ -0,0 +1,626 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.operator.nio.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.poi.hssf.usermodel.HSSFDateUtil;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackageRelationshipCollection;
+import org.apache.poi.openxml4j.opc.PackageRelationshipTypes;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.SAXException;
+
+/**
+ * Reads the rows of one sheet of an Excel 2007 file one after another. The file is accessed by
+ * POI's event API: {@link XSSFReader} opens the parts of the package and strings are resolved by a
+ * {@link ReadOnlySharedStringsTable}. The workbook, the number formats and the sheet itself are
+ * parsed by StAX readers, so that only the cells of the current row are kept in memory instead of
+ * the object model of the complete workbook.
+ * 
+ * Alternatively, a reader can be created for a {@link Sheet} which has already been loaded.
+ * In both cases, the cells are delivered as {@link SheetCell}s.
+ */
+public class Excel2007SheetReader {
+
+	/**
+	 * The content of one cell. The accessors behave like the ones of POI's {@link Cell}, in
+	 * particular they throw an {@link IllegalStateException} if the value of the cell has
+	 * another type.
+	 */
+	public static class SheetCell {
+
+		private final int type;
+
+		private final int cachedType;
+
+		/** The string of string cells or the raw value of all other cells. */
+		private final String value;
+
+		private final boolean dateStyle;
+
+		private final boolean date1904;
+
+		/** Only used for cells copied from the object model. */
+		private Date date;
+
+		private SheetCell(int type, int cachedType, String value, boolean dateStyle, boolean date1904) {
+			this.type = type;
+			this.cachedType = cachedType;
+			this.value = value;
+			this.dateStyle = dateStyle;
+			this.date1904 = date1904;
+		}
+
+		/** Returns one of the constants Cell.CELL_TYPE_*. */
+		public int getCellType() {
+			return type;
+		}
+
+		public double getNumericCellValue() {
+			switch (type) {
+			case Cell.CELL_TYPE_BLANK:
+				return 0;
+			case Cell.CELL_TYPE_NUMERIC:
+			case Cell.CELL_TYPE_FORMULA:
+				if (value == null) {
+					return 0;
+				}
+				try {
+					return Double.parseDouble(value);
+				} catch (NumberFormatException e) {
+					throw new IllegalStateException("Cannot get a numeric value from a text cell");
+				}
+			default:
+				throw new IllegalStateException("Cannot get a numeric value from a " + getTypeName(type) + " cell");
+			}
+		}
+
+		public String getStringCellValue() {
+			switch (type) {
+			case Cell.CELL_TYPE_BLANK:
+				return "";
+			case Cell.CELL_TYPE_STRING:
+				return value;
+			case Cell.CELL_TYPE_FORMULA:
+				if (cachedType != Cell.CELL_TYPE_STRING) {
+					throw new IllegalStateException("Cannot get a text value from a " + getTypeName(cachedType) + " formula cell");
+				}
+				return value == null ? "" : value;
+			default:
+				throw new IllegalStateException("Cannot get a text value from a " + getTypeName(type) + " cell");
+			}
+		}
+
+		public boolean getBooleanCellValue() {
+			if (type == Cell.CELL_TYPE_BLANK) {
+				return false;
+			} else if (type == Cell.CELL_TYPE_BOOLEAN || (type == Cell.CELL_TYPE_FORMULA && cachedType == Cell.CELL_TYPE_BOOLEAN)) {
+				return "1".equals(value) || "true".equalsIgnoreCase(value);
+			} else {
+				throw new IllegalStateException("Cannot get a boolean value from a " + getTypeName(type) + " cell");
+			}
+		}
+
+		/** Returns the error text, e.g. #DIV/0!, of error cells. */
+		public String getErrorCellString() {
+			if (type != Cell.CELL_TYPE_ERROR) {
+				throw new IllegalStateException("Cannot get an error value from a " + getTypeName(type) + " cell");
+			}
+			return value;
+		}
+
+		public Date getDateCellValue() {
+			if (type == Cell.CELL_TYPE_BLANK) {
+				return null;
+			} else if (date != null) {
+				return date;
+			} else {
+				return DateUtil.getJavaDate(getNumericCellValue(), date1904);
+			}
+		}
+
+		/** Returns true if the cell contains a valid date and is formatted as a date. */
+		public boolean isDateFormatted() {
+			return dateStyle && DateUtil.isValidExcelDate(getNumericCellValue());
+		}
+
+		/** Copies the content of a cell of the object model. */
+		private static SheetCell copyOf(Cell cell) {
+			int type = cell.getCellType();
+			int cachedType = type == Cell.CELL_TYPE_FORMULA ? cell.getCachedFormulaResultType() : type;
+			String value = null;
+			boolean dateStyle = false;
+			Date date = null;
+			try {
+				switch (cachedType) {
+				case Cell.CELL_TYPE_NUMERIC:
+					value = String.valueOf(cell.getNumericCellValue());
+					if (type == Cell.CELL_TYPE_NUMERIC) {
+						dateStyle = HSSFDateUtil.isCellDateFormatted(cell);
+						date = cell.getDateCellValue();
+					}
+					break;
+				case Cell.CELL_TYPE_STRING:
+					value = cell.getStringCellValue();
+					break;
+				case Cell.CELL_TYPE_BOOLEAN:
+					value = cell.getBooleanCellValue() ? "1" : "0";
+					break;
+				case Cell.CELL_TYPE_ERROR:
+					value = String.valueOf(cell.getErrorCellValue());
+					break;
+				default:
+					break;
+				}
+			} catch (IllegalStateException e) {
+				// the value stays unknown and the accessors fail as well
+			}
+			SheetCell copy = new SheetCell(type, cachedType, value, dateStyle, false);
+			copy.date = date;
+			return copy;
+		}
+
+		private static String getTypeName(int type) {
+			switch (type) {
+			case Cell.CELL_TYPE_BLANK:
+				return "blank";
+			case Cell.CELL_TYPE_BOOLEAN:
+				return "boolean";
+			case Cell.CELL_TYPE_ERROR:
+				return "error";
+			case Cell.CELL_TYPE_FORMULA:
+				return "formula";
+			case Cell.CELL_TYPE_NUMERIC:
+				return "numeric";
+			case Cell.CELL_TYPE_STRING:
+				return "text";
+			default:
+				return "#unknown cell type (" + type + ")#";
+			}
+		}
+	}
+
+	private static final SheetCell[] NO_CELLS = new SheetCell[0];
+
+	private static final String RELATIONSHIPS_NAMESPACE = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+	private static final String STYLES_RELATIONSHIP = RELATIONSHIPS_NAMESPACE + "/styles";
+
+	private OPCPackage excelPackage;
+
+	private XSSFReader reader;
+
+	private ReadOnlySharedStringsTable sharedStrings;
+
+	/** Indicates for each cell style whether it formats numbers as dates. */
+	private boolean[] dateStyles = new boolean[0];
+
+	private boolean date1904;
+
+	private final List<String> sheetNames = new ArrayList<String>();
+
+	private final List<String> sheetRelationshipIds = new ArrayList<String>();
+
+	private int sheetIndex;
+
+	private InputStream sheetStream;
+
+	private XMLStreamReader sheetReader;
+
+	/** Only used if reading from an already loaded sheet. */
+	private Sheet sheet;
+
+	private Iterator<Row> rowIterator;
+
+	private int rowIndex = -1;
+
+	private SheetCell[] cells = NO_CELLS;
+
+	private int lastCellNum = -1;
+
+	/**
+	 * Opens the sheet with the given index. Throws an {@link IndexOutOfBoundsException} if the
+	 * workbook does not have such a sheet and an {@link OpenXML4JException} if the file is no
+	 * Excel 2007 file.
+	 */
+	public Excel2007SheetReader(File file, int sheetIndex) throws IOException, OpenXML4JException {
+		this.sheetIndex = sheetIndex;
+		this.excelPackage = OPCPackage.open(file.getPath(), PackageAccess.READ);
+		try {
+			this.reader = new XSSFReader(excelPackage);
+			this.sharedStrings = new ReadOnlySharedStringsTable(excelPackage);
+			readWorkbook(reader.getWorkbookData());
+			readStyles();
+			reset();
+		} catch (SAXException e) {
+			close();
+			throw toIOException(e);
+		} catch (IOException e) {
+			close();
+			throw e;
+		} catch (OpenXML4JException e) {
+			close();
+			throw e;
+		} catch (RuntimeException e) {
+			close();
+			throw e;
+		}
+	}
+
+	private Excel2007SheetReader() {}
+
+	/** Reads the rows of an already loaded sheet. */
+	public Excel2007SheetReader(Sheet sheet) {
+		this.sheet = sheet;
+		this.rowIterator = sheet.rowIterator();
+	}
+
+	/** Returns the names of all sheets of the given file without loading the sheets. */
+	public static String[] getSheetNames(File file) throws IOException, OpenXML4JException {
+		Excel2007SheetReader workbook = new Excel2007SheetReader();
+		OPCPackage excelPackage = OPCPackage.open(file.getPath(), PackageAccess.READ);
+		try {
+			workbook.readWorkbook(new XSSFReader(excelPackage).getWorkbookData());
+			return workbook.sheetNames.toArray(new String[workbook.sheetNames.size()]);
+		} finally {
+			excelPackage.revert();
+		}
+	}
+
+	/** Starts again with the first row. */
+	public void reset() throws IOException {
+		rowIndex = -1;
+		cells = NO_CELLS;
+		lastCellNum = -1;
+		if (sheet != null) {
+			rowIterator = sheet.rowIterator();
+			return;
+		}
+		closeSheet();
+		if (sheetIndex < 0 || sheetIndex >= sheetRelationshipIds.size()) {
+			throw new IndexOutOfBoundsException("Sheet index (" + sheetIndex + ") is out of range (0.." + (sheetRelationshipIds.size() - 1) + ")");
+		}
+		try {
+			sheetStream = reader.getSheet(sheetRelationshipIds.get(sheetIndex));
+			sheetReader = XMLInputFactory.newInstance().createXMLStreamReader(sheetStream);
+		} catch (OpenXML4JException e) {
+			throw toIOException(e);
+		} catch (XMLStreamException e) {
+			throw toIOException(e);
+		}
+	}
+
+	/** Moves to the next row which is defined in the file. Returns false if there is none. */
+	public boolean nextRow() throws IOException {
+		Arrays.fill(cells, null);
+		lastCellNum = -1;
+		if (sheet != null) {
+			if (!rowIterator.hasNext()) {
+				return false;
+			}
+			Row row = rowIterator.next();
+			rowIndex = row.getRowNum();
+			for (Cell cell : row) {
+				setCell(cell.getColumnIndex(), SheetCell.copyOf(cell));
+			}
+			return true;
+		}
+		try {
+			while (sheetReader.hasNext()) {
+				if (sheetReader.next() == XMLStreamConstants.START_ELEMENT && "row".equals(sheetReader.getLocalName())) {
+					String reference = sheetReader.getAttributeValue(null, "r");
+					rowIndex = reference == null ? rowIndex + 1 : Integer.parseInt(reference) - 1;
+					readCells();
+					return true;
+				}
+			}
+			return false;
+		} catch (XMLStreamException e) {
+			throw toIOException(e);
+		}
+	}
+
+	/** Returns the 0-based index of the current row. */
+	public int getRowIndex() {
+		return rowIndex;
+	}
+
+	/** Returns the index of the last cell of the current row plus one or -1 if the row has no cells, like {@link Row#getLastCellNum()}. */
+	public int getLastCellNum() {
+		return lastCellNum;
+	}
+
+	/** Returns the cell of the current row with the given 0-based column index or null if it is not defined. */
+	public SheetCell getCell(int column) {
+		if (column < 0 || column >= lastCellNum) {
+			return null;
+		}
+		return cells[column];
+	}
+
+	public void close() {
+		closeSheet();
+		if (excelPackage != null) {
+			excelPackage.revert();
+			excelPackage = null;
+		}
+	}
+
+	private void closeSheet() {
+		if (sheetReader != null) {
+			try {
+				sheetReader.close();
+			} catch (XMLStreamException e) {
+				// the stream is closed below
+			}
+			sheetReader = null;
+		}
+		if (sheetStream != null) {
+			try {
+				sheetStream.close();
+			} catch (IOException e) {
+				// nothing left to do
+			}
+			sheetStream = null;
+		}
+	}
+
+	private void setCell(int column, SheetCell cell) {
+		if (column >= cells.length) {
+			cells = Arrays.copyOf(cells, Math.max(column + 1, 2 * cells.length));
+		}
+		cells[column] = cell;
+		lastCellNum = Math.max(lastCellNum, column + 1);
+	}
+
+	/** Reads the cells of the row the reader is positioned at. Afterwards, the reader is positioned at the end of the row. */
+	private void readCells() throws XMLStreamException {
+		int column = -1;
+		while (sheetReader.hasNext()) {
+			int event = sheetReader.next();
+			if (event == XMLStreamConstants.START_ELEMENT && "c".equals(sheetReader.getLocalName())) {
+				String reference = sheetReader.getAttributeValue(null, "r");
+				column = reference == null ? column + 1 : getColumnIndex(reference);
+				setCell(column, readCell());
+			} else if (event == XMLStreamConstants.END_ELEMENT && "row".equals(sheetReader.getLocalName())) {
+				return;
+			}
+		}
+	}
+
+	/** Reads the cell the reader is positioned at. Afterwards, the reader is positioned at the end of the cell. */
+	private SheetCell readCell() throws XMLStreamException {
+		String type = sheetReader.getAttributeValue(null, "t");
+		String style = sheetReader.getAttributeValue(null, "s");
+		boolean formula = false;
+		String value = null;
+		String inlineString = null;
+		while (sheetReader.hasNext()) {
+			int event = sheetReader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				String name = sheetReader.getLocalName();
+				if ("f".equals(name)) {
+					formula = true;
+					sheetReader.getElementText();
+				} else if ("v".equals(name)) {
+					value = sheetReader.getElementText();
+				} else if ("is".equals(name)) {
+					inlineString = readInlineString();
+				}
+			} else if (event == XMLStreamConstants.END_ELEMENT && "c".equals(sheetReader.getLocalName())) {
+				break;
+			}
+		}
+
+		int baseType;
+		if (type == null || "n".equals(type)) {
+			baseType = Cell.CELL_TYPE_NUMERIC;
+		} else if ("b".equals(type)) {
+			baseType = Cell.CELL_TYPE_BOOLEAN;
+		} else if ("e".equals(type)) {
+			baseType = Cell.CELL_TYPE_ERROR;
+		} else {
+			baseType = Cell.CELL_TYPE_STRING;
+		}
+		if (formula) {
+			return new SheetCell(Cell.CELL_TYPE_FORMULA, baseType, value, false, date1904);
+		} else if (baseType == Cell.CELL_TYPE_NUMERIC) {
+			if (value == null) {
+				return new SheetCell(Cell.CELL_TYPE_BLANK, Cell.CELL_TYPE_BLANK, null, false, date1904);
+			}
+			return new SheetCell(Cell.CELL_TYPE_NUMERIC, Cell.CELL_TYPE_NUMERIC, value, isDateStyle(style), date1904);
+		} else if (baseType == Cell.CELL_TYPE_STRING) {
+			String string;
+			if ("s".equals(type)) {
+				string = value == null ? "" : sharedStrings.getEntryAt(Integer.parseInt(value.trim()));
+			} else if (inlineString != null) {
+				string = inlineString;
+			} else {
+				string = value == null ? "" : value;
+			}
+			return new SheetCell(Cell.CELL_TYPE_STRING, Cell.CELL_TYPE_STRING, string, false, date1904);
+		} else {
+			return new SheetCell(baseType, baseType, value, false, date1904);
+		}
+	}
+
+	/** Concatenates the text runs of an inline string without the phonetic runs. */
+	private String readInlineString() throws XMLStreamException {
+		StringBuilder text = new StringBuilder();
+		boolean phonetic = false;
+		while (sheetReader.hasNext()) {
+			int event = sheetReader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				String name = sheetReader.getLocalName();
+				if ("rPh".equals(name)) {
+					phonetic = true;
+				} else if ("t".equals(name)) {
+					String part = sheetReader.getElementText();
+					if (!phonetic) {
+						text.append(part);
+					}
+				}
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				String name = sheetReader.getLocalName();
+				if ("rPh".equals(name)) {
+					phonetic = false;
+				} else if ("is".equals(name)) {
+					break;
+				}
+			}
+		}
+		return text.toString();
+	}
+
+	private boolean isDateStyle(String style) {
+		int index = style == null ? 0 : Integer.parseInt(style);
+		return index >= 0 && index < dateStyles.length && dateStyles[index];
+	}
+
+	/** Returns the 0-based column of a cell reference like AB12. */
+	private static int getColumnIndex(String reference) {
+		int column = 0;
+		for (int i = 0; i < reference.length(); i++) {
+			char c = reference.charAt(i);
+			if (c >= 'A' && c <= 'Z') {
+				column = column * 26 + (c - 'A' + 1);
+			} else if (c >= 'a' && c <= 'z') {
+				column = column * 26 + (c - 'a' + 1);
+			} else {
+				break;
+			}
+		}
+		return column - 1;
+	}
+
+	/** Reads the names and relationship ids of the sheets and the date system from the workbook part. */
+	private void readWorkbook(InputStream workbook) throws IOException {
+		try {
+			XMLStreamReader workbookReader = XMLInputFactory.newInstance().createXMLStreamReader(workbook);
+			try {
+				while (workbookReader.hasNext()) {
+					if (workbookReader.next() == XMLStreamConstants.START_ELEMENT) {
+						String name = workbookReader.getLocalName();
+						if ("workbookPr".equals(name)) {
+							String date1904 = workbookReader.getAttributeValue(null, "date1904");
+							this.date1904 = "1".equals(date1904) || "true".equals(date1904);
+						} else if ("sheet".equals(name)) {
+							sheetNames.add(workbookReader.getAttributeValue(null, "name"));
+							sheetRelationshipIds.add(workbookReader.getAttributeValue(RELATIONSHIPS_NAMESPACE, "id"));
+						}
+					}
+				}
+			} finally {
+				workbookReader.close();
+			}
+		} catch (XMLStreamException e) {
+			throw toIOException(e);
+		} finally {
+			workbook.close();
+		}
+	}
+
+	/**
+	 * Determines which cell styles format numbers as dates. Like {@link XSSFCellStyle}, the format
+	 * of a style is either defined in the styles part or a built in format.
+	 */
+	private void readStyles() throws IOException, OpenXML4JException {
+		PackagePart workbookPart = excelPackage.getPart(excelPackage.getRelationshipsByType(PackageRelationshipTypes.CORE_DOCUMENT).getRelationship(0));
+		PackageRelationshipCollection stylesRelationships = workbookPart.getRelationshipsByType(STYLES_RELATIONSHIP);
+		if (stylesRelationships.size() == 0) {
+			return;
+		}
+		PackagePart stylesPart = workbookPart.getRelatedPart(stylesRelationships.getRelationship(0));
+		Map<Integer, String> formats = new HashMap<Integer, String>();
+		List<Integer> styleFormats = new ArrayList<Integer>();
+		InputStream in = stylesPart.getInputStream();
+		try {
+			XMLStreamReader stylesReader = XMLInputFactory.newInstance().createXMLStreamReader(in);
+			try {
+				boolean cellStyles = false;
+				while (stylesReader.hasNext()) {
+					int event = stylesReader.next();
+					if (event == XMLStreamConstants.START_ELEMENT) {
+						String name = stylesReader.getLocalName();
+						if ("numFmt".equals(name)) {
+							formats.put(Integer.parseInt(stylesReader.getAttributeValue(null, "numFmtId")), stylesReader.getAttributeValue(null, "formatCode"));
+						} else if ("cellXfs".equals(name)) {
+							cellStyles = true;
+						} else if (cellStyles && "xf".equals(name)) {
+							String formatId = stylesReader.getAttributeValue(null, "numFmtId");
+							styleFormats.add(formatId == null ? 0 : Integer.parseInt(formatId));
+						}
+					} else if (event == XMLStreamConstants.END_ELEMENT && "cellXfs".equals(stylesReader.getLocalName())) {
+						cellStyles = false;
+					}
+				}
+			} finally {
+				stylesReader.close();
+			}
+		} catch (XMLStreamException e) {
+			throw toIOException(e);
+		} finally {
+			in.close();
+		}
+		dateStyles = new boolean[styleFormats.size()];
+		for (int i = 0; i < dateStyles.length; i++) {
+			int formatId = styleFormats.get(i);
+			String format = formats.get(formatId);
+			if (format == null) {
+				format = BuiltinFormats.getBuiltinFormat(formatId);
+			}
+			dateStyles[i] = DateUtil.isADateFormat(formatId, format);
+		}
+	}
+
+	private static IOException toIOException(Exception e) {
+		IOException exception = new IOException(e.getMessage());
+		exception.initCause(e);
+		return exception;
+	}
+}
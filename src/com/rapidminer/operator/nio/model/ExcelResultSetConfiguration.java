@@ -40,6 +40,7 @@ import jxl.read.biff.BiffException;
 
 import org.apache.poi.POIXMLException;
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
 
 import com.rapidminer.operator.Operator;
@@ -48,6 +49,7 @@ import com.rapidminer.operator.UserError;
 import com.rapidminer.operator.nio.Excel2007SheetTableModel;
 import com.rapidminer.operator.nio.ExcelExampleSource;
 import com.rapidminer.operator.nio.ExcelSheetTableModel;
+import com.rapidminer.operator.nio.ImportWizardUtils;
 import com.rapidminer.operator.ports.metadata.ExampleSetMetaData;
 import com.rapidminer.parameter.UndefinedParameterError;
 import com.rapidminer.tools.I18N;
@@ -74,6 +76,8 @@ public class ExcelResultSetConfiguration implements DataResultSetFactory {
 	private org.apache.poi.ss.usermodel.Workbook workbookPOI;
 	private InputStream workbookPOIInputStream;
 	private jxl.Workbook workbookJXL;
+	/** The sheet names of an Excel 2007 file which is streamed instead of being loaded as workbook. */
+	private String[] sheetNames2007;
 	private File workbookFile;
 
 	private boolean isEmulatingOldNames;
@@ -155,11 +159,12 @@ public class ExcelResultSetConfiguration implements DataResultSetFactory {
 	 * Returns if there is an active workbook.
 	 * */
 	public boolean hasWorkbook() {
-		return workbookJXL != null || workbookPOI != null;
+		return workbookJXL != null || workbookPOI != null || sheetNames2007 != null;
 	}
 
 	/**
 	 * Creates an excel table model (either {@link ExcelSheetTableModel} or {@link Excel2007SheetTableModel}, depending on file).
+	 * Excel 2007 sheets are streamed and only the first {@link ImportWizardUtils#getPreviewLength()} rows are shown.
 	 * @param sheetIndex the index of the sheet (0-based)
 	 * @return
 	 * @throws BiffException
@@ -170,7 +175,12 @@ public class ExcelResultSetConfiguration implements DataResultSetFactory {
 		if (getFile().getAbsolutePath().endsWith(".xlsx")) {
 			// excel 2007 file
 			if (workbookPOI == null) {
-				createWorkbookPOI();
+				try {
+					return new Excel2007SheetTableModel(new Excel2007SheetReader(getFile(), sheetIndex), ImportWizardUtils.getPreviewLength());
+				} catch (OpenXML4JException e) {
+					// no Excel 2007 package, try the object model
+					createWorkbookPOI();
+				}
 			}
 			Excel2007SheetTableModel excelSheetTableModel = new Excel2007SheetTableModel(workbookPOI.getSheetAt(sheetIndex));
 			return excelSheetTableModel;
@@ -194,10 +204,7 @@ public class ExcelResultSetConfiguration implements DataResultSetFactory {
 	public int getNumberOfSheets() throws BiffException, IOException, InvalidFormatException {
 		if (getFile().getAbsolutePath().endsWith(".xlsx")) {
 			// excel 2007 file
-			if (workbookPOI == null) {
-				createWorkbookPOI();
-			}
-			return workbookPOI.getNumberOfSheets();
+			return getSheetNames().length;
 		} else {
 			// excel pre 2007 file
 			if (workbookJXL == null) {
@@ -217,11 +224,21 @@ public class ExcelResultSetConfiguration implements DataResultSetFactory {
 	public String[] getSheetNames() throws BiffException, IOException, InvalidFormatException {
 		if (getFile().getAbsolutePath().endsWith(".xlsx")) {
 			// excel 2007 file
-			if (workbookPOI == null) {
-				createWorkbookPOI();
+			if (sheetNames2007 == null && workbookPOI == null) {
+				try {
+					sheetNames2007 = Excel2007SheetReader.getSheetNames(getFile());
+				} catch (InvalidFormatException e) {
+					// no Excel 2007 package, try the object model
+					createWorkbookPOI();
+				} catch (OpenXML4JException e) {
+					throw new IOException(e.getMessage());
+				}
+			}
+			if (sheetNames2007 != null) {
+				return sheetNames2007;
 			}
-			String[] sheetNames = new String[getNumberOfSheets()];
-			for (int i = 0; i < getNumberOfSheets(); i++) {
+			String[] sheetNames = new String[workbookPOI.getNumberOfSheets()];
+			for (int i = 0; i < sheetNames.length; i++) {
 				sheetNames[i] = workbookPOI.getSheetName(i);
 			}
 			return sheetNames;
@@ -271,6 +288,7 @@ public class ExcelResultSetConfiguration implements DataResultSetFactory {
 		}
 		workbookPOI = null;
 		workbookPOIInputStream = null;
+		sheetNames2007 = null;
 		rowOffset = 0;
 		columnOffset = 0;
 		rowLast = Integer.MAX_VALUE;
@@ -364,6 +382,7 @@ public class ExcelResultSetConfiguration implements DataResultSetFactory {
 		}
 		workbookPOI = null;
 		workbookPOIInputStream = null;
+		sheetNames2007 = null;
 	}
 
 	@Override
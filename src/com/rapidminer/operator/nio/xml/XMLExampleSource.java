@@ -47,6 +47,9 @@ import com.rapidminer.tools.StrictDecimalFormat;
  * a single example.
  * For each defined attribute another XPath expression is evaluated over all of the
  * matches to fill the values of each example.
+ * If the XPath for examples is a simple path of element names like <code>/root/item</code>
+ * or <code>//item</code> and the attribute XPaths only refer to the matched element and its
+ * content, the file is streamed instead and only one match is kept in memory at a time.
  * 
  * @author Sebastian Land
  */
@@ -0,0 +1,414 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.operator.nio.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLResolver;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.Text;
+
+import com.rapidminer.operator.OperatorException;
+import com.rapidminer.operator.UserError;
+
+/**
+ * Reads the elements matching the XPath for examples from an XML file with StAX instead of
+ * loading the complete DOM. Only the subtree of the current match is kept in memory as a small
+ * DOM, so that the XPath expressions for the attributes can be evaluated as before.
+ * 
+ * Streaming is only possible for a subset of XPath: the XPath for examples must be a location path
+ * of element names without predicates, e.g. <code>/root/item</code> or <code>//item</code>, and the
+ * XPaths for attributes must not leave the matched element. Use
+ * {@link #isStreamable(XMLResultSetConfiguration)} to check this before creating a stream.
+ */
+class XMLExampleStream {
+
+	/** A name test with an optional prefix, <code>*</code> matches all names. */
+	private static final Pattern STEP_PATTERN = Pattern.compile("(?:([\\w][\\w.\\-]*):)?(\\*|[\\w][\\w.\\-]*)");
+
+	/** Expressions selecting nodes outside of the context node or of the current document. */
+	private static final Pattern NON_LOCAL_PATTERN = Pattern.compile("(^|[(\\[,|=<>+\\-])\\s*/|\\.\\.|ancestor|parent|preceding|following|id\\s*\\(|document\\s*\\(");
+
+	/** Property of the JDK's StAX parser to report CDATA sections instead of plain text. */
+	private static final String REPORT_CDATA_PROPERTY = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+
+	/** One step of the XPath for examples. */
+	private static class Step {
+
+		private final String namespaceURI;
+
+		private final String localName;
+
+		private final boolean descendant;
+
+		private Step(String namespaceURI, String localName, boolean descendant) {
+			this.namespaceURI = namespaceURI;
+			this.localName = localName;
+			this.descendant = descendant;
+		}
+
+		private boolean matches(String[] name) {
+			return ("*".equals(localName) || localName.equals(name[1])) && (namespaceURI == null || namespaceURI.equals(name[0]));
+		}
+	}
+
+	private final XMLResultSetConfiguration configuration;
+
+	private final Step[] steps;
+
+	/** Namespace URI and local name of the currently open elements. */
+	private final List<String[]> openElements = new ArrayList<String[]>();
+
+	/** Matches nested into the last returned element. */
+	private final LinkedList<Element> pendingMatches = new LinkedList<Element>();
+
+	private DocumentBuilder documentBuilder;
+
+	private InputStream in;
+
+	private XMLStreamReader reader;
+
+	XMLExampleStream(XMLResultSetConfiguration configuration) throws OperatorException {
+		this.configuration = configuration;
+		this.steps = parseExamplePath(configuration);
+		if (steps == null) {
+			throw new UserError(null, 214, configuration.getExampleXPath());
+		}
+		open();
+	}
+
+	/**
+	 * Returns true if the expressions of the given configuration can be evaluated by streaming
+	 * through the file.
+	 */
+	static boolean isStreamable(XMLResultSetConfiguration configuration) {
+		if (parseExamplePath(configuration) == null) {
+			return false;
+		}
+		for (String expression : configuration.getAttributeXPaths()) {
+			if (NON_LOCAL_PATTERN.matcher(expression.trim()).find()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** Returns the steps of the XPath for examples or null if it cannot be streamed. */
+	private static Step[] parseExamplePath(XMLResultSetConfiguration configuration) {
+		String path = configuration.getExampleXPath();
+		if (path == null) {
+			return null;
+		}
+		path = path.trim();
+		boolean namespaceAware = configuration.isNamespaceAware();
+		if (namespaceAware && configuration.getDefaultNamespaceURI() != null) {
+			// unprefixed names would have to be resolved like the XPath engine does
+			return null;
+		}
+		if (path.startsWith("/")) {
+			path = path.substring(1);
+		}
+		if (path.length() == 0) {
+			return null;
+		}
+		Map<String, String> namespaces = configuration.getNamespacesMap();
+		String[] tokens = path.split("/", -1);
+		List<Step> steps = new ArrayList<Step>(tokens.length);
+		boolean descendant = false;
+		for (int i = 0; i < tokens.length; i++) {
+			String token = tokens[i].trim();
+			if (token.length() == 0) {
+				if (descendant || i == tokens.length - 1) {
+					return null;
+				}
+				// "//" selects descendants
+				descendant = true;
+				continue;
+			}
+			Matcher matcher = STEP_PATTERN.matcher(token);
+			if (!matcher.matches()) {
+				return null;
+			}
+			String prefix = matcher.group(1);
+			String namespaceURI;
+			if (namespaceAware) {
+				if (prefix == null) {
+					namespaceURI = XMLConstants.NULL_NS_URI;
+				} else {
+					namespaceURI = namespaces.get(prefix);
+					if (namespaceURI == null) {
+						namespaceURI = XMLConstants.NULL_NS_URI;
+					}
+				}
+			} else {
+				if (prefix != null) {
+					return null;
+				}
+				namespaceURI = null;
+			}
+			steps.add(new Step(namespaceURI, matcher.group(2), descendant));
+			descendant = false;
+		}
+		return steps.toArray(new Step[steps.size()]);
+	}
+
+	private void open() throws OperatorException {
+		String resourceIdentifier = configuration.getResourceIdentifier();
+		if (resourceIdentifier == null) {
+			throw new UserError(null, "file_consumer.no_file_defined");
+		}
+		try {
+			DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
+			domFactory.setNamespaceAware(configuration.isNamespaceAware());
+			documentBuilder = domFactory.newDocumentBuilder();
+		} catch (ParserConfigurationException e) {
+			throw new OperatorException("Failed to configure XML parser: " + e, e);
+		}
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, configuration.isNamespaceAware());
+		factory.setProperty(XMLInputFactory.IS_VALIDATING, false);
+		if (factory.isPropertySupported(REPORT_CDATA_PROPERTY)) {
+			// the DOM keeps CDATA sections, too
+			factory.setProperty(REPORT_CDATA_PROPERTY, true);
+		}
+		factory.setXMLResolver(new XMLResolver() {
+
+			@Override
+			public Object resolveEntity(String publicID, String systemID, String baseURI, String namespace) {
+				// external DTDs are not loaded, as for the DOM
+				return new ByteArrayInputStream(new byte[0]);
+			}
+		});
+		try {
+			in = new FileInputStream(new File(resourceIdentifier));
+			reader = factory.createXMLStreamReader(in);
+		} catch (IOException e) {
+			close();
+			throw new UserError(null, 302, resourceIdentifier, e.getMessage());
+		} catch (XMLStreamException e) {
+			close();
+			throw new UserError(null, 401, e.getMessage());
+		}
+		openElements.clear();
+		pendingMatches.clear();
+	}
+
+	/** Starts again at the beginning of the file. */
+	void reset() throws OperatorException {
+		close();
+		open();
+	}
+
+	/**
+	 * Returns the next element matching the XPath for examples in document order or null if there
+	 * is none. The returned element is the root of a document containing only its subtree.
+	 */
+	Element next() throws OperatorException {
+		if (!pendingMatches.isEmpty()) {
+			return pendingMatches.removeFirst();
+		}
+		if (reader == null) {
+			return null;
+		}
+		try {
+			while (reader.hasNext()) {
+				int event = reader.next();
+				if (event == XMLStreamConstants.START_ELEMENT) {
+					openElements.add(getName(reader.getNamespaceURI(), reader.getLocalName()));
+					if (matches(0, 0)) {
+						Element element = readSubtree();
+						collectNestedMatches(element);
+						openElements.remove(openElements.size() - 1);
+						return element;
+					}
+				} else if (event == XMLStreamConstants.END_ELEMENT) {
+					openElements.remove(openElements.size() - 1);
+				}
+			}
+			return null;
+		} catch (XMLStreamException e) {
+			throw new UserError(null, 401, e.getMessage());
+		}
+	}
+
+	void close() {
+		if (reader != null) {
+			try {
+				reader.close();
+			} catch (XMLStreamException e) {
+				// the underlying stream is closed below
+			}
+			reader = null;
+		}
+		if (in != null) {
+			try {
+				in.close();
+			} catch (IOException e) {
+				// nothing left to do
+			}
+			in = null;
+		}
+	}
+
+	/** Returns true if the open elements from the given position on are matched by the steps from the given index on. */
+	private boolean matches(int stepIndex, int elementIndex) {
+		if (stepIndex == steps.length) {
+			return elementIndex == openElements.size();
+		}
+		Step step = steps[stepIndex];
+		if (step.descendant) {
+			for (int i = elementIndex; i < openElements.size(); i++) {
+				if (step.matches(openElements.get(i)) && matches(stepIndex + 1, i + 1)) {
+					return true;
+				}
+			}
+			return false;
+		} else {
+			return elementIndex < openElements.size() && step.matches(openElements.get(elementIndex)) && matches(stepIndex + 1, elementIndex + 1);
+		}
+	}
+
+	/** Adds all elements below the given one which match the XPath for examples in document order. */
+	private void collectNestedMatches(Element parent) {
+		for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+			if (child.getNodeType() == Node.ELEMENT_NODE) {
+				String localName = configuration.isNamespaceAware() ? child.getLocalName() : child.getNodeName();
+				openElements.add(getName(child.getNamespaceURI(), localName));
+				if (matches(0, 0)) {
+					pendingMatches.add((Element) child);
+				}
+				collectNestedMatches((Element) child);
+				openElements.remove(openElements.size() - 1);
+			}
+		}
+	}
+
+	/** Returns namespace URI and local name as used for matching. */
+	private String[] getName(String namespaceURI, String localName) {
+		if (!configuration.isNamespaceAware()) {
+			// like the XPath engine, the local name of a qualified name is used if namespaces are ignored
+			int colon = localName.indexOf(':');
+			return new String[] { null, colon < 0 ? localName : localName.substring(colon + 1) };
+		}
+		return new String[] { namespaceURI == null ? XMLConstants.NULL_NS_URI : namespaceURI, localName };
+	}
+
+	/** Builds a DOM of the element the reader is positioned at. Afterwards, the reader is positioned at its end tag. */
+	private Element readSubtree() throws XMLStreamException {
+		Document document = documentBuilder.newDocument();
+		Node parent = document;
+		int depth = 0;
+		while (true) {
+			switch (reader.getEventType()) {
+			case XMLStreamConstants.START_ELEMENT:
+				Element element = createElement(document);
+				parent.appendChild(element);
+				parent = element;
+				depth++;
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				parent = parent.getParentNode();
+				depth--;
+				break;
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.SPACE:
+				// the parser may split text, the DOM holds it in one node
+				Node last = parent.getLastChild();
+				if (last != null && last.getNodeType() == Node.TEXT_NODE) {
+					((Text) last).appendData(reader.getText());
+				} else {
+					parent.appendChild(document.createTextNode(reader.getText()));
+				}
+				break;
+			case XMLStreamConstants.CDATA:
+				parent.appendChild(document.createCDATASection(reader.getText()));
+				break;
+			case XMLStreamConstants.COMMENT:
+				parent.appendChild(document.createComment(reader.getText()));
+				break;
+			case XMLStreamConstants.PROCESSING_INSTRUCTION:
+				parent.appendChild(document.createProcessingInstruction(reader.getPITarget(), reader.getPIData()));
+				break;
+			default:
+				break;
+			}
+			if (depth == 0) {
+				return document.getDocumentElement();
+			}
+			reader.next();
+		}
+	}
+
+	private Element createElement(Document document) {
+		Element element;
+		if (configuration.isNamespaceAware()) {
+			element = document.createElementNS(emptyToNull(reader.getNamespaceURI()), getQualifiedName(reader.getPrefix(), reader.getLocalName()));
+			for (int i = 0; i < reader.getNamespaceCount(); i++) {
+				String prefix = reader.getNamespacePrefix(i);
+				String qualifiedName = prefix == null || prefix.length() == 0 ? XMLConstants.XMLNS_ATTRIBUTE : XMLConstants.XMLNS_ATTRIBUTE + ":" + prefix;
+				element.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, qualifiedName, reader.getNamespaceURI(i));
+			}
+			for (int i = 0; i < reader.getAttributeCount(); i++) {
+				element.setAttributeNS(emptyToNull(reader.getAttributeNamespace(i)), getQualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)), reader.getAttributeValue(i));
+			}
+		} else {
+			element = document.createElement(reader.getLocalName());
+			for (int i = 0; i < reader.getAttributeCount(); i++) {
+				element.setAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+			}
+		}
+		return element;
+	}
+
+	private static String getQualifiedName(String prefix, String localName) {
+		if (prefix == null || prefix.length() == 0) {
+			return localName;
+		}
+		return prefix + ":" + localName;
+	}
+
+	private static String emptyToNull(String namespaceURI) {
+		return namespaceURI == null || namespaceURI.length() == 0 ? null : namespaceURI;
+	}
+}
@@ -50,12 +50,18 @@ import com.rapidminer.tools.ProgressListener;
 import com.rapidminer.tools.xml.MapBasedNamespaceContext;
 
 /**
+ * Delivers one row for each match of the XPath for examples. If the XPath expressions allow it,
+ * the file is streamed with an {@link XMLExampleStream} so that only the current match is kept
+ * in memory. Otherwise the complete DOM is loaded.
  * 
  * @author Sebastian Land
  */
 public class XMLResultSet implements DataResultSet {
 
     private NodeList exampleNodes = null;
+    private XMLExampleStream exampleStream = null;
+    private Node nextExampleNode = null;
+    private OperatorException streamError = null;
     private XPathExpression[] attributeExpressions = null;
     private String[] attributeNames = null;
     private int[] attributeValueTypes = null;
@@ -107,6 +113,16 @@ public class XMLResultSet implements DataResultSet {
         Arrays.fill(attributeValueTypes, Ontology.NOMINAL);
         currentExampleValues = new String[attributeXPathsList.size()];
 
+        if (!configuration.isDocumentObjectModelLoaded() && XMLExampleStream.isStreamable(configuration)) {
+            try {
+                exampleStream = new XMLExampleStream(configuration);
+            } catch (UserError e) {
+                e.setOperator(callingOperator);
+                throw e;
+            }
+            return;
+        }
+
         try {
             exampleNodes = (NodeList) exampleExpression.evaluate(configuration.getDocumentObjectModel(), XPathConstants.NODESET);
         } catch (UserError e) {
@@ -119,19 +135,44 @@ public class XMLResultSet implements DataResultSet {
 
     @Override
     public boolean hasNext() {
+        if (exampleStream != null) {
+            if (nextExampleNode == null && streamError == null) {
+                try {
+                    nextExampleNode = exampleStream.next();
+                } catch (OperatorException e) {
+                    // reported by next()
+                    streamError = e;
+                }
+            }
+            return nextExampleNode != null || streamError != null;
+        }
         return exampleNodes.getLength() > currentExampleIndex + 1;
     }
 
     @Override
     public void next(ProgressListener listener) throws OperatorException {
         currentExampleIndex++;
-        if (currentExampleIndex >= exampleNodes.getLength()) {
-            throw new NoSuchElementException("No further match to examples XPath expression in XML file. Accessed " + currentExampleIndex + " but has has " + exampleNodes.getLength());
+        Node item;
+        if (exampleStream != null) {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No further match to examples XPath expression in XML file.");
+            }
+            if (streamError != null) {
+                OperatorException error = streamError;
+                streamError = null;
+                throw error;
+            }
+            item = nextExampleNode;
+            nextExampleNode = null;
+        } else {
+            if (currentExampleIndex >= exampleNodes.getLength()) {
+                throw new NoSuchElementException("No further match to examples XPath expression in XML file. Accessed " + currentExampleIndex + " but has has " + exampleNodes.getLength());
+            }
+            item = exampleNodes.item(currentExampleIndex);
         }
 
         for (int i = 0; i < attributeExpressions.length; i++) {
             try {
-            	Node item = exampleNodes.item(currentExampleIndex);
 				if (operatorVersion.compareTo(XMLExampleSource.CHANGE_5_1_013_NODE_OUTPUT) > 0) {
 	                NodeList nodeList = (NodeList)attributeExpressions[i].evaluate(item, XPathConstants.NODESET);
 					currentExampleValues[i] = XMLDomHelper.nodeListToString(nodeList);
@@ -189,12 +230,20 @@ public class XMLResultSet implements DataResultSet {
 
     @Override
     public void close() throws OperatorException {
-        // Nothing to close: inputstream to File or URL has already be closed in constructor
+        // When using the DOM, the inputstream to File or URL has already be closed in constructor
+        if (exampleStream != null) {
+            exampleStream.close();
+        }
     }
 
     @Override
     public void reset(ProgressListener listener) throws OperatorException {
         currentExampleIndex = -1;
+        if (exampleStream != null) {
+            nextExampleNode = null;
+            streamError = null;
+            exampleStream.reset();
+        }
     }
 
     @Override
@@ -258,6 +258,14 @@ public class XMLResultSetConfiguration implements DataResultSetFactory {
         this.prefetchedDocument = null; //reseting cached dom.
     }
 
+    /**
+     * Returns true if the DOM of the current xml file has already been loaded by
+     * {@link #getDocumentObjectModel()}.
+     */
+    public boolean isDocumentObjectModelLoaded() {
+        return prefetchedDocument != null;
+    }
+
     /**
      * This will load the DOM from the current xml file if necessary or return the
      * already loaded one. This avoids multiple loaded instances of the same xml file.
@@ -22,6 +22,8 @@
  */
 package com.rapidminer.operator.ports;
 
+import java.util.List;
+
 import com.rapidminer.operator.IOObject;
 import com.rapidminer.operator.IOObjectCollection;
 import com.rapidminer.operator.ports.metadata.CollectionMetaData;
@@ -62,11 +64,29 @@ public class CollectingPortPairExtender extends PortPairExtender {
 
 	/** For all input ports that have data, this data is added to the collection currently assigned
 	 *  to the output port. */
-	@SuppressWarnings("unchecked")
 	public void collect() {
 		synchronized (this) {
-			for (PortPair pair : getManagedPairs()) {
-				IOObject data = pair.getInputPort().getAnyDataOrNull();
+			List<PortPair> pairs = getManagedPairs();
+			IOObject[] data = new IOObject[pairs.size()];
+			for (int i = 0; i < data.length; i++) {
+				data[i] = pairs.get(i).getInputPort().getAnyDataOrNull();
+			}
+			collect(data);
+		}
+	}
+
+	/**
+	 * Adds the given objects to the collections currently assigned to the output ports. The i-th
+	 * object belongs to the i-th managed pair, null entries are skipped. This is used by operators
+	 * which execute clones of their subprocess and read the results from the inner sinks of the clones.
+	 */
+	@SuppressWarnings("unchecked")
+	public void collect(IOObject[] results) {
+		synchronized (this) {
+			List<PortPair> pairs = getManagedPairs();
+			for (int i = 0; i < Math.min(results.length, pairs.size()); i++) {
+				PortPair pair = pairs.get(i);
+				IOObject data = results[i];
 				if (data != null) {
 					IOObject output = pair.getOutputPort().getAnyDataOrNull();
 					if (output == null) { // first iteration
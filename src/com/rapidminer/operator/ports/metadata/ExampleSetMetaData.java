@@ -508,6 +508,33 @@ public class ExampleSetMetaData extends MetaData {
         return regular;
     }
 
+    /**
+     * Removes regular attributes until at most maxNumber attributes are left. Special attributes
+     * are always kept. If attributes were removed, the attribute set is declared to be a superset
+     * of the remaining attributes.
+     * 
+     * @return true if attributes were removed
+     */
+    public boolean shrinkAttributes(int maxNumber) {
+        if (attributeMetaData.size() <= maxNumber) {
+            return false;
+        }
+        int remainingRegular = Math.max(0, maxNumber - (attributeMetaData.size() - getNumberOfRegularAttributes()));
+        Iterator<AttributeMetaData> iterator = getAllAttributes().iterator();
+        while (iterator.hasNext()) {
+            AttributeMetaData amd = iterator.next();
+            if (!amd.isSpecial()) {
+                if (remainingRegular > 0) {
+                    remainingRegular--;
+                } else {
+                    iterator.remove();
+                }
+            }
+        }
+        attributesAreSuperset();
+        return true;
+    }
+
     /** Checks if the attribute sets are equal. */
     public MetaDataInfo equalHeader(ExampleSetMetaData other) {
         if (other == this)
@@ -598,4 +625,19 @@ public class ExampleSetMetaData extends MetaData {
         }
         return maxSize;
     }
+
+    /** Returns the maximum number of attributes operators may propagate as specified by
+     *  {@link RapidMiner#PROPERTY_RAPIDMINER_GENERAL_MAX_PROPAGATED_META_DATA_ATTRIBUTES}. */
+    public static int getMaximumNumberOfPropagatedAttributes() {
+        int maxSize = 0;
+        try {
+            maxSize = Integer.parseInt(ParameterService.getParameterValue(RapidMiner.PROPERTY_RAPIDMINER_GENERAL_MAX_PROPAGATED_META_DATA_ATTRIBUTES));
+        } catch (NumberFormatException e) {
+            maxSize = 0;
+        }
+        if (maxSize <= 0) {
+            maxSize = Integer.MAX_VALUE;
+        }
+        return maxSize;
+    }
 }
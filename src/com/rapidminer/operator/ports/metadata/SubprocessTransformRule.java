@@ -44,8 +44,11 @@ public class SubprocessTransformRule implements MDTransformationRule {
 
 	@Override
 	public void transformMD() {		
-		for (Operator op : subprocess.getAllInnerOperators()) {
-			op.clear(Port.CLEAR_META_DATA_ERRORS);
+		// incremental transformations keep the errors of unaffected operators
+		if (!subprocess.getEnclosingOperator().isTransformingMetaDataIncrementally()) {
+			for (Operator op : subprocess.getAllInnerOperators()) {
+				op.clear(Port.CLEAR_META_DATA_ERRORS);
+			}
 		}
 		subprocess.transformMetaData();
 	}
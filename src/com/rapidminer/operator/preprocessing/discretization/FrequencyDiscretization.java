@@ -22,6 +22,7 @@
  */
 package com.rapidminer.operator.preprocessing.discretization;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -51,6 +52,7 @@ import com.rapidminer.parameter.conditions.BooleanParameterCondition;
 import com.rapidminer.parameter.conditions.EqualTypeCondition;
 import com.rapidminer.tools.Ontology;
 import com.rapidminer.tools.OperatorResourceConsumptionHandler;
+import com.rapidminer.tools.math.TDigest;
 
 /**
  * This operator discretizes all numeric attributes in the dataset into nominal attributes. This discretization is performed by equal frequency binning, i.e. the thresholds of all bins is selected in a way that all bins contain the same number of
@@ -80,6 +82,9 @@ public class FrequencyDiscretization extends AbstractDiscretizationOperator {
 
 	public static final String PARAMETER_NUMBER_OF_DIGITS = "number_of_digits";
 
+	/** Indicates if the bin limits should be estimated by quantile sketches instead of sorting the data. */
+	public static final String PARAMETER_USE_APPROXIMATION = "use_approximation";
+
 
 	public FrequencyDiscretization(OperatorDescription description) {
 		super(description);
@@ -112,42 +117,46 @@ public class FrequencyDiscretization extends AbstractDiscretizationOperator {
 			if (numberOfBins >= (exampleSet.size() - 1)) {
 				throw new UserError(this, 116, PARAMETER_NUMBER_OF_BINS, "number of bins must be smaller than number of examples (here: " + exampleSet.size() + ")");
 			}
-		} else {
+		} else if (!getParameterAsBoolean(PARAMETER_USE_APPROXIMATION)) {
 			exampleSet.recalculateAllAttributeStatistics();
 		}
 
-		for (Attribute currentAttribute : exampleSet.getAttributes()) {
-			if (useSqrt) {
-				numberOfBins = (int)Math.round(Math.sqrt(exampleSet.size() - (int) exampleSet.getStatistics(currentAttribute, Statistics.UNKNOWN)));
-			}
-			double[] attributeRanges = new double[numberOfBins];
-			ExampleSet sortedSet = new SortedExampleSet(exampleSet, currentAttribute, SortedExampleSet.INCREASING);
-
-			// finding ranges
-			double examplesPerBin = exampleSet.size() / (double) numberOfBins;
-			double currentBinSpace = examplesPerBin;
-			double lastValue = Double.NaN;
-			int currentBin = 0;
-
-			for (Example example : sortedSet) {
-				double value = example.getValue(currentAttribute);
-				if (!Double.isNaN(value)) {
-					// change bin if full and not last
-					if (currentBinSpace < 1 && currentBin < numberOfBins && value != lastValue) {
-						if (!Double.isNaN(lastValue)) {
-							attributeRanges[currentBin] = (lastValue + value) / 2;
-							currentBin++;
-							currentBinSpace += examplesPerBin; //adding because same values might cause binspace to be negative
-							if (currentBinSpace < 1)
-								throw new UserError(this, 944, currentAttribute.getName());
+		if (getParameterAsBoolean(PARAMETER_USE_APPROXIMATION)) {
+			ranges = createApproximateRanges(exampleSet, useSqrt, numberOfBins);
+		} else {
+			for (Attribute currentAttribute : exampleSet.getAttributes()) {
+				if (useSqrt) {
+					numberOfBins = (int)Math.round(Math.sqrt(exampleSet.size() - (int) exampleSet.getStatistics(currentAttribute, Statistics.UNKNOWN)));
+				}
+				double[] attributeRanges = new double[numberOfBins];
+				ExampleSet sortedSet = new SortedExampleSet(exampleSet, currentAttribute, SortedExampleSet.INCREASING);
+
+				// finding ranges
+				double examplesPerBin = exampleSet.size() / (double) numberOfBins;
+				double currentBinSpace = examplesPerBin;
+				double lastValue = Double.NaN;
+				int currentBin = 0;
+
+				for (Example example : sortedSet) {
+					double value = example.getValue(currentAttribute);
+					if (!Double.isNaN(value)) {
+						// change bin if full and not last
+						if (currentBinSpace < 1 && currentBin < numberOfBins && value != lastValue) {
+							if (!Double.isNaN(lastValue)) {
+								attributeRanges[currentBin] = (lastValue + value) / 2;
+								currentBin++;
+								currentBinSpace += examplesPerBin; //adding because same values might cause binspace to be negative
+								if (currentBinSpace < 1)
+									throw new UserError(this, 944, currentAttribute.getName());
+							}
 						}
+						currentBinSpace--;
+						lastValue = value;
 					}
-					currentBinSpace--;
-					lastValue = value;
 				}
+				attributeRanges[numberOfBins - 1] = Double.POSITIVE_INFINITY;
+				ranges.put(currentAttribute, attributeRanges);
 			}
-			attributeRanges[numberOfBins - 1] = Double.POSITIVE_INFINITY;
-			ranges.put(currentAttribute, attributeRanges);
 		}
 		DiscretizationModel model = new DiscretizationModel(exampleSet);
 
@@ -161,6 +170,52 @@ public class FrequencyDiscretization extends AbstractDiscretizationOperator {
 		return model;
 	}
 
+	/**
+	 * Estimates the bin limits of all attributes in a single pass over the data. The values of
+	 * each attribute are summarized by a {@link TDigest} and the limits are the quantiles i / k
+	 * of the non-missing values. Limits which coincide are merged, hence fewer bins might be
+	 * created for attributes with only few different values.
+	 */
+	private HashMap<Attribute, double[]> createApproximateRanges(ExampleSet exampleSet, boolean useSqrt, int numberOfBins) {
+		Attribute[] attributes = new Attribute[exampleSet.getAttributes().size()];
+		TDigest[] digests = new TDigest[attributes.length];
+		int a = 0;
+		for (Attribute attribute : exampleSet.getAttributes()) {
+			attributes[a] = attribute;
+			digests[a] = new TDigest();
+			a++;
+		}
+		for (Example example : exampleSet) {
+			for (a = 0; a < attributes.length; a++) {
+				digests[a].add(example.getValue(attributes[a]));
+			}
+		}
+
+		HashMap<Attribute, double[]> ranges = new HashMap<Attribute, double[]>();
+		for (a = 0; a < attributes.length; a++) {
+			int bins = numberOfBins;
+			if (useSqrt) {
+				bins = (int)Math.round(Math.sqrt(digests[a].getTotalWeight()));
+			}
+			List<Double> limits = new ArrayList<Double>(bins);
+			double lastLimit = Double.NEGATIVE_INFINITY;
+			for (int b = 1; b < bins; b++) {
+				double limit = digests[a].quantile(b / (double)bins);
+				if (limit > lastLimit && limit < digests[a].getMaximum()) {
+					limits.add(limit);
+					lastLimit = limit;
+				}
+			}
+			double[] attributeRanges = new double[limits.size() + 1];
+			for (int i = 0; i < limits.size(); i++) {
+				attributeRanges[i] = limits.get(i);
+			}
+			attributeRanges[limits.size()] = Double.POSITIVE_INFINITY;
+			ranges.put(attributes[a], attributeRanges);
+		}
+		return ranges;
+	}
+
 	@Override
 	public Class<? extends PreprocessingModel> getPreprocessingModelClass() {
 		return DiscretizationModel.class;
@@ -187,6 +242,8 @@ public class FrequencyDiscretization extends AbstractDiscretizationOperator {
 		type.registerDependencyCondition(new BooleanParameterCondition(this, PARAMETER_AUTOMATIC_NUMBER_OF_DIGITS, false, false));
 		types.add(type);
 
+		types.add(new ParameterTypeBoolean(PARAMETER_USE_APPROXIMATION, "If true, the bin limits are estimated in a single pass with bounded memory instead of sorting the data for each attribute. Recommended for very large data sets.", false, true));
+
 		return types;
 	}
 	
@@ -37,6 +37,7 @@ import com.rapidminer.example.Example;
 import com.rapidminer.example.ExampleSet;
 import com.rapidminer.example.table.DoubleArrayDataRow;
 import com.rapidminer.example.table.MemoryExampleTable;
+import com.rapidminer.example.table.NominalMappingTranslation;
 import com.rapidminer.operator.OperatorDescription;
 import com.rapidminer.operator.OperatorException;
 import com.rapidminer.operator.SimpleProcessSetupError;
@@ -509,18 +510,12 @@ public class ExampleSetJoin extends AbstractExampleSetJoin {
 		assert (keyAttributes.length == matchKeyAttributes.length);
 
 		// create mapping from nominal values of keyAttributes to matchKeyAttributes
-		Map<Attribute, Map<Double, Double>> valueMapping = null;
+		NominalMappingTranslation[] valueMapping = null;
 		if (matchKeyAttributes != null) {
-			valueMapping = new HashMap<Attribute, Map<Double, Double>>();
+			valueMapping = new NominalMappingTranslation[keyAttributes.length];
 			for (int attributeNumber = 0; attributeNumber < keyAttributes.length; ++attributeNumber) {
 				if (keyAttributes[attributeNumber].isNominal()) {
-					Map<Double, Double> valueMap = new HashMap<Double, Double>();
-					// TODO: iterate over getMappint().values() rather than relying on the assumption that values appear in increasing order
-					for (int valueNumber = 0; valueNumber < keyAttributes[attributeNumber].getMapping().size(); ++valueNumber) {
-						String valueString = keyAttributes[attributeNumber].getMapping().mapIndex(valueNumber);
-						valueMap.put((double) valueNumber, (double) matchKeyAttributes[attributeNumber].getMapping().mapString(valueString));
-					}
-					valueMapping.put(keyAttributes[attributeNumber], valueMap);
+					valueMapping[attributeNumber] = new NominalMappingTranslation(keyAttributes[attributeNumber].getMapping(), matchKeyAttributes[attributeNumber].getMapping(), true);
 				}
 			}
 		}
@@ -539,7 +534,7 @@ public class ExampleSetJoin extends AbstractExampleSetJoin {
 						break;
 					}
 					if (keyAttributes[i].isNominal()) {
-						keyValues[i] = valueMapping.get(keyAttributes[i]).get(keyValues[i]);
+						keyValues[i] = valueMapping[i].translate(keyValues[i]);
 					} 
 				}
 				if (continueIteration) {
@@ -39,6 +39,7 @@ import com.rapidminer.example.table.AttributeFactory;
 import com.rapidminer.example.table.DataRow;
 import com.rapidminer.example.table.DataRowFactory;
 import com.rapidminer.example.table.MemoryExampleTable;
+import com.rapidminer.example.table.NominalMappingTranslation;
 import com.rapidminer.operator.MissingIOObjectException;
 import com.rapidminer.operator.Operator;
 import com.rapidminer.operator.OperatorDescription;
@@ -283,21 +284,26 @@ public class ExampleSetMerge extends Operator {
         DataRowFactory factory = new DataRowFactory(getParameterAsInt(PARAMETER_DATAMANAGEMENT), '.');
         int numberOfAttributes = newAttributeList.size();
         for (ExampleSet exampleSet : allExampleSets) {
+            // resolve attributes and nominal translations once per example set instead of once per value
+            Attribute[] oldAttributes = new Attribute[exampleSet.getAttributes().allSize()];
+            Attribute[] newAttributes = new Attribute[oldAttributes.length];
+            NominalMappingTranslation[] translations = new NominalMappingTranslation[oldAttributes.length];
+            Iterator<Attribute> iterator = exampleSet.getAttributes().allAttributes();
+            for (int i = 0; iterator.hasNext(); i++) {
+                oldAttributes[i] = iterator.next();
+                newAttributes[i] = newAttributeNameMap.get(oldAttributes[i].getName());
+                if (oldAttributes[i].isNominal()) {
+                    translations[i] = new NominalMappingTranslation(oldAttributes[i].getMapping(), newAttributes[i].getMapping(), true);
+                }
+            }
             for (Example example : exampleSet) {
                 DataRow dataRow = factory.create(numberOfAttributes);
-                Iterator<Attribute> iterator = exampleSet.getAttributes().allAttributes();
-                while (iterator.hasNext()) {
-                    Attribute oldAttribute = iterator.next();
-                    Attribute newAttribute = newAttributeNameMap.get(oldAttribute.getName());
-                    double oldValue = example.getValue(oldAttribute);
-                    if (Double.isNaN(oldValue))
-                        dataRow.set(newAttribute, oldValue);
-                    else {
-                        if (oldAttribute.isNominal()) {
-                            dataRow.set(newAttribute, newAttribute.getMapping().mapString(oldAttribute.getMapping().mapIndex((int) oldValue)));
-                        } else {
-                            dataRow.set(newAttribute, oldValue);
-                        }
+                for (int i = 0; i < oldAttributes.length; i++) {
+                    double oldValue = example.getValue(oldAttributes[i]);
+                    if (translations[i] != null) {
+                        dataRow.set(newAttributes[i], translations[i].translate(oldValue));
+                    } else {
+                        dataRow.set(newAttributes[i], oldValue);
                     }
                 }
                 // adding new row to table
@@ -69,6 +69,7 @@ public abstract class AggregationFunction {
         AGGREATION_FUNCTIONS.put("sum", SumAggregationFunction.class);
         AGGREATION_FUNCTIONS.put("sum (fractional)", SumFractionalAggregationFunction.class);
         AGGREATION_FUNCTIONS.put("median", MedianAggregationFunction.class);
+        AGGREATION_FUNCTIONS.put("median (approximate)", ApproximateMedianAggregationFunction.class);
         AGGREATION_FUNCTIONS.put("average", MeanAggregationFunction.class);
         AGGREATION_FUNCTIONS.put("variance", VarianceAggregationFunction.class);
         AGGREATION_FUNCTIONS.put("standard_deviation", StandardDeviationAggregationFunction.class);
@@ -97,6 +98,7 @@ public abstract class AggregationFunction {
         AGGREGATION_FUNCTIONS_META_DATA_PROVIDER.put("sum", new DefaultAggregationFunctionMetaDataProvider("sum", SumAggregationFunction.FUNCTION_SUM, FUNCTION_SEPARATOR_OPEN, FUNCTION_SEPARATOR_CLOSE, new int[] { Ontology.NUMERICAL }));
         AGGREGATION_FUNCTIONS_META_DATA_PROVIDER.put("sum (fractional)", new DefaultAggregationFunctionMetaDataProvider("fractionalSum", SumFractionalAggregationFunction.FUNCTION_SUM_FRACTIONAL, FUNCTION_SEPARATOR_OPEN, FUNCTION_SEPARATOR_CLOSE, new int[] { Ontology.NUMERICAL }));
         AGGREGATION_FUNCTIONS_META_DATA_PROVIDER.put("median", new DefaultAggregationFunctionMetaDataProvider("median", MedianAggregationFunction.FUNCTION_MEDIAN, FUNCTION_SEPARATOR_OPEN, FUNCTION_SEPARATOR_CLOSE, new int[] { Ontology.NUMERICAL, Ontology.DATE_TIME }));
+        AGGREGATION_FUNCTIONS_META_DATA_PROVIDER.put("median (approximate)", new DefaultAggregationFunctionMetaDataProvider("approximateMedian", ApproximateMedianAggregationFunction.FUNCTION_APPROXIMATE_MEDIAN, FUNCTION_SEPARATOR_OPEN, FUNCTION_SEPARATOR_CLOSE, new int[] { Ontology.NUMERICAL, Ontology.DATE_TIME }, Ontology.REAL));
         AGGREGATION_FUNCTIONS_META_DATA_PROVIDER.put("average", new DefaultAggregationFunctionMetaDataProvider("average", MeanAggregationFunction.FUNCTION_AVERAGE, FUNCTION_SEPARATOR_OPEN, FUNCTION_SEPARATOR_CLOSE, new int[] { Ontology.NUMERICAL, Ontology.DATE_TIME }, Ontology.REAL));
         AGGREGATION_FUNCTIONS_META_DATA_PROVIDER.put("variance", new DefaultAggregationFunctionMetaDataProvider("variance", VarianceAggregationFunction.FUNCTION_VARIANCE, FUNCTION_SEPARATOR_OPEN, FUNCTION_SEPARATOR_CLOSE, new int[] { Ontology.NUMERICAL }, Ontology.REAL));
         AGGREGATION_FUNCTIONS_META_DATA_PROVIDER.put("standard_deviation", new DefaultAggregationFunctionMetaDataProvider("standard_deviation", StandardDeviationAggregationFunction.FUNCTION_STANDARD_DEVIATION, FUNCTION_SEPARATOR_OPEN, FUNCTION_SEPARATOR_CLOSE, new int[] { Ontology.NUMERICAL }, Ontology.REAL));
@@ -0,0 +1,59 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.operator.preprocessing.transformation.aggregation;
+
+import com.rapidminer.example.Attribute;
+import com.rapidminer.tools.Ontology;
+
+/**
+ * This class implements an approximate Median Aggregation function. In contrast to the
+ * {@link MedianAggregationFunction} the values of a group are not remembered but summarized
+ * by a t-digest, so that the memory needed per group is bounded.
+ */
+public class ApproximateMedianAggregationFunction extends NumericalAggregationFunction {
+
+    public static final String FUNCTION_APPROXIMATE_MEDIAN = "approximate_median";
+
+    public ApproximateMedianAggregationFunction(Attribute sourceAttribute, boolean ignoreMissings, boolean countOnlyDisctinct) {
+        super(sourceAttribute, ignoreMissings, countOnlyDisctinct, FUNCTION_APPROXIMATE_MEDIAN, FUNCTION_SEPARATOR_OPEN, FUNCTION_SEPARATOR_CLOSE);
+    }
+
+    public ApproximateMedianAggregationFunction(Attribute sourceAttribute, boolean ignoreMissings, boolean countOnlyDisctinct, String functionName, String separatorOpen, String separatorClose) {
+        super(sourceAttribute, ignoreMissings, countOnlyDisctinct, functionName, separatorOpen, separatorClose);
+    }
+
+    @Override
+    public Aggregator createAggregator() {
+        return new ApproximateMedianAggregator(this);
+    }
+
+	@Override
+	protected int getTargetValueType(int sourceValueType) {
+		return Ontology.ATTRIBUTE_VALUE_TYPE.isA(sourceValueType, Ontology.DATE_TIME) ? sourceValueType : Ontology.REAL;
+	}
+
+    @Override
+    public boolean isCompatible() {
+        return getSourceAttribute().isNumerical() || Ontology.ATTRIBUTE_VALUE_TYPE.isA(getSourceAttribute().getValueType(), Ontology.DATE_TIME);
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.operator.preprocessing.transformation.aggregation;
+
+import com.rapidminer.tools.math.TDigest;
+
+/**
+ * This is an {@link Aggregator} for the {@link ApproximateMedianAggregationFunction}.
+ * The values are summarized by a {@link TDigest}, so that the memory consumption is bounded
+ * independent of the size of the group.
+ */
+public class ApproximateMedianAggregator extends NumericalAggregator {
+
+    private TDigest digest = new TDigest();
+
+    public ApproximateMedianAggregator(AggregationFunction function) {
+        super(function);
+    }
+
+    @Override
+    public void count(double value) {
+        digest.add(value);
+    }
+
+    @Override
+    public void count(double value, double weight) {
+        digest.add(value, weight);
+    }
+
+    @Override
+    public double getValue() {
+        return digest.quantile(0.5d);
+    }
+}
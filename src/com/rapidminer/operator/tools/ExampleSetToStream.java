@@ -31,9 +31,9 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
@@ -45,17 +45,21 @@ import com.rapidminer.example.ExampleSet;
 import com.rapidminer.example.Tools;
 import com.rapidminer.example.table.AttributeFactory;
 import com.rapidminer.example.table.DoubleArrayDataRow;
-import com.rapidminer.example.table.DoubleSparseArrayDataRow;
+import com.rapidminer.example.table.DataRow;
+import com.rapidminer.example.table.ExampleTable;
 import com.rapidminer.example.table.MemoryExampleTable;
 import com.rapidminer.example.table.NominalMapping;
 import com.rapidminer.example.table.PolynominalMapping;
 import com.rapidminer.example.table.SparseDataRow;
+import com.rapidminer.example.table.SparseExampleTable;
 import com.rapidminer.operator.Annotations;
 import com.rapidminer.tools.LogService;
 import com.rapidminer.tools.Ontology;
 
 /** Writes and reads a example sets to and from from streams.
- *  TODO: Implement sparse counterpart.
+ *  Example sets backed by {@link SparseDataRow}s are written in sparse format, i.e. only their
+ *  non-default values are written. Example sets read in sparse format are stored in a
+ *  {@link SparseExampleTable}.
  *  
  * @author Simon Fischer
  *
@@ -125,7 +129,7 @@ public class ExampleSetToStream {
 	/** Writes header and data of the example set to the stream. */
 	public void write(ExampleSet exampleSet, OutputStream outputStream) throws IOException {
 		DataOutputStream out = new DataOutputStream(outputStream);
-		List<AttributeRole> allRoles = new LinkedList<AttributeRole>();
+		List<AttributeRole> allRoles = new ArrayList<AttributeRole>();
 		Iterator<AttributeRole> i = exampleSet.getAttributes().allAttributeRoles();
 		while (i.hasNext()) {
 			allRoles.add(i.next());
@@ -155,14 +159,27 @@ public class ExampleSetToStream {
 	private void writeData(ExampleSet exampleSet, DataOutputStream out, List<AttributeRole> allRoles, boolean sparse) throws IOException {
 		out.writeInt(exampleSet.size());
 		ColumnType[] columnTypes = convertToColumnTypes(allRoles);
+		int[] sparsePositions = sparse ? getSparsePositions(exampleSet, allRoles) : null;
 	
 		for (Example example : exampleSet) {			
-			int attributeIndex = 0;			
-			for (AttributeRole role : allRoles) {
-				Attribute attribute = role.getAttribute();				
-				double value = example.getValue(attribute);				
-				writeDatum(value, attributeIndex, attribute, columnTypes[attributeIndex], out, sparse);
-				attributeIndex++;
+			DataRow dataRow = example.getDataRow();
+			if (sparsePositions != null && dataRow instanceof SparseDataRow) {
+				// only visit the non-default values of the data row
+				for (int tableIndex : ((SparseDataRow) dataRow).getNonDefaultIndices()) {
+					if (tableIndex < sparsePositions.length && sparsePositions[tableIndex] != -1) {
+						int attributeIndex = sparsePositions[tableIndex];
+						Attribute attribute = allRoles.get(attributeIndex).getAttribute();
+						writeDatum(example.getValue(attribute), attributeIndex, attribute, columnTypes[attributeIndex], out, sparse);
+					}
+				}
+			} else {
+				int attributeIndex = 0;			
+				for (AttributeRole role : allRoles) {
+					Attribute attribute = role.getAttribute();				
+					double value = example.getValue(attribute);				
+					writeDatum(value, attributeIndex, attribute, columnTypes[attributeIndex], out, sparse);
+					attributeIndex++;
+				}
 			}
 			if (sparse) {
 				// indicates linebreaks
@@ -171,6 +188,26 @@ public class ExampleSetToStream {
 		}
 	}
 
+	/**
+	 * Returns the positions of the roles indexed by the table index of their attributes or null if
+	 * the non-default values of the data rows cannot be used directly because an attribute is a view
+	 * or has a transformation.
+	 */
+	private int[] getSparsePositions(ExampleSet exampleSet, List<AttributeRole> allRoles) {
+		int[] positions = new int[exampleSet.getExampleTable().getNumberOfAttributes()];
+		Arrays.fill(positions, -1);
+		int position = 0;
+		for (AttributeRole role : allRoles) {
+			Attribute attribute = role.getAttribute();
+			int tableIndex = attribute.getTableIndex();
+			if (tableIndex < 0 || tableIndex >= positions.length || attribute.getLastTransformation() != null) {
+				return null;
+			}
+			positions[tableIndex] = position++;
+		}
+		return positions;
+	}
+
 	/** Writes the annotations, meta data, including nominal mappings, to the stream, in the following order:
 	 *  - annotations {@link #writeAnnotations(DataOutput, Annotations)}
 	 *  - number of attributes to come
@@ -233,28 +270,37 @@ public class ExampleSetToStream {
 		boolean sparse = header.isSparse();
 		
 		// Create example table
-		MemoryExampleTable exampleTable = new MemoryExampleTable(allAttributes);
+		ExampleTable exampleTable;
 		int size = in.readInt();
 		
 		// Read data
-		for (int row = 0; row < size; row++) {
-			if (sparse) {
-				DoubleSparseArrayDataRow sparseRow = new DoubleSparseArrayDataRow(allAttributeRoles.size());
+		if (sparse) {
+			SparseExampleTable sparseTable = new SparseExampleTable(allAttributes);
+			int[] indices = new int[allAttributes.size()];
+			double[] values = new double[allAttributes.size()];
+			for (int row = 0; row < size; row++) {
+				int count = 0;
 				while (true) {
 					int index = in.readInt();
 					if (index == -1) {
 						break;
 					} else {
-						sparseRow.set(allAttributes.get(index), readDatum(in, columnTypes[index]));
+						indices[count] = index;
+						values[count] = readDatum(in, columnTypes[index]);
+						count++;
 					}
 				}
-				sparseRow.trim();
-				exampleTable.addDataRow(sparseRow);	
-			} else {
+				sparseTable.addRow(indices, values, count);
+			}
+			exampleTable = sparseTable;
+		} else {
+			MemoryExampleTable memoryTable = new MemoryExampleTable(allAttributes);
+			for (int row = 0; row < size; row++) {
 				double[] data = new double[allAttributeRoles.size()];
 				readRow(in, data, columnTypes, sparse, null);
-				exampleTable.addDataRow(new DoubleArrayDataRow(data));
+				memoryTable.addDataRow(new DoubleArrayDataRow(data));
 			}
+			exampleTable = memoryTable;
 		}
 		
 		// Create example set
@@ -275,7 +321,7 @@ public class ExampleSetToStream {
 	public Header readHeader(DataInputStream in) throws IOException {
 		Annotations annotations = readAnnotations(in);
 		int numAttributes = in.readInt();
-		List<AttributeRole> allRoles = new LinkedList<AttributeRole>();
+		List<AttributeRole> allRoles = new ArrayList<AttributeRole>(numAttributes);
 		for (int i = 0; i < numAttributes; i++) {
 			String name = readString(in);
 			String special = readString(in);
@@ -31,6 +31,8 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 
+import com.rapidminer.RapidMiner;
+import com.rapidminer.datatable.ColumnarDataTable;
 import com.rapidminer.datatable.DataTable;
 import com.rapidminer.datatable.DataTableRow;
 import com.rapidminer.datatable.SimpleDataTable;
@@ -53,6 +55,7 @@ import com.rapidminer.parameter.ParameterTypeValue;
 import com.rapidminer.parameter.UndefinedParameterError;
 import com.rapidminer.parameter.ParameterTypeValue.OperatorValueSelection;
 import com.rapidminer.parameter.conditions.EqualTypeCondition;
+import com.rapidminer.tools.ParameterService;
 
 /**
  * This operator records almost arbitrary data. It can be written to a file which can then be read, e.g., by gnuplot.
@@ -181,7 +184,13 @@ public class ProcessLogOperator extends Operator {
 			columnNames[j] = parameter[0];
 			j++;
 		}
-		getProcess().addDataTable(new SimpleDataTable(getName(), columnNames));
+		int rowsInMemory;
+		try {
+			rowsInMemory = Integer.parseInt(ParameterService.getParameterValue(RapidMiner.PROPERTY_RAPIDMINER_GENERAL_PROCESS_LOG_ROWS_IN_MEMORY));
+		} catch (NumberFormatException e) {
+			rowsInMemory = 0;
+		}
+		getProcess().addDataTable(new ColumnarDataTable(getName(), columnNames, rowsInMemory));
 	}
 
 	@Override
@@ -206,7 +206,7 @@ public class DBConnectionFolder implements Folder {
 			} finally {
 				if ((handler != null) && (handler.getConnection() != null)) {
 					try {
-						handler.getConnection().close();
+						handler.disconnect();
 					} catch (SQLException e) {
 						//LogService.getRoot().log(Level.WARNING, "Failed to close connection: "+e, e);
 						LogService.getRoot().log(Level.WARNING,
@@ -0,0 +1,252 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.repository.remote;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+
+import com.rapidminer.RapidMiner;
+import com.rapidminer.tools.FileSystemService;
+import com.rapidminer.tools.LogService;
+import com.rapidminer.tools.ParameterService;
+
+/**
+ * A size bounded disk cache for the serialized {@link com.rapidminer.operator.IOObject}s stored in
+ * {@link RemoteRepository}s. Objects are identified by repository, entry path and revision, so a
+ * new revision of an entry never hits an outdated file. When the cache exceeds the size specified
+ * by {@link RapidMiner#PROPERTY_RAPIDMINER_TOOLS_REMOTE_REPOSITORY_CACHE_SIZE}, the least recently
+ * used files are deleted. The modification time of the files stores the time of their last use, so
+ * the order survives restarts.
+ * 
+ * The cache does not check whether the revision is still the latest one; this is up to the caller,
+ * see {@link RemoteIOObjectEntry#retrieveData(com.rapidminer.tools.ProgressListener)}.
+ */
+public class RemoteIOObjectCache {
+
+	private static final String SUFFIX = ".ioo";
+
+	private static final String TEMP_SUFFIX = ".tmp";
+
+	private static final int DEFAULT_CACHE_SIZE = 500;
+
+	private static RemoteIOObjectCache instance;
+
+	private final File directory;
+
+	/** Sizes of the cached files, in access order. */
+	private final LinkedHashMap<String, Long> files = new LinkedHashMap<String, Long>(16, 0.75f, true);
+
+	private long totalSize = 0;
+
+	private RemoteIOObjectCache(File directory) {
+		this.directory = directory;
+		File[] existing = directory.listFiles();
+		if (existing != null) {
+			Arrays.sort(existing, new Comparator<File>() {
+
+				@Override
+				public int compare(File f1, File f2) {
+					long m1 = f1.lastModified();
+					long m2 = f2.lastModified();
+					return m1 < m2 ? -1 : (m1 == m2 ? 0 : 1);
+				}
+			});
+			for (File file : existing) {
+				if (file.getName().endsWith(SUFFIX)) {
+					files.put(file.getName(), file.length());
+					totalSize += file.length();
+				} else if (file.getName().endsWith(TEMP_SUFFIX)) {
+					// left over by an interrupted download
+					file.delete();
+				}
+			}
+		}
+	}
+
+	/** Returns the cache or null if caching is disabled or the file system cannot be accessed. */
+	public static synchronized RemoteIOObjectCache getInstance() {
+		if (!RapidMiner.getExecutionMode().canAccessFilesystem() || (getMaximumSize() <= 0)) {
+			return null;
+		}
+		if (instance == null) {
+			File directory = new File(new File(FileSystemService.getUserRapidMinerDir(), "cache"), "remote");
+			if (!directory.isDirectory() && !directory.mkdirs()) {
+				LogService.getRoot().log(Level.WARNING, "com.rapidminer.repository.remote.RemoteIOObjectCache.creating_directory_error", directory);
+				return null;
+			}
+			instance = new RemoteIOObjectCache(directory);
+		}
+		return instance;
+	}
+
+	/** Returns the maximum size of the cache in bytes. */
+	private static long getMaximumSize() {
+		int megabytes;
+		try {
+			megabytes = Integer.parseInt(ParameterService.getParameterValue(RapidMiner.PROPERTY_RAPIDMINER_TOOLS_REMOTE_REPOSITORY_CACHE_SIZE));
+		} catch (NumberFormatException e) {
+			megabytes = DEFAULT_CACHE_SIZE;
+		}
+		return megabytes * 1024L * 1024L;
+	}
+
+	/** Returns true if an object of the given size fits into the cache at all. */
+	public boolean accepts(long size) {
+		return size <= getMaximumSize();
+	}
+
+	/**
+	 * Returns the cached file of the given revision of the entry or null if it is not cached.
+	 * The file must only be read.
+	 */
+	public synchronized File get(RemoteRepository repository, String path, int revision) {
+		String name = getFileName(repository, path, revision);
+		if (files.get(name) == null) {
+			return null;
+		}
+		File file = new File(directory, name);
+		if (!file.isFile()) {
+			// deleted from outside
+			remove(name);
+			return null;
+		}
+		file.setLastModified(System.currentTimeMillis());
+		return file;
+	}
+
+	/**
+	 * Copies the stream into the cache as the given revision of the entry and returns the cached
+	 * file. Older revisions of the entry are removed. The stream is not closed.
+	 */
+	public File put(RemoteRepository repository, String path, int revision, InputStream in) throws IOException {
+		String name = getFileName(repository, path, revision);
+		// download without holding the lock, other entries can be read in the meantime
+		File temp = File.createTempFile("download", TEMP_SUFFIX, directory);
+		try {
+			OutputStream out = new FileOutputStream(temp);
+			try {
+				byte[] buffer = new byte[64 * 1024];
+				int length;
+				while ((length = in.read(buffer)) != -1) {
+					out.write(buffer, 0, length);
+				}
+			} finally {
+				out.close();
+			}
+			synchronized (this) {
+				String prefix = getEntryPrefix(repository, path);
+				Iterator<Map.Entry<String, Long>> i = files.entrySet().iterator();
+				while (i.hasNext()) {
+					Map.Entry<String, Long> other = i.next();
+					if (other.getKey().startsWith(prefix)) {
+						i.remove();
+						delete(other.getKey(), other.getValue());
+					}
+				}
+				File file = new File(directory, name);
+				if (file.exists()) {
+					file.delete();
+				}
+				if (!temp.renameTo(file)) {
+					throw new IOException("Cannot rename " + temp + " to " + file + ".");
+				}
+				long size = file.length();
+				files.put(name, size);
+				totalSize += size;
+				evict(name);
+				return file;
+			}
+		} finally {
+			if (temp.exists()) {
+				temp.delete();
+			}
+		}
+	}
+
+	/** Removes a cached file, e.g. because it cannot be read. */
+	public synchronized void remove(RemoteRepository repository, String path, int revision) {
+		remove(getFileName(repository, path, revision));
+	}
+
+	private void remove(String name) {
+		Long size = files.remove(name);
+		if (size != null) {
+			delete(name, size);
+		}
+	}
+
+	/** Deletes a file which is already removed from {@link #files}. */
+	private void delete(String name, long size) {
+		totalSize -= size;
+		File file = new File(directory, name);
+		if (file.exists() && !file.delete()) {
+			LogService.getRoot().log(Level.FINE, "com.rapidminer.repository.remote.RemoteIOObjectCache.deleting_error", file);
+		}
+	}
+
+	/** Deletes least recently used files until the cache fits its size, keeping the given file. */
+	private void evict(String keep) {
+		long maximumSize = getMaximumSize();
+		Iterator<Map.Entry<String, Long>> i = files.entrySet().iterator();
+		while ((totalSize > maximumSize) && i.hasNext()) {
+			Map.Entry<String, Long> eldest = i.next();
+			if (!eldest.getKey().equals(keep)) {
+				i.remove();
+				delete(eldest.getKey(), eldest.getValue());
+			}
+		}
+	}
+
+	private static String getFileName(RemoteRepository repository, String path, int revision) {
+		return getEntryPrefix(repository, path) + revision + SUFFIX;
+	}
+
+	/** The repository and path are hashed since paths may contain characters not allowed in file names. */
+	private static String getEntryPrefix(RemoteRepository repository, String path) {
+		String key = repository.getBaseUrl() + "|" + repository.getUsername() + "|" + path;
+		try {
+			byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes("UTF-8"));
+			StringBuilder result = new StringBuilder(2 * digest.length + 1);
+			for (byte b : digest) {
+				result.append(Character.forDigit((b >> 4) & 0xF, 16));
+				result.append(Character.forDigit(b & 0xF, 16));
+			}
+			return result.append('_').toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException("MD5 is not supported.", e);
+		} catch (IOException e) {
+			throw new RuntimeException("UTF-8 is not supported.", e);
+		}
+	}
+}
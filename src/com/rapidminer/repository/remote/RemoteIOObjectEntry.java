@@ -22,7 +22,11 @@
  */
 package com.rapidminer.repository.remote;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -32,6 +36,7 @@ import java.net.HttpURLConnection;
 import java.util.logging.Level;
 
 import com.rapid_i.repository.wsimport.EntryResponse;
+import com.rapid_i.repository.wsimport.RepositoryService;
 import com.rapidminer.operator.IOObject;
 import com.rapidminer.operator.Operator;
 import com.rapidminer.operator.ports.metadata.MetaData;
@@ -57,29 +62,55 @@ public class RemoteIOObjectEntry extends RemoteDataEntry implements IOObjectEntr
 		ioObjectClassName = response.getIoObjectClassName();
 	}
 
+	/**
+	 * Retrieves the object from the server. If the local {@link RemoteIOObjectCache} is enabled, the
+	 * server is asked for the latest revision of the entry first and the object is only downloaded
+	 * if this revision is not cached yet.
+	 */
 	@Override
 	public IOObject retrieveData(ProgressListener l) throws RepositoryException {
 		if (l != null) {
 			l.setTotal(100);
 		}
-		InputStream in = null;
 		try {
-			HttpURLConnection connection = getRepository().getResourceHTTPConnection(getLocation().getPath(), EntryStreamType.IOOBJECT, false);
-			WebServiceTools.setURLConnectionDefaults(connection);
-			connection.setDoInput(true);
-			connection.setDoOutput(false);
-			connection.setRequestMethod("GET");
-			try {
-				in = connection.getInputStream();
-			} catch (IOException e) {
-				throw new RepositoryException("Cannot download IOObject: " + connection.getResponseCode() + ": " + connection.getResponseMessage(), e);
+			RemoteIOObjectCache cache = RemoteIOObjectCache.getInstance();
+			int revision = -1;
+			if (cache != null) {
+				revision = revalidate();
 			}
-			Object result = IOObjectSerializer.getInstance().deserialize(in);
-			if (result instanceof IOObject) {
-				return (IOObject) result;
-			} else {
-				throw new RepositoryException("Server did not send I/O-Object, but instance of " + result.getClass());
+			if (revision >= 0) {
+				File cached = cache.get(getRepository(), getPath(), revision);
+				if (cached != null) {
+					try {
+						return deserialize(new BufferedInputStream(new FileInputStream(cached)));
+					} catch (Exception e) {
+						LogService.getRoot().log(Level.WARNING, "com.rapidminer.repository.remote.RemoteIOObjectEntry.reading_cached_object_error", new Object[] { getLocation(), e });
+						cache.remove(getRepository(), getPath(), revision);
+					}
+				}
+				if (cache.accepts(getSize())) {
+					InputStream in = openDataStream();
+					File downloaded;
+					try {
+						downloaded = cache.put(getRepository(), getPath(), revision, in);
+					} catch (IOException e) {
+						downloaded = null;
+						LogService.getRoot().log(Level.WARNING, "com.rapidminer.repository.remote.RemoteIOObjectEntry.caching_object_error", new Object[] { getLocation(), e });
+					} finally {
+						try {
+							in.close();
+						} catch (IOException e) {}
+					}
+					if (downloaded != null) {
+						try {
+							return deserialize(new BufferedInputStream(new FileInputStream(downloaded)));
+						} catch (FileNotFoundException e) {
+							// already evicted or replaced by another download, download once more
+						}
+					}
+				}
 			}
+			return deserialize(openDataStream());
 		} catch(RepositoryException e) {
 			throw e;
 		} catch (Exception e) {
@@ -88,11 +119,63 @@ public class RemoteIOObjectEntry extends RemoteDataEntry implements IOObjectEntr
 			if (l != null) {
 				l.complete();
 			}
-			if(in != null) {
-				try {
-					in.close();
-				} catch (IOException e) {}
+		}
+	}
+
+	private InputStream openDataStream() throws IOException, RepositoryException {
+		HttpURLConnection connection = getRepository().getResourceHTTPConnection(getLocation().getPath(), EntryStreamType.IOOBJECT, false);
+		WebServiceTools.setURLConnectionDefaults(connection);
+		connection.setDoInput(true);
+		connection.setDoOutput(false);
+		connection.setRequestMethod("GET");
+		try {
+			return connection.getInputStream();
+		} catch (IOException e) {
+			throw new RepositoryException("Cannot download IOObject: " + connection.getResponseCode() + ": " + connection.getResponseMessage(), e);
+		}
+	}
+
+	/** Deserializes the object and closes the stream. */
+	private static IOObject deserialize(InputStream in) throws IOException, RepositoryException {
+		try {
+			Object result = IOObjectSerializer.getInstance().deserialize(in);
+			if (result instanceof IOObject) {
+				return (IOObject) result;
+			} else {
+				throw new RepositoryException("Server did not send I/O-Object, but instance of " + result.getClass());
 			}
+		} finally {
+			try {
+				in.close();
+			} catch (IOException e) {}
+		}
+	}
+
+	/**
+	 * Fetches the current description of this entry from the server and returns its latest
+	 * revision or -1 if the server cannot be asked. Cached meta data of older revisions is dropped.
+	 */
+	private int revalidate() {
+		try {
+			RepositoryService service = getRepository().getRepositoryService();
+			if (service == null) {
+				return -1;
+			}
+			EntryResponse response = service.getEntry(getPath());
+			if (response.getStatus() != 0) {
+				return -1;
+			}
+			if (response.getLatestRevision() != getRevision()) {
+				synchronized (metaDatalLock) {
+					metaData = null;
+				}
+			}
+			extractData(response);
+			ioObjectClassName = response.getIoObjectClassName();
+			return response.getLatestRevision();
+		} catch (Exception e) {
+			// web service errors are runtime exceptions, just download as usual
+			return -1;
 		}
 	}
 
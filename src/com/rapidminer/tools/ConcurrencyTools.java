@@ -0,0 +1,183 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.tools;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.rapidminer.RapidMiner;
+import com.rapidminer.operator.OperatorException;
+
+/**
+ * Helper methods for executing independent tasks of a process in parallel. The number of
+ * threads is limited by the setting {@link RapidMiner#PROPERTY_RAPIDMINER_GENERAL_NUMBER_OF_THREADS}.
+ *
+ * Each invocation of {@link #call(List, int)} uses its own short living thread pool. Tasks may
+ * therefore themselves use this class without the risk of blocking each other. Callers which
+ * execute many small batches of tasks can instead create one pool by {@link #createExecutor(int)}
+ * and pass it to {@link #call(List, ExecutorService)}.
+ */
+public class ConcurrencyTools {
+
+	private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+	/**
+	 * Returns the number of threads a process may use. This is the value of
+	 * {@link RapidMiner#PROPERTY_RAPIDMINER_GENERAL_NUMBER_OF_THREADS} or the number of available
+	 * processors if this is not set or 0.
+	 */
+	public static int getNumberOfThreads() {
+		int threads = 0;
+		try {
+			threads = Integer.parseInt(ParameterService.getParameterValue(RapidMiner.PROPERTY_RAPIDMINER_GENERAL_NUMBER_OF_THREADS));
+		} catch (NumberFormatException e) {
+			threads = 0;
+		}
+		if (threads <= 0) {
+			threads = Runtime.getRuntime().availableProcessors();
+		}
+		return Math.max(1, threads);
+	}
+
+	/**
+	 * Returns the number of threads to use if the user requested the given number. Values
+	 * smaller than 1 are replaced by {@link #getNumberOfThreads()}, larger values are limited by it.
+	 */
+	public static int getNumberOfThreads(int requested) {
+		int available = getNumberOfThreads();
+		if (requested <= 0) {
+			return available;
+		}
+		return Math.min(requested, available);
+	}
+
+	/** Executes the tasks with {@link #getNumberOfThreads()} threads. */
+	public static <T> List<T> call(List<? extends Callable<T>> tasks) throws OperatorException {
+		return call(tasks, getNumberOfThreads());
+	}
+
+	/**
+	 * Executes the given tasks with at most numberOfThreads threads and returns their results in the
+	 * order of the tasks. If only one thread is used or only one task is given, the tasks are
+	 * executed in the calling thread. The first exception thrown by a task cancels the remaining
+	 * tasks and is rethrown; exceptions which are neither {@link OperatorException}s nor runtime
+	 * exceptions are wrapped into an {@link OperatorException}.
+	 */
+	public static <T> List<T> call(List<? extends Callable<T>> tasks, int numberOfThreads) throws OperatorException {
+		List<T> results = new ArrayList<T>(tasks.size());
+		int threads = Math.min(numberOfThreads, tasks.size());
+		if (threads <= 1) {
+			for (Callable<T> task : tasks) {
+				try {
+					results.add(task.call());
+				} catch (Exception e) {
+					throw toOperatorException(e);
+				}
+			}
+			return results;
+		}
+
+		ExecutorService executor = createExecutor(threads);
+		try {
+			return call(tasks, executor);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Returns a new thread pool with the given number of daemon threads. The caller is responsible
+	 * for shutting it down.
+	 */
+	public static ExecutorService createExecutor(int numberOfThreads) {
+		return Executors.newFixedThreadPool(Math.max(1, numberOfThreads), new ThreadFactory() {
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "RapidMiner-Worker-" + THREAD_COUNTER.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Executes the given tasks with the given thread pool and returns their results in the order of
+	 * the tasks. Failures are handled as by {@link #call(List, int)}. The pool is not shut down.
+	 */
+	public static <T> List<T> call(List<? extends Callable<T>> tasks, ExecutorService executor) throws OperatorException {
+		List<T> results = new ArrayList<T>(tasks.size());
+		List<Future<T>> futures = new ArrayList<Future<T>>(tasks.size());
+		for (Callable<T> task : tasks) {
+			futures.add(executor.submit(task));
+		}
+		Throwable failure = null;
+		for (Future<T> future : futures) {
+			try {
+				T result = future.get();
+				results.add(result);
+			} catch (ExecutionException e) {
+				if (failure == null) {
+					failure = e.getCause();
+					// remaining tasks are useless now
+					for (Future<T> other : futures) {
+						other.cancel(true);
+					}
+				}
+			} catch (InterruptedException e) {
+				for (Future<T> other : futures) {
+					other.cancel(true);
+				}
+				Thread.currentThread().interrupt();
+				throw new OperatorException("Interrupted while waiting for parallel tasks.", e);
+			} catch (CancellationException e) {
+				// only happens after a failure was recorded
+			}
+		}
+		if (failure != null) {
+			if (failure instanceof Error) {
+				throw (Error) failure;
+			}
+			throw toOperatorException((Exception) failure);
+		}
+		return results;
+	}
+
+	private static OperatorException toOperatorException(Exception e) {
+		if (e instanceof OperatorException) {
+			return (OperatorException) e;
+		} else if (e instanceof RuntimeException) {
+			throw (RuntimeException) e;
+		} else {
+			return new OperatorException(e.getMessage(), e);
+		}
+	}
+}
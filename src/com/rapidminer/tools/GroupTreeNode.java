@@ -46,14 +46,17 @@ public class GroupTreeNode extends GroupTree {
     /** The parent of this group. This is the root node if parent is null. */
     private GroupTree parent = null;
 
-    private final GroupDocumentation documentation;
+    private GroupDocumentation documentation;
+
+    /** The bundle the documentation is taken from when it is accessed for the first time. */
+    private OperatorDocBundle documentationBundle;
 
     /** Creates a new group tree with no operators and children. */
     GroupTreeNode(GroupTree parent, String key, OperatorDocBundle bundle) {
         this.parent = parent;
         this.key = key;
         if (bundle != null) {
-            this.documentation = ((GroupDocumentation) bundle.getObject("group." + getFullyQualifiedKey()));
+            this.documentationBundle = bundle;
         } else {
             //LogService.getRoot().fine("No documentation bundle associated with group " + getFullyQualifiedKey());
             LogService.getRoot().log(Level.FINE, "com.rapidminer.tools.GroupTreeNode.no_documentation_bundle_associated", getFullyQualifiedKey());
@@ -66,6 +69,7 @@ public class GroupTreeNode extends GroupTree {
         super(other);
         this.key = other.key;
         this.documentation = other.documentation;
+        this.documentationBundle = other.documentationBundle;
     }
 
     @Override
@@ -79,7 +83,11 @@ public class GroupTreeNode extends GroupTree {
         return getDocumentation().getName();
     }
 
-    private GroupDocumentation getDocumentation() {
+    private synchronized GroupDocumentation getDocumentation() {
+        if (documentation == null) {
+            documentation = (GroupDocumentation) documentationBundle.getObject("group." + getFullyQualifiedKey());
+            documentationBundle = null;
+        }
         return documentation;
     }
 
@@ -96,7 +104,7 @@ public class GroupTreeNode extends GroupTree {
 
     @Override
     public String getDescription() {
-        return documentation.getHelp();
+        return getDocumentation().getHelp();
     }
 
     @Override
@@ -0,0 +1,281 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.tools;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.security.CodeSource;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+
+import com.rapidminer.RapidMiner;
+import com.rapidminer.operator.IOObject;
+import com.rapidminer.operator.OperatorDescription;
+import com.rapidminer.tools.plugin.Plugin;
+
+/**
+ * A binary index of the {@link IOObject} classes used by the ports of the operators defined in one
+ * operator description file. Without it, {@link OperatorService} has to create an instance of
+ * every operator at startup and transform its meta data to find these classes.
+ * 
+ * An index is only valid for the checksum it was created for. For the core operators, the
+ * checksum covers the operator description file and the index is generated at build time by
+ * {@link #main(String[])} and shipped as {@link #CORE_INDEX_RESOURCE}. For all other operator
+ * description files, the checksum additionally covers the jar file containing the operator
+ * classes and the index is created on first startup in the user's RapidMiner directory. Operators
+ * loaded from class directories are never indexed since their classes may change at any time.
+ */
+public class OperatorRegistryIndex {
+
+	/** Resource containing the index of the core operators. */
+	public static final String CORE_INDEX_RESOURCE = "com/rapidminer/resources/OperatorsCore.index";
+
+	private static final int MAGIC = 0x524D4F49;
+
+	private static final int FORMAT_VERSION = 1;
+
+	private final long checksum;
+
+	/** The file this index is stored in or null if it is read only. */
+	private final File file;
+
+	private final Map<String, String[]> ioObjectClassNames = new HashMap<String, String[]>();
+
+	private boolean modified = false;
+
+	private OperatorRegistryIndex(long checksum, File file) {
+		this.checksum = checksum;
+		this.file = file;
+	}
+
+	/**
+	 * Returns the index for the given operator description file or null if the operators cannot
+	 * be indexed.
+	 * 
+	 * @param name the name of the operator description file
+	 * @param operatorsXML the content of the operator description file
+	 * @param provider the plugin defining the operators, null for the core
+	 */
+	public static OperatorRegistryIndex getIndex(String name, byte[] operatorsXML, Plugin provider) {
+		long xmlChecksum = checksum(operatorsXML);
+		if (provider == null) {
+			InputStream in = OperatorRegistryIndex.class.getClassLoader().getResourceAsStream(CORE_INDEX_RESOURCE);
+			if (in != null) {
+				OperatorRegistryIndex index = new OperatorRegistryIndex(xmlChecksum, null);
+				if (index.read(in, CORE_INDEX_RESOURCE)) {
+					return index;
+				}
+			}
+		}
+
+		if (!RapidMiner.getExecutionMode().canAccessFilesystem()) {
+			return null;
+		}
+		File jar = (provider == null) ? getCoreJar() : provider.getFile();
+		if ((jar == null) || !jar.isFile()) {
+			return null;
+		}
+		long jarChecksum;
+		try {
+			jarChecksum = jarChecksum(jar);
+		} catch (IOException e) {
+			LogService.getRoot().log(Level.FINE, "Cannot compute checksum of " + jar + ": " + e, e);
+			return null;
+		}
+		String id = (provider == null) ? name : provider.getExtensionId();
+		File indexFile = FileSystemService.getUserConfigFile("operator_index_" + id.replaceAll("[^a-zA-Z0-9_.-]", "_") + ".bin");
+		OperatorRegistryIndex index = new OperatorRegistryIndex(31 * xmlChecksum + jarChecksum, indexFile);
+		if (indexFile.exists()) {
+			try {
+				if (!index.read(new FileInputStream(indexFile), indexFile.getPath())) {
+					index.ioObjectClassNames.clear();
+				}
+			} catch (IOException e) {
+				index.ioObjectClassNames.clear();
+			}
+		}
+		return index;
+	}
+
+	/** Returns the names of the IO object classes used by the operator or null if it is not indexed. */
+	public String[] getIOObjectClassNames(String operatorKey) {
+		return ioObjectClassNames.get(operatorKey);
+	}
+
+	/** Records the IO object classes used by the given operator. */
+	public void put(String operatorKey, List<Class<? extends IOObject>> ioObjectClasses) {
+		String[] names = new String[ioObjectClasses.size()];
+		int i = 0;
+		for (Class<? extends IOObject> clazz : ioObjectClasses) {
+			names[i++] = clazz.getName();
+		}
+		ioObjectClassNames.put(operatorKey, names);
+		modified = true;
+	}
+
+	/** Writes the index to its file if it was modified. */
+	public void save() {
+		if (!modified || (file == null)) {
+			return;
+		}
+		try {
+			write(file);
+			modified = false;
+		} catch (IOException e) {
+			LogService.getRoot().log(Level.WARNING, "com.rapidminer.tools.OperatorRegistryIndex.writing_error", new Object[] { file, e });
+		}
+	}
+
+	private void write(File target) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(target)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeLong(checksum);
+			out.writeInt(ioObjectClassNames.size());
+			for (Map.Entry<String, String[]> entry : ioObjectClassNames.entrySet()) {
+				out.writeUTF(entry.getKey());
+				out.writeInt(entry.getValue().length);
+				for (String className : entry.getValue()) {
+					out.writeUTF(className);
+				}
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/** Reads the entries of the stream if it is an index for the same checksum. Closes the stream. */
+	private boolean read(InputStream stream, String source) {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+		try {
+			if ((in.readInt() != MAGIC) || (in.readInt() != FORMAT_VERSION) || (in.readLong() != checksum)) {
+				return false;
+			}
+			int size = in.readInt();
+			for (int i = 0; i < size; i++) {
+				String key = in.readUTF();
+				String[] names = new String[in.readInt()];
+				for (int j = 0; j < names.length; j++) {
+					names[j] = in.readUTF();
+				}
+				ioObjectClassNames.put(key, names);
+			}
+			return true;
+		} catch (IOException e) {
+			LogService.getRoot().log(Level.WARNING, "com.rapidminer.tools.OperatorRegistryIndex.reading_error", new Object[] { source, e });
+			ioObjectClassNames.clear();
+			return false;
+		} finally {
+			try {
+				in.close();
+			} catch (IOException e) {
+			}
+		}
+	}
+
+	private static long checksum(byte[] bytes) {
+		CRC32 crc = new CRC32();
+		crc.update(bytes);
+		return crc.getValue();
+	}
+
+	/** Combines the CRCs stored in the directory of the jar file, i.e. the file content is not read. */
+	private static long jarChecksum(File file) throws IOException {
+		JarFile jarFile = new JarFile(file);
+		try {
+			long result = 1;
+			Enumeration<JarEntry> entries = jarFile.entries();
+			while (entries.hasMoreElements()) {
+				JarEntry entry = entries.nextElement();
+				result = 31 * result + entry.getName().hashCode();
+				result = 31 * result + entry.getCrc();
+			}
+			return result;
+		} finally {
+			jarFile.close();
+		}
+	}
+
+	/** Returns the jar file containing the RapidMiner classes or null if they are not loaded from a jar file. */
+	private static File getCoreJar() {
+		try {
+			CodeSource codeSource = OperatorRegistryIndex.class.getProtectionDomain().getCodeSource();
+			if (codeSource == null) {
+				return null;
+			}
+			URL location = codeSource.getLocation();
+			if ((location == null) || !"file".equals(location.getProtocol()) || !location.getPath().endsWith(".jar")) {
+				return null;
+			}
+			return new File(location.toURI());
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Generates the index of the core operators. The only argument is the file to write to. This is
+	 * called by the build after compiling, the result is packed into the jar as
+	 * {@link #CORE_INDEX_RESOURCE}.
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length != 1) {
+			System.err.println("Usage: java " + OperatorRegistryIndex.class.getName() + " INDEXFILE");
+			System.exit(1);
+		}
+		RapidMiner.setExecutionMode(RapidMiner.ExecutionMode.COMMAND_LINE);
+		RapidMiner.init();
+		byte[] operatorsXML = Tools.readUrl(OperatorService.getMainOperators());
+		OperatorRegistryIndex index = new OperatorRegistryIndex(checksum(operatorsXML), null);
+		for (String key : OperatorService.getOperatorKeys()) {
+			OperatorDescription description = OperatorService.getOperatorDescription(key);
+			if (description.getProvider() == null) {
+				List<Class<? extends IOObject>> classes = new LinkedList<Class<? extends IOObject>>();
+				OperatorService.collectIOObjects(description, classes);
+				index.put(key, classes);
+			}
+		}
+		File target = new File(args[0]);
+		if (target.getParentFile() != null) {
+			target.getParentFile().mkdirs();
+		}
+		index.write(target);
+		System.out.println("Wrote index of " + index.ioObjectClassNames.size() + " operators to " + args[0] + ".");
+	}
+}
@@ -22,6 +22,7 @@
  */
 package com.rapidminer.tools;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -56,7 +57,7 @@ import com.rapidminer.operator.ports.Port;
 import com.rapidminer.operator.ports.Ports;
 import com.rapidminer.operator.tools.OperatorCreationHook;
 import com.rapidminer.tools.documentation.OperatorDocBundle;
-import com.rapidminer.tools.documentation.XMLOperatorDocBundle;
+import com.rapidminer.tools.documentation.LazyOperatorDocBundle;
 import com.rapidminer.tools.plugin.Plugin;
 
 /**
@@ -221,14 +222,19 @@ public class OperatorService {
         String version = null;
         Document document = null;
         try {
-            document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(operatorsXML);
+            byte[] content = Tools.readInputStream(operatorsXML);
+            document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new ByteArrayInputStream(content));
             if (!document.getDocumentElement().getTagName().toLowerCase().equals("operators")) {
                 LogService.getRoot().log(Level.SEVERE, "com.rapidminer.tools.OperatorService.operator_description_file_outermost_tag", name);
                 return;
             }
             version = document.getDocumentElement().getAttribute("version");
             if (version.startsWith("5.")) {
-                parseOperators(document, classLoader, provider);
+                OperatorRegistryIndex index = OperatorRegistryIndex.getIndex(name, content, provider);
+                parseOperators(document, classLoader, provider, index);
+                if (index != null) {
+                    index.save();
+                }
             }
         } catch (Exception e) {
             LogService.getRoot().log(Level.SEVERE,
@@ -250,7 +256,7 @@ public class OperatorService {
         }
     }
 
-    private static void parseOperators(Document document, ClassLoader classLoader, Plugin provider) throws XMLException, OperatorCreationException {
+    private static void parseOperators(Document document, ClassLoader classLoader, Plugin provider, OperatorRegistryIndex index) throws XMLException, OperatorCreationException {
         String docBundle = document.getDocumentElement().getAttribute("docbundle");
         OperatorDocBundle bundle;
         if (docBundle == null || docBundle.isEmpty()) {
@@ -263,13 +269,14 @@ public class OperatorService {
             }
             LogService.getRoot().log(Level.WARNING, "com.rapidminer.tools.OperatorService.operators_no_attached_documention", providerName);
         } else {
-            bundle = XMLOperatorDocBundle.load(classLoader, docBundle);
+            // the documentation is only parsed when it is needed for the first time
+            bundle = new LazyOperatorDocBundle(classLoader, docBundle);
         }
 
-        parseOperators(groupTreeRoot, document.getDocumentElement(), classLoader, provider, bundle);
+        parseOperators(groupTreeRoot, document.getDocumentElement(), classLoader, provider, bundle, index);
     }
 
-    private static void parseOperators(GroupTree currentGroup, Element groupElement, ClassLoader classLoader, Plugin provider, OperatorDocBundle bundle) throws XMLException, OperatorCreationException {
+    private static void parseOperators(GroupTree currentGroup, Element groupElement, ClassLoader classLoader, Plugin provider, OperatorDocBundle bundle, OperatorRegistryIndex index) throws XMLException, OperatorCreationException {
         NodeList children = groupElement.getChildNodes();
         for (int i = 0; i < children.getLength(); i++) {
             Node child = children.item(i);
@@ -290,7 +297,7 @@ public class OperatorService {
                         if (newTree.getIconName() == null || newTree.getIconName().length() == 0)
                             newTree.setIconName(currentGroup.getIconName());
                     }
-                    parseOperators(newTree, childElement, classLoader, provider, bundle);
+                    parseOperators(newTree, childElement, classLoader, provider, bundle, index);
                 } else if (childElement.getTagName().equals("operator")) {
                     String extensionId = "RapidMiner Core";
                     if(provider != null) {
@@ -298,7 +305,7 @@ public class OperatorService {
                     }
 					try {
                         OperatorDescription desc = new OperatorDescription(currentGroup.getFullyQualifiedKey(), childElement, classLoader, provider, bundle);
-                        registerOperator(desc, bundle);
+                        registerOperator(desc, bundle, index);
                         if (desc.getReplacedKeys() != null) {
                             for (String replaces : desc.getReplacedKeys()) {
                                 DEPRECATION_MAP.put(replaces, desc.getKey());
@@ -497,6 +504,15 @@ public class OperatorService {
      * @throws OperatorCreationException
      */
     public static void registerOperator(OperatorDescription description, OperatorDocBundle bundle) throws OperatorCreationException {
+        registerOperator(description, bundle, null);
+    }
+
+    /**
+     * Registers the given operator description. If the index knows the IO objects used by the
+     * operator, they are registered without creating an instance of the operator. Otherwise,
+     * they are added to the index.
+     */
+    private static void registerOperator(OperatorDescription description, OperatorDocBundle bundle, OperatorRegistryIndex index) throws OperatorCreationException {
         // check if this operator was not registered earlier
         OperatorDescription oldDescription = KEYS_TO_DESCRIPTIONS.get(description.getKey());
         if (oldDescription != null) {
@@ -516,11 +532,14 @@ public class OperatorService {
         REGISTERED_OPERATOR_CLASSES.add(description.getOperatorClass());
 
         // TODO: Check if still necessary.
-        Operator currentOperator = description.createOperatorInstance();
-        currentOperator.assumePreconditionsSatisfied();
-        currentOperator.transformMetaData();
-        checkIOObjects(currentOperator.getInputPorts());
-        checkIOObjects(currentOperator.getOutputPorts());
+        if (!registerIndexedIOObjects(description, index)) {
+            List<Class<? extends IOObject>> ioObjects = new LinkedList<Class<? extends IOObject>>();
+            collectIOObjects(description, ioObjects);
+            registerIOObjects(ioObjects);
+            if (index != null) {
+                index.put(description.getKey(), ioObjects);
+            }
+        }
 
         // inform listener
         invokeOperatorRegisteredListener(description, bundle);
@@ -549,17 +568,54 @@ public class OperatorService {
     }
 
     /**
-     * Checks if the classes generated by these ports are already registered and
-     * registers them if not.
+     * Creates an instance of the operator and adds the classes of the meta data at its ports
+     * to the given list.
      */
-    private static void checkIOObjects(Ports<? extends Port> ports) {
-        List<Class<? extends IOObject>> result = new LinkedList<Class<? extends IOObject>>();
+    static void collectIOObjects(OperatorDescription description, List<Class<? extends IOObject>> result) throws OperatorCreationException {
+        Operator currentOperator = description.createOperatorInstance();
+        currentOperator.assumePreconditionsSatisfied();
+        currentOperator.transformMetaData();
+        collectIOObjects(currentOperator.getInputPorts(), result);
+        collectIOObjects(currentOperator.getOutputPorts(), result);
+    }
+
+    private static void collectIOObjects(Ports<? extends Port> ports, List<Class<? extends IOObject>> result) {
         for (Port port : ports.getAllPorts()) {
             if (port.getMetaData() != null) {
                 result.add(port.getMetaData().getObjectClass());
             }
         }
-        registerIOObjects(result);
+    }
+
+    /**
+     * Registers the IO objects the index knows for the given operator. Returns false if the index
+     * does not know the operator or one of the classes cannot be loaded.
+     */
+    private static boolean registerIndexedIOObjects(OperatorDescription description, OperatorRegistryIndex index) {
+        if (index == null) {
+            return false;
+        }
+        String[] classNames = index.getIOObjectClassNames(description.getKey());
+        if (classNames == null) {
+            return false;
+        }
+        List<Class<? extends IOObject>> ioObjects = new LinkedList<Class<? extends IOObject>>();
+        ClassLoader classLoader = description.getOperatorClass().getClassLoader();
+        for (String className : classNames) {
+            try {
+                Class<?> clazz = Class.forName(className, true, classLoader);
+                if (!IOObject.class.isAssignableFrom(clazz)) {
+                    return false;
+                }
+                ioObjects.add(clazz.asSubclass(IOObject.class));
+            } catch (ClassNotFoundException e) {
+                return false;
+            } catch (LinkageError e) {
+                return false;
+            }
+        }
+        registerIOObjects(ioObjects);
+        return true;
     }
 
     /** Checks if the given classes are already registered and adds them if not. */
@@ -731,7 +787,7 @@ public class OperatorService {
     }
 
     /** Returns the main operator description file (XML). */
-    private static URL getMainOperators() {
+    static URL getMainOperators() {
         String resource;
         String operatorsXML = System.getProperty(RapidMiner.PROPERTY_RAPIDMINER_INIT_OPERATORS);
         if (operatorsXML != null) {
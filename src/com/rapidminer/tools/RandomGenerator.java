@@ -65,6 +65,12 @@ public class RandomGenerator extends Random {
 	 */
 	private static RandomGenerator globalRandomGenerator = new RandomGenerator(2001);
 
+	/**
+	 * Random number generators which replace the global random number generator for single threads,
+	 * see {@link #setThreadRandomGenerator(RandomGenerator)}.
+	 */
+	private static final ThreadLocal<RandomGenerator> threadRandomGenerator = new ThreadLocal<RandomGenerator>();
+
 	/** Initializes the random number generator without a seed. */
 	private RandomGenerator() {
 		super();
@@ -105,6 +111,10 @@ public class RandomGenerator extends Random {
 	 *  a local random generator. */
 	public static RandomGenerator getRandomGenerator(Process process, int seed) {
 		if (seed < 0) {
+			RandomGenerator threadGenerator = threadRandomGenerator.get();
+			if (threadGenerator != null) {
+				return threadGenerator;
+			}
 			if (globalRandomGenerator == null) { // might happen
 				init(process);
 			}
@@ -162,8 +172,27 @@ public class RandomGenerator extends Random {
 		if (operator.getParameterAsBoolean(PARAMETER_USE_LOCAL_RANDOM_SEED)) {
 			return new RandomGenerator(operator.getParameterAsInt(PARAMETER_LOCAL_RANDOM_SEED));
 		} else {
-			return globalRandomGenerator;
+			RandomGenerator threadGenerator = threadRandomGenerator.get();
+			return (threadGenerator != null) ? threadGenerator : globalRandomGenerator;
+		}
+	}
+
+	/**
+	 * Replaces the global random number generator by the given one for the current thread until this
+	 * method is invoked with null. Operators which execute their subprocess in parallel can use this in
+	 * order to give each execution its own deterministically seeded generator. Then the results do not
+	 * depend on the order in which the executions draw random numbers. Threads started by the
+	 * executions themselves still use the global random number generator. Returns the generator
+	 * previously set for the current thread or null, which should be restored afterwards.
+	 */
+	public static RandomGenerator setThreadRandomGenerator(RandomGenerator generator) {
+		RandomGenerator previous = threadRandomGenerator.get();
+		if (generator == null) {
+			threadRandomGenerator.remove();
+		} else {
+			threadRandomGenerator.set(generator);
 		}
+		return previous;
 	}
 
 	// ================================================================================
@@ -591,6 +591,11 @@ public class Tools {
 	 * returns a BufferedReader for the given file (file was not zipped at all).
 	 */
 	public static BufferedReader getReader(File file, Charset encoding) throws IOException {
+		return new BufferedReader(new InputStreamReader(getInputStream(file), encoding));
+	}
+
+	/** Opens the file. Zip files containing a single entry and gzipped files are uncompressed. */
+	public static InputStream getInputStream(File file) throws IOException {
 		// handle zip files if necessary
 		if (file.getAbsolutePath().endsWith(".zip")) {
 			ZipFile zipFile = new ZipFile(file);
@@ -601,12 +606,11 @@ public class Tools {
 				throw new IOException("Input of Zip file failed: the file archive contains more than one entry.");
 			}
 			Enumeration<? extends ZipEntry> entries = zipFile.entries();
-			InputStream zipIn = zipFile.getInputStream(entries.nextElement());
-			return new BufferedReader(new InputStreamReader(zipIn, encoding));
+			return zipFile.getInputStream(entries.nextElement());
 		} else if (file.getAbsolutePath().endsWith(".gz")) {
-			return new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(file)), encoding));
+			return new GZIPInputStream(new FileInputStream(file));
 		} else {
-			return new BufferedReader(new InputStreamReader(new FileInputStream(file), encoding));
+			return new FileInputStream(file);
 		}
 	}
 
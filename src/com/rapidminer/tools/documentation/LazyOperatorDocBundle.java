@@ -0,0 +1,67 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.tools.documentation;
+
+import java.util.Enumeration;
+
+/**
+ * An {@link OperatorDocBundle} which delays loading the underlying {@link XMLOperatorDocBundle}
+ * until the documentation is accessed for the first time. Parsing the documentation of all
+ * operators is one of the more expensive steps while starting RapidMiner, although most of it
+ * is never displayed in command line or server mode.
+ */
+public class LazyOperatorDocBundle extends OperatorDocBundle {
+
+    private final ClassLoader classLoader;
+
+    private final String resource;
+
+    private OperatorDocBundle delegate;
+
+    public LazyOperatorDocBundle(ClassLoader classLoader, String resource) {
+        this.classLoader = classLoader;
+        this.resource = resource;
+    }
+
+    private synchronized OperatorDocBundle getDelegate() {
+        if (delegate == null) {
+            delegate = XMLOperatorDocBundle.load(classLoader, resource);
+        }
+        return delegate;
+    }
+
+    @Override
+    public Enumeration<String> getKeys() {
+        return getDelegate().getKeys();
+    }
+
+    @Override
+    protected Object handleGetObject(String key) {
+        return getDelegate().getObject(key);
+    }
+
+    @Override
+    public void check() {
+        getDelegate().check();
+    }
+}
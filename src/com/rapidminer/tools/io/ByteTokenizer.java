@@ -0,0 +1,517 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.tools.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A tokenizer similar to {@link java.io.StreamTokenizer} which works on the bytes of the input
+ * instead of on characters. Tokens are not converted into strings unless {@link #getString()} is
+ * called, numbers can be parsed directly from the token bytes by {@link #getDouble()}. The syntax
+ * is defined by the methods {@link #whitespaceChar(int)}, {@link #ordinaryChar(int)},
+ * {@link #quoteChar(int)} and {@link #commentChar(int)}; all other bytes are word characters.
+ *
+ * Bytes are only interpreted as characters for the syntax, which is restricted to ASCII. This
+ * works for all encodings in which bytes of the ASCII range never occur within the encoding of
+ * other characters (see {@link #isAsciiCompatible(Charset)}). Input in other encodings is
+ * converted to UTF-8 while it is read.
+ *
+ * The input is either read from a channel through a buffer or taken from a {@link ByteBuffer},
+ * e.g. a memory mapped file. The latter allows to split a file into chunks at line boundaries
+ * (see {@link #split(ByteBuffer, int)}) which can be tokenized in parallel.
+ */
+public class ByteTokenizer {
+
+	public static final int TT_EOF = -1;
+
+	public static final int TT_EOL = '\n';
+
+	public static final int TT_WORD = -3;
+
+	public static final int TT_NOTHING = -4;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final byte CT_WORD = 0;
+
+	private static final byte CT_WHITESPACE = 1;
+
+	private static final byte CT_ORDINARY = 2;
+
+	private static final byte CT_QUOTE = 3;
+
+	private static final byte CT_COMMENT = 4;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private final byte[] charTypes = new byte[256];
+
+	private final ReadableByteChannel channel;
+
+	/** The input if it is given as buffer, copied window by window to {@link #buffer}. */
+	private final ByteBuffer source;
+
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+
+	private int position = 0;
+
+	private int limit = 0;
+
+	private final Charset charset;
+
+	private byte[] token = new byte[64];
+
+	private int tokenLength;
+
+	private int lineNumber = 1;
+
+	private boolean pushedBack = false;
+
+	/** The type of the last token, see {@link java.io.StreamTokenizer#ttype}. */
+	public int ttype = TT_NOTHING;
+
+	/** Tokenizes the given buffer from its position up to its limit. */
+	public ByteTokenizer(ByteBuffer buffer, Charset charset) {
+		this.channel = null;
+		this.source = buffer;
+		this.charset = charset;
+		resetSyntax();
+	}
+
+	/** Tokenizes the given stream which must be encoded in an ASCII compatible encoding. */
+	public ByteTokenizer(ReadableByteChannel channel, Charset charset) {
+		this.channel = channel;
+		this.source = null;
+		this.charset = charset;
+		resetSyntax();
+	}
+
+	/** Tokenizes the given stream. If necessary, its content is converted to UTF-8. */
+	public ByteTokenizer(InputStream in, Charset charset) {
+		this(isAsciiCompatible(charset) ? Channels.newChannel(in) : new TranscodingChannel(new InputStreamReader(in, charset)), isAsciiCompatible(charset) ? charset : UTF8);
+	}
+
+	/** Tokenizes the characters of the given reader after converting them to UTF-8. */
+	public ByteTokenizer(Reader in) {
+		this(new TranscodingChannel(in), UTF8);
+	}
+
+	/**
+	 * Returns true if all bytes in the ASCII range represent the corresponding ASCII character in
+	 * the given encoding. This is the case for UTF-8 and the single byte ISO and Windows encodings.
+	 */
+	public static boolean isAsciiCompatible(Charset charset) {
+		String name = charset.name();
+		return "UTF-8".equals(name) || "US-ASCII".equals(name) || name.startsWith("ISO-8859-") || name.startsWith("windows-125");
+	}
+
+	/** Maps the given file into memory. */
+	public static ByteBuffer map(File file) throws IOException {
+		FileInputStream in = new FileInputStream(file);
+		try {
+			FileChannel channel = in.getChannel();
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Splits the buffer into at most the given number of chunks of about equal size. Each chunk
+	 * starts at the beginning of a line and ends after the line end of its last line.
+	 */
+	public static List<ByteBuffer> split(ByteBuffer buffer, int numberOfChunks) {
+		List<ByteBuffer> chunks = new ArrayList<ByteBuffer>(numberOfChunks);
+		int start = buffer.position();
+		int limit = buffer.limit();
+		long chunkSize = Math.max(1, (limit - start) / Math.max(1, numberOfChunks));
+		while (start < limit) {
+			int end = (int) Math.min(limit, start + chunkSize);
+			while (end < limit && buffer.get(end - 1) != '\n') {
+				end++;
+			}
+			ByteBuffer chunk = buffer.duplicate();
+			chunk.position(start);
+			chunk.limit(end);
+			chunks.add(chunk.slice());
+			start = end;
+		}
+		return chunks;
+	}
+
+	/** Makes all bytes word characters. */
+	public void resetSyntax() {
+		Arrays.fill(charTypes, CT_WORD);
+		for (int c = 0; c <= ' '; c++) {
+			charTypes[c] = CT_WHITESPACE;
+		}
+	}
+
+	public void whitespaceChar(int c) {
+		charTypes[c] = CT_WHITESPACE;
+	}
+
+	public void ordinaryChar(int c) {
+		charTypes[c] = CT_ORDINARY;
+	}
+
+	/** Quoted tokens end at the quote or the end of the line. Backslash escapes are resolved. */
+	public void quoteChar(int c) {
+		charTypes[c] = CT_QUOTE;
+	}
+
+	/** Comments extend to the end of the line. */
+	public void commentChar(int c) {
+		charTypes[c] = CT_COMMENT;
+	}
+
+	/** Returns the encoding of the bytes delivered by this tokenizer. */
+	public Charset getCharset() {
+		return charset;
+	}
+
+	public int getLineNumber() {
+		return lineNumber;
+	}
+
+	/** Causes the next call of {@link #nextToken()} to return the current token again. */
+	public void pushBack() {
+		pushedBack = true;
+	}
+
+	/**
+	 * Reads the next token and returns its type: {@link #TT_WORD} for words, the quote character
+	 * for quoted strings, the character itself for ordinary characters, {@link #TT_EOL} at the end
+	 * of a line and {@link #TT_EOF} at the end of the input.
+	 */
+	public int nextToken() throws IOException {
+		if (pushedBack) {
+			pushedBack = false;
+			return ttype;
+		}
+		tokenLength = 0;
+		while (true) {
+			int c = read();
+			if (c < 0) {
+				return ttype = TT_EOF;
+			}
+			if (c == '\n' || c == '\r') {
+				if (c == '\r' && peek() == '\n') {
+					read();
+				}
+				lineNumber++;
+				return ttype = TT_EOL;
+			}
+			switch (charTypes[c]) {
+				case CT_WHITESPACE:
+					continue;
+				case CT_COMMENT:
+					skipToEndOfLine();
+					continue;
+				case CT_ORDINARY:
+					return ttype = c;
+				case CT_QUOTE:
+					readQuoted(c);
+					return ttype = c;
+				default:
+					append(c);
+					readWord();
+					return ttype = TT_WORD;
+			}
+		}
+	}
+
+	/** Returns the next byte without consuming it or -1 at the end of the input. */
+	public int peek() throws IOException {
+		if (position == limit && !fill()) {
+			return -1;
+		}
+		return buffer[position] & 0xFF;
+	}
+
+	/** Skips the rest of the current line including its line end. */
+	public void skipLine() throws IOException {
+		skipToEndOfLine();
+		int c = read();
+		if (c == '\r' && peek() == '\n') {
+			read();
+		}
+		if (c >= 0) {
+			lineNumber++;
+		}
+		pushedBack = false;
+	}
+
+	/**
+	 * Returns the rest of the current line without the line end and moves to the next line.
+	 * Returns null at the end of the input.
+	 */
+	public String readLine() throws IOException {
+		tokenLength = 0;
+		ttype = TT_NOTHING;
+		pushedBack = false;
+		int c = peek();
+		if (c < 0) {
+			return null;
+		}
+		while ((c = peek()) >= 0 && c != '\n' && c != '\r') {
+			append(read());
+		}
+		skipLine();
+		return decode(token, 0, tokenLength);
+	}
+
+	/** Returns the bytes of the current token. Only the first {@link #getTokenLength()} are valid. */
+	public byte[] getTokenBytes() {
+		return token;
+	}
+
+	public int getTokenLength() {
+		return tokenLength;
+	}
+
+	/** Returns true if the current token consists of the given ASCII string. */
+	public boolean tokenEquals(String value) {
+		if (value.length() != tokenLength) {
+			return false;
+		}
+		for (int i = 0; i < tokenLength; i++) {
+			if (token[i] != value.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** Returns the current token as string or null if the current token is no word or quoted string. */
+	public String getString() {
+		if (tokenLength > 0 || ttype == TT_WORD || (ttype >= 0 && ttype < 256 && charTypes[ttype] == CT_QUOTE)) {
+			return decode(token, 0, tokenLength);
+		}
+		return null;
+	}
+
+	/** Parses the current token like {@link Double#parseDouble(String)}. */
+	public double getDouble() {
+		return DoubleParser.parseDouble(token, 0, tokenLength);
+	}
+
+	/** Decodes the given bytes with the encoding of this tokenizer. */
+	public String decode(byte[] bytes, int offset, int length) {
+		for (int i = 0; i < length; i++) {
+			if (bytes[offset + i] < 0) {
+				return new String(bytes, offset, length, charset);
+			}
+		}
+		// pure ASCII
+		char[] chars = new char[length];
+		for (int i = 0; i < length; i++) {
+			chars[i] = (char) bytes[offset + i];
+		}
+		return new String(chars);
+	}
+
+	public void close() throws IOException {
+		if (channel != null) {
+			channel.close();
+		}
+	}
+
+	private void readQuoted(int quote) throws IOException {
+		int c;
+		while ((c = peek()) >= 0 && c != quote && c != '\n' && c != '\r') {
+			read();
+			if (c == '\\') {
+				c = read();
+				if (c < 0) {
+					break;
+				}
+				switch (c) {
+					case 'a':
+						c = 0x7;
+						break;
+					case 'b':
+						c = '\b';
+						break;
+					case 'f':
+						c = 0xC;
+						break;
+					case 'n':
+						c = '\n';
+						break;
+					case 'r':
+						c = '\r';
+						break;
+					case 't':
+						c = '\t';
+						break;
+					case 'v':
+						c = 0xB;
+						break;
+					default:
+						if (c >= '0' && c <= '7') {
+							int value = c - '0';
+							int maxDigits = c <= '3' ? 2 : 1;
+							for (int i = 0; i < maxDigits && (c = peek()) >= '0' && c <= '7'; i++) {
+								value = value * 8 + read() - '0';
+							}
+							c = value;
+							if (c >= 0x80) {
+								// the escaped character is no ASCII character and must be encoded
+								for (byte b : String.valueOf((char) c).getBytes(charset)) {
+									append(b & 0xFF);
+								}
+								continue;
+							}
+						}
+				}
+			}
+			append(c);
+		}
+		if (c == quote) {
+			read();
+		}
+	}
+
+	/** Appends all following word characters to the token. */
+	private void readWord() throws IOException {
+		while (true) {
+			int start = position;
+			while (position < limit && charTypes[buffer[position] & 0xFF] == CT_WORD) {
+				position++;
+			}
+			int length = position - start;
+			if (tokenLength + length > token.length) {
+				token = Arrays.copyOf(token, Math.max(2 * token.length, tokenLength + length));
+			}
+			System.arraycopy(buffer, start, token, tokenLength, length);
+			tokenLength += length;
+			if (position < limit || !fill()) {
+				return;
+			}
+		}
+	}
+
+	private void skipToEndOfLine() throws IOException {
+		int c;
+		while ((c = peek()) >= 0 && c != '\n' && c != '\r') {
+			read();
+		}
+	}
+
+	private void append(int c) {
+		if (tokenLength == token.length) {
+			token = Arrays.copyOf(token, token.length * 2);
+		}
+		token[tokenLength++] = (byte) c;
+	}
+
+	private int read() throws IOException {
+		if (position == limit && !fill()) {
+			return -1;
+		}
+		return buffer[position++] & 0xFF;
+	}
+
+	/** Reads the next window of the input into the buffer. Returns false at the end of the input. */
+	private boolean fill() throws IOException {
+		int read;
+		if (channel != null) {
+			ByteBuffer window = ByteBuffer.wrap(buffer);
+			do {
+				read = channel.read(window);
+			} while (read == 0);
+		} else {
+			read = Math.min(source.remaining(), buffer.length);
+			source.get(buffer, 0, read);
+		}
+		position = 0;
+		limit = Math.max(0, read);
+		return read > 0;
+	}
+
+	/** Delivers the characters of a reader encoded in UTF-8. */
+	private static class TranscodingChannel implements ReadableByteChannel {
+
+		private final Reader reader;
+
+		private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE / 4);
+
+		private final CharsetEncoder encoder = UTF8.newEncoder();
+
+		private boolean endOfInput = false;
+
+		private TranscodingChannel(Reader reader) {
+			this.reader = reader;
+			chars.flip();
+		}
+
+		@Override
+		public int read(ByteBuffer destination) throws IOException {
+			int start = destination.position();
+			while (destination.hasRemaining()) {
+				CoderResult result = encoder.encode(chars, destination, endOfInput);
+				if (result.isError()) {
+					result.throwException();
+				}
+				if (result.isOverflow() || endOfInput || destination.position() > start) {
+					break;
+				}
+				// all characters are encoded, read more
+				chars.compact();
+				if (reader.read(chars) < 0) {
+					endOfInput = true;
+				}
+				chars.flip();
+			}
+			int read = destination.position() - start;
+			return read == 0 && endOfInput ? -1 : read;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public void close() throws IOException {
+			reader.close();
+		}
+	}
+}
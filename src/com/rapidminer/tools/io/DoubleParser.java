@@ -0,0 +1,194 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.tools.io;
+
+/**
+ * Parses numbers directly from the bytes of an ASCII compatible encoded text without creating
+ * strings. Numbers with at most 15 significant digits and a small decimal exponent are converted
+ * exactly by a single floating point multiplication or division, which yields the correctly
+ * rounded result. All other inputs are delegated to {@link Double#parseDouble(String)}, so the
+ * results are always identical to those of the Java parser.
+ */
+public class DoubleParser {
+
+	/** The maximum number of digits accepted by {@link #isPlainDecimal(byte[], int, int)}. */
+	public static final int MAX_PLAIN_DIGITS = 18;
+
+	/** Largest integer for which all smaller integers are exactly representable as doubles. */
+	private static final long MAX_EXACT_INTEGER = 1L << 53;
+
+	/** Powers of ten which are exactly representable as doubles. */
+	private static final double[] POWERS_OF_TEN = new double[23];
+
+	static {
+		POWERS_OF_TEN[0] = 1.0d;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10.0d;
+		}
+	}
+
+	private DoubleParser() {}
+
+	/**
+	 * Parses the number represented by the given bytes with the syntax of
+	 * {@link Double#parseDouble(String)}.
+	 *
+	 * @throws NumberFormatException if the bytes do not represent a number
+	 */
+	public static double parseDouble(byte[] bytes, int offset, int length) {
+		int end = offset + length;
+		int i = offset;
+		boolean negative = false;
+		if (i < end && (bytes[i] == '-' || bytes[i] == '+')) {
+			negative = bytes[i] == '-';
+			i++;
+		}
+		long mantissa = 0;
+		int significantDigits = 0;
+		int digits = 0;
+		int exponent = 0;
+		boolean exact = true;
+		for (; i < end && isDigit(bytes[i]); i++) {
+			digits++;
+			if (significantDigits > 0 || bytes[i] != '0') {
+				if (significantDigits < MAX_PLAIN_DIGITS) {
+					mantissa = mantissa * 10 + (bytes[i] - '0');
+					significantDigits++;
+				} else {
+					exact = false;
+				}
+			}
+		}
+		if (i < end && bytes[i] == '.') {
+			i++;
+			for (; i < end && isDigit(bytes[i]); i++) {
+				digits++;
+				if (significantDigits > 0 || bytes[i] != '0') {
+					if (significantDigits < MAX_PLAIN_DIGITS) {
+						mantissa = mantissa * 10 + (bytes[i] - '0');
+						significantDigits++;
+					} else {
+						exact = false;
+					}
+				}
+				exponent--;
+			}
+		}
+		if (digits > 0 && i < end && (bytes[i] == 'e' || bytes[i] == 'E')) {
+			i++;
+			boolean negativeExponent = false;
+			if (i < end && (bytes[i] == '-' || bytes[i] == '+')) {
+				negativeExponent = bytes[i] == '-';
+				i++;
+			}
+			int exponentStart = i;
+			int explicitExponent = 0;
+			for (; i < end && isDigit(bytes[i]); i++) {
+				if (explicitExponent < 100000) {
+					explicitExponent = explicitExponent * 10 + (bytes[i] - '0');
+				}
+			}
+			if (i == exponentStart) {
+				exact = false;
+			}
+			exponent += negativeExponent ? -explicitExponent : explicitExponent;
+		}
+		if (exact && digits > 0 && i == end && mantissa <= MAX_EXACT_INTEGER) {
+			double value = mantissa;
+			if (exponent == 0 || mantissa == 0) {
+				return negative ? -value : value;
+			} else if (exponent > 0 && exponent < POWERS_OF_TEN.length) {
+				value *= POWERS_OF_TEN[exponent];
+				return negative ? -value : value;
+			} else if (exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+				value /= POWERS_OF_TEN[-exponent];
+				return negative ? -value : value;
+			}
+		}
+		return Double.parseDouble(toString(bytes, offset, length));
+	}
+
+	/**
+	 * Parses a decimal integer.
+	 *
+	 * @throws NumberFormatException if the bytes do not represent an integer
+	 */
+	public static int parseInt(byte[] bytes, int offset, int length) {
+		int end = offset + length;
+		int i = offset;
+		boolean negative = false;
+		if (i < end && (bytes[i] == '-' || bytes[i] == '+')) {
+			negative = bytes[i] == '-';
+			i++;
+		}
+		if (i == end || end - i > 9) {
+			return Integer.parseInt(toString(bytes, offset, length));
+		}
+		int value = 0;
+		for (; i < end; i++) {
+			if (!isDigit(bytes[i])) {
+				throw new NumberFormatException("For input string: \"" + toString(bytes, offset, length) + "\"");
+			}
+			value = value * 10 + (bytes[i] - '0');
+		}
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Returns true if the bytes form a plain decimal number, i.e. an optional minus sign
+	 * followed by at most {@link #MAX_PLAIN_DIGITS} digits, optionally containing a decimal point.
+	 * Such numbers are read identically by {@link #parseDouble(byte[], int, int)} and by a
+	 * {@link java.text.DecimalFormat} with '.' as decimal separator.
+	 */
+	public static boolean isPlainDecimal(byte[] bytes, int offset, int length) {
+		int end = offset + length;
+		int i = offset;
+		if (i < end && bytes[i] == '-') {
+			i++;
+		}
+		int digits = 0;
+		boolean point = false;
+		for (; i < end; i++) {
+			if (isDigit(bytes[i])) {
+				digits++;
+			} else if (bytes[i] == '.' && !point) {
+				point = true;
+			} else {
+				return false;
+			}
+		}
+		return digits > 0 && digits <= MAX_PLAIN_DIGITS;
+	}
+
+	private static boolean isDigit(byte b) {
+		return b >= '0' && b <= '9';
+	}
+
+	private static String toString(byte[] bytes, int offset, int length) {
+		char[] chars = new char[length];
+		for (int i = 0; i < length; i++) {
+			chars[i] = (char) (bytes[offset + i] & 0xFF);
+		}
+		return new String(chars);
+	}
+}
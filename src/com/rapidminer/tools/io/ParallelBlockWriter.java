@@ -0,0 +1,175 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.tools.io;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.zip.GZIPOutputStream;
+
+import com.rapidminer.operator.OperatorException;
+import com.rapidminer.tools.ConcurrencyTools;
+
+/**
+ * Writes rows of text into an output stream. The rows are grouped into blocks which are formatted
+ * by {@link #formatBlock(List, StringBuilder)} and encoded into byte buffers. If more than one
+ * thread is used, several blocks are formatted in parallel and afterwards written in their
+ * original order. Output to a {@link FileOutputStream} is written through its {@link FileChannel}.
+ *
+ * If compression is requested, the output is written through a single {@link GZIPOutputStream}.
+ * Only the formatting is done in parallel, the compression of the blocks is sequential.
+ *
+ * Subclasses must not share state between blocks, since {@link #formatBlock(List, StringBuilder)}
+ * may be invoked concurrently.
+ */
+public abstract class ParallelBlockWriter<T> {
+
+	/** The default number of rows formatted by one task. */
+	public static final int DEFAULT_BLOCK_SIZE = 1000;
+
+	/** The number of blocks per thread which are formatted before they are written. */
+	private static final int BLOCKS_PER_THREAD = 2;
+
+	private final String lineSeparator = System.getProperty("line.separator");
+
+	private final Charset encoding;
+
+	private final int numberOfThreads;
+
+	private final int blockSize;
+
+	private final OutputStream out;
+
+	private final FileChannel channel;
+
+	private final GZIPOutputStream gzipOut;
+
+	/**
+	 * Creates a writer for the given stream. The stream is closed by {@link #close()}.
+	 * 
+	 * @param numberOfThreads
+	 *            the number of threads used for formatting, 1 for sequential writing
+	 */
+	public ParallelBlockWriter(OutputStream out, Charset encoding, boolean compress, int numberOfThreads) throws IOException {
+		this(out, encoding, compress, numberOfThreads, DEFAULT_BLOCK_SIZE);
+	}
+
+	public ParallelBlockWriter(OutputStream out, Charset encoding, boolean compress, int numberOfThreads, int blockSize) throws IOException {
+		this.encoding = encoding;
+		this.numberOfThreads = Math.max(1, numberOfThreads);
+		this.blockSize = Math.max(1, blockSize);
+		if (compress) {
+			this.gzipOut = new GZIPOutputStream(out, 64 * 1024);
+			this.out = gzipOut;
+			this.channel = null;
+		} else {
+			this.gzipOut = null;
+			this.out = out;
+			this.channel = out instanceof FileOutputStream ? ((FileOutputStream) out).getChannel() : null;
+		}
+	}
+
+	/**
+	 * Appends the text representation of the given rows to the builder. Each row must be
+	 * terminated by {@link #getLineSeparator()}. This method is invoked concurrently for
+	 * different blocks.
+	 */
+	protected abstract void formatBlock(List<T> rows, StringBuilder result);
+
+	/** Returns the line separator of the platform, as it is used by {@link java.io.PrintWriter#println()}. */
+	public String getLineSeparator() {
+		return lineSeparator;
+	}
+
+	/** Writes the given text, e.g. a header line. */
+	public void write(String text) throws IOException {
+		writeBytes(encode(text));
+	}
+
+	/** Formats and writes all rows delivered by the iterator. */
+	public void writeRows(Iterator<T> rows) throws IOException {
+		int blocksPerBatch = numberOfThreads > 1 ? numberOfThreads * BLOCKS_PER_THREAD : 1;
+		while (rows.hasNext()) {
+			List<Callable<byte[]>> tasks = new ArrayList<Callable<byte[]>>(blocksPerBatch);
+			while (tasks.size() < blocksPerBatch && rows.hasNext()) {
+				final List<T> block = new ArrayList<T>(blockSize);
+				while (block.size() < blockSize && rows.hasNext()) {
+					block.add(rows.next());
+				}
+				tasks.add(new Callable<byte[]>() {
+
+					@Override
+					public byte[] call() {
+						StringBuilder result = new StringBuilder(block.size() * 64);
+						formatBlock(block, result);
+						return encode(result.toString());
+					}
+				});
+			}
+			for (byte[] bytes : execute(tasks)) {
+				writeBytes(bytes);
+			}
+		}
+	}
+
+	/** Finishes the compressed output, if any, and closes the underlying stream. */
+	public void close() throws IOException {
+		if (gzipOut != null) {
+			gzipOut.finish();
+		}
+		out.close();
+	}
+
+	private byte[] encode(String text) {
+		return text.getBytes(encoding);
+	}
+
+	private void writeBytes(byte[] bytes) throws IOException {
+		if (channel != null) {
+			ByteBuffer buffer = ByteBuffer.wrap(bytes);
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		} else {
+			out.write(bytes);
+		}
+	}
+
+	private List<byte[]> execute(List<Callable<byte[]>> tasks) throws IOException {
+		try {
+			return ConcurrencyTools.call(tasks, numberOfThreads);
+		} catch (OperatorException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException(e.getMessage(), e);
+		}
+	}
+}
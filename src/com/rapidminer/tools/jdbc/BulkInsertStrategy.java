@@ -0,0 +1,135 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.tools.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Iterator;
+import java.util.Locale;
+
+import com.rapidminer.example.Attribute;
+import com.rapidminer.example.Example;
+import com.rapidminer.example.ExampleSet;
+import com.rapidminer.operator.Operator;
+import com.rapidminer.operator.ProcessStoppedException;
+import com.rapidminer.tools.Ontology;
+
+/**
+ * Writes a range of examples into an existing table using a database specific fast path. Strategies
+ * are selected by {@link #getStrategy(Connection)} based on the product name reported by the driver.
+ * If no strategy is known for a database, the plain batched insert of
+ * {@link DatabaseHandler#createTable(ExampleSet, TableName, int, boolean, int, boolean, String, int, Operator)}
+ * is used instead.
+ *
+ * Strategies must not keep state between invocations of {@link #insert(Connection, StatementCreator, TableName, ExampleSet, Attribute[], int, int, int, Operator)}
+ * since the same instance may be used for several connections in parallel.
+ */
+public abstract class BulkInsertStrategy {
+
+	/** Number of examples after which {@link Operator#checkForStop()} is called. */
+	protected static final int STOP_CHECK_INTERVAL = 1000;
+
+	/**
+	 * Inserts the examples with indices from (inclusive) to to (exclusive) of the given example set
+	 * into the table. The columns of the table must correspond to the given attributes. The caller
+	 * is responsible for transaction handling.
+	 *
+	 * @param batchSize
+	 *            the number of examples which should be sent to the database at once
+	 * @param operator
+	 *            used to check for stop requests. Might be null.
+	 */
+	public abstract void insert(Connection connection, StatementCreator statementCreator, TableName tableName, ExampleSet exampleSet, Attribute[] attributes, int from, int to, int batchSize, Operator operator) throws SQLException, ProcessStoppedException;
+
+	/** Returns a human readable name for log messages. */
+	public abstract String getName();
+
+	/**
+	 * Returns the bulk insert strategy for the database the given connection is connected to or null
+	 * if the database is not known to support any of the strategies.
+	 */
+	public static BulkInsertStrategy getStrategy(Connection connection) throws SQLException {
+		String product = connection.getMetaData().getDatabaseProductName();
+		if (product == null) {
+			return null;
+		}
+		product = product.toLowerCase(Locale.ENGLISH);
+		if (product.contains("postgresql")) {
+			if (PostgreSQLCopyStrategy.isSupported(connection)) {
+				return new PostgreSQLCopyStrategy();
+			} else {
+				return new MultiRowInsertStrategy(MultiRowInsertStrategy.POSTGRESQL_MAX_PARAMETERS);
+			}
+		} else if (product.contains("microsoft sql server")) {
+			return new MultiRowInsertStrategy(MultiRowInsertStrategy.SQL_SERVER_MAX_PARAMETERS, MultiRowInsertStrategy.SQL_SERVER_MAX_ROWS);
+		} else if (product.contains("mysql") || product.equals("h2")) {
+			return new MultiRowInsertStrategy(MultiRowInsertStrategy.DEFAULT_MAX_PARAMETERS);
+		} else {
+			return null;
+		}
+	}
+
+	/** Returns an array of all attributes (regular and special) of the example set in the order used by the {@link StatementCreator}. */
+	public static Attribute[] getAttributes(ExampleSet exampleSet) {
+		Attribute[] attributes = new Attribute[exampleSet.getAttributes().allSize()];
+		Iterator<Attribute> a = exampleSet.getAttributes().allAttributes();
+		int i = 0;
+		while (a.hasNext()) {
+			attributes[i++] = a.next();
+		}
+		return attributes;
+	}
+
+	/**
+	 * Sets the parameter with the given index to the value of the attribute in the example. Missing
+	 * values are written as SQL NULL of the given type.
+	 */
+	public static void setParameter(PreparedStatement statement, int parameterIndex, Example example, Attribute attribute, int sqlType) throws SQLException {
+		double value = example.getValue(attribute);
+		if (Double.isNaN(value)) {
+			statement.setNull(parameterIndex, sqlType);
+		} else if (attribute.isNominal()) {
+			statement.setString(parameterIndex, attribute.getMapping().mapIndex((int) value));
+		} else if (Ontology.ATTRIBUTE_VALUE_TYPE.isA(attribute.getValueType(), Ontology.DATE_TIME)) {
+			if (Ontology.ATTRIBUTE_VALUE_TYPE.isA(attribute.getValueType(), Ontology.TIME)) {
+				statement.setTime(parameterIndex, new Time((long) value));
+			} else {
+				statement.setTimestamp(parameterIndex, new Timestamp((long) value));
+			}
+		} else {
+			statement.setDouble(parameterIndex, value);
+		}
+	}
+
+	/** Returns the SQL types used for missing values of the given attributes. */
+	protected static int[] getSQLTypes(StatementCreator statementCreator, Attribute[] attributes) {
+		int[] sqlTypes = new int[attributes.length];
+		for (int i = 0; i < attributes.length; i++) {
+			sqlTypes[i] = statementCreator.getSQLTypeForRMValueType(attributes[i].getValueType()).getDataType();
+		}
+		return sqlTypes;
+	}
+}
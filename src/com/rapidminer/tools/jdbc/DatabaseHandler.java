@@ -43,6 +43,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -78,6 +79,7 @@ import com.rapidminer.parameter.UndefinedParameterError;
 import com.rapidminer.parameter.conditions.BooleanParameterCondition;
 import com.rapidminer.parameter.conditions.EqualTypeCondition;
 import com.rapidminer.repository.RepositoryLocation;
+import com.rapidminer.tools.ConcurrencyTools;
 import com.rapidminer.tools.I18N;
 import com.rapidminer.tools.LogService;
 import com.rapidminer.tools.LoggingHandler;
@@ -86,8 +88,10 @@ import com.rapidminer.tools.ParameterService;
 import com.rapidminer.tools.ProgressListener;
 import com.rapidminer.tools.Tools;
 import com.rapidminer.tools.jdbc.connection.ConnectionEntry;
+import com.rapidminer.tools.jdbc.connection.ConnectionPool;
 import com.rapidminer.tools.jdbc.connection.DatabaseConnectionService;
 import com.rapidminer.tools.jdbc.connection.FieldConnectionEntry;
+import com.rapidminer.tools.jdbc.connection.PooledConnection;
 
 /**
  * <p>This class hides the database. Using
@@ -178,12 +182,19 @@ public class DatabaseHandler {
 	 *  after {@link #disconnect()} was invoked. */
 	private Connection connection;
 
+	/** If the connection was obtained from the {@link ConnectionPool}, this is the pool's handle for
+	 *  it. The connection is returned to the pool on {@link #disconnect()} rather than being closed. */
+	private PooledConnection pooledConnection;
+
 	public static final String PARAMETER_PARAMETERS = "parameters";
 
 	public static final String PARAMETER_PREPARE_STATEMENT = "prepare_statement";
 
 	private static final String[] SQL_TYPES = { "VARCHAR", "INTEGER", "REAL", "LONG" };
 
+	/** Bulk inserts only open an additional connection for at least this number of examples. */
+	private static final int MIN_ROWS_PER_BULK_CONNECTION = 10000;
+
 	//	private static class DHIdentifier {
 	//		private String url;
 	//		private String username;
@@ -332,15 +343,26 @@ public class DatabaseHandler {
 			props.put("user", user);
 			props.put("password", new String(passwd));
 		}
-		connection = DriverManager.getConnection(databaseURL, props);
+		if (ConnectionPool.isEnabled()) {
+			pooledConnection = ConnectionPool.getInstance().getConnection(databaseURL, user, passwd, props);
+			connection = pooledConnection.getConnection();
+		} else {
+			connection = DriverManager.getConnection(databaseURL, props);
+		}
 		connection.setAutoCommit(autoCommit);
 		statementCreator = new StatementCreator(connection);
 
 	}
 
-	/** Closes the connection to the database. */
+	/** Closes the connection to the database. Pooled connections are returned to the
+	 *  {@link ConnectionPool} and this handler cannot be used anymore afterwards. */
 	public void disconnect() throws SQLException {
-		if (connection != null) {
+		if (pooledConnection != null) {
+			PooledConnection released = pooledConnection;
+			pooledConnection = null;
+			connection = null;
+			released.release();
+		} else if (connection != null) {
 			connection.close();
 			unregister();
 		}
@@ -392,10 +414,14 @@ public class DatabaseHandler {
 		if (connection == null) {
 			throw new SQLException("Could not create a prepared statement for '" + databaseURL + "': not connected.");
 		}
-		if (scrollableAndUpdatable)
-			return connection.prepareStatement(sqlString, ResultSet.TYPE_SCROLL_SENSITIVE, ResultSet.CONCUR_UPDATABLE);
-		else
-			return connection.prepareStatement(sqlString, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+		int resultSetType = scrollableAndUpdatable ? ResultSet.TYPE_SCROLL_SENSITIVE : ResultSet.TYPE_FORWARD_ONLY;
+		int resultSetConcurrency = scrollableAndUpdatable ? ResultSet.CONCUR_UPDATABLE : ResultSet.CONCUR_READ_ONLY;
+		if (pooledConnection != null) {
+			// statements are cached per pooled connection and returned to the cache on close()
+			return pooledConnection.prepareStatement(sqlString, resultSetType, resultSetConcurrency);
+		} else {
+			return connection.prepareStatement(sqlString, resultSetType, resultSetConcurrency);
+		}
 	}
 
 	/**
@@ -553,6 +579,21 @@ public class DatabaseHandler {
 	 * @throws ProcessStoppedException 
 	 */
 	public void createTable(ExampleSet exampleSet, TableName tableName, int overwriteMode, boolean firstAttempt, int defaultVarcharLength, boolean addAutoGeneratedPrimaryKeys, String generatedPrimaryKeyAttributeName, int batchSize, Operator operator) throws SQLException, ProcessStoppedException {
+		createTable(exampleSet, tableName, overwriteMode, firstAttempt, defaultVarcharLength, addAutoGeneratedPrimaryKeys, generatedPrimaryKeyAttributeName, batchSize, false, 1, operator);
+	}
+
+	/** Creates a new table in this connection and fills it with the provided data.
+	 * 
+	 *  If useBulkInsert is true and a {@link BulkInsertStrategy} is known for this database, the
+	 *  data is written by this strategy. In this case, the rows are split into numberOfConnections
+	 *  ranges which are written in parallel over separate connections opened with the connection
+	 *  parameters of the given operator. Each connection commits its own range, so a failure may
+	 *  leave the ranges of other connections in the table. Bulk inserts cannot be combined with
+	 *  addAutoGeneratedPrimaryKeys, in which case the ordinary batched insert is used.
+	 * 
+	 *  @throws SQLException if the table should be overwritten but a table with this name already exists
+	 */
+	public void createTable(ExampleSet exampleSet, TableName tableName, int overwriteMode, boolean firstAttempt, int defaultVarcharLength, boolean addAutoGeneratedPrimaryKeys, String generatedPrimaryKeyAttributeName, int batchSize, boolean useBulkInsert, int numberOfConnections, Operator operator) throws SQLException, ProcessStoppedException {
 		// either drop the table or throw an exception (depending on the parameter 'overwrite')
 		Statement statement = createStatement(false);
 		boolean exists = existsTable(tableName);
@@ -593,6 +634,13 @@ public class DatabaseHandler {
 		}
 
 		// fill table
+		if (useBulkInsert && !addAutoGeneratedPrimaryKeys) {
+			BulkInsertStrategy strategy = BulkInsertStrategy.getStrategy(connection);
+			if (strategy != null) {
+				bulkInsert(strategy, exampleSet, tableName, batchSize, numberOfConnections, operator);
+				return;
+			}
+		}
 		Attribute genPrimaryKeyAttribute = null;
 		PreparedStatement batchSizeInsertStatement = null;
 
@@ -672,6 +720,70 @@ public class DatabaseHandler {
 		}
 	}
 
+	/** Writes the example set with the given strategy, using up to numberOfConnections connections in parallel.
+	 *  The number of connections is limited to the size of the {@link ConnectionPool}. */
+	private void bulkInsert(final BulkInsertStrategy strategy, final ExampleSet exampleSet, final TableName tableName, final int batchSize, int numberOfConnections, final Operator operator) throws SQLException, ProcessStoppedException {
+		final Attribute[] attributes = BulkInsertStrategy.getAttributes(exampleSet);
+		int size = exampleSet.size();
+		int partitions = 1;
+		if (operator != null) {
+			partitions = Math.max(1, Math.min(numberOfConnections, size / MIN_ROWS_PER_BULK_CONNECTION));
+			// this handler already holds one of the pooled connections, more than the pool size would block forever
+			partitions = Math.min(partitions, ConnectionPool.getMaximumSize());
+		}
+		LogService.getRoot().log(Level.FINE, "Writing " + size + " examples into " + tableName + " using " + strategy.getName() + " on " + partitions + " connection(s).");
+
+		List<DatabaseHandler> handlers = new ArrayList<DatabaseHandler>(partitions);
+		handlers.add(this);
+		try {
+			// connect in the calling thread, the operator parameters must not be accessed concurrently
+			for (int i = 1; i < partitions; i++) {
+				handlers.add(getConnectedDatabaseHandler(operator));
+			}
+			List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(partitions);
+			for (int i = 0; i < partitions; i++) {
+				final DatabaseHandler handler = handlers.get(i);
+				final int from = (int) ((long) size * i / partitions);
+				final int to = (int) ((long) size * (i + 1) / partitions);
+				tasks.add(new Callable<Void>() {
+
+					@Override
+					public Void call() throws Exception {
+						Connection writeConnection = handler.getConnection();
+						boolean oldAutoCommitStatus = writeConnection.getAutoCommit();
+						writeConnection.setAutoCommit(false);
+						try {
+							strategy.insert(writeConnection, handler.getStatementCreator(), tableName, exampleSet, attributes, from, to, batchSize, operator);
+							writeConnection.commit();
+						} catch (Exception e) {
+							writeConnection.rollback();
+							throw e;
+						} finally {
+							writeConnection.setAutoCommit(oldAutoCommitStatus);
+						}
+						return null;
+					}
+				});
+			}
+			ConcurrencyTools.call(tasks, partitions);
+		} catch (ProcessStoppedException e) {
+			throw e;
+		} catch (OperatorException e) {
+			if (e.getCause() instanceof SQLException) {
+				throw (SQLException) e.getCause();
+			}
+			throw new SQLException(e.getMessage(), e);
+		} finally {
+			for (int i = 1; i < handlers.size(); i++) {
+				try {
+					handlers.get(i).disconnect();
+				} catch (SQLException e) {
+					LogService.getRoot().log(Level.WARNING, "Error closing bulk insert connection: " + e, e);
+				}
+			}
+		}
+	}
+
 //    private PreparedStatement getInsertIntoTableStatement(TableName tableName, ExampleSet exampleSet, boolean addAutoGeneratedPrimaryKeys) throws SQLException {
 //    	return getInsertIntoTableStatement(tableName, exampleSet, addAutoGeneratedPrimaryKeys, 1);
 //    }
@@ -681,7 +793,12 @@ public class DatabaseHandler {
 			throw new SQLException("Could not create a prepared statement for '" + databaseURL + "': not connected.");
 		}
 		if (addAutoGeneratedPrimaryKeys) {
+			if (pooledConnection != null) {
+				return pooledConnection.prepareStatement(statementCreator.makeInsertStatement(tableName, exampleSet), Statement.RETURN_GENERATED_KEYS);
+			}
 			return connection.prepareStatement(statementCreator.makeInsertStatement(tableName, exampleSet), Statement.RETURN_GENERATED_KEYS);
+		} else if (pooledConnection != null) {
+			return createPreparedStatement(statementCreator.makeInsertStatement(tableName, exampleSet), false);
 		} else {
 			// Commented method will cause Exception on Access.
 			// return connection.prepareStatement(statementCreator.makeInsertStatement(tableName, exampleSet), Statement.NO_GENERATED_KEYS);
@@ -709,26 +826,8 @@ public class DatabaseHandler {
 			if (addAutoGeneratedPrimaryKeys && attribute == genPrimaryKey) {
 				continue;
 			}
-			double value = example.getValue(attribute);
-			if (Double.isNaN(value)) {
-				int sqlType = statementCreator.getSQLTypeForRMValueType(attribute.getValueType()).getDataType();
-				statement.setNull(counter, sqlType);
-			} else {
-				if (attribute.isNominal()) {
-					String valueString = attribute.getMapping().mapIndex((int) value);
-					statement.setString(counter, valueString);
-				} else {
-					if (Ontology.ATTRIBUTE_VALUE_TYPE.isA(attribute.getValueType(), Ontology.DATE_TIME)) {
-						if (Ontology.ATTRIBUTE_VALUE_TYPE.isA(attribute.getValueType(), Ontology.TIME)) {
-							statement.setTime(counter, new Time((long) value));
-						} else {
-							statement.setTimestamp(counter, new Timestamp((long) value));
-						}
-					} else {
-						statement.setDouble(counter, value);
-					}
-				}
-			}
+			int sqlType = statementCreator.getSQLTypeForRMValueType(attribute.getValueType()).getDataType();
+			BulkInsertStrategy.setParameter(statement, counter, example, attribute, sqlType);
 			counter++;
 		}
 
@@ -1019,6 +1118,21 @@ public class DatabaseHandler {
 	}
 
 	public static DatabaseHandler getConnectedDatabaseHandler(Operator operator) throws OperatorException, SQLException {
+		return getConnector(operator).connect();
+	}
+
+	/** Opens connections with settings which have been resolved from the parameters of an operator beforehand. */
+	public static interface Connector {
+
+		public DatabaseHandler connect() throws OperatorException, SQLException;
+	}
+
+	/**
+	 * Resolves the connection parameters of the given operator and returns a {@link Connector} which opens new
+	 * connections without accessing the operator. Since the parameters must not be read concurrently, this method
+	 * must be called by the thread executing the operator, whereas the returned connector can be used by any thread.
+	 */
+	public static Connector getConnector(final Operator operator) throws OperatorException {
 		switch (operator.getParameterAsInt(PARAMETER_DEFINE_CONNECTION)) {
 			case CONNECTION_MODE_PREDEFINED:
 				String repositoryName = null;
@@ -1028,26 +1142,46 @@ public class DatabaseHandler {
 						repositoryName = repositoryLocation.getRepositoryName();
 					}
 				}
-				ConnectionEntry entry = DatabaseConnectionService.getConnectionEntry(operator.getParameterAsString(PARAMETER_CONNECTION), repositoryName);
+				final ConnectionEntry entry = DatabaseConnectionService.getConnectionEntry(operator.getParameterAsString(PARAMETER_CONNECTION), repositoryName);
 				if (entry == null) {
 					throw new UserError(operator, 318, operator.getParameterAsString(PARAMETER_CONNECTION));
 				}
-				return getConnectedDatabaseHandler(entry); //.getURL(), entry.getUser(), new String(entry.getPassword()));
+				return new Connector() {
+
+					@Override
+					public DatabaseHandler connect() throws OperatorException, SQLException {
+						return getConnectedDatabaseHandler(entry); //.getURL(), entry.getUser(), new String(entry.getPassword()));
+					}
+				};
 			case DatabaseHandler.CONNECTION_MODE_JNDI:
 				final String jndiName = operator.getParameterAsString(PARAMETER_JNDI_NAME);
+				final DataSource source;
 				try {
 					InitialContext ctx;
 					ctx = new InitialContext();
-					DataSource source = (DataSource) ctx.lookup(jndiName);
-					return getHandler(source.getConnection());
+					source = (DataSource) ctx.lookup(jndiName);
 				} catch (NamingException e) {
 					throw new OperatorException("Failed to lookup '" + jndiName + "': " + e, e);
 				}
+				return new Connector() {
+
+					@Override
+					public DatabaseHandler connect() throws OperatorException, SQLException {
+						return getHandler(source.getConnection());
+					}
+				};
 			case DatabaseHandler.CONNECTION_MODE_URL:
 			default:
-				return getConnectedDatabaseHandler(operator.getParameterAsString(PARAMETER_DATABASE_URL),
-						operator.getParameterAsString(PARAMETER_USERNAME),
-						operator.getParameterAsString(PARAMETER_PASSWORD));
+				final String url = operator.getParameterAsString(PARAMETER_DATABASE_URL);
+				final String username = operator.getParameterAsString(PARAMETER_USERNAME);
+				final String password = operator.getParameterAsString(PARAMETER_PASSWORD);
+				return new Connector() {
+
+					@Override
+					public DatabaseHandler connect() throws OperatorException, SQLException {
+						return getConnectedDatabaseHandler(url, username, password);
+					}
+				};
 		}
 	}
 
@@ -1215,11 +1349,30 @@ public class DatabaseHandler {
 	 * @throws OperatorException
 	 */
 	public ResultSet executeStatement(String sql, boolean isQuery, Operator parameterHandler, Logger logger) throws SQLException, OperatorException {
+		return executeStatement(sql, isQuery, parameterHandler, logger, 0);
+	}
+
+	/** Same as {@link #executeStatement(String, boolean, Operator, Logger)}, but sets the given fetch size
+	 *  on the statement before execution. A fetch size of 0 leaves the driver default untouched. Please note that some
+	 *  drivers (e.g. PostgreSQL) only use cursors respecting the fetch size if auto commit is disabled. */
+	public ResultSet executeStatement(String sql, boolean isQuery, Operator parameterHandler, Logger logger, int fetchSize) throws SQLException, OperatorException {
+		return executeStatement(sql, isQuery, getStatementParameters(parameterHandler), parameterHandler, logger, fetchSize);
+	}
+
+	/**
+	 * Same as {@link #executeStatement(String, boolean, Operator, Logger, int)}, but takes the statement parameters
+	 * from the given array (as returned by {@link #getStatementParameters(Operator)}) instead of the operator. If the
+	 * array is null, no prepared statement is used. The operator is only used as the source of errors, so this method
+	 * can be called from threads other than the one executing the operator.
+	 */
+	public ResultSet executeStatement(String sql, boolean isQuery, String[] parameters, Operator parameterHandler, Logger logger, int fetchSize) throws SQLException, OperatorException {
 		ResultSet resultSet = null;
 		Statement statement;
-		if (parameterHandler.getParameterAsBoolean(DatabaseHandler.PARAMETER_PREPARE_STATEMENT)) {
-			PreparedStatement prepared = getConnection().prepareStatement(sql);
-			String[] parameters = ParameterTypeEnumeration.transformString2Enumeration(parameterHandler.getParameterAsString(DatabaseHandler.PARAMETER_PARAMETERS));
+		if (parameters != null) {
+			PreparedStatement prepared = createPreparedStatement(sql, false);
+			if (fetchSize > 0) {
+				prepared.setFetchSize(fetchSize);
+			}
 			for (int i = 0; i < parameters.length; i++) {
 				String[] argDescription = ParameterTypeTupel.transformString2Tupel(parameters[i]);
 				final String sqlType = argDescription[0];
@@ -1261,6 +1414,9 @@ public class DatabaseHandler {
 		} else {
 			logger.info("Executing query: '" + sql + "'");
 			statement = createStatement(false);
+			if (fetchSize > 0) {
+				statement.setFetchSize(fetchSize);
+			}
 			if (isQuery) {
 				resultSet = statement.executeQuery(sql);
 			} else {
@@ -1274,6 +1430,18 @@ public class DatabaseHandler {
 		return resultSet;
 	}
 
+	/**
+	 * Returns the parameters of the prepared statement defined by the operator, or null if no prepared statement
+	 * should be used.
+	 */
+	public static String[] getStatementParameters(Operator operator) throws UndefinedParameterError {
+		if (operator.getParameterAsBoolean(DatabaseHandler.PARAMETER_PREPARE_STATEMENT)) {
+			return ParameterTypeEnumeration.transformString2Enumeration(operator.getParameterAsString(DatabaseHandler.PARAMETER_PARAMETERS));
+		} else {
+			return null;
+		}
+	}
+
 	/**
 	 * Return the url of the database for this instance.
 	 * @return
@@ -1365,7 +1533,17 @@ public class DatabaseHandler {
 		PreparedStatement prepUpdateStatement = createPreparedStatement(updateStatementString, false);
 		PreparedStatement prepInsertStatement = createPreparedStatement(insertStatementString, false);
 		PreparedStatement prepSelectStatement = createPreparedStatement(selectStatementString, false);
+		try {
+			updateTable(exampleSet, idAttributes, attCount, attList, allAttList, idAttNameList, prepUpdateStatement, prepInsertStatement, prepSelectStatement, logger);
+		} finally {
+			prepUpdateStatement.close();
+			prepInsertStatement.close();
+			prepSelectStatement.close();
+		}
+	}
 
+	private void updateTable(ExampleSet exampleSet, Set<Attribute> idAttributes, int attCount, List<Attribute> attList, List<Attribute> allAttList, List<String> idAttNameList,
+			PreparedStatement prepUpdateStatement, PreparedStatement prepInsertStatement, PreparedStatement prepSelectStatement, Logger logger) throws SQLException {
 		// iterate over all examples
 		for (Example ex : exampleSet) {
 			// get the id value and set it in the statements
@@ -0,0 +1,128 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.tools.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import com.rapidminer.example.Attribute;
+import com.rapidminer.example.Example;
+import com.rapidminer.example.ExampleSet;
+import com.rapidminer.operator.Operator;
+import com.rapidminer.operator.ProcessStoppedException;
+
+/**
+ * Inserts several examples with a single <code>INSERT INTO ... VALUES (...), (...)</code> statement as
+ * created by {@link StatementCreator#makeInsertStatement(TableName, ExampleSet, int)}. Compared to JDBC
+ * batches, this reduces the number of round trips for drivers which send each batch entry separately.
+ * The number of rows per statement is limited by the number of bind parameters the database accepts.
+ */
+public class MultiRowInsertStrategy extends BulkInsertStrategy {
+
+	/** Conservative limit for databases without a documented bound parameter limit. */
+	public static final int DEFAULT_MAX_PARAMETERS = 10000;
+
+	/** The PostgreSQL protocol encodes the number of parameters as a 16 bit value. */
+	public static final int POSTGRESQL_MAX_PARAMETERS = 32767;
+
+	/** SQL Server allows at most 2100 parameters per statement. */
+	public static final int SQL_SERVER_MAX_PARAMETERS = 2000;
+
+	/** SQL Server allows at most 1000 row value expressions in one VALUES clause. */
+	public static final int SQL_SERVER_MAX_ROWS = 1000;
+
+	/** Number of rows per statement if the user did not specify a batch size larger than 1. */
+	public static final int DEFAULT_ROWS_PER_STATEMENT = 1000;
+
+	private final int maxParameters;
+
+	private final int maxRows;
+
+	public MultiRowInsertStrategy(int maxParameters) {
+		this(maxParameters, Integer.MAX_VALUE);
+	}
+
+	public MultiRowInsertStrategy(int maxParameters, int maxRows) {
+		this.maxParameters = maxParameters;
+		this.maxRows = maxRows;
+	}
+
+	@Override
+	public String getName() {
+		return "multi-row insert";
+	}
+
+	@Override
+	public void insert(Connection connection, StatementCreator statementCreator, TableName tableName, ExampleSet exampleSet, Attribute[] attributes, int from, int to, int batchSize, Operator operator) throws SQLException, ProcessStoppedException {
+		if (from >= to) {
+			return;
+		}
+		int rowsPerStatement = getRowsPerStatement(attributes.length, batchSize);
+		int[] sqlTypes = getSQLTypes(statementCreator, attributes);
+		PreparedStatement statement = null;
+		int statementRows = 0;
+		int sinceLastCheck = 0;
+		try {
+			int row = from;
+			while (row < to) {
+				int rows = Math.min(rowsPerStatement, to - row);
+				if (statement == null || rows != statementRows) {
+					// only the last chunk needs a differently sized statement
+					if (statement != null) {
+						statement.close();
+					}
+					statement = connection.prepareStatement(statementCreator.makeInsertStatement(tableName, exampleSet, rows));
+					statementRows = rows;
+				}
+				int parameterIndex = 1;
+				for (int r = 0; r < rows; r++) {
+					Example example = exampleSet.getExample(row + r);
+					for (int a = 0; a < attributes.length; a++) {
+						setParameter(statement, parameterIndex++, example, attributes[a], sqlTypes[a]);
+					}
+				}
+				statement.executeUpdate();
+				row += rows;
+				sinceLastCheck += rows;
+				if (operator != null && sinceLastCheck >= STOP_CHECK_INTERVAL) {
+					operator.checkForStop();
+					sinceLastCheck = 0;
+				}
+			}
+		} finally {
+			if (statement != null) {
+				statement.close();
+			}
+		}
+	}
+
+	private int getRowsPerStatement(int numberOfColumns, int batchSize) {
+		int rows = batchSize > 1 ? batchSize : DEFAULT_ROWS_PER_STATEMENT;
+		rows = Math.min(rows, maxRows);
+		if (numberOfColumns > 0) {
+			rows = Math.min(rows, maxParameters / numberOfColumns);
+		}
+		return Math.max(1, rows);
+	}
+}
@@ -0,0 +1,177 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.tools.jdbc;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import com.rapidminer.example.Attribute;
+import com.rapidminer.example.Example;
+import com.rapidminer.example.ExampleSet;
+import com.rapidminer.operator.Operator;
+import com.rapidminer.operator.ProcessStoppedException;
+import com.rapidminer.tools.Ontology;
+
+/**
+ * Streams examples into a PostgreSQL table using <code>COPY ... FROM STDIN</code> in CSV format.
+ * This is by far the fastest way of loading data into PostgreSQL since no statement has to be
+ * parsed or planned per row.
+ *
+ * The copy API of the PostgreSQL driver is accessed by reflection because the driver is loaded
+ * by its own class loader and is not a compile time dependency.
+ */
+public class PostgreSQLCopyStrategy extends BulkInsertStrategy {
+
+	private static final String PG_CONNECTION_CLASS = "org.postgresql.PGConnection";
+
+	/** Number of rows per COPY command if the user did not specify a batch size larger than 1. */
+	public static final int DEFAULT_ROWS_PER_COPY = 10000;
+
+	@Override
+	public String getName() {
+		return "PostgreSQL COPY";
+	}
+
+	/** Returns true if the connection is a PostgreSQL connection offering the copy API. */
+	public static boolean isSupported(Connection connection) {
+		try {
+			return getCopyManager(connection) != null;
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	@Override
+	public void insert(Connection connection, StatementCreator statementCreator, TableName tableName, ExampleSet exampleSet, Attribute[] attributes, int from, int to, int batchSize, Operator operator) throws SQLException, ProcessStoppedException {
+		if (from >= to) {
+			return;
+		}
+		Object copyManager = getCopyManager(connection);
+		if (copyManager == null) {
+			throw new SQLException("Connection does not support the PostgreSQL copy API.");
+		}
+		Method copyIn;
+		try {
+			copyIn = copyManager.getClass().getMethod("copyIn", String.class, Reader.class);
+		} catch (NoSuchMethodException e) {
+			throw new SQLException("Connection does not support the PostgreSQL copy API.");
+		}
+		String copyStatement = statementCreator.makeCopyStatement(tableName, exampleSet);
+		int rowsPerCopy = batchSize > 1 ? batchSize : DEFAULT_ROWS_PER_COPY;
+
+		// date formats are not thread safe, so every invocation needs its own instances
+		DateFormat timestampFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+		DateFormat timeFormat = new SimpleDateFormat("HH:mm:ss.SSS");
+		StringBuilder buffer = new StringBuilder();
+		int row = from;
+		while (row < to) {
+			int end = Math.min(to, row + rowsPerCopy);
+			buffer.setLength(0);
+			for (; row < end; row++) {
+				appendRow(buffer, exampleSet.getExample(row), attributes, timestampFormat, timeFormat);
+			}
+			try {
+				copyIn.invoke(copyManager, copyStatement, new StringReader(buffer.toString()));
+			} catch (InvocationTargetException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof SQLException) {
+					throw (SQLException) cause;
+				}
+				throw new SQLException("COPY into " + tableName + " failed: " + cause, cause);
+			} catch (IllegalAccessException e) {
+				throw new SQLException("Cannot access the PostgreSQL copy API: " + e, e);
+			}
+			if (operator != null) {
+				operator.checkForStop();
+			}
+		}
+	}
+
+	private static void appendRow(StringBuilder buffer, Example example, Attribute[] attributes, DateFormat timestampFormat, DateFormat timeFormat) {
+		for (int a = 0; a < attributes.length; a++) {
+			if (a > 0) {
+				buffer.append(',');
+			}
+			Attribute attribute = attributes[a];
+			double value = example.getValue(attribute);
+			if (Double.isNaN(value)) {
+				// an unquoted empty field is NULL in CSV mode
+				continue;
+			}
+			if (attribute.isNominal()) {
+				String string = attribute.getMapping().mapIndex((int) value);
+				buffer.append('"').append(string.replace("\"", "\"\"")).append('"');
+			} else if (Ontology.ATTRIBUTE_VALUE_TYPE.isA(attribute.getValueType(), Ontology.DATE_TIME)) {
+				if (Ontology.ATTRIBUTE_VALUE_TYPE.isA(attribute.getValueType(), Ontology.TIME)) {
+					buffer.append(timeFormat.format(new Date((long) value)));
+				} else {
+					buffer.append(timestampFormat.format(new Date((long) value)));
+				}
+			} else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+				// integer columns do not accept a decimal point
+				buffer.append((long) value);
+			} else {
+				buffer.append(Double.toString(value));
+			}
+		}
+		buffer.append('\n');
+	}
+
+	private static Object getCopyManager(Connection connection) throws SQLException {
+		try {
+			ClassLoader loader = connection.getClass().getClassLoader();
+			Class<?> pgConnectionClass = Class.forName(PG_CONNECTION_CLASS, true, loader);
+			Object pgConnection;
+			if (pgConnectionClass.isInstance(connection)) {
+				pgConnection = connection;
+			} else if (connection.isWrapperFor(pgConnectionClass)) {
+				pgConnection = connection.unwrap(pgConnectionClass);
+			} else {
+				return null;
+			}
+			return pgConnectionClass.getMethod("getCopyAPI").invoke(pgConnection);
+		} catch (ClassNotFoundException e) {
+			return null;
+		} catch (NoSuchMethodException e) {
+			// drivers before 8.4 do not offer the copy API
+			return null;
+		} catch (AbstractMethodError e) {
+			// pre JDBC 4 driver without unwrap
+			return null;
+		} catch (IllegalAccessException e) {
+			return null;
+		} catch (InvocationTargetException e) {
+			if (e.getCause() instanceof SQLException) {
+				throw (SQLException) e.getCause();
+			}
+			return null;
+		}
+	}
+}
@@ -271,6 +271,26 @@ public class StatementCreator {
 		return b.toString();
 	}
 
+	/**
+	 * Creates a PostgreSQL <code>COPY ... FROM STDIN</code> statement in CSV format where the i-th
+	 * column is mapped to the i-th attribute in the example set.
+	 */
+	public String makeCopyStatement(TableName tableName, ExampleSet exampleSet) {
+		StringBuilder b = new StringBuilder("COPY ");
+		b.append(makeIdentifier(tableName));
+		b.append(" (");
+		Iterator<Attribute> a = exampleSet.getAttributes().allAttributes();
+		boolean first = true;
+		while (a.hasNext()) {
+			if (!first)
+				b.append(", ");
+			b.append(makeColumnIdentifier(a.next()));
+			first = false;
+		}
+		b.append(") FROM STDIN WITH CSV");
+		return b.toString();
+	}
+
 	/**
 	 * This will create an alteration statement for the given role. That can be used for
 	 * constructing an table alteration
@@ -0,0 +1,380 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.tools.jdbc.connection;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.logging.Level;
+
+import com.rapidminer.RapidMiner;
+import com.rapidminer.tools.LogService;
+import com.rapidminer.tools.ParameterService;
+
+/**
+ * Keeps physical database connections open after they have been released so that they can be
+ * reused by the next {@link com.rapidminer.tools.jdbc.DatabaseHandler} connecting to the same
+ * database with the same credentials. This avoids the connection handshake for operators which
+ * are executed many times, e.g. inside of loops.
+ *
+ * Connections are keyed by URL, user, password and connection properties, i.e. by the content
+ * of the {@link ConnectionEntry}, not by its identity. The pool is configured by the properties
+ * {@link RapidMiner#PROPERTY_RAPIDMINER_TOOLS_DB_POOL_ENABLED},
+ * {@link RapidMiner#PROPERTY_RAPIDMINER_TOOLS_DB_POOL_MAX_SIZE},
+ * {@link RapidMiner#PROPERTY_RAPIDMINER_TOOLS_DB_POOL_MAX_WAIT},
+ * {@link RapidMiner#PROPERTY_RAPIDMINER_TOOLS_DB_POOL_IDLE_TIMEOUT} and
+ * {@link RapidMiner#PROPERTY_RAPIDMINER_TOOLS_DB_POOL_STATEMENT_CACHE_SIZE}. Idle connections
+ * are closed by a background timer once they were not used for the configured idle timeout and
+ * are validated before they are handed out again.
+ */
+public class ConnectionPool {
+
+	private static final int DEFAULT_MAX_SIZE = 8;
+
+	private static final int DEFAULT_MAX_WAIT = 30;
+
+	private static final int DEFAULT_IDLE_TIMEOUT = 300;
+
+	private static final int DEFAULT_STATEMENT_CACHE_SIZE = 32;
+
+	/** Timeout in seconds used for {@link Connection#isValid(int)}. */
+	private static final int VALIDATION_TIMEOUT = 5;
+
+	/** Interval between two runs of the idle connection eviction. */
+	private static final long EVICTION_INTERVAL = 30000;
+
+	private static ConnectionPool instance;
+
+	/** Idle connections per key, most recently released last. */
+	private final Map<PoolKey, LinkedList<PooledConnection>> idleConnections = new HashMap<PoolKey, LinkedList<PooledConnection>>();
+
+	/** Number of open (idle and borrowed) connections per key. */
+	private final Map<PoolKey, Integer> openConnections = new HashMap<PoolKey, Integer>();
+
+	private final Object lock = new Object();
+
+	private Timer evictionTimer;
+
+	private ConnectionPool() {}
+
+	public static synchronized ConnectionPool getInstance() {
+		if (instance == null) {
+			instance = new ConnectionPool();
+			RapidMiner.addShutdownHook(new Runnable() {
+
+				@Override
+				public void run() {
+					instance.closeAll();
+				}
+			});
+		}
+		return instance;
+	}
+
+	/** Returns true if pooling is enabled by the user settings. Pooling is disabled by default. */
+	public static boolean isEnabled() {
+		return "true".equals(ParameterService.getParameterValue(RapidMiner.PROPERTY_RAPIDMINER_TOOLS_DB_POOL_ENABLED));
+	}
+
+	/**
+	 * Returns the number of connections to one database which can be open at the same time, or
+	 * {@link Integer#MAX_VALUE} if pooling is disabled or unlimited. Callers which open several
+	 * connections at once must not exceed this number, otherwise they wait for themselves.
+	 */
+	public static int getMaximumSize() {
+		if (!isEnabled()) {
+			return Integer.MAX_VALUE;
+		}
+		int maxSize = getIntProperty(RapidMiner.PROPERTY_RAPIDMINER_TOOLS_DB_POOL_MAX_SIZE, DEFAULT_MAX_SIZE);
+		return maxSize <= 0 ? Integer.MAX_VALUE : maxSize;
+	}
+
+	/**
+	 * Returns an open connection for the given URL and credentials. An idle connection is reused
+	 * if one passes validation, otherwise a new one is opened unless the maximum number of
+	 * connections for this key is reached. In that case, this method waits for a connection to be
+	 * released and throws an {@link SQLException} if this does not happen in time.
+	 */
+	public PooledConnection getConnection(String url, String user, char[] password, Properties props) throws SQLException {
+		PoolKey key = new PoolKey(url, user, password, props);
+		long deadline = System.currentTimeMillis() + getIntProperty(RapidMiner.PROPERTY_RAPIDMINER_TOOLS_DB_POOL_MAX_WAIT, DEFAULT_MAX_WAIT) * 1000L;
+		while (true) {
+			PooledConnection candidate = null;
+			synchronized (lock) {
+				LinkedList<PooledConnection> idle = idleConnections.get(key);
+				if (idle != null && !idle.isEmpty()) {
+					candidate = idle.removeLast();
+				} else {
+					int open = getOpenCount(key);
+					int maxSize = getIntProperty(RapidMiner.PROPERTY_RAPIDMINER_TOOLS_DB_POOL_MAX_SIZE, DEFAULT_MAX_SIZE);
+					if (maxSize <= 0 || open < maxSize) {
+						// reserve the slot before leaving the lock, the actual connect happens outside
+						openConnections.put(key, open + 1);
+					} else {
+						long remaining = deadline - System.currentTimeMillis();
+						if (remaining <= 0) {
+							throw new SQLException("Cannot connect to '" + url + "': all " + maxSize + " pooled connections are in use.");
+						}
+						try {
+							lock.wait(remaining);
+						} catch (InterruptedException e) {
+							throw new SQLException("Interrupted while waiting for a database connection to '" + url + "'.");
+						}
+						continue;
+					}
+				}
+			}
+
+			if (candidate != null) {
+				if (isValid(candidate)) {
+					return candidate;
+				} else {
+					discard(candidate);
+					continue;
+				}
+			}
+
+			try {
+				Connection connection = DriverManager.getConnection(url, props);
+				ensureEvictionTimer();
+				return new PooledConnection(this, key, connection, getIntProperty(RapidMiner.PROPERTY_RAPIDMINER_TOOLS_DB_POOL_STATEMENT_CACHE_SIZE, DEFAULT_STATEMENT_CACHE_SIZE));
+			} catch (SQLException e) {
+				decrementOpenCount(key);
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * Returns the connection to the pool. Uncommitted changes are rolled back. If the connection
+	 * is closed or broken, it is discarded.
+	 */
+	void release(PooledConnection pooled) {
+		Connection connection = pooled.getConnection();
+		try {
+			if (connection.isClosed()) {
+				discard(pooled);
+				return;
+			}
+			if (!connection.getAutoCommit()) {
+				connection.rollback();
+				connection.setAutoCommit(true);
+			}
+		} catch (SQLException e) {
+			discard(pooled);
+			return;
+		}
+		pooled.touch();
+		PoolKey key = (PoolKey) pooled.getKey();
+		synchronized (lock) {
+			LinkedList<PooledConnection> idle = idleConnections.get(key);
+			if (idle == null) {
+				idle = new LinkedList<PooledConnection>();
+				idleConnections.put(key, idle);
+			}
+			idle.addLast(pooled);
+			lock.notifyAll();
+		}
+	}
+
+	/** Closes the connection and frees its slot. */
+	private void discard(PooledConnection pooled) {
+		pooled.closePhysically();
+		decrementOpenCount((PoolKey) pooled.getKey());
+	}
+
+	/** Closes all idle connections which have not been used for longer than the idle timeout. */
+	public void evictIdleConnections() {
+		long timeout = getIntProperty(RapidMiner.PROPERTY_RAPIDMINER_TOOLS_DB_POOL_IDLE_TIMEOUT, DEFAULT_IDLE_TIMEOUT) * 1000L;
+		long now = System.currentTimeMillis();
+		List<PooledConnection> evicted = new LinkedList<PooledConnection>();
+		synchronized (lock) {
+			Iterator<LinkedList<PooledConnection>> i = idleConnections.values().iterator();
+			while (i.hasNext()) {
+				LinkedList<PooledConnection> idle = i.next();
+				Iterator<PooledConnection> j = idle.iterator();
+				while (j.hasNext()) {
+					PooledConnection pooled = j.next();
+					if (now - pooled.getLastUsed() > timeout) {
+						j.remove();
+						evicted.add(pooled);
+					}
+				}
+				if (idle.isEmpty()) {
+					i.remove();
+				}
+			}
+		}
+		for (PooledConnection pooled : evicted) {
+			discard(pooled);
+		}
+	}
+
+	/** Closes all idle connections. Borrowed connections are closed when they are released. */
+	public void closeAll() {
+		List<PooledConnection> closing = new LinkedList<PooledConnection>();
+		synchronized (lock) {
+			for (LinkedList<PooledConnection> idle : idleConnections.values()) {
+				closing.addAll(idle);
+			}
+			idleConnections.clear();
+			if (evictionTimer != null) {
+				evictionTimer.cancel();
+				evictionTimer = null;
+			}
+		}
+		for (PooledConnection pooled : closing) {
+			discard(pooled);
+		}
+	}
+
+	/** Returns the number of idle connections currently held by the pool. */
+	public int getIdleCount() {
+		synchronized (lock) {
+			int count = 0;
+			for (LinkedList<PooledConnection> idle : idleConnections.values()) {
+				count += idle.size();
+			}
+			return count;
+		}
+	}
+
+	private void ensureEvictionTimer() {
+		synchronized (lock) {
+			if (evictionTimer == null) {
+				evictionTimer = new Timer("DatabaseConnectionPool-Eviction", true);
+				evictionTimer.schedule(new TimerTask() {
+
+					@Override
+					public void run() {
+						evictIdleConnections();
+					}
+				}, EVICTION_INTERVAL, EVICTION_INTERVAL);
+			}
+		}
+	}
+
+	private int getOpenCount(PoolKey key) {
+		Integer open = openConnections.get(key);
+		return open == null ? 0 : open;
+	}
+
+	private void decrementOpenCount(PoolKey key) {
+		synchronized (lock) {
+			int open = getOpenCount(key) - 1;
+			if (open <= 0) {
+				openConnections.remove(key);
+			} else {
+				openConnections.put(key, open);
+			}
+			lock.notifyAll();
+		}
+	}
+
+	private static boolean isValid(PooledConnection pooled) {
+		Connection connection = pooled.getConnection();
+		try {
+			return connection.isValid(VALIDATION_TIMEOUT);
+		} catch (AbstractMethodError e) {
+			// pre JDBC 4 driver
+		} catch (SQLException e) {
+			LogService.getRoot().log(Level.FINE, "Validation of pooled database connection failed: " + e, e);
+			return false;
+		}
+		try {
+			return !connection.isClosed();
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	private static int getIntProperty(String key, int defaultValue) {
+		try {
+			return Integer.parseInt(ParameterService.getParameterValue(key));
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
+	/** Identifies connections which can be used interchangeably. */
+	private static class PoolKey {
+
+		private final String url;
+
+		private final String user;
+
+		private final char[] password;
+
+		private final Properties properties;
+
+		private PoolKey(String url, String user, char[] password, Properties properties) {
+			this.url = url;
+			this.user = user;
+			this.password = password == null ? null : password.clone();
+			this.properties = new Properties();
+			this.properties.putAll(properties);
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + ((url == null) ? 0 : url.hashCode());
+			result = prime * result + ((user == null) ? 0 : user.hashCode());
+			result = prime * result + Arrays.hashCode(password);
+			result = prime * result + properties.hashCode();
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			PoolKey other = (PoolKey) obj;
+			if (url == null) {
+				if (other.url != null)
+					return false;
+			} else if (!url.equals(other.url))
+				return false;
+			if (user == null) {
+				if (other.user != null)
+					return false;
+			} else if (!user.equals(other.user))
+				return false;
+			return Arrays.equals(password, other.password) && properties.equals(other.properties);
+		}
+	}
+}
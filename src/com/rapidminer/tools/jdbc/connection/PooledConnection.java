@@ -0,0 +1,238 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.tools.jdbc.connection;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+
+import com.rapidminer.tools.LogService;
+
+/**
+ * A physical database connection managed by the {@link ConnectionPool}. Besides the connection
+ * itself, each pooled connection keeps a small LRU cache of {@link PreparedStatement}s so that
+ * statements which are prepared again and again (e.g. by operators inside loops) are only
+ * parsed once by the database.
+ *
+ * Statements handed out by this class are proxies: invoking {@link PreparedStatement#close()}
+ * does not close the underlying statement but clears its parameters and batch and returns it
+ * to the cache. The statement is closed for real when it is evicted from the cache or when
+ * the connection is removed from the pool.
+ */
+public class PooledConnection {
+
+	private final ConnectionPool pool;
+
+	private final Object key;
+
+	private final Connection connection;
+
+	private final Map<String, PreparedStatement> statementCache;
+
+	/** Time stamp of the last time this connection was returned to the pool. */
+	private long lastUsed = System.currentTimeMillis();
+
+	PooledConnection(ConnectionPool pool, Object key, Connection connection, final int statementCacheSize) {
+		this.pool = pool;
+		this.key = key;
+		this.connection = connection;
+		this.statementCache = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+				if (size() > statementCacheSize) {
+					closeQuietly(eldest.getValue());
+					return true;
+				} else {
+					return false;
+				}
+			}
+		};
+	}
+
+	/** Returns the physical connection. */
+	public Connection getConnection() {
+		return connection;
+	}
+
+	/** Returns this connection to the pool it was borrowed from. Must not be used afterwards. */
+	public void release() {
+		pool.release(this);
+	}
+
+	/**
+	 * Returns a (possibly cached) prepared statement for the given SQL string. The returned statement
+	 * must be closed by the caller as usual which will return it to the cache.
+	 */
+	public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+		return getCachedStatement(sql, resultSetType + ":" + resultSetConcurrency + ":" + sql, resultSetType, resultSetConcurrency, -1);
+	}
+
+	/**
+	 * Returns a (possibly cached) prepared statement for the given SQL string which returns
+	 * generated keys as specified by autoGeneratedKeys.
+	 */
+	public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+		return getCachedStatement(sql, "keys" + autoGeneratedKeys + ":" + sql, -1, -1, autoGeneratedKeys);
+	}
+
+	private PreparedStatement getCachedStatement(String sql, String cacheKey, int resultSetType, int resultSetConcurrency, int autoGeneratedKeys) throws SQLException {
+		PreparedStatement statement;
+		synchronized (statementCache) {
+			// removing the statement while it is in use ensures that nobody else gets the same instance
+			statement = statementCache.remove(cacheKey);
+		}
+		if (statement == null) {
+			if (autoGeneratedKeys >= 0) {
+				statement = connection.prepareStatement(sql, autoGeneratedKeys);
+			} else {
+				statement = connection.prepareStatement(sql, resultSetType, resultSetConcurrency);
+			}
+		}
+		return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+				new Class<?>[] { PreparedStatement.class },
+				new CachedStatementHandler(cacheKey, statement));
+	}
+
+	/** Returns the statement to the cache. If the connection is already closed, the statement is discarded. */
+	private void returnStatement(String cacheKey, PreparedStatement statement) {
+		try {
+			statement.clearParameters();
+			statement.clearBatch();
+		} catch (SQLException e) {
+			closeQuietly(statement);
+			return;
+		}
+		synchronized (statementCache) {
+			PreparedStatement replaced = statementCache.put(cacheKey, statement);
+			if (replaced != null && replaced != statement) {
+				closeQuietly(replaced);
+			}
+		}
+	}
+
+	/** Closes all cached statements and the physical connection. */
+	void closePhysically() {
+		synchronized (statementCache) {
+			Iterator<PreparedStatement> i = statementCache.values().iterator();
+			while (i.hasNext()) {
+				closeQuietly(i.next());
+				i.remove();
+			}
+		}
+		try {
+			connection.close();
+		} catch (SQLException e) {
+			LogService.getRoot().log(Level.FINE, "Error closing pooled database connection: " + e, e);
+		}
+	}
+
+	Object getKey() {
+		return key;
+	}
+
+	long getLastUsed() {
+		return lastUsed;
+	}
+
+	void touch() {
+		this.lastUsed = System.currentTimeMillis();
+	}
+
+	private static void closeQuietly(PreparedStatement statement) {
+		try {
+			statement.close();
+		} catch (SQLException e) {
+			// already closed or broken, nothing left to do
+		}
+	}
+
+	/**
+	 * Delegates all calls to the cached statement except for {@link PreparedStatement#close()},
+	 * which closes the last opened result set and hands the statement back to the cache.
+	 */
+	private class CachedStatementHandler implements InvocationHandler {
+
+		private final String cacheKey;
+
+		private final PreparedStatement statement;
+
+		private ResultSet lastResultSet = null;
+
+		private boolean closed = false;
+
+		private CachedStatementHandler(String cacheKey, PreparedStatement statement) {
+			this.cacheKey = cacheKey;
+			this.statement = statement;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if ("close".equals(name) && (args == null || args.length == 0)) {
+				if (!closed) {
+					closed = true;
+					if (lastResultSet != null) {
+						try {
+							lastResultSet.close();
+						} catch (SQLException e) {
+							// ignore, statement will be reset anyway
+						}
+						lastResultSet = null;
+					}
+					returnStatement(cacheKey, statement);
+				}
+				return null;
+			} else if ("isClosed".equals(name) && (args == null || args.length == 0)) {
+				return closed;
+			} else if ("equals".equals(name) && args != null && args.length == 1) {
+				return proxy == args[0];
+			} else if ("hashCode".equals(name) && (args == null || args.length == 0)) {
+				return System.identityHashCode(proxy);
+			}
+			if (closed) {
+				throw new SQLException("Statement is closed.");
+			}
+			try {
+				Object result = method.invoke(statement, args);
+				if (result instanceof ResultSet && "executeQuery".equals(name)) {
+					lastResultSet = (ResultSet) result;
+				}
+				return result;
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.tools.math;
+
+import java.io.Serializable;
+
+/**
+ * A HyperLogLog sketch (Flajolet et al.) estimating the number of distinct values of a stream
+ * with a fixed amount of memory. With the default precision of 14 bits, 16 KB are used and the
+ * standard error of the estimate is about 0.8 percent. Small cardinalities are estimated by
+ * linear counting and are therefore almost exact. Sketches with the same precision can be merged.
+ * Instances are not thread safe.
+ */
+public class HyperLogLog implements Serializable {
+
+	private static final long serialVersionUID = 4400316914390932618L;
+
+	public static final int DEFAULT_PRECISION = 14;
+
+	private final int precision;
+
+	private final byte[] registers;
+
+	public HyperLogLog() {
+		this(DEFAULT_PRECISION);
+	}
+
+	/** Creates a sketch with 2^precision registers. The precision must be between 4 and 18. */
+	public HyperLogLog(int precision) {
+		if (precision < 4 || precision > 18) {
+			throw new IllegalArgumentException("Precision must be between 4 and 18, was " + precision);
+		}
+		this.precision = precision;
+		this.registers = new byte[1 << precision];
+	}
+
+	/** Clone constructor. */
+	public HyperLogLog(HyperLogLog other) {
+		this.precision = other.precision;
+		this.registers = other.registers.clone();
+	}
+
+	/** Adds a numerical value. Missing values are ignored, 0 and -0 are counted as the same value. */
+	public void add(double value) {
+		if (Double.isNaN(value)) {
+			return;
+		}
+		addHash(mix(Double.doubleToLongBits(value == 0 ? 0.0d : value)));
+	}
+
+	/** Adds a string value. Null is ignored. */
+	public void add(String value) {
+		if (value == null) {
+			return;
+		}
+		// 64 bit FNV-1a since String.hashCode() has too few bits for large cardinalities
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < value.length(); i++) {
+			hash ^= value.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		addHash(mix(hash));
+	}
+
+	/** Adds a value given by a well distributed 64 bit hash. */
+	public void addHash(long hash) {
+		int index = (int)(hash >>> (64 - precision));
+		// guard bit ensures the rank is bounded by 64 - precision + 1
+		long remaining = (hash << precision) | (1L << (precision - 1));
+		byte rank = (byte)(Long.numberOfLeadingZeros(remaining) + 1);
+		if (rank > registers[index]) {
+			registers[index] = rank;
+		}
+	}
+
+	/** Adds all values counted by the other sketch, which must have the same precision. */
+	public void add(HyperLogLog other) {
+		if (other.precision != precision) {
+			throw new IllegalArgumentException("Cannot merge sketches with different precisions: " + precision + " and " + other.precision);
+		}
+		for (int i = 0; i < registers.length; i++) {
+			if (other.registers[i] > registers[i]) {
+				registers[i] = other.registers[i];
+			}
+		}
+	}
+
+	/** Returns the estimated number of distinct values. */
+	public long cardinality() {
+		int m = registers.length;
+		double sum = 0;
+		int zeros = 0;
+		for (byte register : registers) {
+			sum += 1.0d / (1L << register);
+			if (register == 0) {
+				zeros++;
+			}
+		}
+		double alpha;
+		switch (m) {
+			case 16:
+				alpha = 0.673;
+				break;
+			case 32:
+				alpha = 0.697;
+				break;
+			case 64:
+				alpha = 0.709;
+				break;
+			default:
+				alpha = 0.7213 / (1 + 1.079 / m);
+		}
+		double estimate = alpha * m * m / sum;
+		if (estimate <= 2.5 * m && zeros > 0) {
+			// linear counting is more accurate for small cardinalities
+			estimate = m * Math.log((double)m / zeros);
+		}
+		return Math.round(estimate);
+	}
+
+	/** The finalization step of MurmurHash3 which spreads the bits of the given value. */
+	private static long mix(long value) {
+		value ^= value >>> 33;
+		value *= 0xff51afd7ed558ccdL;
+		value ^= value >>> 33;
+		value *= 0xc4ceb9fe1a85ec53L;
+		value ^= value >>> 33;
+		return value;
+	}
+}
@@ -0,0 +1,325 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.tools.math;
+
+import java.io.Serializable;
+
+/**
+ * A t-digest as proposed by Ted Dunning: a compact, mergeable summary of a stream of (weighted)
+ * values which allows to estimate arbitrary quantiles. The values are summarized by a bounded
+ * number of centroids which are small near the tails of the distribution and larger in the
+ * middle. Hence, extreme quantiles are estimated very accurately and the median with a relative
+ * rank error of typically less than one percent, while the memory needed does not depend on the
+ * number of values.
+ *
+ * New values are collected in a buffer which is merged into the centroids when it is full or a
+ * quantile is requested. Instances are not thread safe.
+ */
+public class TDigest implements Serializable {
+
+	private static final long serialVersionUID = -4264338283911633342L;
+
+	/** The default compression. Results in at most about 160 centroids. */
+	public static final double DEFAULT_COMPRESSION = 100;
+
+	/** The initial size of the arrays. They grow as needed, so that small digests stay small. */
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final double compression;
+
+	/** The size of the buffer is bounded by five times the maximal number of centroids. */
+	private final int maximumBufferSize;
+
+	private double[] means;
+
+	private double[] weights;
+
+	private int numberOfCentroids = 0;
+
+	private double[] bufferedValues;
+
+	private double[] bufferedWeights;
+
+	private int numberOfBufferedValues = 0;
+
+	/** The total weight of all values including the buffered ones. */
+	private double totalWeight = 0;
+
+	private double minimum = Double.POSITIVE_INFINITY;
+
+	private double maximum = Double.NEGATIVE_INFINITY;
+
+	public TDigest() {
+		this(DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * Creates a new digest. Higher compressions lead to more accurate estimates but need more
+	 * memory. The number of centroids is bounded by roughly 1.6 times the compression.
+	 */
+	public TDigest(double compression) {
+		this.compression = compression;
+		this.maximumBufferSize = 5 * ((int)Math.ceil(compression * Math.PI / 2) + 10);
+		this.means = new double[INITIAL_CAPACITY];
+		this.weights = new double[INITIAL_CAPACITY];
+		this.bufferedValues = new double[INITIAL_CAPACITY];
+		this.bufferedWeights = new double[INITIAL_CAPACITY];
+	}
+
+	/** Clone constructor. */
+	public TDigest(TDigest other) {
+		this.compression = other.compression;
+		this.maximumBufferSize = other.maximumBufferSize;
+		this.means = other.means.clone();
+		this.weights = other.weights.clone();
+		this.numberOfCentroids = other.numberOfCentroids;
+		this.bufferedValues = other.bufferedValues.clone();
+		this.bufferedWeights = other.bufferedWeights.clone();
+		this.numberOfBufferedValues = other.numberOfBufferedValues;
+		this.totalWeight = other.totalWeight;
+		this.minimum = other.minimum;
+		this.maximum = other.maximum;
+	}
+
+	/** Adds the given value with weight 1. Missing values are ignored. */
+	public void add(double value) {
+		add(value, 1.0d);
+	}
+
+	/** Adds the given value with the given weight. Missing values and non-positive weights are ignored. */
+	public void add(double value, double weight) {
+		if (Double.isNaN(value) || !(weight > 0)) {
+			return;
+		}
+		if (numberOfBufferedValues == bufferedValues.length) {
+			if (bufferedValues.length < maximumBufferSize) {
+				int newSize = Math.min(maximumBufferSize, bufferedValues.length * 2);
+				double[] newValues = new double[newSize];
+				double[] newWeights = new double[newSize];
+				System.arraycopy(bufferedValues, 0, newValues, 0, numberOfBufferedValues);
+				System.arraycopy(bufferedWeights, 0, newWeights, 0, numberOfBufferedValues);
+				bufferedValues = newValues;
+				bufferedWeights = newWeights;
+			} else {
+				compress();
+			}
+		}
+		bufferedValues[numberOfBufferedValues] = value;
+		bufferedWeights[numberOfBufferedValues] = weight;
+		numberOfBufferedValues++;
+		totalWeight += weight;
+		if (value < minimum) {
+			minimum = value;
+		}
+		if (value > maximum) {
+			maximum = value;
+		}
+	}
+
+	/** Adds all values summarized by the other digest to this one. */
+	public void add(TDigest other) {
+		if (other == this) {
+			other = new TDigest(this);
+		}
+		other.compress();
+		for (int i = 0; i < other.numberOfCentroids; i++) {
+			add(other.means[i], other.weights[i]);
+		}
+		// centroids are added by their mean, but the extremes must be kept exactly
+		if (other.minimum < minimum) {
+			minimum = other.minimum;
+		}
+		if (other.maximum > maximum) {
+			maximum = other.maximum;
+		}
+	}
+
+	/** Returns the total weight of all added values, i.e. their number if no weights were used. */
+	public double getTotalWeight() {
+		return totalWeight;
+	}
+
+	public double getMinimum() {
+		return totalWeight > 0 ? minimum : Double.NaN;
+	}
+
+	public double getMaximum() {
+		return totalWeight > 0 ? maximum : Double.NaN;
+	}
+
+	/** Returns the number of centroids the values are currently summarized by. */
+	public int getNumberOfCentroids() {
+		compress();
+		return numberOfCentroids;
+	}
+
+	/**
+	 * Returns an estimate of the given quantile, i.e. a value such that about the fraction q of
+	 * the total weight is smaller. Returns NaN if no values were added.
+	 */
+	public double quantile(double q) {
+		compress();
+		if (numberOfCentroids == 0) {
+			return Double.NaN;
+		}
+		if (q <= 0) {
+			return minimum;
+		}
+		if (q >= 1) {
+			return maximum;
+		}
+		if (numberOfCentroids == 1) {
+			return means[0];
+		}
+
+		double index = q * totalWeight;
+		// between minimum and the center of the first centroid
+		if (index < weights[0] / 2) {
+			return interpolate(minimum, means[0], index, weights[0] / 2 - index);
+		}
+		double weightSoFar = weights[0] / 2;
+		for (int i = 0; i < numberOfCentroids - 1; i++) {
+			double delta = (weights[i] + weights[i + 1]) / 2;
+			if (weightSoFar + delta > index) {
+				return interpolate(means[i], means[i + 1], index - weightSoFar, weightSoFar + delta - index);
+			}
+			weightSoFar += delta;
+		}
+		// between the center of the last centroid and maximum
+		double lastHalf = weights[numberOfCentroids - 1] / 2;
+		return interpolate(means[numberOfCentroids - 1], maximum, index - weightSoFar, Math.max(0, lastHalf - (index - weightSoFar)));
+	}
+
+	/** Returns the value between left and right which divides the interval in the ratio leftDistance : rightDistance. */
+	private static double interpolate(double left, double right, double leftDistance, double rightDistance) {
+		double sum = leftDistance + rightDistance;
+		if (sum <= 0) {
+			return left;
+		}
+		return (left * rightDistance + right * leftDistance) / sum;
+	}
+
+	/** Merges the buffered values into the centroids. */
+	private void compress() {
+		if (numberOfBufferedValues == 0) {
+			return;
+		}
+		int n = numberOfCentroids + numberOfBufferedValues;
+		double[] allMeans = new double[n];
+		double[] allWeights = new double[n];
+		System.arraycopy(means, 0, allMeans, 0, numberOfCentroids);
+		System.arraycopy(weights, 0, allWeights, 0, numberOfCentroids);
+		System.arraycopy(bufferedValues, 0, allMeans, numberOfCentroids, numberOfBufferedValues);
+		System.arraycopy(bufferedWeights, 0, allWeights, numberOfCentroids, numberOfBufferedValues);
+		numberOfBufferedValues = 0;
+		sort(allMeans, allWeights, 0, n - 1);
+
+		// merge neighbors as long as the centroid stays within the size limit given by the scale function
+		int count = 0;
+		double currentMean = allMeans[0];
+		double currentWeight = allWeights[0];
+		double weightSoFar = 0;
+		double weightLimit = totalWeight * getQuantileLimit(0);
+		for (int i = 1; i < n; i++) {
+			if (weightSoFar + currentWeight + allWeights[i] <= weightLimit) {
+				currentWeight += allWeights[i];
+				currentMean += (allMeans[i] - currentMean) * allWeights[i] / currentWeight;
+			} else {
+				count = addCentroid(count, currentMean, currentWeight);
+				weightSoFar += currentWeight;
+				weightLimit = totalWeight * getQuantileLimit(weightSoFar / totalWeight);
+				currentMean = allMeans[i];
+				currentWeight = allWeights[i];
+			}
+		}
+		numberOfCentroids = addCentroid(count, currentMean, currentWeight);
+	}
+
+	private int addCentroid(int index, double mean, double weight) {
+		if (index == means.length) {
+			double[] newMeans = new double[means.length * 2];
+			double[] newWeights = new double[means.length * 2];
+			System.arraycopy(means, 0, newMeans, 0, index);
+			System.arraycopy(weights, 0, newWeights, 0, index);
+			means = newMeans;
+			weights = newWeights;
+		}
+		means[index] = mean;
+		weights[index] = weight;
+		return index + 1;
+	}
+
+	/**
+	 * Returns the largest quantile a centroid starting at quantile q may reach. This uses the
+	 * scale function k(q) = compression / (2 pi) * asin(2q - 1) which allows one unit of k per centroid.
+	 */
+	private double getQuantileLimit(double q) {
+		double k = compression / (2 * Math.PI) * Math.asin(2 * q - 1);
+		double angle = Math.min(Math.PI / 2, (k + 1) * 2 * Math.PI / compression);
+		return (Math.sin(angle) + 1) / 2;
+	}
+
+	/** Sorts both arrays by the values of the first one. */
+	private static void sort(double[] values, double[] weights, int left, int right) {
+		while (right - left > 16) {
+			double pivot = values[(left + right) >>> 1];
+			int i = left;
+			int j = right;
+			while (i <= j) {
+				while (values[i] < pivot) {
+					i++;
+				}
+				while (values[j] > pivot) {
+					j--;
+				}
+				if (i <= j) {
+					swap(values, weights, i, j);
+					i++;
+					j--;
+				}
+			}
+			// recurse into the smaller part to bound the stack depth
+			if (j - left < right - i) {
+				sort(values, weights, left, j);
+				left = i;
+			} else {
+				sort(values, weights, i, right);
+				right = j;
+			}
+		}
+		for (int i = left + 1; i <= right; i++) {
+			for (int j = i; j > left && values[j - 1] > values[j]; j--) {
+				swap(values, weights, j - 1, j);
+			}
+		}
+	}
+
+	private static void swap(double[] values, double[] weights, int i, int j) {
+		double value = values[i];
+		values[i] = values[j];
+		values[j] = value;
+		double weight = weights[i];
+		weights[i] = weights[j];
+		weights[j] = weight;
+	}
+}
@@ -0,0 +1,231 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.tools.math.container;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.RandomAccess;
+
+import com.rapidminer.tools.container.Tupel;
+import com.rapidminer.tools.math.similarity.DistanceMeasure;
+import com.rapidminer.tools.math.similarity.numerical.CosineSimilarity;
+import com.rapidminer.tools.math.similarity.numerical.EuclideanDistance;
+
+/**
+ * A {@link LinearList} for sparse data points which only stores the non-zero values of each point.
+ * For the {@link EuclideanDistance} and the {@link CosineSimilarity}, the distance between a
+ * query and a point is derived from the squared norm of the query, which is computed once per
+ * search, and the non-zero values of the point. Hence a search only needs time linear in the
+ * number of stored non-zero values. Other measures are applied to a dense copy of each point.
+ * Points or queries containing missing values are always handled by the measure itself.
+ * 
+ * @param <T> This is the type of value with is stored with the points and retrieved on nearest
+ * neighbour search
+ */
+public class SparseLinearList<T extends Serializable> implements GeometricDataCollection<T>, RandomAccess {
+
+	private static final long serialVersionUID = 4397152378165738311L;
+
+	private static final int EUCLIDEAN = 0;
+
+	private static final int COSINE = 1;
+
+	private static final int OTHER = 2;
+
+	private final DistanceMeasure distance;
+
+	private final int dimension;
+
+	private final int measureType;
+
+	private final ArrayList<int[]> sampleIndices = new ArrayList<int[]>();
+
+	private final ArrayList<double[]> sampleValues = new ArrayList<double[]>();
+
+	/** The squared norm of each sample or NaN if it contains missing values. */
+	private double[] squaredNorms = new double[16];
+
+	private final ArrayList<T> storedValues = new ArrayList<T>();
+
+	public SparseLinearList(DistanceMeasure distance, int dimension) {
+		this.distance = distance;
+		this.dimension = dimension;
+		if (distance.getClass() == EuclideanDistance.class) {
+			measureType = EUCLIDEAN;
+		} else if (distance.getClass() == CosineSimilarity.class) {
+			measureType = COSINE;
+		} else {
+			measureType = OTHER;
+		}
+	}
+
+	/** Stores the non-zero values of the given dense point. */
+	public void add(double[] values, T storeValue) {
+		int[] indices = new int[values.length];
+		int count = 0;
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != 0.0d) {
+				indices[count++] = i;
+			}
+		}
+		double[] nonZeroValues = new double[count];
+		for (int i = 0; i < count; i++) {
+			nonZeroValues[i] = values[indices[i]];
+		}
+		addSample(Arrays.copyOf(indices, count), nonZeroValues, storeValue);
+	}
+
+	/**
+	 * Stores the point consisting of the first count given indices and values, all other
+	 * dimensions are zero. The indices must be sorted ascending. The arrays are copied and may
+	 * be reused by the caller.
+	 */
+	public void add(int[] indices, double[] values, int count, T storeValue) {
+		addSample(Arrays.copyOf(indices, count), Arrays.copyOf(values, count), storeValue);
+	}
+
+	private void addSample(int[] indices, double[] values, T storeValue) {
+		double squaredNorm = 0.0d;
+		for (double value : values) {
+			squaredNorm += value * value;
+		}
+		int index = storedValues.size();
+		if (index == squaredNorms.length) {
+			squaredNorms = Arrays.copyOf(squaredNorms, squaredNorms.length + (squaredNorms.length >> 1) + 1);
+		}
+		squaredNorms[index] = squaredNorm;
+		sampleIndices.add(indices);
+		sampleValues.add(values);
+		storedValues.add(storeValue);
+	}
+
+	/** Returns the distances of all samples to the given point. */
+	private double[] calculateDistances(double[] values) {
+		double querySquaredNorm = 0.0d;
+		for (double value : values) {
+			querySquaredNorm += value * value;
+		}
+		double[] distances = new double[storedValues.size()];
+		double[] denseSample = null;
+		for (int i = 0; i < distances.length; i++) {
+			int[] indices = sampleIndices.get(i);
+			double[] nonZeroValues = sampleValues.get(i);
+			if (measureType == OTHER || Double.isNaN(querySquaredNorm) || Double.isNaN(squaredNorms[i]) || values.length != dimension) {
+				if (denseSample == null) {
+					denseSample = new double[dimension];
+				}
+				for (int j = 0; j < indices.length; j++) {
+					denseSample[indices[j]] = nonZeroValues[j];
+				}
+				distances[i] = distance.calculateDistance(denseSample, values);
+				for (int j = 0; j < indices.length; j++) {
+					denseSample[indices[j]] = 0.0d;
+				}
+			} else if (measureType == EUCLIDEAN) {
+				// only the dimensions stored for the sample differ from the squared norm of the query
+				double sum = querySquaredNorm;
+				for (int j = 0; j < indices.length; j++) {
+					double queryValue = values[indices[j]];
+					double diff = nonZeroValues[j] - queryValue;
+					sum += diff * diff - queryValue * queryValue;
+				}
+				distances[i] = dimension > 0 ? Math.sqrt(Math.max(0.0d, sum)) : Double.NaN;
+			} else {
+				double product = 0.0d;
+				for (int j = 0; j < indices.length; j++) {
+					product += nonZeroValues[j] * values[indices[j]];
+				}
+				double similarity;
+				if (squaredNorms[i] > 0 && querySquaredNorm > 0) {
+					similarity = Math.min(Math.max(product / (Math.sqrt(squaredNorms[i]) * Math.sqrt(querySquaredNorm)), -1d), 1d);
+				} else if (squaredNorms[i] == 0 && querySquaredNorm == 0) {
+					similarity = 1d;
+				} else {
+					similarity = 0d;
+				}
+				distances[i] = Math.acos(similarity);
+			}
+		}
+		return distances;
+	}
+
+	public Collection<T> getNearestValues(int k, double[] values) {
+		BoundedPriorityQueue<Tupel<Double, T>> queue = new BoundedPriorityQueue<Tupel<Double, T>>(k);
+		double[] distances = calculateDistances(values);
+		for (int i = 0; i < distances.length; i++) {
+			queue.add(new Tupel<Double, T>(distances[i], storedValues.get(i)));
+		}
+
+		Collection<T> result = new ArrayList<T>(k);
+		for (Tupel<Double, T> tupel : queue) {
+			result.add(tupel.getSecond());
+		}
+		return result;
+	}
+
+	public Collection<Tupel<Double, T>> getNearestValueDistances(int k, double[] values) {
+		BoundedPriorityQueue<Tupel<Double, T>> queue = new BoundedPriorityQueue<Tupel<Double, T>>(k);
+		double[] distances = calculateDistances(values);
+		for (int i = 0; i < distances.length; i++) {
+			queue.add(new Tupel<Double, T>(distances[i], storedValues.get(i)));
+		}
+
+		Collection<Tupel<Double, T>> result = new ArrayList<Tupel<Double, T>>(k);
+		for (Tupel<Double, T> tupel : queue) {
+			result.add(new Tupel<Double, T>(tupel.getFirst(), tupel.getSecond()));
+		}
+		return result;
+	}
+
+	public Collection<Tupel<Double, T>> getNearestValueDistances(double withinDistance, double[] values) {
+		ArrayList<Tupel<Double, T>> queue = new ArrayList<Tupel<Double, T>>();
+		double[] distances = calculateDistances(values);
+		for (int i = 0; i < distances.length; i++) {
+			if (distances[i] <= withinDistance)
+				queue.add(new Tupel<Double, T>(distances[i], storedValues.get(i)));
+		}
+		return queue;
+	}
+
+	public Collection<Tupel<Double, T>> getNearestValueDistances(double withinDistance, int butAtLeastK, double[] values) {
+		Collection<Tupel<Double, T>> result = getNearestValueDistances(withinDistance, values);
+		if (result.size() < butAtLeastK)
+			return getNearestValueDistances(butAtLeastK, values);
+		return result;
+	}
+
+	public int size() {
+		return storedValues.size();
+	}
+
+	public Iterator<T> iterator() {
+		return storedValues.iterator();
+	}
+
+	public T get(int index) {
+		return storedValues.get(index);
+	}
+}
@@ -130,15 +130,15 @@ public abstract class Kernel implements Serializable {
 
 	/**
 	 * Calculates all distances and store them in a matrix to speed up
-	 * optimization.
+	 * optimization. If the matrix does not fit into the memory budget
+	 * of {@link KernelRowCache}, the most recently used rows are cached instead.
 	 */
 	public void init(ExampleSet exampleSet) {
 		this.exampleSet = exampleSet;
-		int exampleSetSize = exampleSet.size();
-		if (exampleSetSize < 8000) {
+		if (KernelRowCache.fitsIntoMemoryBudget(exampleSet.size())) {
 			this.cache = new FullCache(exampleSet, this);	
 		} else {
-			this.cache = new MapBasedCache(exampleSetSize);
+			this.cache = new KernelRowCache(exampleSet, this);
 		}
 	}
 
@@ -0,0 +1,208 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.tools.math.kernels;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import com.rapidminer.RapidMiner;
+import com.rapidminer.example.Attribute;
+import com.rapidminer.example.Example;
+import com.rapidminer.example.ExampleSet;
+import com.rapidminer.operator.OperatorException;
+import com.rapidminer.tools.ConcurrencyTools;
+import com.rapidminer.tools.ParameterService;
+
+/**
+ * Stores complete rows of the kernel matrix. Only as many rows are kept as fit into the memory
+ * budget defined by {@link RapidMiner#PROPERTY_RAPIDMINER_GENERAL_KERNEL_CACHE_SIZE}; the least
+ * recently used rows are evicted first. Rows are only computed by {@link #getRows(int[])}, which
+ * computes several missing rows in parallel.
+ * 
+ * In contrast to the other caches, {@link #get(int, int)} never delivers NaN. Values which are not
+ * part of a cached row are computed by a single kernel evaluation, and the values of the diagonal
+ * are kept separately. {@link #store(int, int, double)} therefore does nothing. The attribute
+ * values of the examples and the diagonal are not counted against the budget. All methods of
+ * this cache are thread safe.
+ */
+public class KernelRowCache implements KernelCache {
+
+	/** The default memory budget in megabytes. */
+	public static final int DEFAULT_CACHE_SIZE = 256;
+
+	private final Kernel kernel;
+
+	private final double[][] values;
+
+	private final int maxRows;
+
+	private final Map<Integer, double[]> rows;
+
+	/** The kernel values of the examples with themselves, NaN if not yet computed. */
+	private final double[] diagonal;
+
+	public KernelRowCache(ExampleSet exampleSet, Kernel kernel) {
+		this(exampleSet, kernel, getMemoryBudget());
+	}
+
+	/** Creates a cache which keeps at most memoryBudget bytes of kernel rows. */
+	public KernelRowCache(ExampleSet exampleSet, Kernel kernel, long memoryBudget) {
+		this.kernel = kernel;
+		this.values = getValues(exampleSet);
+		long rowSize = 8L * Math.max(1, values.length);
+		this.maxRows = (int) Math.max(1, Math.min(values.length, memoryBudget / rowSize));
+		this.diagonal = new double[values.length];
+		Arrays.fill(diagonal, Double.NaN);
+		this.rows = new LinkedHashMap<Integer, double[]>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = -2817034572418862137L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, double[]> eldest) {
+				return size() > maxRows;
+			}
+		};
+	}
+
+	/** Returns the memory budget for kernel caches in bytes. */
+	public static long getMemoryBudget() {
+		int megabytes = DEFAULT_CACHE_SIZE;
+		try {
+			megabytes = Integer.parseInt(ParameterService.getParameterValue(RapidMiner.PROPERTY_RAPIDMINER_GENERAL_KERNEL_CACHE_SIZE));
+		} catch (NumberFormatException e) {
+			megabytes = DEFAULT_CACHE_SIZE;
+		}
+		return Math.max(1, megabytes) * 1024L * 1024L;
+	}
+
+	/** Returns true if a complete kernel matrix of doubles for the given number of examples fits into the memory budget. */
+	public static boolean fitsIntoMemoryBudget(int numberOfExamples) {
+		return 8L * numberOfExamples * numberOfExamples <= getMemoryBudget();
+	}
+
+	/** Returns the number of rows this cache keeps at most. */
+	public int getMaximumNumberOfRows() {
+		return maxRows;
+	}
+
+	@Override
+	public double get(int i, int j) {
+		synchronized (rows) {
+			double[] row = rows.get(i);
+			if (row != null) {
+				return row[j];
+			}
+			row = rows.get(j);
+			if (row != null) {
+				return row[i];
+			}
+			if ((i == j) && !Double.isNaN(diagonal[i])) {
+				return diagonal[i];
+			}
+		}
+		double value = kernel.calculateDistance(values[i], values[j]);
+		if (i == j) {
+			synchronized (rows) {
+				diagonal[i] = value;
+			}
+		}
+		return value;
+	}
+
+	/** Does nothing since the values are always computed row-wise by this cache. */
+	@Override
+	public void store(int i, int j, double value) {}
+
+	/**
+	 * Returns the rows for all given example indices in the same order. Missing rows are computed
+	 * in parallel using {@link ConcurrencyTools#getNumberOfThreads()} threads. The returned arrays
+	 * must not be modified.
+	 */
+	public double[][] getRows(final int[] indices) throws OperatorException {
+		final double[][] result = new double[indices.length][];
+		final List<Integer> missing = new ArrayList<Integer>();
+		synchronized (rows) {
+			for (int r = 0; r < indices.length; r++) {
+				result[r] = rows.get(indices[r]);
+				if (result[r] == null) {
+					missing.add(r);
+				}
+			}
+		}
+		if (!missing.isEmpty()) {
+			final int threads = Math.min(ConcurrencyTools.getNumberOfThreads(), missing.size());
+			List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(threads);
+			for (int t = 0; t < threads; t++) {
+				final int offset = t;
+				tasks.add(new Callable<Void>() {
+
+					@Override
+					public Void call() {
+						for (int m = offset; m < missing.size(); m += threads) {
+							int r = missing.get(m);
+							result[r] = computeRow(indices[r]);
+						}
+						return null;
+					}
+				});
+			}
+			ConcurrencyTools.call(tasks, threads);
+			synchronized (rows) {
+				for (int r : missing) {
+					rows.put(indices[r], result[r]);
+				}
+			}
+		}
+		return result;
+	}
+
+	private double[] computeRow(int i) {
+		double[] row = new double[values.length];
+		double[] x = values[i];
+		for (int j = 0; j < values.length; j++) {
+			row[j] = kernel.calculateDistance(x, values[j]);
+		}
+		return row;
+	}
+
+	private static double[][] getValues(ExampleSet exampleSet) {
+		Attribute[] attributes = exampleSet.getAttributes().createRegularAttributeArray();
+		double[][] values = new double[exampleSet.size()][];
+		Iterator<Example> reader = exampleSet.iterator();
+		int i = 0;
+		while (reader.hasNext()) {
+			Example example = reader.next();
+			double[] x = new double[attributes.length];
+			for (int a = 0; a < attributes.length; a++) {
+				x[a] = example.getValue(attributes[a]);
+			}
+			values[i++] = x;
+		}
+		return values;
+	}
+}
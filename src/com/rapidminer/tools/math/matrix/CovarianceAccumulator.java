@@ -0,0 +1,226 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.tools.math.matrix;
+
+import Jama.Matrix;
+
+import com.rapidminer.example.ExampleSet;
+import com.rapidminer.example.set.ParallelExampleScan;
+import com.rapidminer.operator.OperatorException;
+
+/**
+ * Accumulates the covariance matrix (or the uncentered Gram matrix X<sup>T</sup>X) of a stream
+ * of rows in a single pass. Rows are collected in small blocks; each block is centered by its own
+ * mean and its co-moments are merged into the total with the pairwise update of Chan et al. This
+ * keeps the result as stable as the classical two-pass algorithm without keeping the data in memory.
+ * Accumulators of disjoint parts of the data can be merged, which allows reading large example sets
+ * in parallel, see {@link #accumulate(ExampleSet, boolean)}.
+ * 
+ * Only the upper triangle of the matrix is stored.
+ */
+public class CovarianceAccumulator {
+
+	private static final int BLOCK_SIZE = 64;
+
+	private final int numberOfColumns;
+
+	/** Indicates if the covariance (true) or the Gram matrix (false) is accumulated. */
+	private final boolean centered;
+
+	private long count = 0;
+
+	private final double[] means;
+
+	/** Row i contains the co-moments of column i with the columns i, i+1, ... */
+	private final double[][] coMoments;
+
+	private final double[][] block;
+
+	private int blockSize = 0;
+
+	public CovarianceAccumulator(int numberOfColumns, boolean centered) {
+		this.numberOfColumns = numberOfColumns;
+		this.centered = centered;
+		this.means = new double[numberOfColumns];
+		this.coMoments = new double[numberOfColumns][];
+		for (int i = 0; i < numberOfColumns; i++) {
+			coMoments[i] = new double[numberOfColumns - i];
+		}
+		this.block = new double[BLOCK_SIZE][numberOfColumns];
+	}
+
+	/** Adds the given row. The array is copied and may be reused by the caller. */
+	public void add(double[] row) {
+		System.arraycopy(row, 0, block[blockSize], 0, numberOfColumns);
+		blockSize++;
+		if (blockSize == BLOCK_SIZE) {
+			flush();
+		}
+	}
+
+	/** Merges the rows accumulated by the other accumulator into this one. */
+	public void merge(CovarianceAccumulator other) {
+		if (other.numberOfColumns != numberOfColumns || other.centered != centered) {
+			throw new IllegalArgumentException("Only accumulators of the same type and size can be merged.");
+		}
+		flush();
+		other.flush();
+		for (int i = 0; i < numberOfColumns; i++) {
+			double[] target = coMoments[i];
+			double[] source = other.coMoments[i];
+			for (int j = 0; j < target.length; j++) {
+				target[j] += source[j];
+			}
+		}
+		mergeMeans(other.means, other.count);
+	}
+
+	/** Adds the co-moments of the current block. */
+	private void flush() {
+		if (blockSize == 0) {
+			return;
+		}
+		double[] blockMeans = new double[numberOfColumns];
+		if (centered) {
+			for (int r = 0; r < blockSize; r++) {
+				double[] row = block[r];
+				for (int i = 0; i < numberOfColumns; i++) {
+					blockMeans[i] += row[i];
+				}
+			}
+			for (int i = 0; i < numberOfColumns; i++) {
+				blockMeans[i] /= blockSize;
+			}
+			for (int r = 0; r < blockSize; r++) {
+				double[] row = block[r];
+				for (int i = 0; i < numberOfColumns; i++) {
+					row[i] -= blockMeans[i];
+				}
+			}
+		}
+		for (int r = 0; r < blockSize; r++) {
+			double[] row = block[r];
+			for (int i = 0; i < numberOfColumns; i++) {
+				double value = row[i];
+				if (value != 0.0d) {
+					double[] target = coMoments[i];
+					for (int j = i; j < numberOfColumns; j++) {
+						target[j - i] += value * row[j];
+					}
+				}
+			}
+		}
+		mergeMeans(blockMeans, blockSize);
+		blockSize = 0;
+	}
+
+	/** Updates count and means and adds the correction term for the difference of the means. */
+	private void mergeMeans(double[] otherMeans, long otherCount) {
+		if (otherCount == 0) {
+			return;
+		}
+		long total = count + otherCount;
+		if (centered) {
+			double[] delta = new double[numberOfColumns];
+			for (int i = 0; i < numberOfColumns; i++) {
+				delta[i] = otherMeans[i] - means[i];
+			}
+			double factor = (double) count * otherCount / total;
+			if (factor != 0.0d) {
+				for (int i = 0; i < numberOfColumns; i++) {
+					double scaled = delta[i] * factor;
+					double[] target = coMoments[i];
+					for (int j = i; j < numberOfColumns; j++) {
+						target[j - i] += scaled * delta[j];
+					}
+				}
+			}
+			for (int i = 0; i < numberOfColumns; i++) {
+				means[i] += delta[i] * otherCount / total;
+			}
+		}
+		count = total;
+	}
+
+	/** Returns the number of accumulated rows. */
+	public long getCount() {
+		flush();
+		return count;
+	}
+
+	/** Returns the column means. Only available for centered accumulators. */
+	public double[] getMeans() {
+		if (!centered) {
+			throw new IllegalStateException("Means are only calculated for centered accumulators.");
+		}
+		flush();
+		return means.clone();
+	}
+
+	/**
+	 * Returns the covariance matrix (divided by n - 1) for centered accumulators or the Gram matrix
+	 * X<sup>T</sup>X otherwise.
+	 */
+	public Matrix getMatrix() {
+		flush();
+		if (count == 0) {
+			throw new IllegalArgumentException("Calculation of covariance matrices not possible for data sets with zero rows.");
+		}
+		double divisor = centered ? count - 1 : 1.0d;
+		double[][] entries = new double[numberOfColumns][numberOfColumns];
+		for (int i = 0; i < numberOfColumns; i++) {
+			double[] source = coMoments[i];
+			for (int j = i; j < numberOfColumns; j++) {
+				double value = source[j - i] / divisor;
+				entries[i][j] = value;
+				entries[j][i] = value;
+			}
+		}
+		return new Matrix(entries);
+	}
+
+	/**
+	 * Accumulates the regular attributes of the given example set. Large example sets with fast
+	 * random access are read in parallel.
+	 */
+	public static CovarianceAccumulator accumulate(ExampleSet exampleSet, final boolean centered) throws OperatorException {
+		final int numberOfColumns = exampleSet.getAttributes().size();
+		return new ParallelExampleScan<CovarianceAccumulator>() {
+
+			@Override
+			protected CovarianceAccumulator createPartialResult() {
+				return new CovarianceAccumulator(numberOfColumns, centered);
+			}
+
+			@Override
+			protected void add(CovarianceAccumulator partialResult, double[] values) {
+				partialResult.add(values);
+			}
+
+			@Override
+			protected void merge(CovarianceAccumulator result, CovarianceAccumulator partialResult) {
+				result.merge(partialResult);
+			}
+		}.scan(exampleSet);
+	}
+}
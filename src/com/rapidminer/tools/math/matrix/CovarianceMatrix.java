@@ -24,9 +24,8 @@ package com.rapidminer.tools.math.matrix;
 
 import Jama.Matrix;
 
-import com.rapidminer.example.Attribute;
-import com.rapidminer.example.Example;
 import com.rapidminer.example.ExampleSet;
+import com.rapidminer.operator.OperatorException;
 
 /**
  * This helper class can be used to calculate a covariance matrix from given
@@ -37,21 +36,18 @@ import com.rapidminer.example.ExampleSet;
 public class CovarianceMatrix {
 
 
-    /** Transforms the example set into a double matrix (doubling the amount of used memory)
-     *  and invokes {@link #getCovarianceMatrix(double[][])}. */
+    /** Calculates the covariance matrix of the regular attributes in a single pass over the data
+     *  without copying it. Large example sets are read in parallel, see {@link CovarianceAccumulator}.
+     *  Failures of the parallel read are rethrown as runtime exceptions. */
     public static Matrix getCovarianceMatrix(ExampleSet exampleSet) {
-        double[][] data = new double[exampleSet.size()][exampleSet.getAttributes().size()];
-        int r = 0;
-        for (Example example : exampleSet) {
-            int c = 0;
-            for (Attribute attribute : exampleSet.getAttributes()) {
-                data[r][c] = example.getValue(attribute);
-                c++;
-            }
-            r++;
+        if (exampleSet.getAttributes().size() == 0) {
+            throw new IllegalArgumentException("Calculation of covariance matrices not possible for data sets with zero columns.");
+        }
+        try {
+            return CovarianceAccumulator.accumulate(exampleSet, true).getMatrix();
+        } catch (OperatorException e) {
+            throw new RuntimeException("Cannot calculate covariance matrix: " + e.getMessage(), e);
         }
-
-        return getCovarianceMatrix(data);
     }
 
     /** Returns the covariance matrix from the given double matrix. */
@@ -0,0 +1,274 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.tools.math.matrix;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import Jama.EigenvalueDecomposition;
+import Jama.Matrix;
+import Jama.QRDecomposition;
+
+import com.rapidminer.example.Attribute;
+import com.rapidminer.example.ExampleSet;
+import com.rapidminer.example.set.ParallelExampleScan;
+import com.rapidminer.operator.OperatorException;
+
+/**
+ * Computes the largest eigenvalues and the corresponding eigenvectors of the covariance matrix
+ * (or of the Gram matrix X<sup>T</sup>X) of the regular attributes of an example set by randomized
+ * subspace iteration (Halko, Martinsson and Tropp). Neither the data nor the d x d matrix are ever
+ * created: each iteration multiplies the matrix with a thin d x (k + p) basis in one pass over the
+ * examples, which costs O(n d k) instead of O(n d<sup>2</sup>) for the covariance matrix and
+ * O(d<sup>3</sup>) for a full eigenvalue decomposition. Large example sets are read in parallel, see
+ * {@link ParallelExampleScan}.
+ * 
+ * The result is an approximation whose accuracy is usually close to machine precision for the
+ * leading components and degrades for components whose eigenvalues are close to the ones of the
+ * first omitted components.
+ */
+public class RandomizedEigenDecomposition {
+
+	/** Number of additional basis vectors improving the accuracy of the last components. */
+	private static final int OVERSAMPLING = 10;
+
+	/** Number of power iterations, each one costs an additional pass over the data. */
+	private static final int POWER_ITERATIONS = 4;
+
+	private final Attribute[] attributes;
+
+	private final boolean centered;
+
+	private final double[] means;
+
+	private long count;
+
+	private double totalVariance;
+
+	private final double[] eigenvalues;
+
+	private final double[][] eigenvectors;
+
+	/**
+	 * Computes the given number of components. If centered is true, the eigenvectors of the covariance
+	 * matrix are calculated, otherwise the ones of the Gram matrix.
+	 */
+	public RandomizedEigenDecomposition(ExampleSet exampleSet, int numberOfComponents, boolean centered, Random random) throws OperatorException {
+		this.centered = centered;
+		this.attributes = new Attribute[exampleSet.getAttributes().size()];
+		int a = 0;
+		for (Attribute attribute : exampleSet.getAttributes()) {
+			attributes[a++] = attribute;
+		}
+		int d = attributes.length;
+		if (d == 0) {
+			throw new IllegalArgumentException("Eigenvalue decomposition not possible for data sets with zero columns.");
+		}
+		int k = Math.max(1, Math.min(numberOfComponents, d));
+		int l = Math.min(d, k + OVERSAMPLING);
+
+		this.means = new double[d];
+		if (centered) {
+			calculateMeans(exampleSet);
+		} else {
+			this.count = exampleSet.size();
+		}
+		if (count == 0) {
+			throw new IllegalArgumentException("Eigenvalue decomposition not possible for data sets with zero rows.");
+		}
+
+		double[][] start = new double[d][l];
+		for (int i = 0; i < d; i++) {
+			for (int j = 0; j < l; j++) {
+				start[i][j] = random.nextGaussian();
+			}
+		}
+		Matrix basis = orthonormalize(new Matrix(start));
+		for (int iteration = 0; iteration <= POWER_ITERATIONS; iteration++) {
+			basis = orthonormalize(multiply(exampleSet, basis));
+		}
+
+		// project onto the subspace and solve the small problem exactly
+		Matrix projected = basis.transpose().times(multiply(exampleSet, basis));
+		projected = projected.plus(projected.transpose()).times(0.5d);
+		EigenvalueDecomposition decomposition = projected.eig();
+		final double[] smallEigenvalues = decomposition.getRealEigenvalues();
+		Integer[] order = new Integer[l];
+		for (int i = 0; i < l; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				return Double.compare(smallEigenvalues[o2], smallEigenvalues[o1]);
+			}
+		});
+		Matrix fullVectors = basis.times(decomposition.getV());
+		this.eigenvalues = new double[k];
+		this.eigenvectors = new double[d][k];
+		for (int c = 0; c < k; c++) {
+			eigenvalues[c] = smallEigenvalues[order[c]];
+			// the sign is arbitrary, the entry with the largest magnitude is made positive so that
+			// the result does not depend on the random start basis
+			double largest = 0.0d;
+			for (int i = 0; i < d; i++) {
+				double value = fullVectors.get(i, order[c]);
+				if (Math.abs(value) > Math.abs(largest)) {
+					largest = value;
+				}
+			}
+			double sign = largest < 0.0d ? -1.0d : 1.0d;
+			for (int i = 0; i < d; i++) {
+				eigenvectors[i][c] = sign * fullVectors.get(i, order[c]);
+			}
+		}
+	}
+
+	/** Returns the eigenvalues in descending order. */
+	public double[] getRealEigenvalues() {
+		return eigenvalues;
+	}
+
+	/** Returns the eigenvectors as columns of a d x k array in the order of the eigenvalues. */
+	public double[][] getEigenvectors() {
+		return eigenvectors;
+	}
+
+	/**
+	 * Returns the trace of the decomposed matrix, i.e. the sum of all eigenvalues including the ones
+	 * which were not calculated. For the covariance matrix, this is the total variance of the data.
+	 */
+	public double getTrace() {
+		return totalVariance;
+	}
+
+	private void calculateMeans(ExampleSet exampleSet) throws OperatorException {
+		final int d = attributes.length;
+		double[] sums = new ParallelExampleScan<double[]>() {
+
+			@Override
+			protected double[] createPartialResult() {
+				return new double[d + 1];
+			}
+
+			@Override
+			protected void add(double[] partialResult, double[] values) {
+				for (int i = 0; i < d; i++) {
+					partialResult[i] += values[i];
+				}
+				partialResult[d]++;
+			}
+
+			@Override
+			protected void merge(double[] result, double[] partialResult) {
+				for (int i = 0; i <= d; i++) {
+					result[i] += partialResult[i];
+				}
+			}
+		}.scan(exampleSet, attributes);
+		this.count = (long) sums[d];
+		for (int i = 0; i < d; i++) {
+			means[i] = sums[i] / count;
+		}
+	}
+
+	/** Returns the product of the decomposed matrix and the given basis in one pass over the data. */
+	private Matrix multiply(ExampleSet exampleSet, Matrix basis) throws OperatorException {
+		final int d = attributes.length;
+		final int l = basis.getColumnDimension();
+		final double[][] basisArray = basis.getArray();
+		Product product = new ParallelExampleScan<Product>() {
+
+			@Override
+			protected Product createPartialResult() {
+				return new Product(d, l);
+			}
+
+			@Override
+			protected void add(Product partialResult, double[] values) {
+				double[] projection = partialResult.projection;
+				Arrays.fill(projection, 0.0d);
+				double squaredNorm = 0.0d;
+				for (int i = 0; i < d; i++) {
+					double value = values[i] - means[i];
+					values[i] = value;
+					if (value != 0.0d) {
+						squaredNorm += value * value;
+						double[] basisRow = basisArray[i];
+						for (int j = 0; j < l; j++) {
+							projection[j] += value * basisRow[j];
+						}
+					}
+				}
+				for (int i = 0; i < d; i++) {
+					double value = values[i];
+					if (value != 0.0d) {
+						double[] productRow = partialResult.product[i];
+						for (int j = 0; j < l; j++) {
+							productRow[j] += value * projection[j];
+						}
+					}
+				}
+				partialResult.squaredNorm += squaredNorm;
+			}
+
+			@Override
+			protected void merge(Product result, Product partialResult) {
+				for (int i = 0; i < d; i++) {
+					double[] target = result.product[i];
+					double[] source = partialResult.product[i];
+					for (int j = 0; j < l; j++) {
+						target[j] += source[j];
+					}
+				}
+				result.squaredNorm += partialResult.squaredNorm;
+			}
+		}.scan(exampleSet, attributes);
+
+		double divisor = centered ? count - 1 : 1.0d;
+		totalVariance = product.squaredNorm / divisor;
+		return new Matrix(product.product).times(1.0d / divisor);
+	}
+
+	/** Returns an orthonormal basis of the column space of the given matrix. */
+	private static Matrix orthonormalize(Matrix matrix) {
+		return new QRDecomposition(matrix).getQ();
+	}
+
+	/** The partial result of a multiplication. */
+	private static class Product {
+
+		private final double[][] product;
+
+		private final double[] projection;
+
+		private double squaredNorm = 0.0d;
+
+		private Product(int rows, int columns) {
+			this.product = new double[rows][columns];
+			this.projection = new double[columns];
+		}
+	}
+}
@@ -22,10 +22,14 @@
  */
 package com.rapidminer.tools.math.optimization.ec.es;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.rapidminer.datatable.DataTable;
@@ -42,6 +46,7 @@ import com.rapidminer.parameter.ParameterTypeDouble;
 import com.rapidminer.parameter.ParameterTypeInt;
 import com.rapidminer.parameter.conditions.BooleanParameterCondition;
 import com.rapidminer.parameter.conditions.EqualTypeCondition;
+import com.rapidminer.tools.ConcurrencyTools;
 import com.rapidminer.tools.LoggingHandler;
 import com.rapidminer.tools.RandomGenerator;
 import com.rapidminer.tools.math.optimization.Optimization;
@@ -50,6 +55,14 @@ import com.rapidminer.tools.math.optimization.Optimization;
 /**
  * Evolutionary Strategy approach for all real-valued optimization tasks.
  * 
+ * The individuals of a population are evaluated sequentially unless {@link #setNumberOfThreads(int)}
+ * was invoked with more than one thread. In this case, one thread pool is used for the whole
+ * optimization run. Subclasses must only do this if their implementation of
+ * {@link #evaluateIndividual(Individual)} is thread safe. During parallel evaluations, operators
+ * using the global random generator get the generator created by
+ * {@link #createEvaluationRandomGenerator(Individual)} for the evaluated individual instead, so the
+ * results stay reproducible.
+ * 
  * @author Ingo Mierswa
  */
 public abstract class ESOptimization implements Optimization {
@@ -183,6 +196,12 @@ public abstract class ESOptimization implements Optimization {
 	private LoggingHandler logging;
 	private Individual currentBest;
 
+	/** The number of threads used for evaluating the individuals of a population. */
+	private int numberOfThreads = 1;
+
+	/** The thread pool evaluating the individuals during {@link #optimize()}. Null if evaluated sequentially. */
+	private ExecutorService evaluationExecutor;
+
 	/** Creates a new evolutionary SVM optimization. */
 	public ESOptimization(double minValue, double maxValue,
 			int populationSize, int individualSize, int initType, // population paras
@@ -312,6 +331,29 @@ public abstract class ESOptimization implements Optimization {
 	 */
 	public void nextIteration() throws OperatorException {}
 
+	/**
+	 * Sets the number of threads used for evaluating the individuals of a population. Only invoke
+	 * this with values larger than 1 if {@link #evaluateIndividual(Individual)} is thread safe.
+	 */
+	public void setNumberOfThreads(int numberOfThreads) {
+		this.numberOfThreads = Math.max(1, numberOfThreads);
+	}
+
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
+
+	/**
+	 * Returns a new random generator for the evaluation of the given individual. The seed only depends
+	 * on the values of the individual, hence evaluations stay reproducible independent of the order
+	 * and the threads in which the individuals are evaluated. During parallel evaluations, this generator
+	 * replaces the global random generator, see {@link RandomGenerator#setThreadRandomGenerator(RandomGenerator)}.
+	 * The random generator of the optimization itself must not be used during evaluations.
+	 */
+	protected RandomGenerator createEvaluationRandomGenerator(Individual individual) {
+		return new RandomGenerator(Arrays.hashCode(individual.getValues()));
+	}
+
 	public double getMin(int index) { return min[index]; }
 
 	public double getMax(int index) { return max[index]; }
@@ -358,6 +400,20 @@ public abstract class ESOptimization implements Optimization {
 	 * Starts the optimization.
 	 */
 	public void optimize() throws OperatorException {
+		if (numberOfThreads > 1) {
+			evaluationExecutor = ConcurrencyTools.createExecutor(numberOfThreads);
+		}
+		try {
+			optimizeGenerations();
+		} finally {
+			if (evaluationExecutor != null) {
+				evaluationExecutor.shutdownNow();
+				evaluationExecutor = null;
+			}
+		}
+	}
+
+	private void optimizeGenerations() throws OperatorException {
 		this.totalEvalCounter = new AtomicInteger();
 		this.currentEvalCounter = new AtomicInteger();
 
@@ -449,6 +505,10 @@ public abstract class ESOptimization implements Optimization {
 	}
 
 	protected void evaluateAll(Population population) throws OperatorException {
+		if (numberOfThreads > 1) {
+			evaluateAllInParallel(population);
+			return;
+		}
 		for (int i = population.getNumberOfIndividuals() - 1; i >= 0; i--) {
 			Individual current = population.get(i);
 			if (current.getFitness() == null) {
@@ -458,8 +518,58 @@ public abstract class ESOptimization implements Optimization {
 		}
 	}
 
+	/**
+	 * Evaluates all individuals without fitness in parallel. The results are handed to the population
+	 * in the same order as by the sequential evaluation, so the outcome does not depend on the number
+	 * of threads.
+	 */
+	private void evaluateAllInParallel(Population population) throws OperatorException {
+		final List<Individual> pending = new ArrayList<Individual>();
+		for (int i = population.getNumberOfIndividuals() - 1; i >= 0; i--) {
+			Individual current = population.get(i);
+			if (current.getFitness() == null) {
+				pending.add(current);
+			}
+			totalEvalCounter.incrementAndGet();
+		}
+		final int threads = Math.min(numberOfThreads, pending.size());
+		List<Callable<List<PerformanceVector>>> tasks = new ArrayList<Callable<List<PerformanceVector>>>(threads);
+		for (int t = 0; t < threads; t++) {
+			final int first = t;
+			tasks.add(new Callable<List<PerformanceVector>>() {
+
+				@Override
+				public List<PerformanceVector> call() throws OperatorException {
+					List<PerformanceVector> fitnessValues = new ArrayList<PerformanceVector>();
+					RandomGenerator previousGenerator = RandomGenerator.setThreadRandomGenerator(null);
+					try {
+						for (int i = first; i < pending.size(); i += threads) {
+							Individual individual = pending.get(i);
+							RandomGenerator.setThreadRandomGenerator(createEvaluationRandomGenerator(individual));
+							fitnessValues.add(evaluateIndividual(individual));
+						}
+					} finally {
+						RandomGenerator.setThreadRandomGenerator(previousGenerator);
+					}
+					return fitnessValues;
+				}
+			});
+		}
+		List<List<PerformanceVector>> results = (evaluationExecutor != null) ? ConcurrencyTools.call(tasks, evaluationExecutor) : ConcurrencyTools.call(tasks, threads);
+		for (int i = 0; i < pending.size(); i++) {
+			setFitness(pending.get(i), results.get(i % threads).get(i / threads), population);
+		}
+	}
+
 	protected void evaluate(Individual current, Population population) throws OperatorException {
-		PerformanceVector fitness = evaluateIndividual(current);
+		setFitness(current, evaluateIndividual(current), population);
+	}
+
+	/**
+	 * Sets the given fitness of the individual and updates the current best individual. Individuals
+	 * without fitness are removed from the population.
+	 */
+	private void setFitness(Individual current, PerformanceVector fitness, Population population) {
 		if (fitness != null) {
 			current.setFitness(fitness);
 			if ((currentBest == null) || (fitness.getMainCriterion().getFitness() > currentBest.getFitness().getMainCriterion().getFitness())) {
@@ -22,8 +22,15 @@
  */
 package com.rapidminer.tools.math.optimization.ec.pso;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
 import com.rapidminer.operator.OperatorException;
 import com.rapidminer.operator.performance.PerformanceVector;
+import com.rapidminer.tools.ConcurrencyTools;
 import com.rapidminer.tools.RandomGenerator;
 import com.rapidminer.tools.math.optimization.Optimization;
 
@@ -32,6 +39,14 @@ import com.rapidminer.tools.math.optimization.Optimization;
  * This class performs the optimization of a value vector with a particle swarm
  * approach.
  * 
+ * The particles are evaluated sequentially unless {@link #setNumberOfThreads(int)} was invoked with
+ * more than one thread. In this case, one thread pool is used for the whole optimization run.
+ * Subclasses must only do this if their implementation of
+ * {@link #evaluateIndividual(double[])} is thread safe. During parallel evaluations, operators
+ * using the global random generator get the generator created by
+ * {@link #createEvaluationRandomGenerator(double[])} for the evaluated particle instead, so the
+ * results stay reproducible.
+ * 
  * @author Ingo Mierswa
  */
 public abstract class PSOOptimization implements Optimization {
@@ -55,6 +70,12 @@ public abstract class PSOOptimization implements Optimization {
 	private RandomGenerator random;
 
 	private Population population;
+
+	/** The number of threads used for evaluating the particles. */
+	private int numberOfThreads = 1;
+
+	/** The thread pool evaluating the particles during {@link #optimize()}. Null if evaluated sequentially. */
+	private ExecutorService evaluationExecutor;
     
     
 	/** Creates a new PSO optimization with the given parameters. */
@@ -90,6 +111,29 @@ public abstract class PSOOptimization implements Optimization {
 	 */
 	public void nextIteration() throws OperatorException {}
 
+	/**
+	 * Sets the number of threads used for evaluating the particles of a population. Only invoke
+	 * this with values larger than 1 if {@link #evaluateIndividual(double[])} is thread safe.
+	 */
+	public void setNumberOfThreads(int numberOfThreads) {
+		this.numberOfThreads = Math.max(1, numberOfThreads);
+	}
+
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
+
+	/**
+	 * Returns a new random generator for the evaluation of the given particle. The seed only depends
+	 * on the values of the particle, hence evaluations stay reproducible independent of the order
+	 * and the threads in which the particles are evaluated. During parallel evaluations, this generator
+	 * replaces the global random generator, see {@link RandomGenerator#setThreadRandomGenerator(RandomGenerator)}.
+	 * The random generator of the optimization itself must not be used during evaluations.
+	 */
+	protected RandomGenerator createEvaluationRandomGenerator(double[] individual) {
+		return new RandomGenerator(Arrays.hashCode(individual));
+	}
+
 	public void setMinValue(double minValue) {
 		this.minValue = minValue;
 	}
@@ -131,6 +175,20 @@ public abstract class PSOOptimization implements Optimization {
 
 	/** Invoke this method for optimization. */
 	public void optimize() throws OperatorException {
+		if (numberOfThreads > 1) {
+			evaluationExecutor = ConcurrencyTools.createExecutor(numberOfThreads);
+		}
+		try {
+			optimizeGenerations();
+		} finally {
+			if (evaluationExecutor != null) {
+				evaluationExecutor.shutdownNow();
+				evaluationExecutor = null;
+			}
+		}
+	}
+
+	private void optimizeGenerations() throws OperatorException {
 		// velocities
 		double[][] velocities = new double[population.getNumberOfIndividuals()][population.getIndividualSize()];
 		for (int p = 0; p < velocities.length; p++) {
@@ -176,11 +234,41 @@ public abstract class PSOOptimization implements Optimization {
 	 * Calculates the fitness for all individuals and gives the fitness values
 	 * to the population.
 	 */
-	private void evaluate(Population population) throws OperatorException {
-		PerformanceVector[] fitnessValues = new PerformanceVector[population.getNumberOfIndividuals()];
-		for (int i = 0; i < fitnessValues.length; i++) {
-			double[] individual = population.getValues(i);
-			fitnessValues[i] = evaluateIndividual(individual);
+	private void evaluate(final Population population) throws OperatorException {
+		final PerformanceVector[] fitnessValues = new PerformanceVector[population.getNumberOfIndividuals()];
+		final int threads = Math.min(numberOfThreads, fitnessValues.length);
+		if (threads > 1) {
+			List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(threads);
+			for (int t = 0; t < threads; t++) {
+				final int first = t;
+				tasks.add(new Callable<Void>() {
+
+					@Override
+					public Void call() throws OperatorException {
+						RandomGenerator previousGenerator = RandomGenerator.setThreadRandomGenerator(null);
+						try {
+							for (int i = first; i < fitnessValues.length; i += threads) {
+								double[] individual = population.getValues(i);
+								RandomGenerator.setThreadRandomGenerator(createEvaluationRandomGenerator(individual));
+								fitnessValues[i] = evaluateIndividual(individual);
+							}
+						} finally {
+							RandomGenerator.setThreadRandomGenerator(previousGenerator);
+						}
+						return null;
+					}
+				});
+			}
+			if (evaluationExecutor != null) {
+				ConcurrencyTools.call(tasks, evaluationExecutor);
+			} else {
+				ConcurrencyTools.call(tasks, threads);
+			}
+		} else {
+			for (int i = 0; i < fitnessValues.length; i++) {
+				double[] individual = population.getValues(i);
+				fitnessValues[i] = evaluateIndividual(individual);
+			}
 		}
 		population.setFitnessVector(fitnessValues);
 	}
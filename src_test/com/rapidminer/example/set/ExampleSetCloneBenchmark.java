@@ -0,0 +1,140 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.example.set;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.rapidminer.example.Attribute;
+import com.rapidminer.example.ExampleSet;
+import com.rapidminer.example.table.AttributeFactory;
+import com.rapidminer.example.table.DoubleArrayDataRow;
+import com.rapidminer.example.table.MemoryExampleTable;
+import com.rapidminer.operator.UserError;
+import com.rapidminer.test.TestContext;
+import com.rapidminer.tools.Ontology;
+
+/**
+ * Measures the costs of {@link ExampleSet#clone()} for stacked views as they are created by
+ * validations and loops: in each level a bootstrapping-like {@link MappedExampleSet} and a fold
+ * of a {@link SplittedExampleSet} are stacked onto the previous level, and every view is cloned
+ * a few times as the operators of a chain would do. Since clones share their attribute statistics,
+ * transformations and nominal values until they are modified, a clone costs about the same on
+ * every level. The time of giving a clone its own nominal mapping and modifying it, which copies
+ * the shared values of this mapping, is reported separately.
+ * 
+ * Run the main method with the optional arguments: number of examples, number of attributes,
+ * depth of the view stack.
+ */
+public class ExampleSetCloneBenchmark {
+
+	private static final int CLONES_PER_LEVEL = 5;
+
+	private static final int REPETITIONS = 20;
+
+	public static void main(String[] args) throws UserError {
+		int examples = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		int attributes = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+		int depth = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+		TestContext.get().initRapidMiner();
+		ExampleSet exampleSet = createExampleSet(examples, attributes);
+		System.out.println("examples: " + examples + ", attributes: " + attributes + " (70% nominal), depth: " + depth);
+
+		// warm up
+		for (int i = 0; i < 3; i++) {
+			buildChain(exampleSet, depth, null);
+		}
+
+		long[] levelTimes = new long[depth];
+		long total = 0;
+		for (int r = 0; r < REPETITIONS; r++) {
+			long start = System.nanoTime();
+			ExampleSet deepest = buildChain(exampleSet, depth, levelTimes);
+			total += System.nanoTime() - start;
+			if (deepest.size() == 0) {
+				System.out.println("empty");
+			}
+		}
+		for (int level = 0; level < depth; level++) {
+			System.out.printf("level %2d: %8.1f us per clone%n", level + 1, levelTimes[level] / 1000d / REPETITIONS / CLONES_PER_LEVEL);
+		}
+		System.out.printf("chain:    %8.1f ms%n", total / 1e6 / REPETITIONS);
+
+		ExampleSet deepest = buildChain(exampleSet, depth, null);
+		Attribute nominal = deepest.getAttributes().get("att0");
+		long start = System.nanoTime();
+		for (int r = 0; r < REPETITIONS; r++) {
+			ExampleSet clone = (ExampleSet) deepest.clone();
+			Attribute attribute = clone.getAttributes().get("att0");
+			attribute.setMapping(attribute.getMapping());
+			attribute.getMapping().mapString("new value " + r);
+		}
+		System.out.printf("clone and modify a copy of a mapping of %d values: %8.1f us%n", nominal.getMapping().size(), (System.nanoTime() - start) / 1000d / REPETITIONS);
+	}
+
+	private static ExampleSet buildChain(ExampleSet exampleSet, int depth, long[] levelTimes) throws UserError {
+		Random random = new Random(2001);
+		ExampleSet current = exampleSet;
+		for (int level = 0; level < depth; level++) {
+			int[] mapping = new int[current.size()];
+			for (int i = 0; i < mapping.length; i++) {
+				mapping[i] = random.nextInt(current.size());
+			}
+			SplittedExampleSet folds = new SplittedExampleSet(new MappedExampleSet(current, mapping, true, true), 10, SplittedExampleSet.SHUFFLED_SAMPLING, true, level);
+			folds.selectAllSubsetsBut(0);
+			current = folds;
+			long start = System.nanoTime();
+			for (int c = 0; c < CLONES_PER_LEVEL; c++) {
+				current = (ExampleSet) current.clone();
+			}
+			if (levelTimes != null) {
+				levelTimes[level] += System.nanoTime() - start;
+			}
+		}
+		return current;
+	}
+
+	private static ExampleSet createExampleSet(int examples, int numberOfAttributes) {
+		List<Attribute> attributes = new ArrayList<Attribute>();
+		for (int a = 0; a < numberOfAttributes; a++) {
+			attributes.add(AttributeFactory.createAttribute("att" + a, (a % 10) < 7 ? Ontology.NOMINAL : Ontology.REAL));
+		}
+		MemoryExampleTable table = new MemoryExampleTable(attributes);
+		Random random = new Random(2001);
+		for (int i = 0; i < examples; i++) {
+			double[] values = new double[numberOfAttributes];
+			for (int a = 0; a < numberOfAttributes; a++) {
+				Attribute attribute = attributes.get(a);
+				if (attribute.isNominal()) {
+					values[a] = attribute.getMapping().mapString("value" + random.nextInt(200));
+				} else {
+					values[a] = random.nextGaussian();
+				}
+			}
+			table.addDataRow(new DoubleArrayDataRow(values));
+		}
+		return table.createExampleSet();
+	}
+}
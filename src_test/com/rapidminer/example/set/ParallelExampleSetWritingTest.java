@@ -0,0 +1,140 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.example.set;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.rapidminer.example.Attribute;
+import com.rapidminer.example.ExampleSet;
+import com.rapidminer.example.table.AttributeFactory;
+import com.rapidminer.example.table.DoubleArrayDataRow;
+import com.rapidminer.example.table.MemoryExampleTable;
+import com.rapidminer.example.table.SparseFormatDataRowReader;
+import com.rapidminer.test.TestContext;
+import com.rapidminer.tools.Ontology;
+
+/**
+ * Checks that example sets are written identically with one and with several threads, for all
+ * value types, fraction digits and with compression.
+ */
+public class ParallelExampleSetWritingTest {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final int[] FRACTION_DIGITS = { -1, -2, 2 };
+
+	private static ExampleSet exampleSet;
+
+	private final List<File> files = new ArrayList<File>();
+
+	@BeforeClass
+	public static void createExampleSet() {
+		TestContext.get().initRapidMiner();
+		List<Attribute> attributes = new ArrayList<Attribute>();
+		attributes.add(AttributeFactory.createAttribute("real", Ontology.REAL));
+		attributes.add(AttributeFactory.createAttribute("integer", Ontology.INTEGER));
+		attributes.add(AttributeFactory.createAttribute("date_time", Ontology.DATE_TIME));
+		attributes.add(AttributeFactory.createAttribute("date", Ontology.DATE));
+		Attribute nominal = AttributeFactory.createAttribute("nominal", Ontology.NOMINAL);
+		attributes.add(nominal);
+		MemoryExampleTable table = new MemoryExampleTable(attributes);
+		Random random = new Random(2001);
+		for (int i = 0; i < 5000; i++) {
+			table.addDataRow(new DoubleArrayDataRow(new double[] {
+					random.nextInt(10) == 0 ? Double.NaN : random.nextGaussian() * 1000,
+					random.nextInt(5) == 0 ? 0 : random.nextInt(100),
+					1.4e12 + random.nextInt(1000000000),
+					1.4e12 + random.nextInt(1000000000),
+					nominal.getMapping().mapString("value \"" + random.nextInt(30) + "\"") }));
+		}
+		exampleSet = table.createExampleSet();
+	}
+
+	@After
+	public void deleteFiles() {
+		for (File file : files) {
+			file.delete();
+		}
+	}
+
+	private File createFile() throws IOException {
+		File file = File.createTempFile("parallel", ".dat");
+		files.add(file);
+		return file;
+	}
+
+	private static byte[] read(File file) throws IOException {
+		InputStream in = new FileInputStream(file);
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			int length;
+			while ((length = in.read(buffer)) != -1) {
+				out.write(buffer, 0, length);
+			}
+			return out.toByteArray();
+		} finally {
+			in.close();
+		}
+	}
+
+	@Test
+	public void testDataFile() throws IOException {
+		for (int digits : FRACTION_DIGITS) {
+			for (boolean zipped : new boolean[] { false, true }) {
+				File sequential = createFile();
+				File parallel = createFile();
+				exampleSet.writeDataFile(sequential, digits, true, zipped, false, UTF8, 1);
+				exampleSet.writeDataFile(parallel, digits, true, zipped, false, UTF8, 4);
+				assertArrayEquals("digits " + digits + ", zipped " + zipped, read(sequential), read(parallel));
+			}
+		}
+	}
+
+	@Test
+	public void testSparseDataFile() throws IOException {
+		for (int digits : FRACTION_DIGITS) {
+			for (int format : new int[] { SparseFormatDataRowReader.FORMAT_XY, SparseFormatDataRowReader.FORMAT_NO_LABEL }) {
+				File sequential = createFile();
+				File parallel = createFile();
+				exampleSet.writeSparseDataFile(sequential, format, digits, true, false, false, UTF8, 1);
+				exampleSet.writeSparseDataFile(parallel, format, digits, true, false, false, UTF8, 4);
+				assertArrayEquals("digits " + digits + ", format " + format, read(sequential), read(parallel));
+			}
+		}
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.example.set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.rapidminer.RapidMiner;
+import com.rapidminer.example.Attribute;
+import com.rapidminer.example.ExampleSet;
+import com.rapidminer.example.Statistics;
+import com.rapidminer.example.table.AbstractAttribute;
+import com.rapidminer.example.table.AttributeFactory;
+import com.rapidminer.example.table.DoubleArrayDataRow;
+import com.rapidminer.example.table.MemoryExampleTable;
+import com.rapidminer.test.TestContext;
+import com.rapidminer.tools.Ontology;
+import com.rapidminer.tools.ParameterService;
+
+/**
+ * Checks the recalculation of attribute statistics: counting in parallel delivers the same
+ * statistics as counting sequentially, only changed attributes are recalculated, and the
+ * statistics registered at attributes stay shared with their clones.
+ */
+public class StatisticsRecalculationTest {
+
+	private static final int EXAMPLES = 50000;
+
+	private static final double DELTA = 1e-9;
+
+	@BeforeClass
+	public static void init() {
+		TestContext.get().initRapidMiner();
+	}
+
+	@After
+	public void resetThreads() {
+		ParameterService.setParameterValue(RapidMiner.PROPERTY_RAPIDMINER_GENERAL_NUMBER_OF_THREADS, "0");
+	}
+
+	@Test
+	public void testParallelCountingEqualsSequentialCounting() {
+		ExampleSet exampleSet = createExampleSet();
+		ParameterService.setParameterValue(RapidMiner.PROPERTY_RAPIDMINER_GENERAL_NUMBER_OF_THREADS, "1");
+		ExampleSet sequential = (ExampleSet) exampleSet.clone();
+		sequential.recalculateAllAttributeStatistics();
+		ParameterService.setParameterValue(RapidMiner.PROPERTY_RAPIDMINER_GENERAL_NUMBER_OF_THREADS, "4");
+		ExampleSet parallel = (ExampleSet) exampleSet.clone();
+		parallel.recalculateAllAttributeStatistics();
+
+		for (Attribute attribute : exampleSet.getAttributes()) {
+			for (String name : new String[] { Statistics.AVERAGE, Statistics.VARIANCE, Statistics.MINIMUM, Statistics.MAXIMUM, Statistics.UNKNOWN }) {
+				assertEquals(attribute.getName() + " " + name, sequential.getStatistics(attribute, name), parallel.getStatistics(attribute, name), DELTA);
+			}
+		}
+	}
+
+	@Test
+	public void testChangedValuesAreRecalculated() {
+		ExampleSet exampleSet = createExampleSet();
+		Attribute attribute = exampleSet.getAttributes().get("a0");
+		exampleSet.recalculateAllAttributeStatistics();
+		assertEquals(EXAMPLES - 1, exampleSet.getStatistics(attribute, Statistics.MAXIMUM), DELTA);
+
+		exampleSet.getExample(3).setValue(attribute, 1e6);
+		exampleSet.recalculateAllAttributeStatistics();
+		assertEquals(1e6, exampleSet.getStatistics(attribute, Statistics.MAXIMUM), DELTA);
+	}
+
+	@Test
+	public void testRecalculationKeepsStatisticsShared() {
+		ExampleSet exampleSet = createExampleSet();
+		ExampleSet clone = (ExampleSet) exampleSet.clone();
+		clone.recalculateAllAttributeStatistics();
+		for (Attribute attribute : exampleSet.getAttributes()) {
+			Iterator<Statistics> original = ((AbstractAttribute) attribute).getRegisteredStatistics();
+			Iterator<Statistics> cloned = ((AbstractAttribute) clone.getAttributes().get(attribute.getName())).getRegisteredStatistics();
+			while (original.hasNext()) {
+				assertSame(original.next(), cloned.next());
+			}
+		}
+	}
+
+	private static ExampleSet createExampleSet() {
+		List<Attribute> attributes = new ArrayList<Attribute>();
+		attributes.add(AttributeFactory.createAttribute("a0", Ontology.REAL));
+		attributes.add(AttributeFactory.createAttribute("a1", Ontology.REAL));
+		attributes.add(AttributeFactory.createAttribute("a2", Ontology.NOMINAL));
+		MemoryExampleTable table = new MemoryExampleTable(attributes);
+		Random random = new Random(31);
+		for (int i = 0; i < EXAMPLES; i++) {
+			double[] values = new double[] {
+					i,
+					random.nextInt(20) == 0 ? Double.NaN : random.nextGaussian() * 100,
+					attributes.get(2).getMapping().mapString("v" + random.nextInt(10)) };
+			table.addDataRow(new DoubleArrayDataRow(values));
+		}
+		return table.createExampleSet();
+	}
+}
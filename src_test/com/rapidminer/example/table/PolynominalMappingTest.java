@@ -0,0 +1,81 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.example.table;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Checks that clones of a {@link PolynominalMapping} share their values only until one of both
+ * is modified and that the list returned by {@link PolynominalMapping#getValues()} stays valid
+ * after the shared values were copied.
+ */
+public class PolynominalMappingTest {
+
+	private static PolynominalMapping createMapping() {
+		PolynominalMapping mapping = new PolynominalMapping();
+		mapping.mapString("a");
+		mapping.mapString("b");
+		return mapping;
+	}
+
+	@Test
+	public void testClonesAreIndependent() {
+		PolynominalMapping mapping = createMapping();
+		PolynominalMapping clone = (PolynominalMapping) mapping.clone();
+		clone.mapString("c");
+		mapping.setMapping("x", 0);
+		assertEquals(2, mapping.size());
+		assertEquals("x", mapping.mapIndex(0));
+		assertEquals(3, clone.size());
+		assertEquals("a", clone.mapIndex(0));
+		assertEquals("c", clone.mapIndex(2));
+	}
+
+	@Test
+	public void testValuesReflectCurrentMapping() {
+		PolynominalMapping mapping = createMapping();
+		List<String> values = mapping.getValues();
+		PolynominalMapping clone = (PolynominalMapping) mapping.clone();
+		mapping.mapString("c");
+		assertEquals(3, values.size());
+		assertEquals("c", values.get(2));
+		assertEquals(2, clone.getValues().size());
+	}
+
+	@Test
+	public void testModifyingValuesKeepsClonesUnchanged() {
+		PolynominalMapping mapping = createMapping();
+		PolynominalMapping clone = (PolynominalMapping) mapping.clone();
+		List<String> values = mapping.getValues();
+		values.clear();
+		values.add("z");
+		assertEquals(1, mapping.getValues().size());
+		assertEquals("z", mapping.getValues().get(0));
+		assertEquals(2, clone.size());
+		assertEquals("a", clone.mapIndex(0));
+	}
+}
@@ -0,0 +1,170 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.example.table;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.rapidminer.example.Attribute;
+import com.rapidminer.example.Example;
+import com.rapidminer.example.ExampleSet;
+import com.rapidminer.tools.Ontology;
+
+/**
+ * Compares a {@link SparseExampleTable} with a {@link MemoryExampleTable} holding the same data,
+ * also after modifications which move rows within the shared arrays and after adding and
+ * removing attributes.
+ */
+public class SparseExampleTableTest {
+
+	private static final int EXAMPLES = 500;
+
+	private static final int ATTRIBUTES = 40;
+
+	private static List<Attribute> createAttributes() {
+		List<Attribute> attributes = new ArrayList<Attribute>();
+		for (int a = 0; a < ATTRIBUTES; a++) {
+			attributes.add(AttributeFactory.createAttribute("att" + a, Ontology.REAL));
+		}
+		return attributes;
+	}
+
+	private static MemoryExampleTable createDenseTable(List<Attribute> attributes, Random random) {
+		MemoryExampleTable table = new MemoryExampleTable(attributes);
+		for (int i = 0; i < EXAMPLES; i++) {
+			double[] values = new double[attributes.size()];
+			for (int a = 0; a < values.length; a++) {
+				values[a] = random.nextInt(10) < 3 ? random.nextInt(100) - 50 : 0;
+			}
+			table.addDataRow(new DoubleArrayDataRow(values));
+		}
+		return table;
+	}
+
+	/** Compares all values and checks that the rows only store non-default values in ascending column order. */
+	private static void assertSameValues(ExampleSet expected, ExampleSet actual, SparseExampleTable table) {
+		assertEquals(expected.size(), actual.size());
+		Attribute[] expectedAttributes = expected.getAttributes().createRegularAttributeArray();
+		Attribute[] actualAttributes = actual.getAttributes().createRegularAttributeArray();
+		assertEquals(expectedAttributes.length, actualAttributes.length);
+		for (int i = 0; i < expected.size(); i++) {
+			Example expectedExample = expected.getExample(i);
+			Example actualExample = actual.getExample(i);
+			for (int a = 0; a < expectedAttributes.length; a++) {
+				assertEquals(expectedExample.getValue(expectedAttributes[a]), actualExample.getValue(actualAttributes[a]), 0);
+			}
+			int[] indices = table.getColumnIndices();
+			double[] values = table.getValues();
+			for (int position = table.getRowStart(i); position < table.getRowEnd(i); position++) {
+				assertTrue(values[position] != 0);
+				if (position > table.getRowStart(i)) {
+					assertTrue(indices[position - 1] < indices[position]);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testCopy() {
+		List<Attribute> attributes = createAttributes();
+		MemoryExampleTable dense = createDenseTable(attributes, new Random(2001));
+		SparseExampleTable sparse = SparseExampleTable.createCompleteCopy(dense);
+		assertSameValues(dense.createExampleSet(), sparse.createExampleSet(), sparse);
+
+		SparseDataRow row = (SparseDataRow) sparse.getDataRow(7);
+		int[] indices = row.getNonDefaultIndices();
+		double[] values = row.getNonDefaultValues();
+		DataRow denseRow = dense.getDataRow(7);
+		int nonDefault = 0;
+		for (Attribute attribute : attributes) {
+			if (denseRow.get(attribute) != 0) {
+				assertEquals(attribute.getTableIndex(), indices[nonDefault]);
+				assertEquals(denseRow.get(attribute), values[nonDefault], 0);
+				nonDefault++;
+			}
+		}
+		assertEquals(nonDefault, indices.length);
+	}
+
+	@Test
+	public void testModifications() {
+		Random random = new Random(2001);
+		List<Attribute> attributes = createAttributes();
+		MemoryExampleTable dense = createDenseTable(attributes, random);
+		SparseExampleTable sparse = SparseExampleTable.createCompleteCopy(dense);
+		ExampleSet denseSet = dense.createExampleSet();
+		ExampleSet sparseSet = sparse.createExampleSet();
+		Attribute[] denseAttributes = denseSet.getAttributes().createRegularAttributeArray();
+		Attribute[] sparseAttributes = sparseSet.getAttributes().createRegularAttributeArray();
+		// enough modifications to move rows repeatedly and to remove the gaps
+		for (int m = 0; m < 20000; m++) {
+			int example = random.nextInt(EXAMPLES);
+			int attribute = random.nextInt(ATTRIBUTES);
+			double value = random.nextBoolean() ? 0 : random.nextInt(100) + 1;
+			denseSet.getExample(example).setValue(denseAttributes[attribute], value);
+			sparseSet.getExample(example).setValue(sparseAttributes[attribute], value);
+		}
+		assertSameValues(denseSet, sparseSet, sparse);
+	}
+
+	@Test
+	public void testAddAndRemoveAttributes() {
+		Random random = new Random(2001);
+		List<Attribute> attributes = createAttributes();
+		MemoryExampleTable dense = createDenseTable(attributes, random);
+		SparseExampleTable sparse = SparseExampleTable.createCompleteCopy(dense);
+		ExampleSet denseSet = dense.createExampleSet();
+		ExampleSet sparseSet = sparse.createExampleSet();
+
+		// an attribute added later is stored densely
+		Attribute densePrediction = AttributeFactory.createAttribute("prediction", Ontology.REAL);
+		Attribute sparsePrediction = AttributeFactory.createAttribute("prediction", Ontology.REAL);
+		dense.addAttribute(densePrediction);
+		sparse.addAttribute(sparsePrediction);
+		denseSet.getAttributes().addRegular(densePrediction);
+		sparseSet.getAttributes().addRegular(sparsePrediction);
+		for (int i = 0; i < EXAMPLES; i += 3) {
+			denseSet.getExample(i).setValue(densePrediction, i);
+			sparseSet.getExample(i).setValue(sparsePrediction, i);
+		}
+		assertSameValues(denseSet, sparseSet, sparse);
+
+		// removing a sparse column leaves the other columns unchanged
+		Attribute removed = sparseSet.getAttributes().get("att5");
+		sparseSet.getAttributes().remove(removed);
+		sparse.removeAttribute(removed);
+		denseSet.getAttributes().remove(denseSet.getAttributes().get("att5"));
+		assertSameValues(denseSet, sparseSet, sparse);
+		for (int i = 0; i < EXAMPLES; i++) {
+			for (int position = sparse.getRowStart(i); position < sparse.getRowEnd(i); position++) {
+				assertTrue(sparse.getColumnIndices()[position] != removed.getTableIndex());
+			}
+		}
+	}
+}
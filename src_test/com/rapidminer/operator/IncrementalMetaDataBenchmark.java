@@ -0,0 +1,178 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.operator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.rapidminer.Process;
+import com.rapidminer.RapidMiner;
+import com.rapidminer.operator.ports.InputPort;
+import com.rapidminer.operator.ports.OutputPort;
+import com.rapidminer.operator.ports.Port;
+import com.rapidminer.test.TestContext;
+import com.rapidminer.tools.OperatorService;
+import com.rapidminer.tools.ParameterService;
+
+/**
+ * Compares the incremental meta data transformation with the full transformation of a large
+ * synthetic process: a wide generated example set passes a long chain of attribute selections
+ * and a cross validation whose training subprocess contains another chain of selections. After
+ * each typical edit, the time of {@link Operator#checkAll()} is measured with and without
+ * incremental propagation, and the meta data and errors delivered by both are compared.
+ * 
+ * Run the main method with the optional arguments: number of attributes, number of operators
+ * in the main chain, number of operators in the training subprocess.
+ */
+public class IncrementalMetaDataBenchmark {
+
+	public static void main(String[] args) throws OperatorCreationException {
+		int attributes = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		int operators = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+		int innerOperators = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+
+		TestContext.get().initRapidMiner();
+		Process process = new Process();
+		ExecutionUnit root = process.getRootOperator().getSubprocess(0);
+		Operator generator = OperatorService.createOperator("generate_data");
+		generator.setParameter("number_of_attributes", Integer.toString(attributes));
+		root.addOperator(generator);
+		List<Operator> chain = new ArrayList<Operator>();
+		OutputPort last = addSelections(root, generator.getOutputPorts().getPortByIndex(0), operators, chain);
+
+		OperatorChain validation = (OperatorChain) OperatorService.createOperator("x_validation");
+		root.addOperator(validation);
+		connect(last, validation.getInputPorts().getPortByIndex(0));
+		ExecutionUnit training = validation.getSubprocess(0);
+		ExecutionUnit testing = validation.getSubprocess(1);
+		List<Operator> inner = new ArrayList<Operator>();
+		last = addSelections(training, training.getInnerSources().getPortByIndex(0), innerOperators, inner);
+		Operator learner = OperatorService.createOperator("decision_tree");
+		training.addOperator(learner);
+		connect(last, learner.getInputPorts().getPortByIndex(0));
+		connect(learner.getOutputPorts().getPortByIndex(0), training.getInnerSinks().getPortByIndex(0));
+		Operator applier = OperatorService.createOperator("apply_model");
+		Operator performance = OperatorService.createOperator("performance");
+		testing.addOperator(applier);
+		testing.addOperator(performance);
+		connect(testing.getInnerSources().getPortByIndex(0), applier.getInputPorts().getPortByIndex(0));
+		connect(testing.getInnerSources().getPortByIndex(1), applier.getInputPorts().getPortByIndex(1));
+		connect(applier.getOutputPorts().getPortByIndex(0), performance.getInputPorts().getPortByIndex(0));
+		connect(performance.getOutputPorts().getPortByIndex(0), testing.getInnerSinks().getPortByIndex(0));
+		connect(validation.getOutputPorts().getPortByIndex(1), root.getInnerSinks().getPortByIndex(0));
+
+		System.out.println("attributes: " + attributes + ", operators: " + (operators + innerOperators + 6));
+		System.out.printf("%-36s %12s %12s  %s%n", "edit", "incremental", "full", "equal");
+		compare("initial", process);
+		compare("no change", process);
+
+		chain.get(operators * 5 / 6).setParameter("attribute_filter_type", "single");
+		chain.get(operators * 5 / 6).setParameter("attribute", "att1");
+		compare("parameter near the end", process);
+
+		Operator innerSelection = inner.get(innerOperators * 4 / 5);
+		innerSelection.setParameter("attribute_filter_type", "single");
+		innerSelection.setParameter("attribute", "att2");
+		compare("parameter inside the validation", process);
+
+		innerSelection.setParameter("attribute", "label_missing");
+		compare("parameter causing an error", process);
+
+		innerSelection.setEnabled(false);
+		compare("disable operator", process);
+		innerSelection.setEnabled(true);
+
+		Operator early = chain.get(operators / 30);
+		early.getOutputPorts().getPortByIndex(0).disconnect();
+		compare("disconnect at the beginning", process);
+		connect(early.getOutputPorts().getPortByIndex(0), chain.get(operators / 30 + 1).getInputPorts().getPortByIndex(0));
+		compare("reconnect", process);
+
+		learner.remove();
+		compare("remove learner", process);
+	}
+
+	/** Appends the given number of attribute selections to the port and returns the last output. */
+	private static OutputPort addSelections(ExecutionUnit unit, OutputPort port, int number, List<Operator> selections) throws OperatorCreationException {
+		OutputPort last = port;
+		for (int i = 0; i < number; i++) {
+			Operator selection = OperatorService.createOperator("select_attributes");
+			unit.addOperator(selection);
+			connect(last, selection.getInputPorts().getPortByIndex(0));
+			last = selection.getOutputPorts().getPortByIndex(0);
+			selections.add(selection);
+		}
+		return last;
+	}
+
+	private static void connect(OutputPort out, InputPort in) {
+		out.connectTo(in);
+	}
+
+	/** Measures the incremental and the full transformation, which starts from cleared meta data. */
+	private static void compare(String edit, Process process) {
+		long incremental = check(process, true);
+		String incrementalResult = describe(process);
+		long full = check(process, false);
+		String fullResult = describe(process);
+		System.out.printf("%-36s %9.1f ms %9.1f ms  %s%n", edit, incremental / 1e6, full / 1e6, incrementalResult.equals(fullResult));
+		// the next incremental transformation should only see the next edit
+		check(process, true);
+	}
+
+	private static long check(Process process, boolean incremental) {
+		ParameterService.setParameterValue(RapidMiner.PROPERTY_RAPIDMINER_GENERAL_INCREMENTAL_META_DATA, Boolean.toString(incremental));
+		if (!incremental) {
+			process.getRootOperator().clear(Port.CLEAR_METADATA);
+		}
+		long start = System.nanoTime();
+		process.getRootOperator().checkAll();
+		return System.nanoTime() - start;
+	}
+
+	/** Describes the meta data and the numbers of errors of all ports and operators. */
+	private static String describe(Process process) {
+		StringBuilder result = new StringBuilder();
+		for (Operator operator : process.getRootOperator().getAllInnerOperatorsAndMe()) {
+			result.append(operator.getName()).append(": ").append(operator.getErrorList().size()).append('\n');
+			describe(operator.getInputPorts().getAllPorts(), result);
+			describe(operator.getOutputPorts().getAllPorts(), result);
+			if (operator instanceof OperatorChain) {
+				for (ExecutionUnit unit : ((OperatorChain) operator).getSubprocesses()) {
+					describe(unit.getInnerSources().getAllPorts(), result);
+					describe(unit.getInnerSinks().getAllPorts(), result);
+				}
+			}
+		}
+		return result.toString();
+	}
+
+	private static void describe(List<? extends Port> ports, StringBuilder result) {
+		for (Port port : ports) {
+			result.append(port.getName()).append(' ');
+			// the descriptions of wide example sets are too large to keep them for all ports
+			result.append(port.getMetaData() == null ? "null" : port.getMetaData().getDescription().hashCode());
+			result.append(' ').append(port.getErrors().size()).append('\n');
+		}
+	}
+}
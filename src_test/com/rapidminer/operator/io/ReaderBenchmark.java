@@ -0,0 +1,247 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.operator.io;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StreamTokenizer;
+import java.nio.charset.Charset;
+import java.util.Locale;
+import java.util.Random;
+import java.util.StringTokenizer;
+
+import com.rapidminer.example.ExampleSet;
+import com.rapidminer.operator.OperatorCreationException;
+import com.rapidminer.operator.OperatorException;
+import com.rapidminer.test.TestContext;
+import com.rapidminer.tools.ConcurrencyTools;
+import com.rapidminer.tools.OperatorService;
+import com.rapidminer.tools.io.ByteTokenizer;
+
+/**
+ * Compares the previous and the current way of reading ARFF and sparse files on generated files.
+ * The previous readers are not part of the code any more, so their parsing is reproduced here:
+ * a {@link StreamTokenizer} with {@link Double#parseDouble(String)} for ARFF files, and
+ * {@link BufferedReader#readLine()}, {@link StringTokenizer} and substrings for sparse files.
+ * These are compared with a {@link ByteTokenizer} and with the complete operators, the sparse
+ * reader with and without parallel parsing.
+ * 
+ * Run the main method with the optional arguments: number of examples, number of attributes.
+ */
+public class ReaderBenchmark {
+
+	private static final int REPETITIONS = 5;
+
+	public static void main(String[] args) throws IOException, OperatorException, OperatorCreationException {
+		int examples = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+		int attributes = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+		TestContext.get().initRapidMiner();
+		File arffFile = File.createTempFile("benchmark", ".arff");
+		File sparseFile = File.createTempFile("benchmark", ".sparse");
+		try {
+			writeFiles(arffFile, sparseFile, examples, attributes);
+			System.out.println("examples: " + examples + ", attributes: " + attributes + ", ARFF file: " + arffFile.length() / 1024 + " KB, sparse file: " + sparseFile.length() / 1024 + " KB, threads: " + ConcurrencyTools.getNumberOfThreads());
+
+			ArffExampleSource arffSource = OperatorService.createOperator(ArffExampleSource.class);
+			arffSource.setParameter(ArffExampleSource.PARAMETER_DATA_FILE, arffFile.getAbsolutePath());
+			SparseFormatExampleSource sparseSource = OperatorService.createOperator(SparseFormatExampleSource.class);
+			sparseSource.setParameter(SparseFormatExampleSource.PARAMETER_DATA_FILE, sparseFile.getAbsolutePath());
+			sparseSource.setParameter(SparseFormatExampleSource.PARAMETER_DIMENSION, Integer.toString(attributes));
+			sparseSource.setParameter(SparseFormatExampleSource.PARAMETER_USE_QUOTES, "false");
+
+			for (int run = 0; run < 2; run++) {
+				// the first run warms up
+				boolean print = run == 1;
+				measure("ARFF, StreamTokenizer", print, tokenizeArffWithStreamTokenizer(arffFile));
+				measure("ARFF, ByteTokenizer", print, tokenizeArffWithByteTokenizer(arffFile));
+				measure("ARFF, operator", print, readWithOperator(arffSource));
+				measure("sparse, readLine and StringTokenizer", print, tokenizeSparseWithStringTokenizer(sparseFile));
+				sparseSource.setParameter(SparseFormatExampleSource.PARAMETER_PARALLELIZE_PARSING, "false");
+				measure("sparse, operator", print, readWithOperator(sparseSource));
+				sparseSource.setParameter(SparseFormatExampleSource.PARAMETER_PARALLELIZE_PARSING, "true");
+				measure("sparse, operator with parallel parsing", print, readWithOperator(sparseSource));
+			}
+		} finally {
+			arffFile.delete();
+			sparseFile.delete();
+		}
+	}
+
+	private static interface Task {
+
+		/** Returns a checksum so that the work cannot be optimized away. */
+		public double run() throws Exception;
+	}
+
+	private static void measure(String name, boolean print, Task task) {
+		long best = Long.MAX_VALUE;
+		double checksum = 0;
+		for (int r = 0; r < REPETITIONS; r++) {
+			long start = System.nanoTime();
+			try {
+				checksum = task.run();
+			} catch (Exception e) {
+				throw new RuntimeException(name + " failed: " + e, e);
+			}
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		if (print) {
+			System.out.printf("%-40s %8.1f ms (checksum %.6g)%n", name, best / 1e6, checksum);
+		}
+	}
+
+	private static void writeFiles(File arffFile, File sparseFile, int examples, int attributes) throws IOException {
+		Random random = new Random(2001);
+		PrintWriter arff = new PrintWriter(arffFile, "UTF-8");
+		PrintWriter sparse = new PrintWriter(sparseFile, "UTF-8");
+		try {
+			arff.println("@relation benchmark");
+			for (int a = 0; a < attributes; a++) {
+				arff.println("@attribute a" + a + " numeric");
+			}
+			arff.println("@attribute label {positive, negative, 'not sure'}");
+			arff.println("@data");
+			for (int i = 0; i < examples; i++) {
+				String label = random.nextBoolean() ? "positive" : (random.nextBoolean() ? "negative" : "'not sure'");
+				StringBuilder sparseLine = new StringBuilder(label.startsWith("'") ? "unsure" : label);
+				for (int a = 0; a < attributes; a++) {
+					double value = random.nextInt(5) == 0 ? 0 : Math.round(random.nextGaussian() * 100000) / 1000d;
+					arff.print(String.format(Locale.US, "%s,", value));
+					if (value != 0) {
+						sparseLine.append(' ').append(a + 1).append(':').append(value);
+					}
+				}
+				arff.println(label);
+				sparse.println(sparseLine);
+			}
+		} finally {
+			arff.close();
+			sparse.close();
+		}
+	}
+
+	private static Task tokenizeArffWithStreamTokenizer(final File file) {
+		return new Task() {
+
+			@Override
+			public double run() throws IOException {
+				BufferedReader in = new BufferedReader(new FileReader(file));
+				try {
+					StreamTokenizer tokenizer = new StreamTokenizer(in);
+					tokenizer.resetSyntax();
+					tokenizer.whitespaceChars(0, ' ');
+					tokenizer.wordChars(' ' + 1, 'ÿ');
+					tokenizer.whitespaceChars(',', ',');
+					tokenizer.commentChar('%');
+					tokenizer.quoteChar('"');
+					tokenizer.quoteChar('\'');
+					tokenizer.ordinaryChar('{');
+					tokenizer.ordinaryChar('}');
+					tokenizer.eolIsSignificant(true);
+					double sum = 0;
+					while (tokenizer.nextToken() != StreamTokenizer.TT_EOF) {
+						if (tokenizer.ttype == StreamTokenizer.TT_WORD && isNumber(tokenizer.sval.charAt(0))) {
+							sum += Double.parseDouble(tokenizer.sval);
+						}
+					}
+					return sum;
+				} finally {
+					in.close();
+				}
+			}
+		};
+	}
+
+	private static Task tokenizeArffWithByteTokenizer(final File file) {
+		return new Task() {
+
+			@Override
+			public double run() throws IOException {
+				ByteTokenizer tokenizer = new ByteTokenizer(new FileInputStream(file), Charset.forName("UTF-8"));
+				try {
+					tokenizer.whitespaceChar(',');
+					tokenizer.commentChar('%');
+					tokenizer.quoteChar('"');
+					tokenizer.quoteChar('\'');
+					tokenizer.ordinaryChar('{');
+					tokenizer.ordinaryChar('}');
+					double sum = 0;
+					while (tokenizer.nextToken() != ByteTokenizer.TT_EOF) {
+						if (tokenizer.ttype == ByteTokenizer.TT_WORD && isNumber(tokenizer.getTokenBytes()[0])) {
+							sum += tokenizer.getDouble();
+						}
+					}
+					return sum;
+				} finally {
+					tokenizer.close();
+				}
+			}
+		};
+	}
+
+	private static Task tokenizeSparseWithStringTokenizer(final File file) {
+		return new Task() {
+
+			@Override
+			public double run() throws IOException {
+				BufferedReader in = new BufferedReader(new FileReader(file));
+				try {
+					double sum = 0;
+					String line;
+					while ((line = in.readLine()) != null) {
+						StringTokenizer tokenizer = new StringTokenizer(line);
+						// the label
+						tokenizer.nextToken();
+						while (tokenizer.hasMoreTokens()) {
+							String token = tokenizer.nextToken();
+							int colon = token.indexOf(':');
+							sum += Integer.parseInt(token.substring(0, colon)) + Double.parseDouble(token.substring(colon + 1));
+						}
+					}
+					return sum;
+				} finally {
+					in.close();
+				}
+			}
+		};
+	}
+
+	private static Task readWithOperator(final AbstractReader<ExampleSet> reader) {
+		return new Task() {
+
+			@Override
+			public double run() throws OperatorException {
+				return reader.read().size();
+			}
+		};
+	}
+
+	private static boolean isNumber(int c) {
+		return c == '-' || (c >= '0' && c <= '9');
+	}
+}
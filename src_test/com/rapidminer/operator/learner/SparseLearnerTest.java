@@ -0,0 +1,234 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.operator.learner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.rapidminer.example.Attribute;
+import com.rapidminer.example.AttributeTransformation;
+import com.rapidminer.example.Example;
+import com.rapidminer.example.ExampleSet;
+import com.rapidminer.example.FastExample2SparseTransform;
+import com.rapidminer.example.Statistics;
+import com.rapidminer.example.table.AttributeFactory;
+import com.rapidminer.example.table.DoubleArrayDataRow;
+import com.rapidminer.example.table.MemoryExampleTable;
+import com.rapidminer.example.table.SparseExampleTable;
+import com.rapidminer.operator.Model;
+import com.rapidminer.operator.learner.bayes.NaiveBayes;
+import com.rapidminer.operator.learner.functions.LogisticRegression;
+import com.rapidminer.operator.learner.lazy.KNNLearner;
+import com.rapidminer.operator.preprocessing.PreprocessingOperator;
+import com.rapidminer.operator.preprocessing.normalization.Normalization;
+import com.rapidminer.test.TestContext;
+import com.rapidminer.tools.Ontology;
+import com.rapidminer.tools.OperatorService;
+
+/**
+ * Checks that the learners which skip default values of sparse data deliver the same models as
+ * for dense data, also if the attributes transform the stored values, e.g. by a normalization.
+ */
+public class SparseLearnerTest {
+
+	private static final int EXAMPLES = 300;
+
+	private static final int ATTRIBUTES = 25;
+
+	private static final double DELTA = 1e-9;
+
+	@BeforeClass
+	public static void init() {
+		TestContext.get().initRapidMiner();
+	}
+
+	@Test
+	public void testNaiveBayes() throws Exception {
+		assertSameConfidences(NaiveBayes.class, false);
+	}
+
+	@Test
+	public void testNaiveBayesOnTransformedAttributes() throws Exception {
+		assertSameConfidences(NaiveBayes.class, true);
+	}
+
+	@Test
+	public void testLogisticRegression() throws Exception {
+		assertSameConfidences(LogisticRegression.class, false);
+	}
+
+	@Test
+	public void testLogisticRegressionOnTransformedAttributes() throws Exception {
+		assertSameConfidences(LogisticRegression.class, true);
+	}
+
+	@Test
+	public void testKNN() throws Exception {
+		assertSameConfidences(KNNLearner.class, false);
+	}
+
+	@Test
+	public void testKNNOnTransformedAttributes() throws Exception {
+		assertSameConfidences(KNNLearner.class, true);
+	}
+
+	@Test
+	public void testNaiveBayesOnNormalizeView() throws Exception {
+		ExampleSet dense = createNormalizeView(createExampleSet(false));
+		ExampleSet sparse = createNormalizeView(createExampleSet(true));
+		assertConfidencesEqual(getConfidences(NaiveBayes.class, dense), getConfidences(NaiveBayes.class, sparse));
+	}
+
+	@Test
+	public void testTransformedAttributesAreNotSparse() throws Exception {
+		ExampleSet sparse = createExampleSet(true);
+		assertTrue(FastExample2SparseTransform.isSparse(sparse));
+		assertFalse(FastExample2SparseTransform.isSparse(normalize(sparse)));
+	}
+
+	private void assertSameConfidences(Class<? extends AbstractLearner> learnerClass, boolean normalized) throws Exception {
+		ExampleSet dense = createExampleSet(false);
+		ExampleSet sparse = createExampleSet(true);
+		if (normalized) {
+			dense = normalize(dense);
+			sparse = normalize(sparse);
+			assertNotNull(sparse.getAttributes().iterator().next().getLastTransformation());
+		}
+		assertConfidencesEqual(getConfidences(learnerClass, dense), getConfidences(learnerClass, sparse));
+	}
+
+	private void assertConfidencesEqual(double[] expected, double[] actual) {
+		assertEquals(expected.length, actual.length);
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals("confidence of example " + i, expected[i], actual[i], DELTA);
+		}
+	}
+
+	private double[] getConfidences(Class<? extends AbstractLearner> learnerClass, ExampleSet exampleSet) throws Exception {
+		AbstractLearner learner = OperatorService.createOperator(learnerClass);
+		if (learner instanceof LogisticRegression) {
+			learner.setParameter("max_generations", "50");
+			learner.setParameter("use_local_random_seed", "true");
+		} else if (learner instanceof KNNLearner) {
+			learner.setParameter(KNNLearner.PARAMETER_K, "5");
+		}
+		Model model = learner.learn(exampleSet);
+		ExampleSet result = model.apply(exampleSet);
+		double[] confidences = new double[result.size()];
+		int i = 0;
+		for (Example example : result) {
+			confidences[i++] = example.getConfidence("positive");
+		}
+		return confidences;
+	}
+
+	/** Returns a copy of the example set whose regular attributes deliver z-transformed values. */
+	private ExampleSet normalize(ExampleSet exampleSet) {
+		ExampleSet result = (ExampleSet) exampleSet.clone();
+		result.recalculateAllAttributeStatistics();
+		for (Attribute attribute : result.getAttributes()) {
+			double average = result.getStatistics(attribute, Statistics.AVERAGE);
+			double standardDeviation = Math.sqrt(result.getStatistics(attribute, Statistics.VARIANCE));
+			attribute.addTransformation(new ZTransformation(average, standardDeviation));
+		}
+		return result;
+	}
+
+	/** Applies the Normalize operator with create_view, which replaces the attributes by view attributes. */
+	private ExampleSet createNormalizeView(ExampleSet exampleSet) throws Exception {
+		Normalization normalization = OperatorService.createOperator(Normalization.class);
+		normalization.setParameter(PreprocessingOperator.PARAMETER_CREATE_VIEW, "true");
+		return normalization.doWork(exampleSet);
+	}
+
+	/** Creates the same data with a dense or a sparse table. Most values are 0. */
+	private ExampleSet createExampleSet(boolean sparse) {
+		List<Attribute> attributes = new ArrayList<Attribute>();
+		for (int i = 0; i < ATTRIBUTES; i++) {
+			attributes.add(AttributeFactory.createAttribute("att" + i, Ontology.REAL));
+		}
+		Attribute label = AttributeFactory.createAttribute("label", Ontology.BINOMINAL);
+		label.getMapping().mapString("negative");
+		label.getMapping().mapString("positive");
+		attributes.add(label);
+		SparseExampleTable sparseTable = sparse ? new SparseExampleTable(attributes) : null;
+		MemoryExampleTable denseTable = sparse ? null : new MemoryExampleTable(attributes);
+		Random random = new Random(2014);
+		for (int e = 0; e < EXAMPLES; e++) {
+			double[] values = new double[ATTRIBUTES + 1];
+			int labelValue = random.nextInt(2);
+			for (int i = 0; i < ATTRIBUTES; i++) {
+				if (random.nextDouble() < 0.15) {
+					values[i] = 1 + random.nextInt(5) + (i % 2 == labelValue ? 2 : 0);
+				}
+			}
+			values[ATTRIBUTES] = labelValue;
+			if (sparse) {
+				sparseTable.addDataRow(new DoubleArrayDataRow(values));
+			} else {
+				denseTable.addDataRow(new DoubleArrayDataRow(values));
+			}
+		}
+		return sparse ? sparseTable.createExampleSet(label) : denseTable.createExampleSet(label);
+	}
+
+	private static class ZTransformation implements AttributeTransformation {
+
+		private static final long serialVersionUID = 1L;
+
+		private final double average;
+
+		private final double standardDeviation;
+
+		private ZTransformation(double average, double standardDeviation) {
+			this.average = average;
+			this.standardDeviation = standardDeviation;
+		}
+
+		@Override
+		public Object clone() {
+			return new ZTransformation(average, standardDeviation);
+		}
+
+		public double transform(Attribute attribute, double value) {
+			return (value - average) / standardDeviation;
+		}
+
+		public double inverseTransform(Attribute attribute, double value) {
+			return value * standardDeviation + average;
+		}
+
+		public boolean isReversable() {
+			return true;
+		}
+	}
+}
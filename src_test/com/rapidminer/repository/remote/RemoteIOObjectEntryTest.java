@@ -0,0 +1,206 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.repository.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.rapid_i.repository.wsimport.EntryResponse;
+import com.rapid_i.repository.wsimport.RepositoryService;
+import com.rapidminer.RapidMiner;
+import com.rapidminer.RapidMiner.ExecutionMode;
+import com.rapidminer.example.Attribute;
+import com.rapidminer.example.ExampleSet;
+import com.rapidminer.example.table.AttributeFactory;
+import com.rapidminer.example.table.DoubleArrayDataRow;
+import com.rapidminer.example.table.MemoryExampleTable;
+import com.rapidminer.operator.tools.IOObjectSerializer;
+import com.rapidminer.repository.RepositoryException;
+import com.rapidminer.test.TestContext;
+import com.rapidminer.tools.Ontology;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Retrieves objects from a stand-in for the HTTP resources of a RapidAnalytics server and checks
+ * that a revision is downloaded only once as long as it is kept by the {@link RemoteIOObjectCache}.
+ */
+public class RemoteIOObjectEntryTest {
+
+	private static final String PATH = "/home/test/data";
+
+	private static ExecutionMode previousMode;
+
+	private HttpServer server;
+
+	private final AtomicInteger downloads = new AtomicInteger();
+
+	private byte[] serializedObject;
+
+	private int revision = 1;
+
+	private TestRepository repository;
+
+	private RemoteIOObjectEntry entry;
+
+	/** A repository whose web service answers all entry requests with the current {@link #revision}. */
+	private class TestRepository extends RemoteRepository {
+
+		public TestRepository(URL baseUrl) {
+			super(baseUrl, "cache-test", "test", null, false);
+		}
+
+		@Override
+		public RepositoryService getRepositoryService() {
+			return (RepositoryService) Proxy.newProxyInstance(RepositoryService.class.getClassLoader(), new Class<?>[] { RepositoryService.class }, new InvocationHandler() {
+
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args) {
+					if (method.getName().equals("getEntry")) {
+						return createResponse();
+					}
+					throw new UnsupportedOperationException(method.getName());
+				}
+			});
+		}
+
+		@Override
+		protected boolean checkConnectionWithIOExpcetion() {
+			return true;
+		}
+	}
+
+	@BeforeClass
+	public static void init() {
+		TestContext.get().initRapidMiner();
+		// the cache is only used if the file system can be accessed
+		previousMode = RapidMiner.getExecutionMode();
+		RapidMiner.setExecutionMode(ExecutionMode.COMMAND_LINE);
+	}
+
+	@AfterClass
+	public static void restore() {
+		RapidMiner.setExecutionMode(previousMode);
+	}
+
+	@Before
+	public void startServer() throws IOException {
+		List<Attribute> attributes = new ArrayList<Attribute>();
+		attributes.add(AttributeFactory.createAttribute("value", Ontology.REAL));
+		MemoryExampleTable table = new MemoryExampleTable(attributes);
+		for (int i = 0; i < 100; i++) {
+			table.addDataRow(new DoubleArrayDataRow(new double[] { i }));
+		}
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		IOObjectSerializer.getInstance().serialize(buffer, table.createExampleSet());
+		serializedObject = buffer.toByteArray();
+
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/RAWS/resources" + PATH, new HttpHandler() {
+
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				downloads.incrementAndGet();
+				exchange.sendResponseHeaders(200, serializedObject.length);
+				OutputStream out = exchange.getResponseBody();
+				out.write(serializedObject);
+				out.close();
+			}
+		});
+		server.start();
+
+		repository = new TestRepository(new URL("http://localhost:" + server.getAddress().getPort() + "/"));
+		entry = new RemoteIOObjectEntry(createResponse(), null, repository);
+	}
+
+	@After
+	public void stopServer() {
+		RemoteIOObjectCache.getInstance().remove(repository, PATH, revision);
+		server.stop(0);
+	}
+
+	private EntryResponse createResponse() {
+		EntryResponse response = new EntryResponse();
+		response.setStatus(0);
+		response.setLocation(PATH);
+		response.setType(RemoteIOObjectEntry.TYPE_NAME);
+		response.setIoObjectClassName(ExampleSet.class.getName());
+		response.setLatestRevision(revision);
+		response.setSize(serializedObject.length);
+		return response;
+	}
+
+	private void retrieveAndCheck() throws RepositoryException {
+		ExampleSet exampleSet = (ExampleSet) entry.retrieveData(null);
+		assertEquals(100, exampleSet.size());
+	}
+
+	@Test
+	public void testCachedRevisionIsNotDownloadedAgain() throws RepositoryException {
+		retrieveAndCheck();
+		assertNotNull(RemoteIOObjectCache.getInstance().get(repository, PATH, revision));
+		retrieveAndCheck();
+		retrieveAndCheck();
+		assertEquals(1, downloads.get());
+	}
+
+	@Test
+	public void testNewRevisionIsDownloaded() throws RepositoryException {
+		retrieveAndCheck();
+		revision++;
+		retrieveAndCheck();
+		assertEquals(2, downloads.get());
+		retrieveAndCheck();
+		assertEquals(2, downloads.get());
+	}
+
+	@Test
+	public void testDeletedFileIsDownloadedAgain() throws RepositoryException {
+		retrieveAndCheck();
+		File cached = RemoteIOObjectCache.getInstance().get(repository, PATH, revision);
+		assertTrue(cached.delete());
+		retrieveAndCheck();
+		assertEquals(2, downloads.get());
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.tools;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import com.rapidminer.RapidMiner;
+
+/**
+ * Measures the startup time of RapidMiner in command line mode with and without the index of the
+ * core operators. Each startup runs in a fresh virtual machine with the class path of this one.
+ * The index is generated by {@link OperatorRegistryIndex#main(String[])} into a temporary directory
+ * which is appended to the class path for the runs using it. Both variants must register the same
+ * IO object classes.
+ * 
+ * Run the main method with the number of startups per variant as optional argument.
+ */
+public class OperatorRegistryIndexBenchmark {
+
+	private static final String RESULT_PREFIX = "startup: ";
+
+	public static void main(String[] args) throws Exception {
+		int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+		File directory = createTempDirectory();
+		File indexFile = new File(directory, OperatorRegistryIndex.CORE_INDEX_RESOURCE);
+		try {
+			String classPath = System.getProperty("java.class.path");
+			execute(classPath, OperatorRegistryIndex.class.getName(), indexFile.getAbsolutePath());
+			String indexedClassPath = classPath + File.pathSeparator + directory.getAbsolutePath();
+
+			long[] withoutIndex = new long[runs];
+			long[] withIndex = new long[runs];
+			String withoutIndexObjects = null;
+			String withIndexObjects = null;
+			for (int run = 0; run < runs; run++) {
+				// alternate the variants so that both see the same file system caches
+				String[] result = execute(classPath, Startup.class.getName()).split(" ", 2);
+				withoutIndex[run] = Long.parseLong(result[0]);
+				withoutIndexObjects = result[1];
+				result = execute(indexedClassPath, Startup.class.getName()).split(" ", 2);
+				withIndex[run] = Long.parseLong(result[0]);
+				withIndexObjects = result[1];
+			}
+			System.out.println("median startup without index: " + median(withoutIndex) + " ms " + Arrays.toString(withoutIndex));
+			System.out.println("median startup with index:    " + median(withIndex) + " ms " + Arrays.toString(withIndex));
+			System.out.println("same IO objects registered:   " + withoutIndexObjects.equals(withIndexObjects));
+		} finally {
+			indexFile.delete();
+			for (File parent = indexFile.getParentFile(); !parent.equals(directory.getParentFile()); parent = parent.getParentFile()) {
+				parent.delete();
+			}
+		}
+	}
+
+	/** Initializes RapidMiner and prints the time needed and the registered IO object classes. */
+	public static class Startup {
+
+		public static void main(String[] args) {
+			long start = System.nanoTime();
+			RapidMiner.setExecutionMode(RapidMiner.ExecutionMode.COMMAND_LINE);
+			RapidMiner.init();
+			long time = (System.nanoTime() - start) / 1000000;
+			System.out.println(RESULT_PREFIX + time + " " + new TreeSet<String>(OperatorService.getIOObjectsNames()));
+		}
+	}
+
+	private static long median(long[] values) {
+		long[] sorted = values.clone();
+		Arrays.sort(sorted);
+		return sorted[sorted.length / 2];
+	}
+
+	private static File createTempDirectory() throws IOException {
+		File directory = File.createTempFile("operator_index", "");
+		if (!directory.delete() || !directory.mkdir()) {
+			throw new IOException("Cannot create directory " + directory);
+		}
+		return directory;
+	}
+
+	/** Runs the main method of the given class in a new virtual machine and returns its result line, if any. */
+	private static String execute(String classPath, String mainClass, String... args) throws IOException, InterruptedException {
+		List<String> command = new ArrayList<String>();
+		command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getAbsolutePath());
+		command.add("-cp");
+		command.add(classPath);
+		String home = System.getProperty("rapidminer.home");
+		if (home != null) {
+			command.add("-Drapidminer.home=" + home);
+		}
+		command.add(mainClass);
+		command.addAll(Arrays.asList(args));
+		Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+		BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream()));
+		String result = null;
+		String line;
+		while ((line = in.readLine()) != null) {
+			if (line.startsWith(RESULT_PREFIX)) {
+				result = line.substring(RESULT_PREFIX.length());
+			}
+		}
+		in.close();
+		if (process.waitFor() != 0) {
+			throw new IOException(mainClass + " failed with exit code " + process.exitValue());
+		}
+		return result;
+	}
+}
@@ -0,0 +1,187 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.tools.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StreamTokenizer;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Compares the tokens delivered by the {@link ByteTokenizer} with those of a {@link StreamTokenizer}
+ * configured with the same syntax, as used for reading ARFF files.
+ */
+public class ByteTokenizerTest {
+
+	/** Characters from which the random inputs are built, including non ASCII characters. */
+	private static final String ALPHABET = "abcXYZ0123456789.-+e?,,,   \t%\"\"''{}\\\\n\n\n\r\näß€@";
+
+	private static final String ARFF = "% a comment\n" +
+		"@relation 'test relation'\n\n" +
+		"@attribute a1 real\n" +
+		"@attribute \"a 2\" {x, 'y z', \"w\\\"v\"}\r\n" +
+		"@attribute a3 date \"yyyy-MM-dd HH:mm\"\n" +
+		"@data\n" +
+		"1.5,x,\"2012-01-01 10:00\" % trailing comment\n" +
+		"-2e3, 'y z' ,?\r" +
+		"{0 4.25, 1 \"w\\\"v\"}\n" +
+		"'unterminated, quote\n" +
+		"äöü,'\\101\\7\\n\\q',?";
+
+	private static void configure(ByteTokenizer tokenizer) {
+		tokenizer.whitespaceChar(',');
+		tokenizer.commentChar('%');
+		tokenizer.quoteChar('"');
+		tokenizer.quoteChar('\'');
+		tokenizer.ordinaryChar('{');
+		tokenizer.ordinaryChar('}');
+	}
+
+	private static StreamTokenizer createStreamTokenizer(String input) {
+		StreamTokenizer tokenizer = new StreamTokenizer(new StringReader(input));
+		tokenizer.resetSyntax();
+		tokenizer.whitespaceChars(0, ' ');
+		tokenizer.wordChars(' ' + 1, 'ÿ');
+		tokenizer.whitespaceChars(',', ',');
+		tokenizer.commentChar('%');
+		tokenizer.quoteChar('"');
+		tokenizer.quoteChar('\'');
+		tokenizer.ordinaryChar('{');
+		tokenizer.ordinaryChar('}');
+		tokenizer.eolIsSignificant(true);
+		return tokenizer;
+	}
+
+	/** Returns the tokens as type, string value and line number. */
+	private static List<String> tokenize(StreamTokenizer tokenizer) throws IOException {
+		List<String> tokens = new ArrayList<String>();
+		while (tokenizer.nextToken() != StreamTokenizer.TT_EOF) {
+			String value = tokenizer.ttype == StreamTokenizer.TT_EOL ? null : tokenizer.sval;
+			tokens.add(tokenizer.ttype + ":" + value + ":" + tokenizer.lineno());
+		}
+		return tokens;
+	}
+
+	private static List<String> tokenize(ByteTokenizer tokenizer) throws IOException {
+		List<String> tokens = new ArrayList<String>();
+		while (tokenizer.nextToken() != ByteTokenizer.TT_EOF) {
+			String value = tokenizer.ttype == ByteTokenizer.TT_EOL ? null : tokenizer.getString();
+			tokens.add(tokenizer.ttype + ":" + value + ":" + tokenizer.getLineNumber());
+		}
+		return tokens;
+	}
+
+	private static void assertSameTokens(String input) throws IOException {
+		List<String> expected = tokenize(createStreamTokenizer(input));
+		for (String encoding : new String[] { "UTF-8", "UTF-16", "ISO-8859-15" }) {
+			Charset charset = Charset.forName(encoding);
+			// escaped characters must be representable, too
+			if (!charset.newEncoder().canEncode(input) || !charset.newEncoder().canEncode(expected.toString())) {
+				continue;
+			}
+			ByteTokenizer tokenizer = new ByteTokenizer(new ByteArrayInputStream(input.getBytes(charset)), charset);
+			configure(tokenizer);
+			assertEquals(encoding + " " + input, expected, tokenize(tokenizer));
+		}
+		ByteTokenizer tokenizer = new ByteTokenizer(ByteBuffer.wrap(input.getBytes("UTF-8")), Charset.forName("UTF-8"));
+		configure(tokenizer);
+		assertEquals(input, expected, tokenize(tokenizer));
+	}
+
+	@Test
+	public void testArff() throws IOException {
+		assertSameTokens(ARFF);
+	}
+
+	@Test
+	public void testRandomInputs() throws IOException {
+		Random random = new Random(2001);
+		for (int i = 0; i < 2000; i++) {
+			StringBuilder input = new StringBuilder();
+			int length = random.nextInt(200);
+			for (int c = 0; c < length; c++) {
+				input.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+			}
+			if (input.length() > 0 && input.charAt(input.length() - 1) == '\\') {
+				// the StreamTokenizer appends the end of the input as character to a quoted string
+				input.append(' ');
+			}
+			assertSameTokens(input.toString());
+		}
+	}
+
+	@Test
+	public void testLongTokensAcrossBuffers() throws IOException {
+		StringBuilder input = new StringBuilder();
+		Random random = new Random(2001);
+		while (input.length() < 300000) {
+			int length = random.nextInt(100000);
+			for (int c = 0; c < length; c++) {
+				input.append((char) ('a' + random.nextInt(26)));
+			}
+			input.append(random.nextBoolean() ? "\r\n" : ", ");
+		}
+		assertSameTokens(input.toString());
+	}
+
+	@Test
+	public void testNumbers() throws IOException {
+		String input = "1.5 -2e3 0.1 1234567890123456789 NaN";
+		ByteTokenizer tokenizer = new ByteTokenizer(new ByteArrayInputStream(input.getBytes("US-ASCII")), Charset.forName("US-ASCII"));
+		configure(tokenizer);
+		for (String number : input.split(" ")) {
+			assertEquals(ByteTokenizer.TT_WORD, tokenizer.nextToken());
+			assertEquals(Double.parseDouble(number), tokenizer.getDouble(), 0);
+		}
+	}
+
+	@Test
+	public void testSplitAtLineBoundaries() throws IOException {
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < 10000; i++) {
+			input.append(i).append(", \"value ").append(i).append("\"\n");
+		}
+		List<String> expected = tokenize(createStreamTokenizer(input.toString()));
+		List<String> tokens = new ArrayList<String>();
+		int lines = 0;
+		for (ByteBuffer chunk : ByteTokenizer.split(ByteBuffer.wrap(input.toString().getBytes("UTF-8")), 7)) {
+			ByteTokenizer tokenizer = new ByteTokenizer(chunk, Charset.forName("UTF-8"));
+			configure(tokenizer);
+			while (tokenizer.nextToken() != ByteTokenizer.TT_EOF) {
+				String value = tokenizer.ttype == ByteTokenizer.TT_EOL ? null : tokenizer.getString();
+				tokens.add(tokenizer.ttype + ":" + value + ":" + (tokenizer.getLineNumber() + lines));
+			}
+			lines += tokenizer.getLineNumber() - 1;
+		}
+		assertEquals(expected, tokens);
+	}
+}
@@ -0,0 +1,179 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.tools.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.ParseException;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks that the {@link DoubleParser} delivers exactly the results of {@link Double#parseDouble(String)},
+ * also for inputs which are not handled by its fast path.
+ */
+public class DoubleParserTest {
+
+	private static final String[] SPECIAL_INPUTS = {
+		"0", "-0", "+0", "0.0", "-0.0", "00001.5000", ".5", "5.", "-.5", "1e22", "1e23", "1E-22", "1e-23",
+		"9007199254740992", "9007199254740993", "123456789012345678", "1234567890123456789012",
+		"0.1", "0.30000000000000004", "3.141592653589793", "2.718281828459045e-10",
+		"4.9e-324", "2.2250738585072014E-308", "1.7976931348623157e308", "1e309", "1e-400", "1e100000",
+		"NaN", "Infinity", "-Infinity", "1d", "1f", "0x1p3", " 1", "1 ", "1e+5", "1e-0", "0e5"
+	};
+
+	private static final String[] INVALID_INPUTS = { "", ".", "-", "+", "e5", "1e", "1e+", "1..2", "1.2.3", "--1", "1a", "abc" };
+
+	private static void assertSameResult(String input) {
+		byte[] bytes = ("xx" + input + "yy").getBytes();
+		double expected = Double.parseDouble(input);
+		double parsed = DoubleParser.parseDouble(bytes, 2, input.length());
+		// compares the bits, so that -0 and 0 as well as different NaNs are distinguished
+		assertEquals(input, Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(parsed));
+	}
+
+	@Test
+	public void testSpecialInputs() {
+		for (String input : SPECIAL_INPUTS) {
+			assertSameResult(input);
+		}
+	}
+
+	@Test
+	public void testInvalidInputs() {
+		for (String input : INVALID_INPUTS) {
+			try {
+				DoubleParser.parseDouble(input.getBytes(), 0, input.length());
+				fail("parsed invalid input " + input);
+			} catch (NumberFormatException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void testPrintedDoubles() {
+		Random random = new Random(2001);
+		for (int i = 0; i < 100000; i++) {
+			double value;
+			switch (i % 4) {
+				case 0:
+					value = random.nextGaussian();
+					break;
+				case 1:
+					value = random.nextDouble() * Math.pow(10, random.nextInt(40) - 20);
+					break;
+				case 2:
+					value = Math.round(random.nextDouble() * 100000) / 100.0;
+					break;
+				default:
+					value = Double.longBitsToDouble(random.nextLong());
+			}
+			assertSameResult(Double.toString(value));
+		}
+	}
+
+	@Test
+	public void testRandomDecimals() {
+		Random random = new Random(2001);
+		for (int i = 0; i < 100000; i++) {
+			assertSameResult(createDecimal(random, 20, true));
+		}
+	}
+
+	@Test
+	public void testPlainDecimalsAreParsedLikeDecimalFormat() throws ParseException {
+		DecimalFormat format = new DecimalFormat("#.#", DecimalFormatSymbols.getInstance(Locale.US));
+		format.setGroupingUsed(false);
+		Random random = new Random(2001);
+		for (int i = 0; i < 100000; i++) {
+			String input = createDecimal(random, 9, false);
+			byte[] bytes = input.getBytes();
+			assertEquals(input, true, DoubleParser.isPlainDecimal(bytes, 0, bytes.length));
+			assertEquals(input, format.parse(input).doubleValue(), DoubleParser.parseDouble(bytes, 0, bytes.length), 0);
+		}
+		String tooLong = "1234567890.123456789";
+		assertEquals(false, DoubleParser.isPlainDecimal(tooLong.getBytes(), 0, tooLong.length()));
+		assertEquals(false, DoubleParser.isPlainDecimal("1e5".getBytes(), 0, 3));
+		assertEquals(false, DoubleParser.isPlainDecimal("+1".getBytes(), 0, 2));
+	}
+
+	@Test
+	public void testIntegers() {
+		Random random = new Random(2001);
+		for (int i = 0; i < 10000; i++) {
+			String input = Integer.toString(random.nextInt() >> random.nextInt(32));
+			assertEquals(Integer.parseInt(input), DoubleParser.parseInt(input.getBytes(), 0, input.length()));
+		}
+		assertEquals(Integer.MIN_VALUE, DoubleParser.parseInt("-2147483648".getBytes(), 0, 11));
+		for (String input : new String[] { "", "-", "1.5", "2147483648", "12a" }) {
+			try {
+				DoubleParser.parseInt(input.getBytes(), 0, input.length());
+				fail("parsed invalid integer " + input);
+			} catch (NumberFormatException e) {
+				// expected
+			}
+		}
+	}
+
+	/**
+	 * Creates a decimal number with up to the given number of digits before and after the
+	 * decimal point and optionally a sign and an exponent.
+	 */
+	private static String createDecimal(Random random, int maxDigits, boolean signAndExponent) {
+		StringBuilder result = new StringBuilder();
+		if (random.nextInt(3) == 0) {
+			result.append('-');
+		} else if (signAndExponent && random.nextInt(10) == 0) {
+			result.append('+');
+		}
+		int integerDigits = random.nextInt(maxDigits + 1);
+		int fractionDigits = random.nextInt(maxDigits + 1);
+		if (integerDigits + fractionDigits == 0) {
+			integerDigits = 1;
+		}
+		for (int d = 0; d < integerDigits; d++) {
+			result.append((char) ('0' + random.nextInt(10)));
+		}
+		if (fractionDigits > 0) {
+			result.append('.');
+			for (int d = 0; d < fractionDigits; d++) {
+				result.append((char) ('0' + random.nextInt(10)));
+			}
+		}
+		if (signAndExponent && random.nextBoolean()) {
+			result.append(random.nextBoolean() ? 'e' : 'E');
+			int exponent = random.nextInt(40) - 20;
+			if (random.nextInt(10) == 0) {
+				exponent *= 20;
+			}
+			result.append(exponent);
+		}
+		return result.toString();
+	}
+}
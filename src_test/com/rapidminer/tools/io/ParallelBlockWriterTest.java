@@ -0,0 +1,112 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.tools.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+
+/**
+ * Checks that the {@link ParallelBlockWriter} writes the same bytes independent of the number of
+ * threads and that compressed output is a single valid gzip stream.
+ */
+public class ParallelBlockWriterTest {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static List<Integer> createRows(int number) {
+		List<Integer> rows = new ArrayList<Integer>();
+		for (int i = 0; i < number; i++) {
+			rows.add(i);
+		}
+		return rows;
+	}
+
+	private static byte[] write(List<Integer> rows, boolean compress, int numberOfThreads, int blockSize) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ParallelBlockWriter<Integer> writer = new ParallelBlockWriter<Integer>(out, UTF8, compress, numberOfThreads, blockSize) {
+
+			@Override
+			protected void formatBlock(List<Integer> block, StringBuilder result) {
+				for (Integer row : block) {
+					result.append(row).append(";ä€").append(row * 0.5).append(getLineSeparator());
+				}
+			}
+		};
+		writer.write("header" + writer.getLineSeparator());
+		writer.writeRows(rows.iterator());
+		writer.close();
+		return out.toByteArray();
+	}
+
+	private static byte[] decompress(byte[] bytes) throws IOException {
+		InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[4096];
+		int length;
+		while ((length = in.read(buffer)) != -1) {
+			out.write(buffer, 0, length);
+		}
+		in.close();
+		return out.toByteArray();
+	}
+
+	@Test
+	public void testSameOutputForAllThreadCounts() throws IOException {
+		for (int size : new int[] { 0, 1, 6, 7, 8, 1000 }) {
+			List<Integer> rows = createRows(size);
+			byte[] expected = write(rows, false, 1, 7);
+			for (int threads : new int[] { 2, 3, 4 }) {
+				assertArrayEquals("size " + size + ", threads " + threads, expected, write(rows, false, threads, 7));
+			}
+		}
+	}
+
+	@Test
+	public void testContent() throws IOException {
+		String separator = System.getProperty("line.separator");
+		String expected = "header" + separator + "0;ä€0.0" + separator + "1;ä€0.5" + separator + "2;ä€1.0" + separator;
+		assertEquals(expected, new String(write(createRows(3), false, 2, 2), UTF8));
+	}
+
+	@Test
+	public void testCompression() throws IOException {
+		List<Integer> rows = createRows(5000);
+		byte[] expected = write(rows, false, 1, 100);
+		byte[] sequential = write(rows, true, 1, 100);
+		byte[] parallel = write(rows, true, 4, 100);
+		assertArrayEquals(expected, decompress(sequential));
+		// a single gzip stream is written, so the compressed bytes are equal, too
+		assertArrayEquals(sequential, parallel);
+	}
+}
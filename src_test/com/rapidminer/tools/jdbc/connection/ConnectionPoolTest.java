@@ -0,0 +1,224 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.tools.jdbc.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.rapidminer.RapidMiner;
+import com.rapidminer.tools.ParameterService;
+import com.rapidminer.tools.jdbc.DatabaseHandler;
+
+/**
+ * Tests the {@link ConnectionPool} against an in-memory HSQLDB database.
+ */
+public class ConnectionPoolTest {
+
+	private static final String URL = "jdbc:hsqldb:mem:connection_pool_test";
+
+	private static final String USER = "sa";
+
+	private static final String PASSWORD = "";
+
+	private ConnectionPool pool;
+
+	@BeforeClass
+	public static void loadDriver() throws ClassNotFoundException {
+		Class.forName("org.hsqldb.jdbcDriver");
+	}
+
+	@Before
+	public void setUp() throws SQLException {
+		ParameterService.setParameterValue(RapidMiner.PROPERTY_RAPIDMINER_TOOLS_DB_POOL_ENABLED, "true");
+		ParameterService.setParameterValue(RapidMiner.PROPERTY_RAPIDMINER_TOOLS_DB_POOL_MAX_SIZE, "2");
+		ParameterService.setParameterValue(RapidMiner.PROPERTY_RAPIDMINER_TOOLS_DB_POOL_MAX_WAIT, "0");
+		ParameterService.setParameterValue(RapidMiner.PROPERTY_RAPIDMINER_TOOLS_DB_POOL_IDLE_TIMEOUT, "300");
+		ParameterService.setParameterValue(RapidMiner.PROPERTY_RAPIDMINER_TOOLS_DB_POOL_STATEMENT_CACHE_SIZE, "4");
+		pool = ConnectionPool.getInstance();
+		pool.closeAll();
+
+		PooledConnection pooled = borrow();
+		Statement statement = pooled.getConnection().createStatement();
+		try {
+			statement.execute("DROP TABLE pool_test IF EXISTS");
+			statement.execute("CREATE TABLE pool_test (id INTEGER, name VARCHAR(20))");
+			statement.execute("INSERT INTO pool_test VALUES (1, 'one')");
+			statement.execute("INSERT INTO pool_test VALUES (2, 'two')");
+		} finally {
+			statement.close();
+			pooled.release();
+		}
+	}
+
+	@After
+	public void tearDown() {
+		pool.closeAll();
+		ParameterService.setParameterValue(RapidMiner.PROPERTY_RAPIDMINER_TOOLS_DB_POOL_ENABLED, "false");
+	}
+
+	@Test
+	public void testReleasedConnectionIsReused() throws SQLException {
+		PooledConnection first = borrow();
+		Connection physical = first.getConnection();
+		first.release();
+		assertEquals(1, pool.getIdleCount());
+
+		PooledConnection second = borrow();
+		assertSame(physical, second.getConnection());
+		assertEquals(0, pool.getIdleCount());
+		second.release();
+	}
+
+	@Test
+	public void testMaxSizeIsEnforced() throws SQLException {
+		PooledConnection first = borrow();
+		PooledConnection second = borrow();
+		assertNotSame(first.getConnection(), second.getConnection());
+		try {
+			borrow();
+			fail("Pool must not open more than max_size connections.");
+		} catch (SQLException e) {
+			// expected
+		}
+		second.release();
+		PooledConnection third = borrow();
+		assertSame(second.getConnection(), third.getConnection());
+		first.release();
+		third.release();
+	}
+
+	@Test
+	public void testClosedConnectionIsDiscarded() throws SQLException {
+		PooledConnection pooled = borrow();
+		pooled.getConnection().close();
+		pooled.release();
+		assertEquals(0, pool.getIdleCount());
+
+		// the slot of the discarded connection is free again
+		PooledConnection first = borrow();
+		PooledConnection second = borrow();
+		first.release();
+		second.release();
+	}
+
+	@Test
+	public void testUncommittedChangesAreRolledBack() throws SQLException {
+		PooledConnection pooled = borrow();
+		pooled.getConnection().setAutoCommit(false);
+		Statement statement = pooled.getConnection().createStatement();
+		statement.execute("DELETE FROM pool_test");
+		statement.close();
+		pooled.release();
+
+		pooled = borrow();
+		assertTrue(pooled.getConnection().getAutoCommit());
+		assertEquals(2, count(pooled.getConnection()));
+		pooled.release();
+	}
+
+	@Test
+	public void testIdleConnectionsAreEvicted() throws Exception {
+		borrow().release();
+		assertEquals(1, pool.getIdleCount());
+		ParameterService.setParameterValue(RapidMiner.PROPERTY_RAPIDMINER_TOOLS_DB_POOL_IDLE_TIMEOUT, "0");
+		Thread.sleep(10);
+		pool.evictIdleConnections();
+		assertEquals(0, pool.getIdleCount());
+	}
+
+	@Test
+	public void testCachedStatementsAreReusable() throws SQLException {
+		PooledConnection pooled = borrow();
+		String sql = "SELECT name FROM pool_test WHERE id = ?";
+		for (int id = 1; id <= 2; id++) {
+			PreparedStatement statement = pooled.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			statement.setInt(1, id);
+			ResultSet resultSet = statement.executeQuery();
+			assertTrue(resultSet.next());
+			assertEquals(id == 1 ? "one" : "two", resultSet.getString(1));
+			resultSet.close();
+			statement.close();
+		}
+		pooled.release();
+	}
+
+	@Test
+	public void testDatabaseHandlerReturnsConnectionOnDisconnect() throws SQLException {
+		DatabaseHandler handler = DatabaseHandler.getConnectedDatabaseHandler(URL, USER, PASSWORD, true);
+		Connection physical = handler.getConnection();
+		assertEquals(2, count(physical));
+		handler.disconnect();
+		assertFalse(physical.isClosed());
+		assertEquals(1, pool.getIdleCount());
+
+		handler = DatabaseHandler.getConnectedDatabaseHandler(URL, USER, PASSWORD, true);
+		assertSame(physical, handler.getConnection());
+		handler.disconnect();
+	}
+
+	@Test
+	public void testDatabaseHandlerClosesConnectionIfPoolingIsDisabled() throws SQLException {
+		ParameterService.setParameterValue(RapidMiner.PROPERTY_RAPIDMINER_TOOLS_DB_POOL_ENABLED, "false");
+		int idle = pool.getIdleCount();
+		DatabaseHandler handler = DatabaseHandler.getConnectedDatabaseHandler(URL, USER, PASSWORD, true);
+		Connection physical = handler.getConnection();
+		handler.disconnect();
+		assertTrue(physical.isClosed());
+		assertEquals(idle, pool.getIdleCount());
+	}
+
+	private PooledConnection borrow() throws SQLException {
+		Properties props = new Properties();
+		props.put("SetBigStringTryClob", "true");
+		props.put("user", USER);
+		props.put("password", PASSWORD);
+		return pool.getConnection(URL, USER, PASSWORD.toCharArray(), props);
+	}
+
+	private static int count(Connection connection) throws SQLException {
+		Statement statement = connection.createStatement();
+		try {
+			ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM pool_test");
+			resultSet.next();
+			return resultSet.getInt(1);
+		} finally {
+			statement.close();
+		}
+	}
+}
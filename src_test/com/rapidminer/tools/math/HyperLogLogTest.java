@@ -0,0 +1,104 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.tools.math;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Checks the accuracy of the {@link HyperLogLog} for small and large numbers of distinct values.
+ */
+public class HyperLogLogTest {
+
+	/** Four times the standard error of the default precision. */
+	private static final double MAXIMAL_RELATIVE_ERROR = 4 * 1.04 / Math.sqrt(1 << HyperLogLog.DEFAULT_PRECISION);
+
+	private static void assertEstimate(long expected, long estimate) {
+		double error = Math.abs(estimate - expected) / (double) expected;
+		assertTrue("estimated " + estimate + " instead of " + expected, error <= MAXIMAL_RELATIVE_ERROR);
+	}
+
+	@Test
+	public void testSmallCardinalities() {
+		HyperLogLog sketch = new HyperLogLog();
+		for (int i = 1; i <= 3000; i++) {
+			sketch.add(i * 0.1);
+			if (i <= 100) {
+				// hardly any collisions for linear counting
+				assertEquals(i, sketch.cardinality(), 1);
+			} else if (i % 100 == 0) {
+				assertEquals(i, sketch.cardinality(), i * 0.02);
+			}
+		}
+	}
+
+	@Test
+	public void testLargeCardinalities() {
+		HyperLogLog sketch = new HyperLogLog();
+		for (int i = 1; i <= 1000000; i++) {
+			sketch.add(i);
+			if (i == 10000 || i == 100000 || i == 1000000) {
+				assertEstimate(i, sketch.cardinality());
+			}
+		}
+	}
+
+	@Test
+	public void testDuplicatesAreIgnored() {
+		HyperLogLog sketch = new HyperLogLog();
+		for (int repetition = 0; repetition < 10; repetition++) {
+			for (int i = 0; i < 50000; i++) {
+				sketch.add("value" + i);
+			}
+		}
+		assertEstimate(50000, sketch.cardinality());
+	}
+
+	@Test
+	public void testMerge() {
+		HyperLogLog first = new HyperLogLog();
+		HyperLogLog second = new HyperLogLog();
+		HyperLogLog all = new HyperLogLog();
+		for (int i = 0; i < 200000; i++) {
+			// the sketches overlap in half of their values
+			if (i < 150000) {
+				first.add(i);
+			}
+			if (i >= 50000) {
+				second.add(i);
+			}
+			all.add(i);
+		}
+		HyperLogLog merged = new HyperLogLog(first);
+		merged.add(second);
+		assertEquals(all.cardinality(), merged.cardinality());
+		assertEstimate(200000, merged.cardinality());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDifferentPrecisionsCannotBeMerged() {
+		new HyperLogLog(10).add(new HyperLogLog(12));
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ *  RapidMiner
+ *
+ *  Copyright (C) 2001-2014 by RapidMiner and the contributors
+ *
+ *  Complete list of developers available at our web site:
+ *
+ *       http://rapidminer.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package com.rapidminer.tools.math;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks the accuracy of the {@link TDigest} by comparing the ranks of the estimated quantiles with
+ * the requested ones on exactly sorted data.
+ */
+public class TDigestTest {
+
+	private static final double[] QUANTILES = { 0.001, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999 };
+
+	private static final int SIZE = 100000;
+
+	/** Returns the fraction of the sorted values which are smaller than or equal to the given value. */
+	private static double rank(double[] sorted, double value) {
+		int index = Arrays.binarySearch(sorted, value);
+		if (index < 0) {
+			index = -index - 1;
+		} else {
+			while (index < sorted.length && sorted[index] == value) {
+				index++;
+			}
+		}
+		return (double) index / sorted.length;
+	}
+
+	private static void assertQuantiles(TDigest digest, double[] values) {
+		double[] sorted = values.clone();
+		Arrays.sort(sorted);
+		for (double q : QUANTILES) {
+			double error = Math.abs(rank(sorted, digest.quantile(q)) - q);
+			// extreme quantiles are estimated much more accurately than the median
+			double maximalError = Math.min(0.005, 0.05 * Math.min(q, 1 - q) + 0.0005);
+			assertTrue("rank error " + error + " for quantile " + q, error <= maximalError);
+		}
+		assertEquals(sorted[0], digest.quantile(0), 0);
+		assertEquals(sorted[sorted.length - 1], digest.quantile(1), 0);
+	}
+
+	private static TDigest createDigest(double[] values) {
+		TDigest digest = new TDigest();
+		for (double value : values) {
+			digest.add(value);
+		}
+		return digest;
+	}
+
+	@Test
+	public void testGaussian() {
+		Random random = new Random(2001);
+		double[] values = new double[SIZE];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = random.nextGaussian();
+		}
+		TDigest digest = createDigest(values);
+		assertQuantiles(digest, values);
+		assertEquals(SIZE, digest.getTotalWeight(), 0);
+		assertTrue(digest.getNumberOfCentroids() < 200);
+	}
+
+	@Test
+	public void testSortedSkewedInput() {
+		Random random = new Random(2001);
+		double[] values = new double[SIZE];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = Math.exp(3 * random.nextDouble());
+		}
+		Arrays.sort(values);
+		assertQuantiles(createDigest(values), values);
+	}
+
+	@Test
+	public void testMerge() {
+		Random random = new Random(2001);
+		double[] values = new double[SIZE];
+		TDigest[] parts = new TDigest[8];
+		for (int p = 0; p < parts.length; p++) {
+			parts[p] = new TDigest();
+		}
+		for (int i = 0; i < values.length; i++) {
+			values[i] = random.nextDouble() * (i % 3 + 1);
+			parts[i % parts.length].add(values[i]);
+		}
+		TDigest merged = new TDigest();
+		for (TDigest part : parts) {
+			merged.add(part);
+		}
+		assertEquals(SIZE, merged.getTotalWeight(), 0);
+		assertQuantiles(merged, values);
+	}
+
+	@Test
+	public void testWeights() {
+		TDigest weighted = new TDigest();
+		double[] values = new double[SIZE];
+		int index = 0;
+		for (int value = 0; value < SIZE / 10; value++) {
+			weighted.add(value, 10);
+			for (int i = 0; i < 10; i++) {
+				values[index++] = value;
+			}
+		}
+		assertQuantiles(weighted, values);
+	}
+
+	@Test
+	public void testFewValues() {
+		TDigest digest = createDigest(new double[] { 3, 1, 2 });
+		assertEquals(1, digest.quantile(0), 0);
+		assertEquals(2, digest.quantile(0.5), 0);
+		assertEquals(3, digest.quantile(1), 0);
+	}
+}